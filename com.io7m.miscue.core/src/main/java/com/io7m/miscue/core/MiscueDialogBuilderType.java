@@ -17,6 +17,9 @@
 
 package com.io7m.miscue.core;
 
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
 /**
  * The base type of miscue dialog builders.
  */
@@ -35,6 +38,44 @@ public interface MiscueDialogBuilderType
   MiscueDialogBuilderType setErrorReportCallback(
     Runnable callback);
 
+  /**
+   * Set the executor used to run report tasks. The default executor runs
+   * each report task on a new virtual thread.
+   *
+   * @param executor The executor
+   *
+   * @return this
+   *
+   * @see MiscueReportTaskType
+   */
+
+  MiscueDialogBuilderType setErrorReportExecutor(
+    Executor executor);
+
+  /**
+   * <p>Report errors by writing a report bundle. When the user presses the
+   * "report" button, an image of the dialog is captured on the FX thread.
+   * A zip file is then written to a new file in the given directory on
+   * the report executor. The zip holds the displayed error or task as text
+   * and JSON, the complete exception chain, and the image. The path of the
+   * file is passed to the receiver, which runs as a report task on the
+   * same executor.</p>
+   *
+   * <p>If a report bundle is set, it is used instead of any report task or
+   * callback.</p>
+   *
+   * @param directory The directory in which bundles are created
+   * @param receiver  The receiver of written bundles
+   *
+   * @return this
+   *
+   * @see #setErrorReportExecutor(Executor)
+   */
+
+  MiscueDialogBuilderType setErrorReportBundle(
+    Path directory,
+    MiscueReportTaskType<? super Path> receiver);
+
   /**
    * @return A built dialog
    */
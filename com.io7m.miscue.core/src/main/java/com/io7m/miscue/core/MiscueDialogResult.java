@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The result of showing a dialog.
+ *
+ * @param outcome     The way in which the dialog came to be closed
+ * @param requestedAt The time at which the dialog was requested to be shown
+ * @param timeToShow  The time taken from the request until the dialog was
+ *                    shown
+ * @param timeShown   The time for which the dialog was shown
+ *
+ * @see MiscueDialogType#showAsync()
+ */
+
+public record MiscueDialogResult(
+  MiscueDialogOutcome outcome,
+  Instant requestedAt,
+  Duration timeToShow,
+  Duration timeShown)
+{
+  /**
+   * The result of showing a dialog.
+   *
+   * @param outcome     The way in which the dialog came to be closed
+   * @param requestedAt The time at which the dialog was requested to be
+   *                    shown
+   * @param timeToShow  The time taken from the request until the dialog was
+   *                    shown
+   * @param timeShown   The time for which the dialog was shown
+   */
+
+  public MiscueDialogResult
+  {
+    Objects.requireNonNull(outcome, "outcome");
+    Objects.requireNonNull(requestedAt, "requestedAt");
+    Objects.requireNonNull(timeToShow, "timeToShow");
+    Objects.requireNonNull(timeShown, "timeShown");
+  }
+}
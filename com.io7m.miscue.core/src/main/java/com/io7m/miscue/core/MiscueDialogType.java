@@ -17,6 +17,8 @@
 
 package com.io7m.miscue.core;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * The type of dialogs.
  */
@@ -35,9 +37,30 @@ public interface MiscueDialogType
 
   void showAndWait();
 
+  /**
+   * Show the dialog without waiting for it to be dismissed. Unlike
+   * {@link #showAndWait()}, this does not start a nested event loop. If the
+   * dialog is already showing, the returned operation is that of the
+   * current showing. This must be called on the FX thread.
+   *
+   * @return An operation that completes when the dialog is closed
+   */
+
+  CompletionStage<MiscueDialogResult> showAsync();
+
   /**
    * Close the dialog.
    */
 
   void close();
+
+  /**
+   * Close the dialog if it is open, and release everything it retains: the
+   * displayed error or task, images, and the dialog's scene graph. The
+   * dialog cannot be shown again after it has been disposed. Disposing a
+   * dialog more than once has no further effect. This must be called on
+   * the FX thread.
+   */
+
+  void dispose();
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+/**
+ * A receiver of errors delivered by an error sink.
+ *
+ * @param <E> The type of errors
+ *
+ * @see MiscueErrorSinkType
+ */
+
+@FunctionalInterface
+public interface MiscueErrorReceiverType<E>
+{
+  /**
+   * Receive an error. This is called on whatever thread the sink's scheduler
+   * executes tasks (typically the FX thread).
+   *
+   * @param error       The error
+   * @param occurrences The number of times the error was submitted; this is
+   *                    always {@code 1} unless the sink coalesces errors
+   */
+
+  void receive(
+    E error,
+    int occurrences);
+}
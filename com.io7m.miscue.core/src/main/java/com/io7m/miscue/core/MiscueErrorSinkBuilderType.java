@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A builder of error sinks.
+ *
+ * @param <E> The type of errors
+ */
+
+public interface MiscueErrorSinkBuilderType<E>
+{
+  /**
+   * Set the policy applied when the sink is full. The default is
+   * {@link MiscueErrorSinkPolicy#DROP_OLDEST}.
+   *
+   * @param policy The policy
+   *
+   * @return this
+   */
+
+  MiscueErrorSinkBuilderType<E> setPolicy(
+    MiscueErrorSinkPolicy policy);
+
+  /**
+   * Set the maximum number of errors that can be waiting for delivery. The
+   * capacity is rounded up to a power of two. The default is 1024.
+   *
+   * @param capacity The capacity
+   *
+   * @return this
+   */
+
+  MiscueErrorSinkBuilderType<E> setCapacity(
+    int capacity);
+
+  /**
+   * Set the maximum number of errors delivered by a single scheduled task.
+   * Any remaining errors are delivered by a subsequently scheduled task. The
+   * default is 32.
+   *
+   * @param batchSize The batch size
+   *
+   * @return this
+   */
+
+  MiscueErrorSinkBuilderType<E> setBatchSize(
+    int batchSize);
+
+  /**
+   * Set the function used to compute the fingerprints of errors for the
+   * {@link MiscueErrorSinkPolicy#COALESCE} policy. The function must be
+   * cheap, and must always return the same value for the same error. The
+   * default uses {@link Object#hashCode()}.
+   *
+   * @param fingerprint The fingerprint function
+   *
+   * @return this
+   */
+
+  MiscueErrorSinkBuilderType<E> setFingerprint(
+    ToLongFunction<? super E> fingerprint);
+
+  /**
+   * @return A new error sink
+   */
+
+  MiscueErrorSinkType<E> build();
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+/**
+ * The policy applied by an error sink when errors are submitted faster than
+ * they can be delivered.
+ *
+ * @see MiscueErrorSinkType
+ */
+
+public enum MiscueErrorSinkPolicy
+{
+  /**
+   * When the sink is full, the oldest waiting error is discarded to make
+   * room for the new error.
+   */
+
+  DROP_OLDEST,
+
+  /**
+   * When the sink is full, the new error is discarded.
+   */
+
+  DROP_NEWEST,
+
+  /**
+   * An error with the same fingerprint as an error that is already waiting
+   * is not queued again; instead, the occurrence count of the waiting error
+   * is incremented. When the sink is full, an error that cannot be
+   * coalesced is discarded.
+   */
+
+  COALESCE,
+
+  /**
+   * When the sink is full, the submitting thread waits until space becomes
+   * available. This policy must not be used by the thread that delivers
+   * errors, as that thread would then wait forever.
+   */
+
+  BLOCK
+}
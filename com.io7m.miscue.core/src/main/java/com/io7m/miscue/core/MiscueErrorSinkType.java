@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+/**
+ * <p>A sink to which errors can be submitted from any thread.</p>
+ *
+ * <p>Submitted errors are queued, and delivered to a receiver in bounded
+ * batches by a single task at a time executed by a scheduler. By default,
+ * the scheduler executes one task per JavaFX pulse, and so at most one
+ * batch is delivered per frame, no matter how many errors are submitted;
+ * see {@link MiscueErrorSinks} for the delivery cadence of other
+ * schedulers.</p>
+ *
+ * @param <E> The type of errors
+ *
+ * @see MiscueErrorSinks
+ */
+
+public interface MiscueErrorSinkType<E>
+{
+  /**
+   * <p>Submit an error. Unless the sink's policy is
+   * {@link MiscueErrorSinkPolicy#BLOCK}, this method never blocks.</p>
+   *
+   * <p>For the {@link MiscueErrorSinkPolicy#COALESCE} policy, a return
+   * value of {@code true} does not guarantee delivery. A duplicate is
+   * coalesced by counting it in a table entry claimed by the submitter of
+   * an earlier error with the same fingerprint. That submitter claims the
+   * entry before queueing its error, and may then find the sink full; its
+   * error is then discarded together with every occurrence counted against
+   * it, including this one, and all of them are added to
+   * {@link #dropped()}. Occurrences
+   * beyond the largest count that an entry can hold (2<sup>24</sup> - 1)
+   * are accepted but not added to the count delivered to the
+   * receiver.</p>
+   *
+   * @param error The error
+   *
+   * @return {@code true} if the error was queued or coalesced with a queued
+   * error, {@code false} if it was discarded
+   */
+
+  boolean submit(
+    E error);
+
+  /**
+   * @return The approximate number of errors waiting to be delivered
+   */
+
+  int pending();
+
+  /**
+   * @return The total number of errors discarded by the sink's policy
+   */
+
+  long dropped();
+
+  /**
+   * @return The total number of errors coalesced with a waiting error
+   */
+
+  long coalesced();
+}
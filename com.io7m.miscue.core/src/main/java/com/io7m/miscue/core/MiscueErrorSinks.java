@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+import com.io7m.miscue.core.internal.MiscueErrorSink;
+import com.io7m.miscue.core.internal.MiscuePulseScheduler;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>A factory of error sinks.</p>
+ *
+ * <p>Dialogs must be built and shown on the FX thread. Rather than having
+ * every worker thread call {@code Platform.runLater} for every error, an
+ * application can create a single sink that delivers errors on the FX
+ * thread, and submit errors to it from any thread:</p>
+ *
+ * <pre>{@code
+ * final var sink =
+ *   MiscueErrorSinks.<SStructuredErrorType<?>>builder(
+ *     (error, occurrences) -> MSErrorDialogs.builder(error).build().show()
+ *   ).build();
+ *
+ * sink.submit(error);
+ * }</pre>
+ *
+ * <p>Each delivery task delivers at most one batch, and a task that leaves
+ * errors behind schedules the next task as it finishes. By default, tasks
+ * are executed from an {@code AnimationTimer}, one task per pulse, so
+ * during a storm at most one batch is delivered per frame and rendering
+ * and input are interleaved with every batch. The batch size therefore
+ * bounds the work done per frame.</p>
+ *
+ * <p>A sink may instead be given an explicit scheduler. With
+ * {@code Platform::runLater} as the scheduler, the next task is simply
+ * queued behind whatever else is in the event queue, so several batches
+ * may be delivered between two pulses, and the batch size only bounds the
+ * work done per event.</p>
+ *
+ * @see MiscueErrorSinkType
+ */
+
+public final class MiscueErrorSinks
+{
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final int DEFAULT_BATCH_SIZE = 32;
+
+  private MiscueErrorSinks()
+  {
+
+  }
+
+  /**
+   * Create a sink builder that delivers errors on the FX thread, at most
+   * one batch per pulse.
+   *
+   * @param receiver The receiver of errors
+   * @param <E>      The type of errors
+   *
+   * @return A new sink builder
+   */
+
+  public static <E> MiscueErrorSinkBuilderType<E> builder(
+    final MiscueErrorReceiverType<? super E> receiver)
+  {
+    return new Builder<>(receiver, new MiscuePulseScheduler());
+  }
+
+  /**
+   * Create a sink builder that delivers errors using the given scheduler.
+   *
+   * @param receiver  The receiver of errors
+   * @param scheduler The scheduler that executes delivery tasks
+   * @param <E>       The type of errors
+   *
+   * @return A new sink builder
+   */
+
+  public static <E> MiscueErrorSinkBuilderType<E> builder(
+    final MiscueErrorReceiverType<? super E> receiver,
+    final Consumer<Runnable> scheduler)
+  {
+    return new Builder<>(receiver, scheduler);
+  }
+
+  private static final class Builder<E>
+    implements MiscueErrorSinkBuilderType<E>
+  {
+    private final MiscueErrorReceiverType<? super E> receiver;
+    private final Consumer<Runnable> scheduler;
+    private MiscueErrorSinkPolicy policy;
+    private int capacity;
+    private int batchSize;
+    private ToLongFunction<? super E> fingerprint;
+
+    Builder(
+      final MiscueErrorReceiverType<? super E> inReceiver,
+      final Consumer<Runnable> inScheduler)
+    {
+      this.receiver =
+        Objects.requireNonNull(inReceiver, "receiver");
+      this.scheduler =
+        Objects.requireNonNull(inScheduler, "scheduler");
+      this.policy =
+        MiscueErrorSinkPolicy.DROP_OLDEST;
+      this.capacity =
+        DEFAULT_CAPACITY;
+      this.batchSize =
+        DEFAULT_BATCH_SIZE;
+      this.fingerprint =
+        Object::hashCode;
+    }
+
+    @Override
+    public MiscueErrorSinkBuilderType<E> setPolicy(
+      final MiscueErrorSinkPolicy newPolicy)
+    {
+      this.policy = Objects.requireNonNull(newPolicy, "policy");
+      return this;
+    }
+
+    @Override
+    public MiscueErrorSinkBuilderType<E> setCapacity(
+      final int newCapacity)
+    {
+      this.capacity = checkPositive(newCapacity, "Capacity");
+      return this;
+    }
+
+    @Override
+    public MiscueErrorSinkBuilderType<E> setBatchSize(
+      final int newBatchSize)
+    {
+      this.batchSize = checkPositive(newBatchSize, "Batch size");
+      return this;
+    }
+
+    @Override
+    public MiscueErrorSinkBuilderType<E> setFingerprint(
+      final ToLongFunction<? super E> newFingerprint)
+    {
+      this.fingerprint = Objects.requireNonNull(newFingerprint, "fingerprint");
+      return this;
+    }
+
+    @Override
+    public MiscueErrorSinkType<E> build()
+    {
+      return new MiscueErrorSink<>(
+        this.receiver,
+        this.scheduler,
+        this.policy,
+        this.capacity,
+        this.batchSize,
+        this.fingerprint
+      );
+    }
+
+    private static int checkPositive(
+      final int value,
+      final String name)
+    {
+      if (value <= 0) {
+        throw new IllegalArgumentException(
+          "%s %d must be positive".formatted(name, Integer.valueOf(value))
+        );
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+import com.io7m.miscue.core.internal.MiscueDialogRegistry;
+
+/**
+ * <p>Functions to limit and inspect the set of open dialogs.</p>
+ *
+ * <p>Every dialog shown by any of the miscue dialog factories is tracked
+ * here while it is showing. If a limit is set, and a dialog is shown while
+ * the limit number of dialogs are already open, the least recently focused
+ * open dialog is evicted according to the eviction policy. By default,
+ * there is no limit.</p>
+ */
+
+public final class MiscueOpenDialogs
+{
+  private MiscueOpenDialogs()
+  {
+
+  }
+
+  /**
+   * Set the maximum number of dialogs that may be open at once. Lowering
+   * the limit does not affect dialogs that are already open; the limit is
+   * enforced the next time a dialog is shown.
+   *
+   * @param limit The limit, which must be positive
+   */
+
+  public static void setLimit(
+    final int limit)
+  {
+    MiscueDialogRegistry.global().setLimit(limit);
+  }
+
+  /**
+   * @return The maximum number of dialogs that may be open at once
+   */
+
+  public static int limit()
+  {
+    return MiscueDialogRegistry.global().limit();
+  }
+
+  /**
+   * Set the policy applied to the least recently focused dialog when the
+   * limit is exceeded. The default is {@link MiscueEvictionPolicy#CLOSE}.
+   *
+   * @param policy The policy
+   */
+
+  public static void setEvictionPolicy(
+    final MiscueEvictionPolicy policy)
+  {
+    MiscueDialogRegistry.global().setEvictionPolicy(policy);
+  }
+
+  /**
+   * @return The policy applied when the limit is exceeded
+   */
+
+  public static MiscueEvictionPolicy evictionPolicy()
+  {
+    return MiscueDialogRegistry.global().evictionPolicy();
+  }
+
+  /**
+   * Set the maximum number of dialogs that may be kept minimised by the
+   * {@link MiscueEvictionPolicy#MINIMISE} policy. When a dialog is minimised
+   * and the limit is exceeded, the dialogs that have been minimised the
+   * longest are closed. Lowering the limit takes effect the next time a
+   * dialog is evicted. The default is
+   * {@value MiscueDialogRegistry#DEFAULT_MINIMISED_LIMIT}.
+   *
+   * @param limit The limit, which must not be negative
+   */
+
+  public static void setMinimisedLimit(
+    final int limit)
+  {
+    MiscueDialogRegistry.global().setMinimisedLimit(limit);
+  }
+
+  /**
+   * @return The maximum number of dialogs that may be kept minimised
+   */
+
+  public static int minimisedLimit()
+  {
+    return MiscueDialogRegistry.global().minimisedLimit();
+  }
+
+  /**
+   * @return The number of open dialogs, excluding minimised dialogs
+   */
+
+  public static int openCount()
+  {
+    return MiscueDialogRegistry.global().openCount();
+  }
+
+  /**
+   * @return The number of dialogs minimised by eviction
+   */
+
+  public static int minimisedCount()
+  {
+    return MiscueDialogRegistry.global().minimisedCount();
+  }
+}
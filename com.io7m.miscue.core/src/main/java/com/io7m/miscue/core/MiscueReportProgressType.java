@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+/**
+ * The progress receiver passed to a running report task. Methods on this
+ * interface may be called from any thread.
+ *
+ * @see MiscueReportTaskType
+ */
+
+public interface MiscueReportProgressType
+{
+  /**
+   * Report progress. Progress updates are displayed at most once per UI
+   * update, and so this may be called as frequently as is convenient.
+   *
+   * @param fraction The fraction of the work completed, in the range
+   *                 {@code [0, 1]}, or a negative value if the amount of
+   *                 work is unknown
+   * @param message  A short description of the current activity
+   */
+
+  void setProgress(
+    double fraction,
+    String message);
+
+  /**
+   * @return {@code true} if the user has cancelled the report
+   */
+
+  boolean isCancelled();
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core;
+
+/**
+ * <p>A task that reports an error, executed when the user presses the
+ * "report" button.</p>
+ *
+ * <p>Unlike a plain report callback, a report task runs on an executor
+ * rather than on the FX thread, and so it may block (for example, to
+ * gather logs and upload them). While the task runs, the dialog displays
+ * the progress reported by the task, the "report" button is disabled, and
+ * the user may cancel the task.</p>
+ *
+ * @param <T> The type of the subject of the report (such as an error or a
+ *            task)
+ */
+
+@FunctionalInterface
+public interface MiscueReportTaskType<T>
+{
+  /**
+   * Report the given subject. Implementations should check
+   * {@link MiscueReportProgressType#isCancelled()} periodically, and should
+   * stop early if the report has been cancelled. Cancelling a report also
+   * interrupts the thread executing it.
+   *
+   * @param subject  The subject of the report
+   * @param progress The progress receiver
+   *
+   * @throws Exception On errors
+   */
+
+  void report(
+    T subject,
+    MiscueReportProgressType progress)
+    throws Exception;
+}
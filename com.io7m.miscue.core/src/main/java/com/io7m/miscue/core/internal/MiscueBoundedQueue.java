@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>A bounded, lock-free, multi-producer multi-consumer queue.</p>
+ *
+ * <p>The queue is a ring of slots, each of which carries a sequence number
+ * indicating whether the slot is ready to be written or ready to be read
+ * for a given lap around the ring (after Dmitry Vyukov's bounded MPMC
+ * queue). Offering and polling claim a position with a single
+ * compare-and-set, and neither allocates.</p>
+ *
+ * @param <E> The type of elements
+ */
+
+public final class MiscueBoundedQueue<E>
+{
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong head;
+  private final AtomicLong tail;
+  private final int mask;
+
+  /**
+   * A bounded queue.
+   *
+   * @param inCapacity The capacity, rounded up to a power of two
+   */
+
+  public MiscueBoundedQueue(
+    final int inCapacity)
+  {
+    final var capacity = roundCapacity(inCapacity);
+    this.elements = new AtomicReferenceArray<>(capacity);
+    this.sequences = new AtomicLongArray(capacity);
+    for (int index = 0; index < capacity; ++index) {
+      this.sequences.set(index, index);
+    }
+    this.head = new AtomicLong();
+    this.tail = new AtomicLong();
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Round a capacity up to a power of two. The smallest capacity is two, as
+   * the sequence numbers cannot distinguish a full ring of one slot from an
+   * empty one.
+   *
+   * @param capacity The capacity
+   *
+   * @return The rounded capacity
+   */
+
+  public static int roundCapacity(
+    final int capacity)
+  {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException(
+        "Capacity %d must be in the range [1, 2^30]"
+          .formatted(Integer.valueOf(capacity))
+      );
+    }
+    if (capacity <= 2) {
+      return 2;
+    }
+    return Integer.highestOneBit(capacity - 1) << 1;
+  }
+
+  /**
+   * @return The capacity of the queue
+   */
+
+  public int capacity()
+  {
+    return this.mask + 1;
+  }
+
+  /**
+   * @return The approximate number of elements in the queue
+   */
+
+  public int size()
+  {
+    final var size = this.tail.get() - this.head.get();
+    return (int) Math.max(0L, Math.min(size, this.mask + 1L));
+  }
+
+  /**
+   * Add an element to the queue.
+   *
+   * @param element The element
+   *
+   * @return {@code false} if the queue is full
+   */
+
+  public boolean offer(
+    final E element)
+  {
+    Objects.requireNonNull(element, "element");
+
+    long position = this.tail.get();
+    while (true) {
+      final var index = (int) (position & this.mask);
+      final var difference = this.sequences.get(index) - position;
+      if (difference == 0L) {
+        if (this.tail.compareAndSet(position, position + 1L)) {
+          this.elements.set(index, element);
+          this.sequences.set(index, position + 1L);
+          return true;
+        }
+        position = this.tail.get();
+      } else if (difference < 0L) {
+        return false;
+      } else {
+        position = this.tail.get();
+      }
+    }
+  }
+
+  /**
+   * Remove the element at the head of the queue.
+   *
+   * @return The element, or {@code null} if the queue is empty
+   */
+
+  public E poll()
+  {
+    long position = this.head.get();
+    while (true) {
+      final var index = (int) (position & this.mask);
+      final var difference = this.sequences.get(index) - (position + 1L);
+      if (difference == 0L) {
+        if (this.head.compareAndSet(position, position + 1L)) {
+          final var element = this.elements.get(index);
+          this.elements.set(index, null);
+          this.sequences.set(index, position + this.mask + 1L);
+          return element;
+        }
+        position = this.head.get();
+      } else if (difference < 0L) {
+        return null;
+      } else {
+        position = this.head.get();
+      }
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.core.internal;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>A bounded pool of idle dialogs.</p>
+ *
+ * <p>Dialogs are grouped by a key that captures whatever cannot be changed
+ * on a dialog once it has been created (such as the window modality), and
+ * a dialog is only ever handed out for the key that it was returned with.
+ * The total number of idle dialogs across all keys never exceeds the
+ * capacity; dialogs returned to a full pool are simply discarded.</p>
+ *
+ * @param <K> The type of keys
+ * @param <D> The type of dialogs
+ */
+
+public final class MiscueDialogPool<K, D>
+{
+  private final HashMap<K, ArrayDeque<D>> idle;
+  private int capacity;
+  private int size;
+
+  /**
+   * A bounded pool of idle dialogs.
+   *
+   * @param inCapacity The maximum number of idle dialogs
+   */
+
+  public MiscueDialogPool(
+    final int inCapacity)
+  {
+    this.idle = new HashMap<>();
+    this.capacity = checkCapacity(inCapacity);
+  }
+
+  private static int checkCapacity(
+    final int capacity)
+  {
+    if (capacity < 0) {
+      throw new IllegalArgumentException(
+        "Capacity %d must be non-negative".formatted(Integer.valueOf(capacity))
+      );
+    }
+    return capacity;
+  }
+
+  /**
+   * Set the maximum number of idle dialogs. If the pool currently holds
+   * more dialogs than the new capacity, the excess dialogs are discarded.
+   *
+   * @param newCapacity The maximum number of idle dialogs
+   */
+
+  public synchronized void setCapacity(
+    final int newCapacity)
+  {
+    this.capacity = checkCapacity(newCapacity);
+
+    final var iterator = this.idle.values().iterator();
+    while (this.size > this.capacity && iterator.hasNext()) {
+      final var dialogs = iterator.next();
+      while (this.size > this.capacity && !dialogs.isEmpty()) {
+        dialogs.removeFirst();
+        --this.size;
+      }
+      if (dialogs.isEmpty()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * @return The maximum number of idle dialogs
+   */
+
+  public synchronized int capacity()
+  {
+    return this.capacity;
+  }
+
+  /**
+   * @return The current number of idle dialogs
+   */
+
+  public synchronized int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * Take an idle dialog from the pool.
+   *
+   * @param key The key
+   *
+   * @return An idle dialog with the given key, if one exists
+   */
+
+  public synchronized Optional<D> take(
+    final K key)
+  {
+    Objects.requireNonNull(key, "key");
+
+    final var dialogs = this.idle.get(key);
+    if (dialogs == null) {
+      return Optional.empty();
+    }
+
+    final var dialog = dialogs.removeLast();
+    --this.size;
+    if (dialogs.isEmpty()) {
+      this.idle.remove(key);
+    }
+    return Optional.of(dialog);
+  }
+
+  /**
+   * Remove a specific dialog from the pool, if it is present.
+   *
+   * @param key    The key
+   * @param dialog The dialog
+   *
+   * @return {@code true} if the dialog was removed
+   */
+
+  public synchronized boolean remove(
+    final K key,
+    final D dialog)
+  {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(dialog, "dialog");
+
+    final var dialogs = this.idle.get(key);
+    if (dialogs == null || !dialogs.removeFirstOccurrence(dialog)) {
+      return false;
+    }
+
+    --this.size;
+    if (dialogs.isEmpty()) {
+      this.idle.remove(key);
+    }
+    return true;
+  }
+
+  /**
+   * Return a dialog to the pool.
+   *
+   * @param key    The key
+   * @param dialog The dialog
+   *
+   * @return {@code true} if the dialog was added to the pool, or
+   * {@code false} if the pool is full and the dialog was discarded
+   */
+
+  public synchronized boolean offer(
+    final K key,
+    final D dialog)
+  {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(dialog, "dialog");
+
+    if (this.size >= this.capacity) {
+      return false;
+    }
+
+    this.idle.computeIfAbsent(key, k -> new ArrayDeque<>()).addLast(dialog);
+    ++this.size;
+    return true;
+  }
+}
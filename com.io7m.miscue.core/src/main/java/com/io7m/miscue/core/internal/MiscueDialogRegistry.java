@@ -0,0 +1,268 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import com.io7m.miscue.core.MiscueDialogType;
+import com.io7m.miscue.core.MiscueEvictionPolicy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * <p>A registry of open dialogs with a limit on the number of dialogs open
+ * at once.</p>
+ *
+ * <p>Open dialogs are kept in focus order, least recently focused first.
+ * When a dialog is opened and the number of open dialogs exceeds the limit,
+ * the least recently focused dialogs are evicted. Eviction actions (closing
+ * or minimising) are performed after the registry's lock is released, on
+ * the thread that reported the opening, which is expected to be the thread
+ * on which dialogs may be manipulated.</p>
+ *
+ * <p>Dialogs minimised by eviction are kept in the order in which they
+ * were minimised. The number of minimised dialogs is limited separately;
+ * when it is exceeded, the dialogs that have been minimised the longest
+ * are closed.</p>
+ */
+
+public final class MiscueDialogRegistry
+{
+  private static final MiscueDialogRegistry GLOBAL =
+    new MiscueDialogRegistry();
+
+  /**
+   * The default limit on minimised dialogs.
+   */
+
+  public static final int DEFAULT_MINIMISED_LIMIT = 32;
+
+  private final LinkedHashMap<MiscueDialogType, Runnable> open;
+  private final LinkedHashMap<MiscueDialogType, Runnable> minimised;
+  private int limit;
+  private int minimisedLimit;
+  private MiscueEvictionPolicy policy;
+
+  /**
+   * A registry of open dialogs with no limit.
+   */
+
+  public MiscueDialogRegistry()
+  {
+    this.open = new LinkedHashMap<>(16, 0.75f, true);
+    this.minimised = new LinkedHashMap<>();
+    this.limit = Integer.MAX_VALUE;
+    this.minimisedLimit = DEFAULT_MINIMISED_LIMIT;
+    this.policy = MiscueEvictionPolicy.CLOSE;
+  }
+
+  /**
+   * @return The registry shared by all dialog factories
+   */
+
+  public static MiscueDialogRegistry global()
+  {
+    return GLOBAL;
+  }
+
+  /**
+   * Set the limit on open dialogs.
+   *
+   * @param newLimit The limit
+   */
+
+  public synchronized void setLimit(
+    final int newLimit)
+  {
+    if (newLimit <= 0) {
+      throw new IllegalArgumentException(
+        "Limit %d must be positive".formatted(Integer.valueOf(newLimit))
+      );
+    }
+    this.limit = newLimit;
+  }
+
+  /**
+   * @return The limit on open dialogs
+   */
+
+  public synchronized int limit()
+  {
+    return this.limit;
+  }
+
+  /**
+   * Set the limit on dialogs minimised by eviction.
+   *
+   * @param newLimit The limit
+   */
+
+  public synchronized void setMinimisedLimit(
+    final int newLimit)
+  {
+    if (newLimit < 0) {
+      throw new IllegalArgumentException(
+        "Limit %d must be non-negative".formatted(Integer.valueOf(newLimit))
+      );
+    }
+    this.minimisedLimit = newLimit;
+  }
+
+  /**
+   * @return The limit on dialogs minimised by eviction
+   */
+
+  public synchronized int minimisedLimit()
+  {
+    return this.minimisedLimit;
+  }
+
+  /**
+   * Set the eviction policy.
+   *
+   * @param newPolicy The policy
+   */
+
+  public synchronized void setEvictionPolicy(
+    final MiscueEvictionPolicy newPolicy)
+  {
+    this.policy = Objects.requireNonNull(newPolicy, "policy");
+  }
+
+  /**
+   * @return The eviction policy
+   */
+
+  public synchronized MiscueEvictionPolicy evictionPolicy()
+  {
+    return this.policy;
+  }
+
+  /**
+   * @return The number of open dialogs, excluding minimised dialogs
+   */
+
+  public synchronized int openCount()
+  {
+    return this.open.size();
+  }
+
+  /**
+   * @return The number of dialogs minimised by eviction
+   */
+
+  public synchronized int minimisedCount()
+  {
+    return this.minimised.size();
+  }
+
+  /**
+   * Record that a dialog has been opened, evicting other dialogs if
+   * necessary.
+   *
+   * @param dialog   The dialog
+   * @param minimise A function that minimises the dialog
+   */
+
+  public void opened(
+    final MiscueDialogType dialog,
+    final Runnable minimise)
+  {
+    Objects.requireNonNull(dialog, "dialog");
+    Objects.requireNonNull(minimise, "minimise");
+
+    final var actions = new ArrayList<Runnable>();
+    synchronized (this) {
+      this.minimised.remove(dialog);
+      this.open.put(dialog, minimise);
+      this.evict(dialog, actions);
+    }
+    actions.forEach(Runnable::run);
+  }
+
+  /**
+   * Record that a dialog has been focused. A dialog that was minimised by
+   * eviction counts as open again, and may cause other dialogs to be
+   * evicted in turn.
+   *
+   * @param dialog The dialog
+   */
+
+  public void focused(
+    final MiscueDialogType dialog)
+  {
+    Objects.requireNonNull(dialog, "dialog");
+
+    final var actions = new ArrayList<Runnable>();
+    synchronized (this) {
+      if (this.open.get(dialog) != null) {
+        return;
+      }
+      final var minimise = this.minimised.remove(dialog);
+      if (minimise == null) {
+        return;
+      }
+      this.open.put(dialog, minimise);
+      this.evict(dialog, actions);
+    }
+    actions.forEach(Runnable::run);
+  }
+
+  /**
+   * Record that a dialog has been closed.
+   *
+   * @param dialog The dialog
+   */
+
+  public synchronized void closed(
+    final MiscueDialogType dialog)
+  {
+    Objects.requireNonNull(dialog, "dialog");
+    this.open.remove(dialog);
+    this.minimised.remove(dialog);
+  }
+
+  private void evict(
+    final MiscueDialogType keep,
+    final ArrayList<Runnable> actions)
+  {
+    final var iterator = this.open.entrySet().iterator();
+    while (this.open.size() > this.limit && iterator.hasNext()) {
+      final var entry = iterator.next();
+      final var dialog = entry.getKey();
+      if (dialog == keep) {
+        continue;
+      }
+
+      iterator.remove();
+      switch (this.policy) {
+        case CLOSE -> actions.add(dialog::close);
+        case MINIMISE -> {
+          this.minimised.put(dialog, entry.getValue());
+          actions.add(entry.getValue());
+        }
+      }
+    }
+
+    final var minimisedIterator = this.minimised.keySet().iterator();
+    while (this.minimised.size() > this.minimisedLimit) {
+      final var dialog = minimisedIterator.next();
+      minimisedIterator.remove();
+      actions.add(dialog::close);
+    }
+  }
+}
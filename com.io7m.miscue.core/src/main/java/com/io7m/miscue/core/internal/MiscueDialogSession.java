@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import com.io7m.miscue.core.MiscueDialogOutcome;
+import com.io7m.miscue.core.MiscueDialogResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>A single showing of a dialog, from the request to show the dialog
+ * until the dialog is hidden.</p>
+ *
+ * <p>Controllers keep running counts of the number of times the user has
+ * reported or dismissed an error. A session records the counts when it
+ * starts, and the outcome of the session is determined by whether the
+ * counts changed by the time the dialog was hidden. This works regardless
+ * of whether the controller was reused from a previous showing.</p>
+ */
+
+public final class MiscueDialogSession
+{
+  private final CompletableFuture<MiscueDialogResult> future;
+  private final Instant requestedAt;
+  private final long requestedNanos;
+  private final long reportsAtStart;
+  private final long dismissalsAtStart;
+  private long shownNanos;
+  private boolean closeRequested;
+
+  /**
+   * Start a session.
+   *
+   * @param reports    The controller's current report count
+   * @param dismissals The controller's current dismissal count
+   */
+
+  public MiscueDialogSession(
+    final long reports,
+    final long dismissals)
+  {
+    this.future = new CompletableFuture<>();
+    this.requestedAt = Instant.now();
+    this.requestedNanos = System.nanoTime();
+    this.shownNanos = this.requestedNanos;
+    this.reportsAtStart = reports;
+    this.dismissalsAtStart = dismissals;
+  }
+
+  /**
+   * @return The operation that completes when the session ends
+   */
+
+  public CompletionStage<MiscueDialogResult> result()
+  {
+    return this.future.minimalCompletionStage();
+  }
+
+  /**
+   * Record that the dialog has been shown.
+   */
+
+  public void onShown()
+  {
+    this.shownNanos = System.nanoTime();
+  }
+
+  /**
+   * Record that the user asked the window manager to close the dialog.
+   */
+
+  public void onCloseRequested()
+  {
+    this.closeRequested = true;
+  }
+
+  /**
+   * End the session, as the dialog has been hidden.
+   *
+   * @param reports    The controller's current report count
+   * @param dismissals The controller's current dismissal count
+   */
+
+  public void onHidden(
+    final long reports,
+    final long dismissals)
+  {
+    final var hiddenNanos = System.nanoTime();
+
+    final MiscueDialogOutcome outcome;
+    if (reports != this.reportsAtStart) {
+      outcome = MiscueDialogOutcome.REPORTED;
+    } else if (dismissals != this.dismissalsAtStart || this.closeRequested) {
+      outcome = MiscueDialogOutcome.DISMISSED;
+    } else {
+      outcome = MiscueDialogOutcome.CLOSED_BY_OWNER;
+    }
+
+    this.future.complete(
+      new MiscueDialogResult(
+        outcome,
+        this.requestedAt,
+        Duration.ofNanos(this.shownNanos - this.requestedNanos),
+        Duration.ofNanos(hiddenNanos - this.shownNanos)
+      )
+    );
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import com.io7m.miscue.core.MiscueDialogType;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+
+import java.util.Objects;
+
+/**
+ * Functions to report the state of dialog windows to the global dialog
+ * registry. These functions are shared by the JavaFX dialog modules; the
+ * core module depends on JavaFX only optionally, so they must not be
+ * called unless JavaFX is present.
+ *
+ * @see com.io7m.miscue.core.MiscueOpenDialogs
+ */
+
+public final class MiscueDialogTracking
+{
+  private MiscueDialogTracking()
+  {
+
+  }
+
+  /**
+   * Report the showing, focusing, and hiding of the given stage to the
+   * global dialog registry. Evicted dialogs are minimised by iconifying the
+   * stage.
+   *
+   * @param stage  The stage
+   * @param dialog The dialog shown in the stage
+   */
+
+  public static void track(
+    final Stage stage,
+    final MiscueDialogType dialog)
+  {
+    Objects.requireNonNull(stage, "stage");
+    Objects.requireNonNull(dialog, "dialog");
+
+    final var registry = MiscueDialogRegistry.global();
+    stage.addEventHandler(WindowEvent.WINDOW_SHOWN, event -> {
+      registry.opened(dialog, () -> stage.setIconified(true));
+    });
+    stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> {
+      registry.closed(dialog);
+    });
+    stage.focusedProperty().addListener((observable, wasFocused, focused) -> {
+      if (focused.booleanValue()) {
+        registry.focused(dialog);
+      }
+    });
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import com.io7m.miscue.core.MiscueErrorReceiverType;
+import com.io7m.miscue.core.MiscueErrorSinkPolicy;
+import com.io7m.miscue.core.MiscueErrorSinkType;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>An error sink backed by a bounded lock-free queue.</p>
+ *
+ * <p>At most one delivery task is scheduled at any time. A producer that
+ * queues an error schedules the task only if it is not already scheduled,
+ * and the task reschedules itself if errors remain after delivering a
+ * batch.</p>
+ *
+ * <p>For the {@link MiscueErrorSinkPolicy#COALESCE} policy, a direct-mapped
+ * table with one slot per queue slot records the fingerprints of queued
+ * errors. Each table entry packs the upper 40 bits of a fingerprint and a
+ * 24-bit count of further occurrences into a single long, so that both are
+ * updated by a single compare-and-set. Errors whose fingerprints collide in
+ * the table are simply queued separately.</p>
+ *
+ * @param <E> The type of errors
+ */
+
+public final class MiscueErrorSink<E> implements MiscueErrorSinkType<E>
+{
+  private static final int COUNT_BITS = 24;
+  private static final long COUNT_MASK = (1L << COUNT_BITS) - 1L;
+  private static final long EMPTY = 0L;
+  private static final long MULTIPLIER = 0x9e3779b97f4a7c15L;
+  private static final long BLOCK_PARK_MINIMUM =
+    TimeUnit.MICROSECONDS.toNanos(1L);
+  private static final long BLOCK_PARK_MAXIMUM =
+    TimeUnit.MILLISECONDS.toNanos(1L);
+
+  private final MiscueErrorReceiverType<? super E> receiver;
+  private final Consumer<Runnable> scheduler;
+  private final MiscueErrorSinkPolicy policy;
+  private final int batchSize;
+  private final ToLongFunction<? super E> fingerprint;
+  private final MiscueBoundedQueue<E> queue;
+  private final AtomicLongArray pending;
+  private final int pendingShift;
+  private final AtomicBoolean scheduled;
+  private final AtomicLong dropped;
+  private final AtomicLong coalesced;
+  private final Runnable drain;
+
+  /**
+   * An error sink backed by a bounded lock-free queue.
+   *
+   * @param inReceiver    The receiver of errors
+   * @param inScheduler   The scheduler that executes delivery tasks
+   * @param inPolicy      The policy applied when the sink is full
+   * @param inCapacity    The capacity
+   * @param inBatchSize   The maximum number of errors delivered per task
+   * @param inFingerprint The fingerprint function
+   */
+
+  public MiscueErrorSink(
+    final MiscueErrorReceiverType<? super E> inReceiver,
+    final Consumer<Runnable> inScheduler,
+    final MiscueErrorSinkPolicy inPolicy,
+    final int inCapacity,
+    final int inBatchSize,
+    final ToLongFunction<? super E> inFingerprint)
+  {
+    this.receiver =
+      Objects.requireNonNull(inReceiver, "receiver");
+    this.scheduler =
+      Objects.requireNonNull(inScheduler, "scheduler");
+    this.policy =
+      Objects.requireNonNull(inPolicy, "policy");
+    this.fingerprint =
+      Objects.requireNonNull(inFingerprint, "fingerprint");
+    this.batchSize =
+      inBatchSize;
+    this.queue =
+      new MiscueBoundedQueue<>(inCapacity);
+    this.pending =
+      this.policy == MiscueErrorSinkPolicy.COALESCE
+        ? new AtomicLongArray(this.queue.capacity())
+        : new AtomicLongArray(0);
+    this.pendingShift =
+      Long.SIZE - Integer.numberOfTrailingZeros(this.queue.capacity());
+    this.scheduled =
+      new AtomicBoolean();
+    this.dropped =
+      new AtomicLong();
+    this.coalesced =
+      new AtomicLong();
+    this.drain =
+      this::drain;
+  }
+
+  @Override
+  public boolean submit(
+    final E error)
+  {
+    Objects.requireNonNull(error, "error");
+
+    final var accepted = switch (this.policy) {
+      case DROP_OLDEST -> this.submitDropOldest(error);
+      case DROP_NEWEST -> this.submitDropNewest(error);
+      case COALESCE -> this.submitCoalesce(error);
+      case BLOCK -> this.submitBlock(error);
+    };
+
+    if (accepted) {
+      this.schedule();
+    }
+    return accepted;
+  }
+
+  private boolean submitDropOldest(
+    final E error)
+  {
+    while (!this.queue.offer(error)) {
+      if (this.queue.poll() != null) {
+        this.dropped.incrementAndGet();
+      }
+    }
+    return true;
+  }
+
+  private boolean submitDropNewest(
+    final E error)
+  {
+    if (this.queue.offer(error)) {
+      return true;
+    }
+    this.dropped.incrementAndGet();
+    return false;
+  }
+
+  private boolean submitBlock(
+    final E error)
+  {
+    long park = BLOCK_PARK_MINIMUM;
+    while (!this.queue.offer(error)) {
+      this.schedule();
+      LockSupport.parkNanos(this, park);
+      if (Thread.currentThread().isInterrupted()) {
+        this.dropped.incrementAndGet();
+        return false;
+      }
+      park = Math.min(park << 1, BLOCK_PARK_MAXIMUM);
+    }
+    return true;
+  }
+
+  private boolean submitCoalesce(
+    final E error)
+  {
+    final var key = keyOf(this.fingerprint.applyAsLong(error));
+    final var slot = this.slotOf(key);
+
+    /*
+     * If an error with the same fingerprint is waiting, count another
+     * occurrence of it.
+     */
+
+    while (true) {
+      final var entry = this.pending.get(slot);
+      if ((entry & ~COUNT_MASK) != key) {
+        break;
+      }
+      if ((entry & COUNT_MASK) == COUNT_MASK) {
+        this.coalesced.incrementAndGet();
+        return true;
+      }
+      if (this.pending.compareAndSet(slot, entry, entry + 1L)) {
+        this.coalesced.incrementAndGet();
+        return true;
+      }
+    }
+
+    /*
+     * Otherwise, claim the table entry if it is free (so that subsequent
+     * duplicates can find this error), and queue the error.
+     */
+
+    final var claimed = this.pending.compareAndSet(slot, EMPTY, key);
+    if (this.queue.offer(error)) {
+      return true;
+    }
+
+    this.dropped.incrementAndGet();
+    if (claimed) {
+      this.dropped.addAndGet(this.release(slot, key));
+    }
+    return false;
+  }
+
+  /**
+   * Release the table entry for the given key, if the entry holds that key.
+   *
+   * @return The number of further occurrences recorded in the entry
+   */
+
+  private int release(
+    final int slot,
+    final long key)
+  {
+    while (true) {
+      final var entry = this.pending.get(slot);
+      if ((entry & ~COUNT_MASK) != key) {
+        return 0;
+      }
+      if (this.pending.compareAndSet(slot, entry, EMPTY)) {
+        return (int) (entry & COUNT_MASK);
+      }
+    }
+  }
+
+  /**
+   * Derive a table key from a fingerprint. The fingerprint is mixed first so
+   * that fingerprints that only vary in their low bits (such as hash codes)
+   * still produce distinct keys.
+   */
+
+  private static long keyOf(
+    final long fingerprint)
+  {
+    final var mixed = fingerprint * MULTIPLIER;
+    final var key = (mixed ^ (mixed >>> 29)) & ~COUNT_MASK;
+    return key == EMPTY ? 1L << COUNT_BITS : key;
+  }
+
+  private int slotOf(
+    final long key)
+  {
+    return (int) (key >>> this.pendingShift);
+  }
+
+  private void schedule()
+  {
+    if (!this.scheduled.get() && this.scheduled.compareAndSet(false, true)) {
+      this.scheduler.accept(this.drain);
+    }
+  }
+
+  private void drain()
+  {
+    try {
+      for (int index = 0; index < this.batchSize; ++index) {
+        final var error = this.queue.poll();
+        if (error == null) {
+          break;
+        }
+        this.deliver(error);
+      }
+    } finally {
+      this.scheduled.set(false);
+      if (this.queue.size() > 0) {
+        this.schedule();
+      }
+    }
+  }
+
+  private void deliver(
+    final E error)
+  {
+    int occurrences = 1;
+    if (this.policy == MiscueErrorSinkPolicy.COALESCE) {
+      final var key = keyOf(this.fingerprint.applyAsLong(error));
+      occurrences += this.release(this.slotOf(key), key);
+    }
+    this.receiver.receive(error, occurrences);
+  }
+
+  @Override
+  public int pending()
+  {
+    return this.queue.size();
+  }
+
+  @Override
+  public long dropped()
+  {
+    return this.dropped.get();
+  }
+
+  @Override
+  public long coalesced()
+  {
+    return this.coalesced.get();
+  }
+}
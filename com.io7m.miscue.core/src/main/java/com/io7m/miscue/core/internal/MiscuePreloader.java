@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.core.internal;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>A preloader that warms up a dialog implementation in two stages.</p>
+ *
+ * <p>The first stage (class loading, resource parsing, image decoding, and
+ * so on) runs on a background virtual thread. The second stage runs on
+ * the given foreground executor (typically the UI thread) and is expected
+ * to build and discard a scene that is never shown. Preloading happens at
+ * most once: every call to {@link #preload()} returns the same future
+ * unless a previous attempt failed, in which case preloading is attempted
+ * again.</p>
+ */
+
+public final class MiscuePreloader
+{
+  private final Runnable background;
+  private final Runnable foreground;
+  private final Executor foregroundExecutor;
+  private CompletableFuture<Void> future;
+
+  /**
+   * A preloader.
+   *
+   * @param inBackground         The work executed on a background thread
+   * @param inForeground         The work executed on the foreground executor
+   * @param inForegroundExecutor The foreground executor
+   */
+
+  public MiscuePreloader(
+    final Runnable inBackground,
+    final Runnable inForeground,
+    final Executor inForegroundExecutor)
+  {
+    this.background =
+      Objects.requireNonNull(inBackground, "background");
+    this.foreground =
+      Objects.requireNonNull(inForeground, "foreground");
+    this.foregroundExecutor =
+      Objects.requireNonNull(inForegroundExecutor, "foregroundExecutor");
+  }
+
+  /**
+   * Start preloading, if preloading has not already started.
+   *
+   * @return A future that completes when both stages have completed
+   */
+
+  public synchronized CompletableFuture<Void> preload()
+  {
+    if (this.future == null || this.future.isCompletedExceptionally()) {
+      this.future =
+        CompletableFuture.runAsync(
+          this.background,
+          command -> Thread.ofVirtual().start(command)
+        ).thenRunAsync(this.foreground, this.foregroundExecutor);
+    }
+    return this.future;
+  }
+}
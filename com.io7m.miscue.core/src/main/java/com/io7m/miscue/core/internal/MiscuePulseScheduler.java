@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.core.internal;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * <p>A scheduler that executes at most one task per JavaFX pulse.</p>
+ *
+ * <p>Tasks may be submitted from any thread, and are executed in
+ * submission order on the FX thread from an {@link AnimationTimer}. A task
+ * submitted by a running task is executed on the next pulse at the
+ * earliest, and so rendering and input are interleaved with every task.
+ * The timer only runs while tasks are waiting; it stops itself on the
+ * first pulse on which there is nothing to do.</p>
+ */
+
+public final class MiscuePulseScheduler implements Consumer<Runnable>
+{
+  private final Consumer<Runnable> fx;
+  private final ConcurrentLinkedQueue<Runnable> tasks;
+  private final AtomicBoolean running;
+  private final Timer timer;
+
+  /**
+   * A scheduler that executes at most one task per JavaFX pulse.
+   */
+
+  public MiscuePulseScheduler()
+  {
+    this(Platform::runLater);
+  }
+
+  /**
+   * A scheduler that executes at most one task per JavaFX pulse.
+   *
+   * @param inFX The function used to start the timer on the FX thread
+   */
+
+  public MiscuePulseScheduler(
+    final Consumer<Runnable> inFX)
+  {
+    this.fx =
+      Objects.requireNonNull(inFX, "fx");
+    this.tasks =
+      new ConcurrentLinkedQueue<>();
+    this.running =
+      new AtomicBoolean(false);
+    this.timer =
+      new Timer();
+  }
+
+  @Override
+  public void accept(
+    final Runnable task)
+  {
+    this.tasks.add(Objects.requireNonNull(task, "task"));
+    if (this.running.compareAndSet(false, true)) {
+      this.fx.accept(this.timer::start);
+    }
+  }
+
+  /**
+   * Execute the oldest waiting task, if there is one. This is called by the
+   * timer once per pulse, and must be called on the FX thread.
+   *
+   * @return {@code true} if a task was executed
+   */
+
+  public boolean runOne()
+  {
+    final var task = this.tasks.poll();
+    if (task == null) {
+      return false;
+    }
+    task.run();
+    return true;
+  }
+
+  private final class Timer extends AnimationTimer
+  {
+    Timer()
+    {
+
+    }
+
+    @Override
+    public void handle(
+      final long now)
+    {
+      if (MiscuePulseScheduler.this.runOne()) {
+        return;
+      }
+
+      /*
+       * A task submitted after the queue was seen to be empty, but before
+       * the timer was marked as stopped, did not start the timer, and so
+       * the timer must restart itself here.
+       */
+
+      final var scheduler = MiscuePulseScheduler.this;
+      this.stop();
+      scheduler.running.set(false);
+      if (!scheduler.tasks.isEmpty()
+          && scheduler.running.compareAndSet(false, true)) {
+        this.start();
+      }
+    }
+  }
+}
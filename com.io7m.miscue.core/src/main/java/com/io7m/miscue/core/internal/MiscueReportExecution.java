@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import com.io7m.miscue.core.MiscueReportProgressType;
+import com.io7m.miscue.core.MiscueReportTaskType;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * <p>A single execution of a report task.</p>
+ *
+ * <p>The task runs on an executor. Progress updates are passed to the UI
+ * thread via a scheduler (such as {@code Platform::runLater}); only the
+ * latest update is retained, and at most one update is waiting in the
+ * scheduler at any time, so a task that reports progress in a tight loop
+ * cannot flood the UI thread. Cancelling the execution sets a flag that the
+ * task can poll, and interrupts the thread running the task.</p>
+ *
+ * <p>Completion is always delivered, exactly once: whether the task
+ * succeeds, throws any exception or error, or is rejected by the
+ * executor.</p>
+ */
+
+public final class MiscueReportExecution
+  implements MiscueReportProgressType
+{
+  private final MiscueReportListenerType listener;
+  private final Consumer<Runnable> ui;
+  private final AtomicBoolean cancelled;
+  private final AtomicReference<Progress> progress;
+  private final AtomicBoolean progressPending;
+  private Thread thread;
+
+  private MiscueReportExecution(
+    final MiscueReportListenerType inListener,
+    final Consumer<Runnable> inUI)
+  {
+    this.listener =
+      Objects.requireNonNull(inListener, "listener");
+    this.ui =
+      Objects.requireNonNull(inUI, "ui");
+    this.cancelled =
+      new AtomicBoolean();
+    this.progress =
+      new AtomicReference<>();
+    this.progressPending =
+      new AtomicBoolean();
+  }
+
+  /**
+   * Start executing a report task. If the executor rejects the task, the
+   * rejection is delivered to the listener as the failure of the report.
+   *
+   * @param task     The task
+   * @param subject  A function that produces the subject of the report;
+   *                 evaluated on the executor
+   * @param executor The executor
+   * @param ui       The scheduler for UI updates
+   * @param listener The receiver of progress
+   * @param <T>      The type of report subjects
+   *
+   * @return The execution
+   */
+
+  public static <T> MiscueReportExecution start(
+    final MiscueReportTaskType<? super T> task,
+    final Supplier<? extends T> subject,
+    final Executor executor,
+    final Consumer<Runnable> ui,
+    final MiscueReportListenerType listener)
+  {
+    Objects.requireNonNull(task, "task");
+    Objects.requireNonNull(subject, "subject");
+    Objects.requireNonNull(executor, "executor");
+
+    final var execution = new MiscueReportExecution(listener, ui);
+    try {
+      executor.execute(() -> execution.run(task, subject));
+    } catch (final RejectedExecutionException e) {
+      execution.finish(Optional.of(e));
+    }
+    return execution;
+  }
+
+  /**
+   * Describe the failure of a report for display. Not all exceptions have
+   * messages.
+   *
+   * @param failure The failure
+   *
+   * @return The message of the failure, or a description of the failure if
+   * it has no message
+   */
+
+  public static String describe(
+    final Throwable failure)
+  {
+    final var message = failure.getMessage();
+    if (message == null || message.isBlank()) {
+      return failure.toString();
+    }
+    return message;
+  }
+
+  private <T> void run(
+    final MiscueReportTaskType<? super T> task,
+    final Supplier<? extends T> subject)
+  {
+    synchronized (this) {
+      this.thread = Thread.currentThread();
+    }
+
+    Optional<Throwable> failure = Optional.empty();
+    try {
+      if (!this.cancelled.get()) {
+        task.report(subject.get(), this);
+      }
+    } catch (final Throwable e) {
+      if (!this.cancelled.get()) {
+        failure = Optional.of(e);
+      }
+    } finally {
+      synchronized (this) {
+        this.thread = null;
+      }
+      Thread.interrupted();
+      this.finish(failure);
+    }
+  }
+
+  private void finish(
+    final Optional<Throwable> failure)
+  {
+    this.ui.accept(() -> {
+      this.listener.onReportFinished(this, failure, this.cancelled.get());
+    });
+  }
+
+  /**
+   * Cancel the execution.
+   */
+
+  public void cancel()
+  {
+    this.cancelled.set(true);
+    synchronized (this) {
+      if (this.thread != null) {
+        this.thread.interrupt();
+      }
+    }
+  }
+
+  @Override
+  public void setProgress(
+    final double fraction,
+    final String message)
+  {
+    this.progress.set(
+      new Progress(fraction, Objects.requireNonNullElse(message, "")));
+
+    if (this.progressPending.compareAndSet(false, true)) {
+      this.ui.accept(this::deliverProgress);
+    }
+  }
+
+  private void deliverProgress()
+  {
+    this.progressPending.set(false);
+    final var current = this.progress.get();
+    this.listener.onReportProgress(this, current.fraction, current.message);
+  }
+
+  @Override
+  public boolean isCancelled()
+  {
+    return this.cancelled.get();
+  }
+
+  private record Progress(
+    double fraction,
+    String message)
+  {
+
+  }
+}
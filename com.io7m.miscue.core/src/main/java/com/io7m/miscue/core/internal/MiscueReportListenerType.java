@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import java.util.Optional;
+
+/**
+ * A receiver of the progress of a report execution. All methods are called
+ * on the UI thread.
+ */
+
+public interface MiscueReportListenerType
+{
+  /**
+   * The report has made progress.
+   *
+   * @param execution The execution
+   * @param fraction  The fraction completed, or a negative value if unknown
+   * @param message   The current activity
+   */
+
+  void onReportProgress(
+    MiscueReportExecution execution,
+    double fraction,
+    String message);
+
+  /**
+   * The report has finished.
+   *
+   * @param execution The execution
+   * @param failure   The exception raised by the report task, if any
+   * @param cancelled {@code true} if the report was cancelled
+   */
+
+  void onReportFinished(
+    MiscueReportExecution execution,
+    Optional<Throwable> failure,
+    boolean cancelled);
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import com.io7m.miscue.core.MiscueReportTaskType;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * The way in which a dialog reports errors: a plain callback executed on
+ * the FX thread, or a report task executed on an executor. A report task
+ * may instead be produced by a factory when the report starts, for tasks
+ * that must capture the state of the dialog on the FX thread. A task
+ * factory is preferred over a task, and a task over a callback.
+ *
+ * @param callback    The report callback
+ * @param task        The report task
+ * @param executor    The executor for report tasks
+ * @param taskFactory The report task factory, evaluated on the FX thread
+ * @param <T>         The type of report subjects
+ */
+
+public record MiscueReporting<T>(
+  Optional<Runnable> callback,
+  Optional<MiscueReportTaskType<? super T>> task,
+  Executor executor,
+  Optional<Supplier<MiscueReportTaskType<? super T>>> taskFactory)
+{
+  /**
+   * The default executor for report tasks, which runs each task on a new
+   * virtual thread.
+   */
+
+  public static final Executor DEFAULT_EXECUTOR =
+    command -> Thread.ofVirtual().start(command);
+
+  /**
+   * The way in which a dialog reports errors.
+   *
+   * @param callback    The report callback
+   * @param task        The report task
+   * @param executor    The executor for report tasks
+   * @param taskFactory The report task factory, evaluated on the FX thread
+   */
+
+  public MiscueReporting
+  {
+    Objects.requireNonNull(callback, "callback");
+    Objects.requireNonNull(task, "task");
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(taskFactory, "taskFactory");
+  }
+
+  /**
+   * The way in which a dialog reports errors, without a task factory.
+   *
+   * @param inCallback The report callback
+   * @param inTask     The report task
+   * @param inExecutor The executor for report tasks
+   */
+
+  public MiscueReporting(
+    final Optional<Runnable> inCallback,
+    final Optional<MiscueReportTaskType<? super T>> inTask,
+    final Executor inExecutor)
+  {
+    this(inCallback, inTask, inExecutor, Optional.empty());
+  }
+
+  /**
+   * @param <T> The type of report subjects
+   *
+   * @return A value that does not report errors
+   */
+
+  public static <T> MiscueReporting<T> none()
+  {
+    return new MiscueReporting<>(
+      Optional.empty(),
+      Optional.empty(),
+      DEFAULT_EXECUTOR
+    );
+  }
+
+  /**
+   * @return {@code true} if errors can be reported
+   */
+
+  public boolean isEnabled()
+  {
+    return this.callback.isPresent()
+           || this.task.isPresent()
+           || this.taskFactory.isPresent();
+  }
+
+  /**
+   * Determine the report task to run when the user starts a report. This
+   * must be called on the FX thread.
+   *
+   * @return The task produced by the task factory, or the report task, if
+   * either is present
+   */
+
+  public Optional<MiscueReportTaskType<? super T>> startTask()
+  {
+    if (this.taskFactory.isPresent()) {
+      return Optional.of(this.taskFactory.get().get());
+    }
+    return this.task;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.core.internal;
+
+/**
+ * A function that constructs an image from captured pixels.
+ *
+ * @param <S> The type of images
+ */
+
+@FunctionalInterface
+public interface MiscueSnapshotConstructorType<S>
+{
+  /**
+   * Construct an image.
+   *
+   * @param width  The width in pixels
+   * @param height The height in pixels
+   * @param pixels The pixels as non-premultiplied 32-bit ARGB values, in
+   *               row-major order starting at the top left
+   *
+   * @return The image
+   */
+
+  S create(
+    int width,
+    int height,
+    int[] pixels);
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.core.internal;
+
+import javafx.scene.Scene;
+import javafx.scene.image.PixelFormat;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Functions to capture images of dialogs, for inclusion in error
+ * reports.
+ */
+
+public final class MiscueSnapshots
+{
+  private MiscueSnapshots()
+  {
+
+  }
+
+  /**
+   * Capture an image of the given scene. This must be called on the FX
+   * thread.
+   *
+   * @param scene       The scene, if any
+   * @param constructor A function that constructs an image from the
+   *                    captured pixels
+   * @param <S>         The type of images
+   *
+   * @return The image, or nothing if there is no scene or the scene has no
+   * area
+   */
+
+  public static <S> Optional<S> capture(
+    final Scene scene,
+    final MiscueSnapshotConstructorType<S> constructor)
+  {
+    Objects.requireNonNull(constructor, "constructor");
+
+    if (scene == null) {
+      return Optional.empty();
+    }
+
+    final var image = scene.snapshot(null);
+    final var width = (int) image.getWidth();
+    final var height = (int) image.getHeight();
+    if (width <= 0 || height <= 0) {
+      return Optional.empty();
+    }
+
+    final var pixels = new int[width * height];
+    image.getPixelReader()
+      .getPixels(
+        0,
+        0,
+        width,
+        height,
+        PixelFormat.getIntArgbInstance(),
+        pixels,
+        0,
+        width
+      );
+    return Optional.of(constructor.create(width, height, pixels));
+  }
+}
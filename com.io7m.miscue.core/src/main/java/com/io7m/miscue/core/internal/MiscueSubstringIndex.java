@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>A case-insensitive substring index over an immutable list of
+ * documents.</p>
+ *
+ * <p>The index maps each trigram (each sequence of three consecutive
+ * characters) that appears in any document to the sorted list of documents
+ * in which it appears. The documents that might contain a query string of
+ * three or more characters are found by intersecting the lists of the
+ * query's trigrams, and only those candidates need to be checked with an
+ * actual substring comparison. Shorter queries match too many documents for
+ * the index to be useful, and callers are expected to check every
+ * document.</p>
+ */
+
+public final class MiscueSubstringIndex
+{
+  private static final int[] EMPTY = new int[0];
+
+  private final String[] documents;
+  private final HashMap<Long, int[]> postings;
+
+  private MiscueSubstringIndex(
+    final String[] inDocuments,
+    final HashMap<Long, int[]> inPostings)
+  {
+    this.documents =
+      Objects.requireNonNull(inDocuments, "documents");
+    this.postings =
+      Objects.requireNonNull(inPostings, "postings");
+  }
+
+  /**
+   * Build an index over the given documents. Documents are identified by
+   * their index in the given list.
+   *
+   * @param documents The documents
+   *
+   * @return An index
+   */
+
+  public static MiscueSubstringIndex create(
+    final List<String> documents)
+  {
+    return create(documents, () -> false).orElseThrow();
+  }
+
+  /**
+   * Build an index over the given documents. Documents are identified by
+   * their index in the given list. The cancellation function is checked
+   * before each document is indexed, and so a cancelled build stops
+   * without reading any further documents.
+   *
+   * @param documents The documents
+   * @param cancelled A function that returns {@code true} if the build
+   *                  should be abandoned
+   *
+   * @return An index, or nothing if the build was cancelled
+   */
+
+  public static Optional<MiscueSubstringIndex> create(
+    final List<String> documents,
+    final BooleanSupplier cancelled)
+  {
+    Objects.requireNonNull(documents, "documents");
+    Objects.requireNonNull(cancelled, "cancelled");
+
+    final var lowered = new String[documents.size()];
+    final var building = new HashMap<Long, Postings>();
+
+    for (int document = 0; document < lowered.length; ++document) {
+      if (cancelled.getAsBoolean()) {
+        return Optional.empty();
+      }
+
+      final var text = normalize(documents.get(document));
+      lowered[document] = text;
+
+      for (int index = 0; index + 2 < text.length(); ++index) {
+        final var trigram = Long.valueOf(trigram(text, index));
+        building.computeIfAbsent(trigram, k -> new Postings())
+          .add(document);
+      }
+    }
+
+    final var postings = new HashMap<Long, int[]>(building.size());
+    for (final var entry : building.entrySet()) {
+      postings.put(entry.getKey(), entry.getValue().toArray());
+    }
+    return Optional.of(new MiscueSubstringIndex(lowered, postings));
+  }
+
+  /**
+   * Normalize the given text into the form used for comparisons.
+   *
+   * @param text The text
+   *
+   * @return The normalized text
+   */
+
+  public static String normalize(
+    final String text)
+  {
+    return text.toLowerCase(Locale.ROOT);
+  }
+
+  private static long trigram(
+    final String text,
+    final int index)
+  {
+    return ((long) text.charAt(index) << 32)
+           | ((long) text.charAt(index + 1) << 16)
+           | (long) text.charAt(index + 2);
+  }
+
+  /**
+   * @return The number of documents
+   */
+
+  public int size()
+  {
+    return this.documents.length;
+  }
+
+  /**
+   * @param document The document
+   * @param query    The normalized query
+   *
+   * @return {@code true} if the document contains the query
+   *
+   * @see #normalize(String)
+   */
+
+  public boolean contains(
+    final int document,
+    final String query)
+  {
+    return this.documents[document].contains(query);
+  }
+
+  /**
+   * Determine the documents that might contain the given query. Every
+   * document that does contain the query is included in the result, but
+   * the result may include documents that do not contain the query.
+   *
+   * @param query The normalized query
+   *
+   * @return The sorted candidate documents, or nothing if the query is too
+   * short to use the index and all documents are candidates
+   *
+   * @see #normalize(String)
+   */
+
+  public Optional<int[]> candidates(
+    final String query)
+  {
+    Objects.requireNonNull(query, "query");
+
+    final var count = query.length() - 2;
+    if (count <= 0) {
+      return Optional.empty();
+    }
+
+    final var lists = new int[count][];
+    for (int index = 0; index < count; ++index) {
+      final var list = this.postings.get(Long.valueOf(trigram(query, index)));
+      if (list == null) {
+        return Optional.of(EMPTY);
+      }
+      lists[index] = list;
+    }
+
+    Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+
+    var result = lists[0];
+    for (int index = 1; index < lists.length && result.length > 0; ++index) {
+      result = intersect(result, lists[index]);
+    }
+    return Optional.of(result);
+  }
+
+  private static int[] intersect(
+    final int[] x,
+    final int[] y)
+  {
+    final var result = new int[Math.min(x.length, y.length)];
+    int size = 0;
+    int xi = 0;
+    int yi = 0;
+
+    while (xi < x.length && yi < y.length) {
+      final var xv = x[xi];
+      final var yv = y[yi];
+      if (xv == yv) {
+        result[size] = xv;
+        ++size;
+        ++xi;
+        ++yi;
+      } else if (xv < yv) {
+        ++xi;
+      } else {
+        ++yi;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  private static final class Postings
+  {
+    private int[] values;
+    private int size;
+
+    Postings()
+    {
+      this.values = new int[4];
+    }
+
+    void add(
+      final int document)
+    {
+      if (this.size > 0 && this.values[this.size - 1] == document) {
+        return;
+      }
+      if (this.size == this.values.length) {
+        this.values = Arrays.copyOf(this.values, this.size << 1);
+      }
+      this.values[this.size] = document;
+      ++this.size;
+    }
+
+    int[] toArray()
+    {
+      return Arrays.copyOf(this.values, this.size);
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.core.internal;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * <p>An incremental search over a substring index.</p>
+ *
+ * <p>The search remembers the matches for the most recent completed query.
+ * When a new query contains the previous query (which is the usual case
+ * when a user continues typing), only the previous matches need to be
+ * checked. Matches are delivered in ascending order, in chunks, while the
+ * search is in progress, so that callers can display partial results.</p>
+ *
+ * <p>Searches may be executed from any thread, and may be executed
+ * concurrently.</p>
+ */
+
+public final class MiscueSubstringSearch
+{
+  private static final int SCAN_CHUNK = 4096;
+
+  private final MiscueSubstringIndex index;
+  private String lastQuery;
+  private int[] lastMatches;
+
+  /**
+   * An incremental search over a substring index.
+   *
+   * @param inIndex The index
+   */
+
+  public MiscueSubstringSearch(
+    final MiscueSubstringIndex inIndex)
+  {
+    this.index = Objects.requireNonNull(inIndex, "index");
+  }
+
+  /**
+   * @return The underlying index
+   */
+
+  public MiscueSubstringIndex index()
+  {
+    return this.index;
+  }
+
+  /**
+   * Search for the documents that contain the given query.
+   *
+   * @param query     The query
+   * @param cancelled A function that returns {@code true} if the search
+   *                  should be abandoned
+   * @param receiver  A receiver of chunks of matching documents
+   *
+   * @return The matching documents, or nothing if the search was cancelled
+   */
+
+  public Optional<int[]> search(
+    final String query,
+    final BooleanSupplier cancelled,
+    final Consumer<int[]> receiver)
+  {
+    Objects.requireNonNull(query, "query");
+    Objects.requireNonNull(cancelled, "cancelled");
+    Objects.requireNonNull(receiver, "receiver");
+
+    final var normalized =
+      MiscueSubstringIndex.normalize(query);
+    final var candidates =
+      this.candidatesFor(normalized);
+    final var count =
+      candidates.map(c -> Integer.valueOf(c.length))
+        .orElseGet(() -> Integer.valueOf(this.index.size()))
+        .intValue();
+
+    var matches = new int[Math.min(count, SCAN_CHUNK)];
+    int size = 0;
+    int delivered = 0;
+
+    for (int base = 0; base < count; base += SCAN_CHUNK) {
+      if (cancelled.getAsBoolean()) {
+        return Optional.empty();
+      }
+
+      final var end = Math.min(count, base + SCAN_CHUNK);
+      for (int position = base; position < end; ++position) {
+        final int document;
+        if (candidates.isPresent()) {
+          document = candidates.get()[position];
+        } else {
+          document = position;
+        }
+
+        if (this.index.contains(document, normalized)) {
+          if (size == matches.length) {
+            matches = Arrays.copyOf(matches, Math.max(4, size << 1));
+          }
+          matches[size] = document;
+          ++size;
+        }
+      }
+
+      if (size > delivered) {
+        receiver.accept(Arrays.copyOfRange(matches, delivered, size));
+        delivered = size;
+      }
+    }
+
+    final var result = Arrays.copyOf(matches, size);
+    synchronized (this) {
+      this.lastQuery = normalized;
+      this.lastMatches = result;
+    }
+    return Optional.of(result);
+  }
+
+  private Optional<int[]> candidatesFor(
+    final String normalized)
+  {
+    final var fromIndex = this.index.candidates(normalized);
+
+    final int[] previous;
+    synchronized (this) {
+      if (this.lastQuery != null && normalized.contains(this.lastQuery)) {
+        previous = this.lastMatches;
+      } else {
+        previous = null;
+      }
+    }
+
+    if (previous == null) {
+      return fromIndex;
+    }
+    if (fromIndex.isEmpty() || previous.length < fromIndex.get().length) {
+      return Optional.of(previous);
+    }
+    return fromIndex;
+  }
+}
@@ -18,10 +18,24 @@
  * UI error dialogs (Core).
  */
 
+@SuppressWarnings("module")
 module com.io7m.miscue.core
 {
   requires static org.osgi.annotation.bundle;
   requires static org.osgi.annotation.versioning;
 
+  requires static javafx.graphics;
+
   exports com.io7m.miscue.core;
+
+  /*
+   * Not part of the public API. The target modules are built later in the
+   * reactor, and so are not observable when this module is compiled; the
+   * resulting warnings are suppressed on the module declaration.
+   */
+
+  exports com.io7m.miscue.core.internal
+    to com.io7m.miscue.fx.seltzer,
+      com.io7m.miscue.fx.taskrecorder,
+      com.io7m.miscue.tests;
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.taskrecorder;
+
+import com.io7m.miscue.export.MXFormat;
+import com.io7m.miscue.export.MXSnapshot;
+import com.io7m.miscue.export.internal.MXBundleWriter;
+import com.io7m.miscue.export.internal.MXExceptionLines;
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepFailed;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskFailed;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>Functions to write task report bundles.</p>
+ *
+ * <p>A bundle is a zip file containing:</p>
+ *
+ * <ul>
+ *   <li>{@code task.txt}: the task tree as text, as produced by
+ *   {@link MXTaskExports}.</li>
+ *   <li>{@code task.json}: the task tree as a JSON document.</li>
+ *   <li>{@code exceptions.txt}: the complete exception chain of each failed
+ *   task and step that has an exception, if any.</li>
+ *   <li>{@code snapshot.png}: an image of the dialog, if one was
+ *   captured.</li>
+ * </ul>
+ */
+
+public final class MXTaskBundles
+{
+  private MXTaskBundles()
+  {
+
+  }
+
+  /**
+   * Write a report bundle for the given task, replacing any existing file.
+   *
+   * @param task     The task
+   * @param snapshot An image of the dialog, if any
+   * @param file     The output file
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final TRTask<?> task,
+    final Optional<MXSnapshot> snapshot,
+    final Path file)
+    throws IOException
+  {
+    write(task, snapshot, file, () -> false);
+  }
+
+  /**
+   * Write a report bundle for the given task, replacing any existing file.
+   * The cancellation function is checked before each entry of the bundle
+   * is written; if writing is cancelled, the file is left incomplete.
+   *
+   * @param task      The task
+   * @param snapshot  An image of the dialog, if any
+   * @param file      The output file
+   * @param cancelled A function that returns {@code true} if writing the
+   *                  bundle has been cancelled
+   *
+   * @throws IOException           On I/O errors
+   * @throws CancellationException If writing was cancelled
+   */
+
+  public static void write(
+    final TRTask<?> task,
+    final Optional<MXSnapshot> snapshot,
+    final Path file,
+    final BooleanSupplier cancelled)
+    throws IOException
+  {
+    Objects.requireNonNull(task, "task");
+    Objects.requireNonNull(snapshot, "snapshot");
+    Objects.requireNonNull(file, "file");
+
+    try (var bundle = MXBundleWriter.create(file, cancelled)) {
+      MXTaskExports.export(task, MXFormat.TEXT, bundle.beginText("task.txt"));
+      MXTaskExports.export(task, MXFormat.JSON, bundle.beginText("task.json"));
+
+      if (hasExceptions(task)) {
+        writeExceptions(task, bundle.beginText("exceptions.txt"));
+      }
+      if (snapshot.isPresent()) {
+        bundle.image("snapshot.png", snapshot.get());
+      }
+    }
+  }
+
+  private static boolean hasExceptions(
+    final TRTask<?> task)
+    throws IOException
+  {
+    final var found = new boolean[1];
+    walk(task, (description, exception) -> found[0] = true);
+    return found[0];
+  }
+
+  private static void writeExceptions(
+    final TRTask<?> task,
+    final Writer writer)
+    throws IOException
+  {
+    final var first = new boolean[]{true};
+    walk(task, (description, exception) -> {
+      if (!first[0]) {
+        writer.write('\n');
+      }
+      first[0] = false;
+
+      writer.write(description);
+      writer.write(":\n");
+      MXExceptionLines.walk(exception, (prefix, text) -> {
+        writer.write(prefix);
+        writer.write(text);
+        writer.write('\n');
+      });
+    });
+  }
+
+  /**
+   * Visit the exceptions of the failed tasks and steps in preorder.
+   */
+
+  private static void walk(
+    final TRTask<?> task,
+    final ExceptionReceiverType receiver)
+    throws IOException
+  {
+    final var pending = new ArrayDeque<Iterator<TRTaskItemType>>();
+    visitTask(task, receiver);
+    pending.push(task.items().iterator());
+
+    while (!pending.isEmpty()) {
+      final var items = pending.peek();
+      if (!items.hasNext()) {
+        pending.pop();
+        continue;
+      }
+
+      switch (items.next()) {
+        case final TRTask<?> child -> {
+          visitTask(child, receiver);
+          pending.push(child.items().iterator());
+        }
+        case final TRStep step -> {
+          visitStep(step, receiver);
+        }
+      }
+    }
+  }
+
+  private static void visitTask(
+    final TRTask<?> task,
+    final ExceptionReceiverType receiver)
+    throws IOException
+  {
+    switch (task.resolution()) {
+      case final TRTaskFailed<?> failed -> {
+        if (failed.exception().isPresent()) {
+          receiver.receive(task.description(), failed.exception().get());
+        }
+      }
+      case final TRTaskSucceeded<?> succeeded -> {
+
+      }
+    }
+  }
+
+  private static void visitStep(
+    final TRStep step,
+    final ExceptionReceiverType receiver)
+    throws IOException
+  {
+    switch (step.resolution()) {
+      case final TRStepFailed failed -> {
+        if (failed.exception().isPresent()) {
+          receiver.receive(step.description(), failed.exception().get());
+        }
+      }
+      case final TRStepSucceeded succeeded -> {
+
+      }
+    }
+  }
+
+  private interface ExceptionReceiverType
+  {
+    void receive(
+      String description,
+      Throwable exception)
+      throws IOException;
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.taskrecorder;
+
+import com.io7m.miscue.export.MXDocumentWriterType;
+import com.io7m.miscue.export.MXDocumentWriters;
+import com.io7m.miscue.export.MXFormat;
+import com.io7m.miscue.export.MXNodeKind;
+import com.io7m.miscue.export.internal.MXExceptionLines;
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepFailed;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskFailed;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>Functions to export task trees.</p>
+ *
+ * <p>The tree is traversed in preorder without recursion, and each task
+ * and step is written as soon as it is reached. The only state retained
+ * during the traversal is one iterator per level of the tree, and so
+ * memory use does not depend on the number of tasks and steps. The
+ * exception attached to a failed task or step (if any) is written with the
+ * task or step.</p>
+ */
+
+public final class MXTaskExports
+{
+  private MXTaskExports()
+  {
+
+  }
+
+  /**
+   * Export the given task.
+   *
+   * @param task   The task
+   * @param format The output format
+   * @param writer The output writer; flushed, but not closed
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void export(
+    final TRTask<?> task,
+    final MXFormat format,
+    final Writer writer)
+    throws IOException
+  {
+    write(task, MXDocumentWriters.create(format, writer));
+  }
+
+  /**
+   * Export the given task as UTF-8 text.
+   *
+   * @param task   The task
+   * @param format The output format
+   * @param stream The output stream; flushed, but not closed
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void export(
+    final TRTask<?> task,
+    final MXFormat format,
+    final OutputStream stream)
+    throws IOException
+  {
+    write(task, MXDocumentWriters.create(format, stream));
+  }
+
+  /**
+   * Export the given task as a complete document.
+   *
+   * @param task   The task
+   * @param writer The document writer
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final TRTask<?> task,
+    final MXDocumentWriterType writer)
+    throws IOException
+  {
+    Objects.requireNonNull(task, "task");
+    Objects.requireNonNull(writer, "writer");
+
+    writer.begin(task.description());
+    writer.beginTree("task");
+
+    final var pending = new ArrayDeque<Iterator<TRTaskItemType>>();
+    beginTask(writer, task);
+    pending.push(task.items().iterator());
+
+    while (!pending.isEmpty()) {
+      final var items = pending.peek();
+      if (!items.hasNext()) {
+        pending.pop();
+        writer.endNode();
+        continue;
+      }
+
+      switch (items.next()) {
+        case final TRTask<?> child -> {
+          beginTask(writer, child);
+          pending.push(child.items().iterator());
+        }
+        case final TRStep step -> {
+          beginStep(writer, step);
+          writer.endNode();
+        }
+      }
+    }
+
+    writer.endTree();
+    writer.end();
+  }
+
+  private static void beginTask(
+    final MXDocumentWriterType writer,
+    final TRTask<?> task)
+    throws IOException
+  {
+    switch (task.resolution()) {
+      case final TRTaskFailed<?> failed -> {
+        writer.beginNode(
+          MXNodeKind.TASK, task.description(), true, failed.message());
+        exception(writer, failed.exception());
+      }
+      case final TRTaskSucceeded<?> succeeded -> {
+        writer.beginNode(
+          MXNodeKind.TASK, task.description(), false, succeeded.message());
+      }
+    }
+  }
+
+  private static void beginStep(
+    final MXDocumentWriterType writer,
+    final TRStep step)
+    throws IOException
+  {
+    switch (step.resolution()) {
+      case final TRStepFailed failed -> {
+        writer.beginNode(
+          MXNodeKind.STEP, step.description(), true, failed.message());
+        exception(writer, failed.exception());
+      }
+      case final TRStepSucceeded succeeded -> {
+        writer.beginNode(
+          MXNodeKind.STEP, step.description(), false, succeeded.message());
+      }
+    }
+  }
+
+  private static void exception(
+    final MXDocumentWriterType writer,
+    final Optional<Throwable> exception)
+    throws IOException
+  {
+    if (exception.isPresent()) {
+      writer.beginLines("exception");
+      MXExceptionLines.walk(exception.get(), writer::line);
+      writer.endLines();
+    }
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.taskrecorder;
+
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFile;
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingWriter;
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepFailed;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskFailed;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.KIND_FAILED;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.KIND_TASK;
+
+/**
+ * <p>Functions to write and read task recordings.</p>
+ *
+ * <p>A task recording is a compact binary file holding the structure of a
+ * task tree, along with the description and message of each task and
+ * step. Recordings are designed to be read lazily, a block at a time,
+ * so that a viewer only decodes the parts of a tree that are displayed.
+ * Task results and exceptions are not recorded.</p>
+ */
+
+public final class MXTaskRecordings
+{
+  private MXTaskRecordings()
+  {
+
+  }
+
+  /**
+   * Write the given task to a recording file, replacing any existing file.
+   *
+   * @param task        The task
+   * @param file        The output file
+   * @param compression The compression applied to node records
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final TRTask<?> task,
+    final Path file,
+    final MXTaskRecordingCompression compression)
+    throws IOException
+  {
+    Objects.requireNonNull(task, "task");
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(compression, "compression");
+
+    MXTaskRecordingWriter.write(
+      task,
+      file,
+      compression == MXTaskRecordingCompression.DEFLATE
+    );
+  }
+
+  /**
+   * <p>Read a complete task tree from a recording file.</p>
+   *
+   * <p>As results and exceptions are not recorded, each successful task in
+   * the returned tree has an empty {@link Optional} as its result, and no
+   * failed task or step has an exception.</p>
+   *
+   * @param file The recording file
+   *
+   * @return The task
+   *
+   * @throws IOException On I/O errors, or if the file is not a valid task
+   *                     recording
+   */
+
+  public static TRTask<?> read(
+    final Path file)
+    throws IOException
+  {
+    try (var recording = MXTaskRecordingFile.open(file)) {
+      return readTree(file, recording);
+    } catch (final IllegalStateException | IndexOutOfBoundsException e) {
+      throw new IOException(
+        "%s: The file is corrupt.".formatted(file), e);
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static TRTask<?> readTree(
+    final Path file,
+    final MXTaskRecordingFile recording)
+    throws IOException
+  {
+    /*
+     * Nodes are visited in preorder. The items of each open task are
+     * accumulated until the end of the task's subtree is reached, at which
+     * point the task is constructed and added to the items of its parent.
+     */
+
+    final var open = new ArrayDeque<Integer>();
+    final var items = new ArrayDeque<List<TRTaskItemType>>();
+    TRTask<?> root = null;
+
+    final var count = recording.nodeCount();
+    for (int node = 0; node <= count; ++node) {
+      while (!open.isEmpty() && recording.end(open.peek().intValue()) <= node) {
+        final var task = task(recording, open.pop().intValue(), items.pop());
+        if (items.isEmpty()) {
+          root = task;
+        } else {
+          items.peek().add(task);
+        }
+      }
+
+      if (node == count) {
+        break;
+      }
+
+      final var isTask = (recording.kind(node) & KIND_TASK) != 0;
+      if (node == 0 ? !isTask : open.isEmpty()) {
+        throw new IOException("%s: The file is corrupt.".formatted(file));
+      }
+
+      if (isTask) {
+        open.push(Integer.valueOf(node));
+        items.push(new ArrayList<>());
+      } else {
+        items.peek().add(step(recording, node));
+      }
+    }
+    return root;
+  }
+
+  private static TRTask<?> task(
+    final MXTaskRecordingFile recording,
+    final int node,
+    final List<TRTaskItemType> items)
+  {
+    final var description =
+      recording.string(recording.description(node));
+    final var message =
+      recording.string(recording.message(node));
+
+    if ((recording.kind(node) & KIND_FAILED) != 0) {
+      return new TRTask<Optional<?>>(
+        description,
+        List.copyOf(items),
+        new TRTaskFailed<>(message, Optional.empty())
+      );
+    }
+    return new TRTask<Optional<?>>(
+      description,
+      List.copyOf(items),
+      new TRTaskSucceeded<>(message, Optional.empty())
+    );
+  }
+
+  private static TRStep step(
+    final MXTaskRecordingFile recording,
+    final int node)
+  {
+    final var description =
+      recording.string(recording.description(node));
+    final var message =
+      recording.string(recording.message(node));
+
+    if ((recording.kind(node) & KIND_FAILED) != 0) {
+      return new TRStep(description, new TRStepFailed(message, Optional.empty()));
+    }
+    return new TRStep(description, new TRStepSucceeded(message));
+  }
+}
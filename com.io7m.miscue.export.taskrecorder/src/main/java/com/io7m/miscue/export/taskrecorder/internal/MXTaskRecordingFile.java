@@ -0,0 +1,518 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.taskrecorder.internal;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.BLOCK_SIZE;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.FIELD_DEPTH;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.FIELD_DESCRIPTION;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.FIELD_END;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.FIELD_KIND;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.FIELD_MESSAGE;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.FIELD_PARENT;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.FLAG_COMPRESSED;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.HEADER_SIZE;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.MAGIC;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.RECORD_SIZE;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.VERSION;
+
+/**
+ * <p>An open task recording file.</p>
+ *
+ * <p>Opening a file only reads and validates the header; nodes and strings
+ * are read from the file when they are requested, and so the cost of
+ * opening a file does not depend on its size. Node records are read a
+ * block at a time (and decompressed, for compressed recordings) on first
+ * access, and a small number of recently used blocks are retained.
+ * Instances are safe to use from multiple threads.</p>
+ *
+ * <p>Reads are made with {@link RandomAccessFile} rather than with a
+ * {@link java.nio.channels.FileChannel} or a mapping: an interrupted
+ * thread (such as a cancelled report) would close a channel for every
+ * other reader, and Java 21 has no supported way to release a mapping
+ * before it is garbage collected. Closing a file closes it immediately,
+ * so that the file is not held open (and, on some platforms, locked)
+ * after it is no longer displayed. Reads that are in progress complete
+ * before the file is closed, and reads attempted after the file is closed
+ * fail with {@link IllegalStateException}.</p>
+ *
+ * @see MXTaskRecordingFormat
+ */
+
+public final class MXTaskRecordingFile implements Closeable
+{
+  private static final int CACHED_BLOCKS = 16;
+
+  private final Path file;
+  private final RandomAccessFile data;
+  private final long size;
+  private final boolean compressed;
+  private final int nodeCount;
+  private final int blockCount;
+  private final int stringCount;
+  private final int failureCount;
+  private final long blockIndex;
+  private final long stringIndex;
+  private final long failures;
+  private final LinkedHashMap<Integer, ByteBuffer> blocks;
+  private final ReentrantReadWriteLock lock;
+  private boolean closed;
+
+  private MXTaskRecordingFile(
+    final Path inFile,
+    final RandomAccessFile inData)
+    throws IOException
+  {
+    this.file = inFile;
+    this.data = inData;
+    this.size = inData.length();
+    this.lock = new ReentrantReadWriteLock();
+
+    if (this.size < HEADER_SIZE) {
+      throw this.invalid("Not a task recording file.");
+    }
+
+    final var header = ByteBuffer.allocate(HEADER_SIZE);
+    this.data.readFully(header.array());
+    if (header.getInt(0) != MAGIC) {
+      throw this.invalid("Not a task recording file.");
+    }
+    final var version = header.getInt(4);
+    if (version != VERSION) {
+      throw this.invalid("Unsupported format version %d.".formatted(version));
+    }
+
+    this.compressed = (header.getInt(8) & FLAG_COMPRESSED) != 0;
+    this.nodeCount = header.getInt(12);
+    this.blockCount = header.getInt(16);
+    this.stringCount = header.getInt(20);
+    this.failureCount = header.getInt(24);
+
+    final var blockSize = header.getInt(28);
+    this.blockIndex = header.getLong(32);
+    this.stringIndex = header.getLong(40);
+    this.failures = header.getLong(48);
+
+    if (blockSize != BLOCK_SIZE || this.nodeCount <= 0 || this.stringCount < 0) {
+      throw this.invalid("The file header is corrupt.");
+    }
+    if (this.failureCount < 0 || this.failureCount >= this.nodeCount) {
+      throw this.invalid("The file header is corrupt.");
+    }
+    if (this.blockCount != (this.nodeCount + BLOCK_SIZE - 1) / BLOCK_SIZE) {
+      throw this.invalid("The file header is corrupt.");
+    }
+    if (!this.within(this.blockIndex, (this.blockCount + 1L) * Long.BYTES)) {
+      throw this.invalid("The block index is corrupt.");
+    }
+    if (!this.within(this.stringIndex, (this.stringCount + 1L) * Long.BYTES)) {
+      throw this.invalid("The string index is corrupt.");
+    }
+    if (!this.within(this.failures, (long) this.failureCount * Integer.BYTES)) {
+      throw this.invalid("The failure list is corrupt.");
+    }
+
+    this.blocks = new LinkedHashMap<>(CACHED_BLOCKS, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry(
+        final Map.Entry<Integer, ByteBuffer> eldest)
+      {
+        return this.size() > CACHED_BLOCKS;
+      }
+    };
+  }
+
+  private boolean within(
+    final long offset,
+    final long length)
+  {
+    return offset >= HEADER_SIZE && offset + length <= this.size;
+  }
+
+  /**
+   * Open a task recording file.
+   *
+   * @param file The file
+   *
+   * @return The open file
+   *
+   * @throws IOException On I/O errors, or if the file is not a valid task
+   *                     recording
+   */
+
+  public static MXTaskRecordingFile open(
+    final Path file)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+
+    final var data = new RandomAccessFile(file.toFile(), "r");
+    try {
+      if (data.length() > Integer.MAX_VALUE) {
+        throw new IOException(
+          "%s: Task recordings larger than 2GiB are not supported."
+            .formatted(file)
+        );
+      }
+      return new MXTaskRecordingFile(file, data);
+    } catch (final IOException | RuntimeException e) {
+      data.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Close the file. Closing a closed file has no effect.
+   */
+
+  @Override
+  public void close()
+  {
+    final var write = this.lock.writeLock();
+    write.lock();
+    try {
+      if (!this.closed) {
+        this.closed = true;
+        synchronized (this.blocks) {
+          this.blocks.clear();
+        }
+        this.data.close();
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      write.unlock();
+    }
+  }
+
+  private void enter()
+  {
+    final var read = this.lock.readLock();
+    read.lock();
+    if (this.closed) {
+      read.unlock();
+      throw new IllegalStateException(
+        "%s: The file is closed.".formatted(this.file));
+    }
+  }
+
+  private void leave()
+  {
+    this.lock.readLock().unlock();
+  }
+
+  /**
+   * Read the given range of the file. Ranges that extend past the end of
+   * the file indicate corruption.
+   */
+
+  private ByteBuffer read(
+    final long offset,
+    final long length)
+  {
+    if (offset < HEADER_SIZE || length < 0L || offset + length > this.size) {
+      throw corrupt(this.file, null);
+    }
+
+    final var bytes = new byte[(int) length];
+    try {
+      synchronized (this.data) {
+        this.data.seek(offset);
+        this.data.readFully(bytes);
+      }
+    } catch (final EOFException e) {
+      throw corrupt(this.file, e);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return ByteBuffer.wrap(bytes);
+  }
+
+  private IOException invalid(
+    final String message)
+  {
+    return new IOException("%s: %s".formatted(this.file, message));
+  }
+
+  private static IllegalStateException corrupt(
+    final Path file,
+    final Throwable cause)
+  {
+    return new IllegalStateException(
+      "%s: The file is corrupt.".formatted(file),
+      cause
+    );
+  }
+
+  /**
+   * @return The number of nodes
+   */
+
+  public int nodeCount()
+  {
+    return this.nodeCount;
+  }
+
+  /**
+   * @return The number of distinct strings
+   */
+
+  public int stringCount()
+  {
+    return this.stringCount;
+  }
+
+  /**
+   * @return The number of failed nodes, not including the root
+   */
+
+  public int failureCount()
+  {
+    return this.failureCount;
+  }
+
+  /**
+   * @param index The failure index
+   *
+   * @return The index of the given failed node
+   */
+
+  public int failure(
+    final int index)
+  {
+    Objects.checkIndex(index, this.failureCount);
+
+    this.enter();
+    try {
+      return this.read(
+        this.failures + (long) index * Integer.BYTES,
+        Integer.BYTES
+      ).getInt(0);
+    } finally {
+      this.leave();
+    }
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The parent of the node, or {@code -1} for the root
+   */
+
+  public int parent(
+    final int node)
+  {
+    return this.field(node, FIELD_PARENT);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The index one past the last descendant of the node
+   */
+
+  public int end(
+    final int node)
+  {
+    return this.field(node, FIELD_END);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The depth of the node
+   */
+
+  public int depth(
+    final int node)
+  {
+    return this.field(node, FIELD_DEPTH);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The string index of the description of the node
+   */
+
+  public int description(
+    final int node)
+  {
+    return this.field(node, FIELD_DESCRIPTION);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The string index of the message of the node
+   */
+
+  public int message(
+    final int node)
+  {
+    return this.field(node, FIELD_MESSAGE);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The kind bits of the node
+   *
+   * @see MXTaskRecordingFormat#KIND_FAILED
+   * @see MXTaskRecordingFormat#KIND_TASK
+   * @see MXTaskRecordingFormat#KIND_FAILURE_PATH
+   */
+
+  public int kind(
+    final int node)
+  {
+    return this.field(node, FIELD_KIND) >>> 24;
+  }
+
+  /**
+   * @param index The string index
+   *
+   * @return The string
+   */
+
+  public String string(
+    final int index)
+  {
+    Objects.checkIndex(index, this.stringCount);
+
+    this.enter();
+    try {
+      final var entry =
+        this.read(this.stringIndex + (long) index * Long.BYTES, 2L * Long.BYTES);
+      final var start = entry.getLong(0);
+      final var end = entry.getLong(Long.BYTES);
+      if (end < start) {
+        throw corrupt(this.file, null);
+      }
+
+      return StandardCharsets.UTF_8
+        .decode(this.read(start, end - start))
+        .toString();
+    } finally {
+      this.leave();
+    }
+  }
+
+  private int field(
+    final int node,
+    final int field)
+  {
+    Objects.checkIndex(node, this.nodeCount);
+
+    final var block = node / BLOCK_SIZE;
+    final var offset = (node % BLOCK_SIZE) * RECORD_SIZE + field;
+
+    this.enter();
+    try {
+      return this.block(block).getInt(offset);
+    } finally {
+      this.leave();
+    }
+  }
+
+  private long blockOffset(
+    final int block)
+  {
+    final var offset =
+      this.read(this.blockIndex + (long) block * Long.BYTES, Long.BYTES)
+        .getLong(0);
+    if (offset < HEADER_SIZE || offset > this.blockIndex) {
+      throw corrupt(this.file, null);
+    }
+    return offset;
+  }
+
+  private ByteBuffer block(
+    final int block)
+  {
+    synchronized (this.blocks) {
+      final var key = Integer.valueOf(block);
+      final var existing = this.blocks.get(key);
+      if (existing != null) {
+        return existing;
+      }
+
+      final var start = this.blockOffset(block);
+      final var end = this.blockOffset(block + 1);
+      if (end < start) {
+        throw corrupt(this.file, null);
+      }
+
+      final var records =
+        Math.min(BLOCK_SIZE, this.nodeCount - block * BLOCK_SIZE);
+      final var length = records * RECORD_SIZE;
+      final ByteBuffer buffer;
+      if (this.compressed) {
+        buffer = this.inflate(this.read(start, end - start), length);
+      } else {
+        buffer = this.read(start, length);
+      }
+
+      this.blocks.put(key, buffer);
+      return buffer;
+    }
+  }
+
+  private ByteBuffer inflate(
+    final ByteBuffer input,
+    final int length)
+  {
+    final var output = new byte[length];
+    final var inflater = new Inflater();
+    try {
+      inflater.setInput(input);
+      int done = 0;
+      while (done < output.length && !inflater.finished()) {
+        final var count =
+          inflater.inflate(output, done, output.length - done);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        done += count;
+      }
+      if (done != output.length) {
+        throw corrupt(this.file, null);
+      }
+    } catch (final DataFormatException e) {
+      throw corrupt(this.file, e);
+    } finally {
+      inflater.end();
+    }
+    return ByteBuffer.wrap(output);
+  }
+}
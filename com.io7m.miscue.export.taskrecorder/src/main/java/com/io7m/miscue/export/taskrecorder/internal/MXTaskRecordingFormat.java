@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.taskrecorder.internal;
+
+/**
+ * <p>The constants that describe the task recording file format.</p>
+ *
+ * <p>All integers are big-endian. A file consists of:</p>
+ *
+ * <ul>
+ *   <li>A header of {@link #HEADER_SIZE} octets.</li>
+ *   <li>The node records, in preorder, divided into blocks of
+ *   {@link #BLOCK_SIZE} records. Each block is either stored directly or
+ *   compressed with DEFLATE.</li>
+ *   <li>The block index: one 64-bit file offset per block, followed by the
+ *   offset of the end of the last block.</li>
+ *   <li>The string data: the UTF-8 encoded descriptions and messages.</li>
+ *   <li>The string index: one 64-bit file offset per string, followed by the
+ *   offset of the end of the last string.</li>
+ *   <li>The failures: the 32-bit index of each failed node (other than the
+ *   root), in preorder.</li>
+ * </ul>
+ *
+ * <p>Each node record holds the index of the parent of the node, the index
+ * one past the last descendant of the node, the depth of the node, the
+ * string indices of the description and message of the node, and the kind
+ * bits of the node.</p>
+ */
+
+public final class MXTaskRecordingFormat
+{
+  /**
+   * The file magic number ("MTR\n").
+   */
+
+  public static final int MAGIC = 0x4D54520A;
+
+  /**
+   * The current format version.
+   */
+
+  public static final int VERSION = 1;
+
+  /**
+   * The size of the header.
+   */
+
+  public static final int HEADER_SIZE = 64;
+
+  /**
+   * The size of a node record.
+   */
+
+  public static final int RECORD_SIZE = 24;
+
+  /**
+   * The number of records in a block.
+   */
+
+  public static final int BLOCK_SIZE = 4096;
+
+  /**
+   * The header flag indicating that blocks are compressed.
+   */
+
+  public static final int FLAG_COMPRESSED = 0b1;
+
+  /**
+   * The kind bit indicating a failed node.
+   */
+
+  public static final int KIND_FAILED = 0b001;
+
+  /**
+   * The kind bit indicating a task (rather than a step).
+   */
+
+  public static final int KIND_TASK = 0b010;
+
+  /**
+   * The kind bit indicating a node that is, or is an ancestor of, a failed
+   * node.
+   */
+
+  public static final int KIND_FAILURE_PATH = 0b100;
+
+  /**
+   * The offset of the parent field in a record.
+   */
+
+  public static final int FIELD_PARENT = 0;
+
+  /**
+   * The offset of the end field in a record.
+   */
+
+  public static final int FIELD_END = 4;
+
+  /**
+   * The offset of the depth field in a record.
+   */
+
+  public static final int FIELD_DEPTH = 8;
+
+  /**
+   * The offset of the description field in a record.
+   */
+
+  public static final int FIELD_DESCRIPTION = 12;
+
+  /**
+   * The offset of the message field in a record.
+   */
+
+  public static final int FIELD_MESSAGE = 16;
+
+  /**
+   * The offset of the kind field in a record.
+   */
+
+  public static final int FIELD_KIND = 20;
+
+  private MXTaskRecordingFormat()
+  {
+
+  }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.taskrecorder.internal;
+
+import com.io7m.taskrecorder.core.TRTask;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.BLOCK_SIZE;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.FLAG_COMPRESSED;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.HEADER_SIZE;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.KIND_FAILED;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.KIND_FAILURE_PATH;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.MAGIC;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.RECORD_SIZE;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.VERSION;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * <p>A writer of task recording files.</p>
+ *
+ * <p>The tree is flattened into preorder arrays by a
+ * {@link MXTaskTreeFlattener}, with identical descriptions and messages
+ * stored once, and the arrays are then written block by block.</p>
+ *
+ * @see MXTaskRecordingFormat
+ */
+
+public final class MXTaskRecordingWriter
+{
+  private final int size;
+  private final int[] parents;
+  private final int[] ends;
+  private final int[] depths;
+  private final int[] descriptions;
+  private final int[] messages;
+  private final byte[] kinds;
+  private final List<String> strings;
+
+  private MXTaskRecordingWriter(
+    final MXTaskTreeFlattener tree)
+  {
+    this.size = tree.size();
+    this.parents = tree.parents();
+    this.ends = tree.ends();
+    this.depths = tree.depths();
+    this.descriptions = tree.descriptions();
+    this.messages = tree.messages();
+    this.kinds = tree.kinds();
+    this.strings = tree.strings();
+  }
+
+  /**
+   * Write the given task to a file.
+   *
+   * @param task       The task
+   * @param file       The output file
+   * @param compressed {@code true} if blocks should be compressed
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final TRTask<?> task,
+    final Path file,
+    final boolean compressed)
+    throws IOException
+  {
+    final var tree = new MXTaskTreeFlattener(true);
+    tree.addTree(-1, task);
+    tree.finish();
+
+    final var writer = new MXTaskRecordingWriter(tree);
+    writer.markFailurePaths();
+
+    try (var channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE)) {
+      writer.writeTo(channel, compressed);
+    }
+  }
+
+  private void markFailurePaths()
+  {
+    for (int node = 1; node < this.size; ++node) {
+      if ((this.kinds[node] & KIND_FAILED) == 0) {
+        continue;
+      }
+      int ancestor = node;
+      while (ancestor >= 0 && (this.kinds[ancestor] & KIND_FAILURE_PATH) == 0) {
+        this.kinds[ancestor] |= (byte) KIND_FAILURE_PATH;
+        ancestor = this.parents[ancestor];
+      }
+    }
+  }
+
+  private void writeTo(
+    final FileChannel channel,
+    final boolean compressed)
+    throws IOException
+  {
+    final var output = new Output(channel, HEADER_SIZE);
+    final var blockIndex = this.writeBlocks(output, compressed);
+    final var stringIndex = this.writeStrings(output);
+    final var failures = output.position();
+    final var failureCount = this.writeFailures(output);
+    output.flush();
+
+    /*
+     * The header is written last, as it contains the offsets of all of the
+     * other sections.
+     */
+
+    final var header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC);
+    header.putInt(VERSION);
+    header.putInt(compressed ? FLAG_COMPRESSED : 0);
+    header.putInt(this.size);
+    header.putInt(blockCount(this.size));
+    header.putInt(this.strings.size());
+    header.putInt(failureCount);
+    header.putInt(BLOCK_SIZE);
+    header.putLong(blockIndex);
+    header.putLong(stringIndex);
+    header.putLong(failures);
+    header.clear();
+
+    while (header.hasRemaining()) {
+      channel.write(header, header.position());
+    }
+  }
+
+  private static int blockCount(
+    final int size)
+  {
+    return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+  }
+
+  /**
+   * Write the node records, followed by the block index.
+   *
+   * @return The offset of the block index
+   */
+
+  private long writeBlocks(
+    final Output output,
+    final boolean compressed)
+    throws IOException
+  {
+    final var blockCount = blockCount(this.size);
+    final var blockOffsets = new long[blockCount + 1];
+    final var block = ByteBuffer.allocate(BLOCK_SIZE * RECORD_SIZE);
+    final var deflater = new Deflater();
+    final var deflated = new byte[16384];
+
+    try {
+      for (int index = 0; index < blockCount; ++index) {
+        blockOffsets[index] = output.position();
+        this.fillBlock(block, index);
+
+        if (compressed) {
+          deflater.reset();
+          deflater.setInput(block.array(), 0, block.position());
+          deflater.finish();
+          while (!deflater.finished()) {
+            final var length = deflater.deflate(deflated);
+            output.put(deflated, 0, length);
+          }
+        } else {
+          output.put(block.array(), 0, block.position());
+        }
+      }
+    } finally {
+      deflater.end();
+    }
+    blockOffsets[blockCount] = output.position();
+
+    final var blockIndex = output.position();
+    for (final var offset : blockOffsets) {
+      output.putLong(offset);
+    }
+    return blockIndex;
+  }
+
+  private void fillBlock(
+    final ByteBuffer block,
+    final int index)
+  {
+    block.clear();
+
+    final var first = index * BLOCK_SIZE;
+    final var last = Math.min(this.size, first + BLOCK_SIZE);
+    for (int node = first; node < last; ++node) {
+      block.putInt(this.parents[node]);
+      block.putInt(this.ends[node]);
+      block.putInt(this.depths[node]);
+      block.putInt(this.descriptions[node]);
+      block.putInt(this.messages[node]);
+      block.put(this.kinds[node]);
+      block.put((byte) 0);
+      block.putShort((short) 0);
+    }
+  }
+
+  /**
+   * Write the string data, followed by the string index.
+   *
+   * @return The offset of the string index
+   */
+
+  private long writeStrings(
+    final Output output)
+    throws IOException
+  {
+    final var stringOffsets = new long[this.strings.size() + 1];
+    for (int index = 0; index < this.strings.size(); ++index) {
+      stringOffsets[index] = output.position();
+      final var bytes = this.strings.get(index).getBytes(StandardCharsets.UTF_8);
+      output.put(bytes, 0, bytes.length);
+    }
+    stringOffsets[this.strings.size()] = output.position();
+
+    final var stringIndex = output.position();
+    for (final var offset : stringOffsets) {
+      output.putLong(offset);
+    }
+    return stringIndex;
+  }
+
+  /**
+   * Write the failed nodes.
+   *
+   * @return The number of failed nodes
+   */
+
+  private int writeFailures(
+    final Output output)
+    throws IOException
+  {
+    int failureCount = 0;
+    for (int node = 1; node < this.size; ++node) {
+      if ((this.kinds[node] & KIND_FAILED) != 0) {
+        output.putInt(node);
+        ++failureCount;
+      }
+    }
+    return failureCount;
+  }
+
+  /**
+   * A buffered sequential output to a file channel.
+   */
+
+  private static final class Output
+  {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long position;
+
+    Output(
+      final FileChannel inChannel,
+      final long inPosition)
+    {
+      this.channel = inChannel;
+      this.buffer = ByteBuffer.allocate(65536);
+      this.position = inPosition;
+    }
+
+    long position()
+    {
+      return this.position + this.buffer.position();
+    }
+
+    void putInt(
+      final int value)
+      throws IOException
+    {
+      this.ensure(Integer.BYTES);
+      this.buffer.putInt(value);
+    }
+
+    void putLong(
+      final long value)
+      throws IOException
+    {
+      this.ensure(Long.BYTES);
+      this.buffer.putLong(value);
+    }
+
+    void put(
+      final byte[] data,
+      final int offset,
+      final int length)
+      throws IOException
+    {
+      int written = 0;
+      while (written < length) {
+        if (!this.buffer.hasRemaining()) {
+          this.flush();
+        }
+        final var count = Math.min(length - written, this.buffer.remaining());
+        this.buffer.put(data, offset + written, count);
+        written += count;
+      }
+    }
+
+    private void ensure(
+      final int count)
+      throws IOException
+    {
+      if (this.buffer.remaining() < count) {
+        this.flush();
+      }
+    }
+
+    void flush()
+      throws IOException
+    {
+      this.buffer.flip();
+      while (this.buffer.hasRemaining()) {
+        this.position += this.channel.write(this.buffer, this.position);
+      }
+      this.buffer.clear();
+    }
+  }
+}
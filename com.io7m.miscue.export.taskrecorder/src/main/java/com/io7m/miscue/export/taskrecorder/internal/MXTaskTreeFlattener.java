@@ -0,0 +1,336 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.taskrecorder.internal;
+
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepFailed;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskFailed;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.KIND_FAILED;
+import static com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat.KIND_TASK;
+
+/**
+ * <p>A flattener of task trees into preorder arrays.</p>
+ *
+ * <p>Nodes are accepted in preorder, either one at a time or by walking a
+ * task tree without recursion. Each property of a node is stored in a
+ * separate primitive array indexed by node number, and strings are
+ * interned into a table so that repeated strings are stored once. The
+ * same flattening is used both to write task recordings and to build
+ * in-memory task tree models.</p>
+ *
+ * @see MXTaskRecordingFormat
+ */
+
+public final class MXTaskTreeFlattener
+{
+  private final boolean withMessages;
+  private final HashMap<String, Integer> stringIds;
+  private final ArrayList<String> strings;
+  private final ArrayList<Integer> open;
+  private int[] parents;
+  private int[] ends;
+  private int[] depths;
+  private int[] descriptions;
+  private int[] messages;
+  private byte[] kinds;
+  private int size;
+
+  /**
+   * Create a flattener.
+   *
+   * @param inWithMessages {@code true} if messages should be recorded in
+   *                       the string table along with descriptions
+   */
+
+  public MXTaskTreeFlattener(
+    final boolean inWithMessages)
+  {
+    this.withMessages = inWithMessages;
+    this.stringIds = new HashMap<>();
+    this.strings = new ArrayList<>();
+    this.open = new ArrayList<>();
+    this.parents = new int[64];
+    this.ends = new int[64];
+    this.depths = new int[64];
+    this.descriptions = new int[64];
+    this.messages = new int[64];
+    this.kinds = new byte[64];
+  }
+
+  /**
+   * Add the given item, and all of its descendants, in a single
+   * non-recursive pass.
+   *
+   * @param parent The parent node, or {@code -1} if the item is the root
+   * @param item   The item
+   *
+   * @return The node of the item
+   */
+
+  public int addTree(
+    final int parent,
+    final TRTaskItemType item)
+  {
+    final var root = this.addItem(parent, item);
+    if (!(item instanceof final TRTask<?> task)) {
+      return root;
+    }
+
+    final var pending = new ArrayDeque<Iterator<TRTaskItemType>>();
+    final var nodes = new ArrayDeque<Integer>();
+    nodes.push(Integer.valueOf(root));
+    pending.push(task.items().iterator());
+
+    while (!pending.isEmpty()) {
+      final var items = pending.peek();
+      if (!items.hasNext()) {
+        pending.pop();
+        nodes.pop();
+        continue;
+      }
+
+      final var child = items.next();
+      final var node = this.addItem(nodes.peek().intValue(), child);
+      if (child instanceof final TRTask<?> childTask) {
+        nodes.push(Integer.valueOf(node));
+        pending.push(childTask.items().iterator());
+      }
+    }
+    return root;
+  }
+
+  private int addItem(
+    final int parent,
+    final TRTaskItemType item)
+  {
+    return switch (item) {
+      case final TRTask<?> task -> {
+        yield switch (task.resolution()) {
+          case final TRTaskFailed<?> failed -> this.add(
+            parent,
+            KIND_TASK | KIND_FAILED,
+            task.description(),
+            failed.message()
+          );
+          case final TRTaskSucceeded<?> succeeded -> this.add(
+            parent,
+            KIND_TASK,
+            task.description(),
+            succeeded.message()
+          );
+        };
+      }
+      case final TRStep step -> {
+        yield switch (step.resolution()) {
+          case final TRStepFailed failed -> this.add(
+            parent,
+            KIND_FAILED,
+            step.description(),
+            failed.message()
+          );
+          case final TRStepSucceeded succeeded -> this.add(
+            parent,
+            0,
+            step.description(),
+            succeeded.message()
+          );
+        };
+      }
+    };
+  }
+
+  /**
+   * Add a node. The first node added is the root, and every subsequent
+   * node must be a descendant of the root added in preorder.
+   *
+   * @param parent      The parent node, or {@code -1} for the root
+   * @param kind        The node kind bits
+   * @param description The node description
+   * @param message     The node message (ignored if messages are not
+   *                    recorded)
+   *
+   * @return The new node
+   *
+   * @see MXTaskRecordingFormat#KIND_FAILED
+   * @see MXTaskRecordingFormat#KIND_TASK
+   */
+
+  public int add(
+    final int parent,
+    final int kind,
+    final String description,
+    final String message)
+  {
+    final var node = this.size;
+    if ((node == 0) != (parent == -1)) {
+      throw new IllegalArgumentException(
+        "Node %d cannot have parent %d".formatted(
+          Integer.valueOf(node),
+          Integer.valueOf(parent))
+      );
+    }
+
+    while (!this.open.isEmpty()) {
+      final int last = this.open.get(this.open.size() - 1).intValue();
+      if (last == parent) {
+        break;
+      }
+      this.ends[last] = node;
+      this.open.remove(this.open.size() - 1);
+    }
+    if (node != 0 && this.open.isEmpty()) {
+      throw new IllegalArgumentException(
+        "Node %d is not a descendant of an open node".formatted(
+          Integer.valueOf(parent))
+      );
+    }
+
+    if (node == this.parents.length) {
+      final var capacity = node << 1;
+      this.parents = Arrays.copyOf(this.parents, capacity);
+      this.ends = Arrays.copyOf(this.ends, capacity);
+      this.depths = Arrays.copyOf(this.depths, capacity);
+      this.descriptions = Arrays.copyOf(this.descriptions, capacity);
+      this.messages = Arrays.copyOf(this.messages, capacity);
+      this.kinds = Arrays.copyOf(this.kinds, capacity);
+    }
+
+    this.parents[node] = parent;
+    this.depths[node] = parent == -1 ? 0 : this.depths[parent] + 1;
+    this.descriptions[node] = this.string(description);
+    if (this.withMessages) {
+      this.messages[node] = this.string(message);
+    }
+    this.kinds[node] = (byte) kind;
+    this.open.add(Integer.valueOf(node));
+    this.size = node + 1;
+    return node;
+  }
+
+  private int string(
+    final String text)
+  {
+    return this.stringIds.computeIfAbsent(text, key -> {
+      this.strings.add(key);
+      return Integer.valueOf(this.strings.size() - 1);
+    }).intValue();
+  }
+
+  /**
+   * Close every node that is still open. No nodes may be added afterwards.
+   *
+   * @throws IllegalStateException If no root node has been added
+   */
+
+  public void finish()
+  {
+    if (this.size == 0) {
+      throw new IllegalStateException("A tree requires a root node.");
+    }
+
+    for (final var node : this.open) {
+      this.ends[node.intValue()] = this.size;
+    }
+    this.open.clear();
+  }
+
+  /**
+   * @return The number of nodes
+   */
+
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * @return The parent of each node ({@code -1} for the root)
+   */
+
+  public int[] parents()
+  {
+    return Arrays.copyOf(this.parents, this.size);
+  }
+
+  /**
+   * @return The index one past the last descendant of each node
+   */
+
+  public int[] ends()
+  {
+    return Arrays.copyOf(this.ends, this.size);
+  }
+
+  /**
+   * @return The depth of each node
+   */
+
+  public int[] depths()
+  {
+    return Arrays.copyOf(this.depths, this.size);
+  }
+
+  /**
+   * @return The string index of the description of each node
+   */
+
+  public int[] descriptions()
+  {
+    return Arrays.copyOf(this.descriptions, this.size);
+  }
+
+  /**
+   * @return The string index of the message of each node (all zero if
+   *         messages are not recorded)
+   */
+
+  public int[] messages()
+  {
+    return Arrays.copyOf(this.messages, this.size);
+  }
+
+  /**
+   * @return The kind bits of each node
+   */
+
+  public byte[] kinds()
+  {
+    return Arrays.copyOf(this.kinds, this.size);
+  }
+
+  /**
+   * @return The interned strings
+   */
+
+  public List<String> strings()
+  {
+    return List.copyOf(this.strings);
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+/**
+ * UI error dialogs (Taskrecorder export).
+ */
+
+@SuppressWarnings("module")
+module com.io7m.miscue.export.taskrecorder
+{
+  requires static org.osgi.annotation.bundle;
+  requires static org.osgi.annotation.versioning;
+
+  requires com.io7m.miscue.export;
+  requires com.io7m.taskrecorder.core;
+
+  exports com.io7m.miscue.export.taskrecorder;
+
+  /*
+   * Not part of the public API. The target modules are built later in the
+   * reactor, and so are not observable when this module is compiled; the
+   * resulting warnings are suppressed on the module declaration.
+   */
+
+  exports com.io7m.miscue.export.taskrecorder.internal
+    to com.io7m.miscue.fx.taskrecorder,
+      com.io7m.miscue.tests;
+}
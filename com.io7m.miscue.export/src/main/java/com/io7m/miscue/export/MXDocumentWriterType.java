@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export;
+
+import java.io.IOException;
+
+/**
+ * <p>A streaming writer of exported documents.</p>
+ *
+ * <p>A document is written as a sequence of calls, and each call writes its
+ * output immediately; nothing is accumulated other than a small amount of
+ * state per level of nesting. A document consists of a call to
+ * {@link #begin(String)}, any number of fields, attribute lists, line
+ * lists, and trees, and a call to {@link #end()}. Fields, attribute lists,
+ * and line lists must have distinct names within the document. A line list
+ * may also be written inside a tree node, provided that it is written
+ * before any children of the node.</p>
+ */
+
+public interface MXDocumentWriterType
+{
+  /**
+   * Begin the document.
+   *
+   * @param title The document title
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void begin(
+    String title)
+    throws IOException;
+
+  /**
+   * Write a named field.
+   *
+   * @param name  The field name
+   * @param value The field value
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void field(
+    String name,
+    String value)
+    throws IOException;
+
+  /**
+   * Begin a list of attributes.
+   *
+   * @param name The name of the list
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void beginAttributes(
+    String name)
+    throws IOException;
+
+  /**
+   * Write an attribute.
+   *
+   * @param name  The attribute name
+   * @param value The attribute value
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void attribute(
+    String name,
+    String value)
+    throws IOException;
+
+  /**
+   * End the current list of attributes.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void endAttributes()
+    throws IOException;
+
+  /**
+   * Begin a list of lines of preformatted text.
+   *
+   * @param name The name of the list
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void beginLines(
+    String name)
+    throws IOException;
+
+  /**
+   * Write a line of preformatted text. The line consists of the prefix
+   * followed by the text; the two are written consecutively rather than
+   * being concatenated first.
+   *
+   * @param prefix The line prefix
+   * @param text   The line text
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void line(
+    String prefix,
+    String text)
+    throws IOException;
+
+  /**
+   * End the current list of lines.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void endLines()
+    throws IOException;
+
+  /**
+   * Begin a tree.
+   *
+   * @param name The name of the tree
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void beginTree(
+    String name)
+    throws IOException;
+
+  /**
+   * Begin a tree node. The node is a child of the node that is currently
+   * open, or a root of the tree if no node is open.
+   *
+   * @param kind        The kind of node
+   * @param description The node description
+   * @param failed      {@code true} if the node represents a failure
+   * @param message     The message associated with the node
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void beginNode(
+    MXNodeKind kind,
+    String description,
+    boolean failed,
+    String message)
+    throws IOException;
+
+  /**
+   * End the current tree node.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void endNode()
+    throws IOException;
+
+  /**
+   * End the current tree.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void endTree()
+    throws IOException;
+
+  /**
+   * End the document and flush the underlying writer. The underlying
+   * writer is not closed.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void end()
+    throws IOException;
+}
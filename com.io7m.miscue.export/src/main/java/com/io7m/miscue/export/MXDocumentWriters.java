@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export;
+
+import com.io7m.miscue.export.internal.MXHTMLWriter;
+import com.io7m.miscue.export.internal.MXJSONWriter;
+import com.io7m.miscue.export.internal.MXTextWriter;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Functions to create document writers.
+ */
+
+public final class MXDocumentWriters
+{
+  private MXDocumentWriters()
+  {
+
+  }
+
+  /**
+   * Create a document writer that writes to the given writer.
+   *
+   * @param format The output format
+   * @param writer The underlying writer
+   *
+   * @return A document writer
+   */
+
+  public static MXDocumentWriterType create(
+    final MXFormat format,
+    final Writer writer)
+  {
+    Objects.requireNonNull(format, "format");
+    Objects.requireNonNull(writer, "writer");
+
+    return switch (format) {
+      case TEXT -> new MXTextWriter(writer);
+      case JSON -> new MXJSONWriter(writer);
+      case HTML -> new MXHTMLWriter(writer);
+    };
+  }
+
+  /**
+   * Create a document writer that writes UTF-8 text to the given stream.
+   * The stream is flushed, but not closed, when the document ends.
+   *
+   * @param format The output format
+   * @param stream The underlying stream
+   *
+   * @return A document writer
+   */
+
+  public static MXDocumentWriterType create(
+    final MXFormat format,
+    final OutputStream stream)
+  {
+    Objects.requireNonNull(stream, "stream");
+    return create(
+      format,
+      new BufferedWriter(new OutputStreamWriter(stream, UTF_8))
+    );
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export;
+
+import com.io7m.miscue.export.internal.MXAttributes;
+import com.io7m.miscue.export.internal.MXBundleWriter;
+import com.io7m.miscue.export.internal.MXExceptionLines;
+import com.io7m.seltzer.api.SStructuredErrorType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>Functions to write error report bundles.</p>
+ *
+ * <p>A bundle is a zip file containing:</p>
+ *
+ * <ul>
+ *   <li>{@code error.txt}: the error as text, as produced by
+ *   {@link MXErrorExports}.</li>
+ *   <li>{@code attributes.json}: the attributes of the error as a JSON
+ *   document.</li>
+ *   <li>{@code exception.txt}: the complete exception chain, if the error
+ *   has an exception.</li>
+ *   <li>{@code snapshot.png}: an image of the dialog, if one was
+ *   captured.</li>
+ * </ul>
+ */
+
+public final class MXErrorBundles
+{
+  private MXErrorBundles()
+  {
+
+  }
+
+  /**
+   * Write a report bundle for the given error, replacing any existing
+   * file.
+   *
+   * @param error    The error
+   * @param snapshot An image of the dialog, if any
+   * @param file     The output file
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final SStructuredErrorType<?> error,
+    final Optional<MXSnapshot> snapshot,
+    final Path file)
+    throws IOException
+  {
+    write(error, snapshot, file, () -> false);
+  }
+
+  /**
+   * Write a report bundle for the given error, replacing any existing
+   * file. The cancellation function is checked before each entry of the
+   * bundle is written; if writing is cancelled, the file is left
+   * incomplete.
+   *
+   * @param error     The error
+   * @param snapshot  An image of the dialog, if any
+   * @param file      The output file
+   * @param cancelled A function that returns {@code true} if writing the
+   *                  bundle has been cancelled
+   *
+   * @throws IOException           On I/O errors
+   * @throws CancellationException If writing was cancelled
+   */
+
+  public static void write(
+    final SStructuredErrorType<?> error,
+    final Optional<MXSnapshot> snapshot,
+    final Path file,
+    final BooleanSupplier cancelled)
+    throws IOException
+  {
+    Objects.requireNonNull(error, "error");
+    Objects.requireNonNull(snapshot, "snapshot");
+    Objects.requireNonNull(file, "file");
+
+    try (var bundle = MXBundleWriter.create(file, cancelled)) {
+      MXErrorExports.export(
+        error,
+        MXFormat.TEXT,
+        bundle.beginText("error.txt")
+      );
+
+      final var attributes =
+        MXDocumentWriters.create(
+          MXFormat.JSON,
+          bundle.beginText("attributes.json")
+        );
+      attributes.begin(error.message());
+      attributes.beginAttributes("attributes");
+      for (final var entry : MXAttributes.sorted(error.attributes())) {
+        attributes.attribute(entry.getKey(), entry.getValue());
+      }
+      attributes.endAttributes();
+      attributes.end();
+
+      final var exception = error.exception();
+      if (exception.isPresent()) {
+        final var writer = bundle.beginText("exception.txt");
+        MXExceptionLines.walk(exception.get(), (prefix, text) -> {
+          writer.write(prefix);
+          writer.write(text);
+          writer.write('\n');
+        });
+      }
+
+      if (snapshot.isPresent()) {
+        bundle.image("snapshot.png", snapshot.get());
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export;
+
+import com.io7m.miscue.export.internal.MXAttributes;
+import com.io7m.miscue.export.internal.MXExceptionLines;
+import com.io7m.seltzer.api.SStructuredErrorType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * <p>Functions to export structured errors.</p>
+ *
+ * <p>An exported error contains the same content as an error dialog: the
+ * error code, the message, the attributes sorted by name, the remediating
+ * action (if any), and the exception (if any), formatted in exactly the
+ * same way as {@link Throwable#printStackTrace()}. The output is streamed
+ * to the underlying writer as it is produced.</p>
+ */
+
+public final class MXErrorExports
+{
+  private MXErrorExports()
+  {
+
+  }
+
+  /**
+   * Export the given error.
+   *
+   * @param error  The error
+   * @param format The output format
+   * @param writer The output writer; flushed, but not closed
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void export(
+    final SStructuredErrorType<?> error,
+    final MXFormat format,
+    final Writer writer)
+    throws IOException
+  {
+    write(error, MXDocumentWriters.create(format, writer));
+  }
+
+  /**
+   * Export the given error as UTF-8 text.
+   *
+   * @param error  The error
+   * @param format The output format
+   * @param stream The output stream; flushed, but not closed
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void export(
+    final SStructuredErrorType<?> error,
+    final MXFormat format,
+    final OutputStream stream)
+    throws IOException
+  {
+    write(error, MXDocumentWriters.create(format, stream));
+  }
+
+  /**
+   * Export the given error as a complete document.
+   *
+   * @param error  The error
+   * @param writer The document writer
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final SStructuredErrorType<?> error,
+    final MXDocumentWriterType writer)
+    throws IOException
+  {
+    Objects.requireNonNull(error, "error");
+    Objects.requireNonNull(writer, "writer");
+
+    writer.begin(error.message());
+    writer.field("errorCode", String.valueOf(error.errorCode()));
+    writer.field("message", error.message());
+
+    writer.beginAttributes("attributes");
+    for (final var entry : MXAttributes.sorted(error.attributes())) {
+      writer.attribute(entry.getKey(), entry.getValue());
+    }
+    writer.endAttributes();
+
+    final var remediation = error.remediatingAction();
+    if (remediation.isPresent()) {
+      writer.field("remediatingAction", remediation.get());
+    }
+
+    final var exception = error.exception();
+    if (exception.isPresent()) {
+      writer.beginLines("exception");
+      MXExceptionLines.walk(exception.get(), writer::line);
+      writer.endLines();
+    }
+
+    writer.end();
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The ordering of error attributes shared by dialogs and exporters.
+ */
+
+public final class MXAttributes
+{
+  private MXAttributes()
+  {
+
+  }
+
+  /**
+   * Sort the given attributes by name.
+   *
+   * @param attributes The attributes
+   *
+   * @return The attributes, sorted by name
+   */
+
+  public static List<Map.Entry<String, String>> sorted(
+    final Map<String, String> attributes)
+  {
+    Objects.requireNonNull(attributes, "attributes");
+
+    final var entries =
+      new ArrayList<Map.Entry<String, String>>(attributes.entrySet());
+    entries.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+    return entries;
+  }
+}
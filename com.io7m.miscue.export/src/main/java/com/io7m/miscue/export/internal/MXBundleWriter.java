@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import com.io7m.miscue.export.MXSnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * <p>A writer of report bundles.</p>
+ *
+ * <p>A bundle is a zip file. Entries are compressed and written as they
+ * are produced; nothing is accumulated in memory beyond the buffers of
+ * the underlying streams. A cancellation check is made before each entry
+ * is started, so that cancelling a bundle does not wait for the remaining
+ * entries to be written.</p>
+ */
+
+public final class MXBundleWriter implements Closeable
+{
+  private final ZipOutputStream zip;
+  private final Writer text;
+  private final BooleanSupplier cancelled;
+  private boolean entryOpen;
+
+  private MXBundleWriter(
+    final ZipOutputStream inZip,
+    final BooleanSupplier inCancelled)
+  {
+    this.zip = inZip;
+    this.text = new OutputStreamWriter(this.zip, UTF_8);
+    this.cancelled = inCancelled;
+  }
+
+  /**
+   * Create a bundle, replacing any existing file.
+   *
+   * @param file      The output file
+   * @param cancelled A function that returns {@code true} if writing the
+   *                  bundle has been cancelled
+   *
+   * @return A bundle writer
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static MXBundleWriter create(
+    final Path file,
+    final BooleanSupplier cancelled)
+    throws IOException
+  {
+    Objects.requireNonNull(cancelled, "cancelled");
+    return new MXBundleWriter(
+      new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file))),
+      cancelled
+    );
+  }
+
+  /**
+   * Start a text entry. The returned writer must not be closed, and is
+   * only valid until the next entry is started.
+   *
+   * @param name The entry name
+   *
+   * @return A writer of UTF-8 text
+   *
+   * @throws IOException           On I/O errors
+   * @throws CancellationException If writing has been cancelled
+   */
+
+  public Writer beginText(
+    final String name)
+    throws IOException
+  {
+    this.begin(name);
+    return this.text;
+  }
+
+  /**
+   * Write an image entry in PNG format.
+   *
+   * @param name  The entry name
+   * @param image The image
+   *
+   * @throws IOException           On I/O errors
+   * @throws CancellationException If writing has been cancelled
+   */
+
+  public void image(
+    final String name,
+    final MXSnapshot image)
+    throws IOException
+  {
+    this.begin(name);
+    MXPNGWriter.write(image, this.zip);
+  }
+
+  private void begin(
+    final String name)
+    throws IOException
+  {
+    this.end();
+    if (this.cancelled.getAsBoolean()) {
+      throw new CancellationException("Writing the bundle was cancelled.");
+    }
+    this.zip.putNextEntry(new ZipEntry(name));
+    this.entryOpen = true;
+  }
+
+  private void end()
+    throws IOException
+  {
+    if (this.entryOpen) {
+      this.text.flush();
+      this.zip.closeEntry();
+      this.entryOpen = false;
+    }
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    try {
+      this.end();
+    } finally {
+      this.text.close();
+    }
+  }
+}
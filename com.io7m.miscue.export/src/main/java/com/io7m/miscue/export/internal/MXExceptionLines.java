@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>A stack trace formatter that produces one line at a time.</p>
+ *
+ * <p>Traces are formatted in exactly the same way as
+ * {@link Throwable#printStackTrace()}: frames that a cause or suppressed
+ * exception has in common with its enclosing trace are folded into a
+ * single {@code ... N more} line, and circular references are reported
+ * rather than followed. Unlike {@code printStackTrace}, the formatter is
+ * not recursive, and so arbitrarily long cause chains cannot exhaust the
+ * stack. Lines are passed to a receiver without line terminators.</p>
+ */
+
+public final class MXExceptionLines
+{
+  private MXExceptionLines()
+  {
+
+  }
+
+  /**
+   * Format the stack trace of the given exception.
+   *
+   * @param throwable The exception
+   * @param receiver  The receiver of lines
+   * @param <E>       The type of exceptions raised by the receiver
+   *
+   * @throws E On errors
+   */
+
+  public static <E extends Exception> void walk(
+    final Throwable throwable,
+    final MXLineReceiverType<E> receiver)
+    throws E
+  {
+    Objects.requireNonNull(throwable, "throwable");
+    Objects.requireNonNull(receiver, "receiver");
+
+    final Set<Throwable> seen =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+    seen.add(throwable);
+
+    final var trace = throwable.getStackTrace();
+    receiver.line("", throwable.toString());
+    for (final var frame : trace) {
+      receiver.line("\tat ", frame.toString());
+    }
+
+    final var pending = new ArrayDeque<Enclosed>();
+    pushEnclosed(pending, throwable, trace, "");
+
+    while (!pending.isEmpty()) {
+      final var next = pending.pop();
+      final var current = next.throwable;
+      if (!seen.add(current)) {
+        receiver.line(
+          next.prefix + next.caption,
+          "[CIRCULAR REFERENCE: " + current + "]"
+        );
+        continue;
+      }
+
+      final var currentTrace = current.getStackTrace();
+      final var enclosingTrace = next.enclosingTrace;
+      int m = currentTrace.length - 1;
+      int n = enclosingTrace.length - 1;
+      while (m >= 0 && n >= 0 && currentTrace[m].equals(enclosingTrace[n])) {
+        --m;
+        --n;
+      }
+      final var framesInCommon = currentTrace.length - 1 - m;
+
+      receiver.line(next.prefix + next.caption, current.toString());
+      final var framePrefix = next.prefix + "\tat ";
+      for (int index = 0; index <= m; ++index) {
+        receiver.line(framePrefix, currentTrace[index].toString());
+      }
+      if (framesInCommon != 0) {
+        receiver.line(
+          next.prefix + "\t... ",
+          Integer.toString(framesInCommon) + " more"
+        );
+      }
+
+      pushEnclosed(pending, current, currentTrace, next.prefix);
+    }
+  }
+
+  /**
+   * Schedule the suppressed exceptions and the cause of the given exception.
+   * The cause is pushed first so that, as with {@code printStackTrace},
+   * every suppressed exception (and everything it encloses) is formatted
+   * before the cause.
+   */
+
+  private static void pushEnclosed(
+    final ArrayDeque<Enclosed> pending,
+    final Throwable throwable,
+    final StackTraceElement[] trace,
+    final String prefix)
+  {
+    final var cause = throwable.getCause();
+    if (cause != null) {
+      pending.push(new Enclosed(cause, trace, "Caused by: ", prefix));
+    }
+
+    final var suppressed = throwable.getSuppressed();
+    for (int index = suppressed.length - 1; index >= 0; --index) {
+      pending.push(
+        new Enclosed(suppressed[index], trace, "Suppressed: ", prefix + "\t")
+      );
+    }
+  }
+
+  private record Enclosed(
+    Throwable throwable,
+    StackTraceElement[] enclosingTrace,
+    String caption,
+    String prefix)
+  {
+
+  }
+}
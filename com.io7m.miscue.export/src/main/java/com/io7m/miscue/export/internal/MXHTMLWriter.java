@@ -0,0 +1,261 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import com.io7m.miscue.export.MXDocumentWriterType;
+import com.io7m.miscue.export.MXNodeKind;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * <p>A document writer that produces a self-contained HTML document.</p>
+ *
+ * <p>The document has an embedded stylesheet and refers to no external
+ * resources. Trees are written as nested lists, and the list of children
+ * of a node is only opened when the first child is written.</p>
+ */
+
+public final class MXHTMLWriter implements MXDocumentWriterType
+{
+  private static final String STYLE = """
+    body { font-family: sans-serif; margin: 2em; }
+    .field { margin: 0.25em 0; }
+    .name { font-weight: bold; margin-right: 0.5em; }
+    .value { white-space: pre-wrap; }
+    table { border-collapse: collapse; }
+    th, td {
+      border: 1px solid #c0c0c0;
+      padding: 0.25em 0.5em;
+      text-align: left;
+      vertical-align: top;
+      white-space: pre-wrap;
+    }
+    pre { background: #f4f4f4; padding: 0.5em; overflow-x: auto; }
+    .tree, .tree ul { list-style: none; padding-left: 1.5em; }
+    .kind { color: #606060; font-size: smaller; margin-right: 0.5em; }
+    .failed > .description { color: #a00000; font-weight: bold; }
+    .message { color: #404040; margin-left: 0.5em; }
+    """;
+
+  private final Writer writer;
+  private final BitSet childrenOpen;
+  private int nodeDepth;
+
+  /**
+   * A document writer that produces a self-contained HTML document.
+   *
+   * @param inWriter The underlying writer
+   */
+
+  public MXHTMLWriter(
+    final Writer inWriter)
+  {
+    this.writer = Objects.requireNonNull(inWriter, "writer");
+    this.childrenOpen = new BitSet();
+  }
+
+  private void escaped(
+    final String text)
+    throws IOException
+  {
+    int start = 0;
+    for (int index = 0; index < text.length(); ++index) {
+      final String replacement;
+      switch (text.charAt(index)) {
+        case '&' -> replacement = "&amp;";
+        case '<' -> replacement = "&lt;";
+        case '>' -> replacement = "&gt;";
+        case '"' -> replacement = "&quot;";
+        case '\'' -> replacement = "&#39;";
+        default -> {
+          continue;
+        }
+      }
+      this.writer.write(text, start, index - start);
+      this.writer.write(replacement);
+      start = index + 1;
+    }
+    this.writer.write(text, start, text.length() - start);
+  }
+
+  private void heading(
+    final String name)
+    throws IOException
+  {
+    this.writer.write("<h2>");
+    this.escaped(name);
+    this.writer.write("</h2>\n");
+  }
+
+  @Override
+  public void begin(
+    final String title)
+    throws IOException
+  {
+    this.nodeDepth = 0;
+    this.writer.write("<!DOCTYPE html>\n<html>\n<head>\n");
+    this.writer.write("<meta charset=\"UTF-8\">\n<title>");
+    this.escaped(title);
+    this.writer.write("</title>\n<style>\n");
+    this.writer.write(STYLE);
+    this.writer.write("</style>\n</head>\n<body>\n<h1>");
+    this.escaped(title);
+    this.writer.write("</h1>\n");
+  }
+
+  @Override
+  public void field(
+    final String name,
+    final String value)
+    throws IOException
+  {
+    this.writer.write("<div class=\"field\"><span class=\"name\">");
+    this.escaped(name);
+    this.writer.write("</span><span class=\"value\">");
+    this.escaped(value);
+    this.writer.write("</span></div>\n");
+  }
+
+  @Override
+  public void beginAttributes(
+    final String name)
+    throws IOException
+  {
+    this.heading(name);
+    this.writer.write("<table class=\"attributes\">\n");
+  }
+
+  @Override
+  public void attribute(
+    final String name,
+    final String value)
+    throws IOException
+  {
+    this.writer.write("<tr><th>");
+    this.escaped(name);
+    this.writer.write("</th><td>");
+    this.escaped(value);
+    this.writer.write("</td></tr>\n");
+  }
+
+  @Override
+  public void endAttributes()
+    throws IOException
+  {
+    this.writer.write("</table>\n");
+  }
+
+  @Override
+  public void beginLines(
+    final String name)
+    throws IOException
+  {
+    if (this.nodeDepth == 0) {
+      this.heading(name);
+    }
+    this.writer.write("<pre class=\"");
+    this.escaped(name);
+    this.writer.write("\">");
+  }
+
+  @Override
+  public void line(
+    final String prefix,
+    final String text)
+    throws IOException
+  {
+    this.escaped(prefix);
+    this.escaped(text);
+    this.writer.write('\n');
+  }
+
+  @Override
+  public void endLines()
+    throws IOException
+  {
+    this.writer.write("</pre>\n");
+  }
+
+  @Override
+  public void beginTree(
+    final String name)
+    throws IOException
+  {
+    this.heading(name);
+    this.writer.write("<ul class=\"tree\">\n");
+  }
+
+  @Override
+  public void beginNode(
+    final MXNodeKind kind,
+    final String description,
+    final boolean failed,
+    final String message)
+    throws IOException
+  {
+    if (this.nodeDepth > 0 && !this.childrenOpen.get(this.nodeDepth)) {
+      this.childrenOpen.set(this.nodeDepth);
+      this.writer.write("<ul>\n");
+    }
+
+    ++this.nodeDepth;
+    this.childrenOpen.clear(this.nodeDepth);
+
+    final var kindName = kind.name().toLowerCase(Locale.ROOT);
+    this.writer.write("<li class=\"");
+    this.writer.write(kindName);
+    this.writer.write(failed ? " failed\">" : " succeeded\">");
+    this.writer.write("<span class=\"kind\">");
+    this.writer.write(kindName);
+    this.writer.write("</span><span class=\"description\">");
+    this.escaped(description);
+    this.writer.write("</span><span class=\"message\">");
+    this.escaped(message);
+    this.writer.write("</span>\n");
+  }
+
+  @Override
+  public void endNode()
+    throws IOException
+  {
+    if (this.childrenOpen.get(this.nodeDepth)) {
+      this.writer.write("</ul>\n");
+    }
+    this.writer.write("</li>\n");
+    --this.nodeDepth;
+  }
+
+  @Override
+  public void endTree()
+    throws IOException
+  {
+    this.writer.write("</ul>\n");
+  }
+
+  @Override
+  public void end()
+    throws IOException
+  {
+    this.writer.write("</body>\n</html>\n");
+    this.writer.flush();
+  }
+}
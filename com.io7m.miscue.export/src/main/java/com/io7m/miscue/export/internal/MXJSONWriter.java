@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import com.io7m.miscue.export.MXDocumentWriterType;
+import com.io7m.miscue.export.MXNodeKind;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * <p>A document writer that produces a single JSON object.</p>
+ *
+ * <p>Fields are written as string members, attribute lists as objects,
+ * line lists as arrays of strings, and trees as arrays of node objects.
+ * Each node object has {@code kind}, {@code description}, {@code failed},
+ * and {@code message} members, an optional line list, and a
+ * {@code children} array that is only opened when the first child is
+ * written.</p>
+ */
+
+public final class MXJSONWriter implements MXDocumentWriterType
+{
+  private final Writer writer;
+  private final BitSet separated;
+  private final BitSet nodes;
+  private int depth;
+
+  /**
+   * A document writer that produces a single JSON object.
+   *
+   * @param inWriter The underlying writer
+   */
+
+  public MXJSONWriter(
+    final Writer inWriter)
+  {
+    this.writer = Objects.requireNonNull(inWriter, "writer");
+    this.separated = new BitSet();
+    this.nodes = new BitSet();
+  }
+
+  /**
+   * Write a comma if this is not the first element of the current
+   * container.
+   */
+
+  private void element()
+    throws IOException
+  {
+    if (this.separated.get(this.depth)) {
+      this.writer.write(',');
+    } else {
+      this.separated.set(this.depth);
+    }
+  }
+
+  private void member(
+    final String name)
+    throws IOException
+  {
+    this.element();
+    this.string(name);
+    this.writer.write(':');
+  }
+
+  private void open(
+    final char bracket)
+    throws IOException
+  {
+    this.writer.write(bracket);
+    ++this.depth;
+    this.separated.clear(this.depth);
+    this.nodes.clear(this.depth);
+  }
+
+  private void close(
+    final char bracket)
+    throws IOException
+  {
+    this.writer.write(bracket);
+    --this.depth;
+  }
+
+  private void string(
+    final String text)
+    throws IOException
+  {
+    this.writer.write('"');
+    this.escaped(text);
+    this.writer.write('"');
+  }
+
+  private void escaped(
+    final String text)
+    throws IOException
+  {
+    int start = 0;
+    for (int index = 0; index < text.length(); ++index) {
+      final var c = text.charAt(index);
+      final String replacement;
+      switch (c) {
+        case '"' -> replacement = "\\\"";
+        case '\\' -> replacement = "\\\\";
+        case '\n' -> replacement = "\\n";
+        case '\r' -> replacement = "\\r";
+        case '\t' -> replacement = "\\t";
+        default -> {
+          if (c >= 0x20 && c != '\u2028' && c != '\u2029') {
+            continue;
+          }
+          replacement = String.format(Locale.ROOT, "\\u%04x", (int) c);
+        }
+      }
+      this.writer.write(text, start, index - start);
+      this.writer.write(replacement);
+      start = index + 1;
+    }
+    this.writer.write(text, start, text.length() - start);
+  }
+
+  /**
+   * If the current container is a node that has no children yet, open its
+   * array of children.
+   */
+
+  private void openChildren()
+    throws IOException
+  {
+    if (this.nodes.get(this.depth)) {
+      this.member("children");
+      this.open('[');
+    }
+  }
+
+  @Override
+  public void begin(
+    final String title)
+    throws IOException
+  {
+    this.depth = -1;
+    this.open('{');
+    this.field("title", title);
+  }
+
+  @Override
+  public void field(
+    final String name,
+    final String value)
+    throws IOException
+  {
+    this.member(name);
+    this.string(value);
+  }
+
+  @Override
+  public void beginAttributes(
+    final String name)
+    throws IOException
+  {
+    this.member(name);
+    this.open('{');
+  }
+
+  @Override
+  public void attribute(
+    final String name,
+    final String value)
+    throws IOException
+  {
+    this.field(name, value);
+  }
+
+  @Override
+  public void endAttributes()
+    throws IOException
+  {
+    this.close('}');
+  }
+
+  @Override
+  public void beginLines(
+    final String name)
+    throws IOException
+  {
+    this.member(name);
+    this.open('[');
+  }
+
+  @Override
+  public void line(
+    final String prefix,
+    final String text)
+    throws IOException
+  {
+    this.element();
+    this.writer.write('"');
+    this.escaped(prefix);
+    this.escaped(text);
+    this.writer.write('"');
+  }
+
+  @Override
+  public void endLines()
+    throws IOException
+  {
+    this.close(']');
+  }
+
+  @Override
+  public void beginTree(
+    final String name)
+    throws IOException
+  {
+    this.member(name);
+    this.open('[');
+  }
+
+  @Override
+  public void beginNode(
+    final MXNodeKind kind,
+    final String description,
+    final boolean failed,
+    final String message)
+    throws IOException
+  {
+    this.openChildren();
+    this.element();
+    this.open('{');
+    this.nodes.set(this.depth);
+    this.field("kind", kind.name().toLowerCase(Locale.ROOT));
+    this.field("description", description);
+    this.member("failed");
+    this.writer.write(failed ? "true" : "false");
+    this.field("message", message);
+  }
+
+  @Override
+  public void endNode()
+    throws IOException
+  {
+    if (!this.nodes.get(this.depth)) {
+      this.close(']');
+    }
+    this.close('}');
+  }
+
+  @Override
+  public void endTree()
+    throws IOException
+  {
+    this.close(']');
+  }
+
+  @Override
+  public void end()
+    throws IOException
+  {
+    this.close('}');
+    this.writer.write('\n');
+    this.writer.flush();
+  }
+}
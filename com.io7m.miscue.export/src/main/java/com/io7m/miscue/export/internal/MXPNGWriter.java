@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import com.io7m.miscue.export.MXSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * <p>A minimal PNG encoder.</p>
+ *
+ * <p>Images are written as 8-bit RGBA with the "sub" filter applied to
+ * every row. Rows are filtered and compressed one at a time, and the
+ * compressed data is emitted in bounded {@code IDAT} chunks, so the
+ * encoder never holds more than a row and a chunk in addition to the
+ * source pixels.</p>
+ */
+
+public final class MXPNGWriter
+{
+  private static final byte[] SIGNATURE = {
+    (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n',
+  };
+
+  private static final int CHUNK_SIZE = 65536;
+  private static final int BYTES_PER_PIXEL = 4;
+  private static final byte FILTER_SUB = 1;
+
+  private final OutputStream output;
+  private final CRC32 crc;
+
+  private MXPNGWriter(
+    final OutputStream inOutput)
+  {
+    this.output = inOutput;
+    this.crc = new CRC32();
+  }
+
+  /**
+   * Write the given image as a PNG file.
+   *
+   * @param image  The image
+   * @param output The output stream; not closed
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final MXSnapshot image,
+    final OutputStream output)
+    throws IOException
+  {
+    final var writer = new MXPNGWriter(output);
+    output.write(SIGNATURE);
+
+    final var header = ByteBuffer.allocate(13);
+    header.putInt(image.width());
+    header.putInt(image.height());
+    header.put((byte) 8);
+    header.put((byte) 6);
+    header.put((byte) 0);
+    header.put((byte) 0);
+    header.put((byte) 0);
+    writer.chunk("IHDR", header.array(), header.position());
+
+    writer.imageData(image);
+    writer.chunk("IEND", new byte[0], 0);
+    output.flush();
+  }
+
+  private void imageData(
+    final MXSnapshot image)
+    throws IOException
+  {
+    final var width = image.width();
+    final var pixels = image.pixels();
+    final var row = new byte[1 + width * BYTES_PER_PIXEL];
+    final var compressed = new byte[CHUNK_SIZE];
+    final var deflater = new Deflater();
+
+    try {
+      int count = 0;
+      for (int y = 0; y < image.height(); ++y) {
+        this.filterRow(pixels, y * width, width, row);
+        deflater.setInput(row);
+        while (!deflater.needsInput()) {
+          count = this.deflate(deflater, compressed, count);
+        }
+      }
+
+      deflater.finish();
+      while (!deflater.finished()) {
+        count = this.deflate(deflater, compressed, count);
+      }
+      if (count > 0) {
+        this.chunk("IDAT", compressed, count);
+      }
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Compress into the remaining space of the chunk buffer, writing the
+   * chunk if it becomes full.
+   *
+   * @return The number of bytes now in the chunk buffer
+   */
+
+  private int deflate(
+    final Deflater deflater,
+    final byte[] compressed,
+    final int count)
+    throws IOException
+  {
+    final var total =
+      count + deflater.deflate(compressed, count, compressed.length - count);
+    if (total == compressed.length) {
+      this.chunk("IDAT", compressed, total);
+      return 0;
+    }
+    return total;
+  }
+
+  private void filterRow(
+    final int[] pixels,
+    final int offset,
+    final int width,
+    final byte[] row)
+  {
+    row[0] = FILTER_SUB;
+
+    int previous = 0;
+    for (int x = 0; x < width; ++x) {
+      final var argb = pixels[offset + x];
+      final var rgba = (argb << 8) | (argb >>> 24);
+      final var base = 1 + x * BYTES_PER_PIXEL;
+      for (int channel = 0; channel < BYTES_PER_PIXEL; ++channel) {
+        final var shift = 24 - channel * 8;
+        final var value = (rgba >>> shift) - (previous >>> shift);
+        row[base + channel] = (byte) value;
+      }
+      previous = rgba;
+    }
+  }
+
+  private void chunk(
+    final String type,
+    final byte[] data,
+    final int length)
+    throws IOException
+  {
+    final var typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+
+    this.crc.reset();
+    this.crc.update(typeBytes);
+    this.crc.update(data, 0, length);
+
+    final var header = ByteBuffer.allocate(8);
+    header.putInt(length);
+    header.put(typeBytes);
+    this.output.write(header.array());
+    this.output.write(data, 0, length);
+
+    final var trailer = ByteBuffer.allocate(4);
+    trailer.putInt((int) this.crc.getValue());
+    this.output.write(trailer.array());
+  }
+}
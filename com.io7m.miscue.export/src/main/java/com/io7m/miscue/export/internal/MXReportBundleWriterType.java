@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import com.io7m.miscue.export.MXSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A function that writes the report bundle of a subject.
+ *
+ * @param <T> The type of subjects
+ *
+ * @see com.io7m.miscue.export.MXErrorBundles
+ */
+
+@FunctionalInterface
+public interface MXReportBundleWriterType<T>
+{
+  /**
+   * Write a bundle, replacing any existing file.
+   *
+   * @param subject   The subject
+   * @param snapshot  An image of the dialog, if any
+   * @param file      The output file
+   * @param cancelled A function that returns {@code true} if writing the
+   *                  bundle has been cancelled
+   *
+   * @throws IOException           On I/O errors
+   * @throws CancellationException If writing was cancelled
+   */
+
+  void write(
+    T subject,
+    Optional<MXSnapshot> snapshot,
+    Path file,
+    BooleanSupplier cancelled)
+    throws IOException;
+}
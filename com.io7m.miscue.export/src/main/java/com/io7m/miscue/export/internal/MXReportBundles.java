@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import com.io7m.miscue.export.MXSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>Functions to write report bundles into a directory.</p>
+ *
+ * <p>Cancellation is checked between the entries of the bundle, and a
+ * cancelled or failed bundle is deleted. Capturing an image of the dialog,
+ * and running the written bundle through a report receiver, is left to
+ * the dialog modules.</p>
+ */
+
+public final class MXReportBundles
+{
+  private MXReportBundles()
+  {
+
+  }
+
+  /**
+   * Write the report bundle of a subject to a new file in the given
+   * directory.
+   *
+   * @param writer    The bundle writer
+   * @param subject   The subject
+   * @param snapshot  An image of the dialog, if any
+   * @param directory The directory in which bundles are created
+   * @param prefix    The prefix of bundle file names
+   * @param cancelled A function that returns {@code true} if writing the
+   *                  bundle has been cancelled
+   * @param <T>       The type of report subjects
+   *
+   * @return The written bundle, or nothing if writing was cancelled
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static <T> Optional<Path> write(
+    final MXReportBundleWriterType<T> writer,
+    final T subject,
+    final Optional<MXSnapshot> snapshot,
+    final Path directory,
+    final String prefix,
+    final BooleanSupplier cancelled)
+    throws IOException
+  {
+    Objects.requireNonNull(writer, "writer");
+    Objects.requireNonNull(snapshot, "snapshot");
+    Objects.requireNonNull(directory, "directory");
+    Objects.requireNonNull(prefix, "prefix");
+    Objects.requireNonNull(cancelled, "cancelled");
+
+    final var file = Files.createTempFile(directory, prefix, ".zip");
+
+    try {
+      writer.write(subject, snapshot, file, cancelled);
+    } catch (final CancellationException e) {
+      Files.deleteIfExists(file);
+      return Optional.empty();
+    } catch (final IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+
+    if (cancelled.getAsBoolean()) {
+      Files.deleteIfExists(file);
+      return Optional.empty();
+    }
+    return Optional.of(file);
+  }
+}
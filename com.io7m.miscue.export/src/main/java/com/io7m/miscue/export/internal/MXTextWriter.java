@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.export.internal;
+
+import com.io7m.miscue.export.MXDocumentWriterType;
+import com.io7m.miscue.export.MXNodeKind;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * A document writer that produces indented plain text. Lines within values
+ * are indented to the level of the value, so that every line of the output
+ * can be attributed to the section that contains it.
+ */
+
+public final class MXTextWriter implements MXDocumentWriterType
+{
+  private static final String INDENT = "  ";
+
+  private final Writer writer;
+  private int level;
+
+  /**
+   * A document writer that produces indented plain text.
+   *
+   * @param inWriter The underlying writer
+   */
+
+  public MXTextWriter(
+    final Writer inWriter)
+  {
+    this.writer = Objects.requireNonNull(inWriter, "writer");
+  }
+
+  private void indent()
+    throws IOException
+  {
+    for (int index = 0; index < this.level; ++index) {
+      this.writer.write(INDENT);
+    }
+  }
+
+  /**
+   * Write text, indenting every line after the first to the current level
+   * plus one.
+   */
+
+  private void text(
+    final String text)
+    throws IOException
+  {
+    int start = 0;
+    for (int index = 0; index < text.length(); ++index) {
+      if (text.charAt(index) == '\n') {
+        this.writer.write(text, start, index + 1 - start);
+        this.indent();
+        this.writer.write(INDENT);
+        start = index + 1;
+      }
+    }
+    this.writer.write(text, start, text.length() - start);
+  }
+
+  private void heading(
+    final String name)
+    throws IOException
+  {
+    this.indent();
+    this.writer.write(name);
+    this.writer.write(":\n");
+    ++this.level;
+  }
+
+  @Override
+  public void begin(
+    final String title)
+    throws IOException
+  {
+    this.text(title);
+    this.writer.write("\n\n");
+  }
+
+  @Override
+  public void field(
+    final String name,
+    final String value)
+    throws IOException
+  {
+    this.indent();
+    this.writer.write(name);
+    this.writer.write(": ");
+    this.text(value);
+    this.writer.write('\n');
+  }
+
+  @Override
+  public void beginAttributes(
+    final String name)
+    throws IOException
+  {
+    this.heading(name);
+  }
+
+  @Override
+  public void attribute(
+    final String name,
+    final String value)
+    throws IOException
+  {
+    this.field(name, value);
+  }
+
+  @Override
+  public void endAttributes()
+  {
+    --this.level;
+  }
+
+  @Override
+  public void beginLines(
+    final String name)
+    throws IOException
+  {
+    this.heading(name);
+  }
+
+  @Override
+  public void line(
+    final String prefix,
+    final String text)
+    throws IOException
+  {
+    this.indent();
+    this.writer.write(prefix);
+    this.text(text);
+    this.writer.write('\n');
+  }
+
+  @Override
+  public void endLines()
+  {
+    --this.level;
+  }
+
+  @Override
+  public void beginTree(
+    final String name)
+    throws IOException
+  {
+    this.heading(name);
+  }
+
+  @Override
+  public void beginNode(
+    final MXNodeKind kind,
+    final String description,
+    final boolean failed,
+    final String message)
+    throws IOException
+  {
+    this.indent();
+    this.writer.write(failed ? "[FAILED] " : "[OK] ");
+    this.text(description);
+    if (!message.isEmpty()) {
+      this.writer.write(": ");
+      this.text(message);
+    }
+    this.writer.write('\n');
+    ++this.level;
+  }
+
+  @Override
+  public void endNode()
+  {
+    --this.level;
+  }
+
+  @Override
+  public void endTree()
+  {
+    --this.level;
+  }
+
+  @Override
+  public void end()
+    throws IOException
+  {
+    this.writer.flush();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.compiler;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A single FXML file to be compiled.
+ *
+ * @param file           The FXML file on the filesystem
+ * @param resource       The absolute classpath resource path of the FXML file
+ * @param className      The fully-qualified name of the generated class
+ * @param controllerName The fully-qualified name of the controller class
+ */
+
+public record MFXCompilation(
+  Path file,
+  String resource,
+  String className,
+  String controllerName)
+{
+  /**
+   * A single FXML file to be compiled.
+   *
+   * @param file           The FXML file on the filesystem
+   * @param resource       The absolute classpath resource path of the FXML file
+   * @param className      The fully-qualified name of the generated class
+   * @param controllerName The fully-qualified name of the controller class
+   */
+
+  public MFXCompilation
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(resource, "resource");
+    Objects.requireNonNull(className, "className");
+    Objects.requireNonNull(controllerName, "controllerName");
+
+    if (!resource.startsWith("/")) {
+      throw new IllegalArgumentException(
+        "Resource path '%s' must be absolute".formatted(resource)
+      );
+    }
+  }
+
+  /**
+   * @return The package of the generated class
+   */
+
+  public String packageName()
+  {
+    final var index = this.className.lastIndexOf('.');
+    if (index < 0) {
+      return "";
+    }
+    return this.className.substring(0, index);
+  }
+
+  /**
+   * @return The simple name of the generated class
+   */
+
+  public String simpleClassName()
+  {
+    return this.className.substring(this.className.lastIndexOf('.') + 1);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.compiler;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.ProcessingInstruction;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * <p>A compiler that translates FXML files into plain Java code.</p>
+ *
+ * <p>The generated class exposes a static {@code create} method that
+ * constructs the scene graph described by the FXML file without any XML
+ * parsing or reflection at run-time. The generated class has the same
+ * semantics as an {@code FXMLLoader} instance that has been
+ * given a controller instance and a resource bundle, with the following
+ * constraints on the controller:</p>
+ *
+ * <ul>
+ *   <li>The controller must declare a method {@code attach(V)}, where
+ *   {@code V} is the generated class, that is accessible from the generated
+ *   class. The method is called in place of {@code @FXML} field injection,
+ *   and the generated class provides an accessor for each {@code fx:id}.</li>
+ *   <li>The controller must declare a method
+ *   {@code initialize(URL, ResourceBundle)}.</li>
+ *   <li>Event handler methods named in {@code #handler} attributes must take
+ *   no arguments and must be accessible from the generated class.</li>
+ * </ul>
+ *
+ * <p>Only the subset of FXML used by this project is supported: element
+ * instances (with default or {@code @NamedArg} constructors),
+ * {@code fx:id}, {@code fx:constant}, instance and static properties,
+ * resource ({@code %}) and location ({@code @}) references, and event
+ * handler ({@code #}) references. Other {@code fx:} elements such as
+ * {@code fx:include} are rejected.</p>
+ *
+ * <p>An {@code Image} element that depends only on its constructor
+ * arguments is loaded once, on first use, and the same instance is shared
+ * by every scene graph the generated class creates.</p>
+ */
+
+public final class MFXCompiler
+{
+  private final ClassLoader classLoader;
+
+  /**
+   * A compiler that translates FXML files into plain Java code.
+   *
+   * @param inClassLoader The class loader used to inspect the classes named
+   *                      in FXML files
+   */
+
+  public MFXCompiler(
+    final ClassLoader inClassLoader)
+  {
+    this.classLoader =
+      Objects.requireNonNull(inClassLoader, "classLoader");
+  }
+
+  /**
+   * Compile the given FXML file.
+   *
+   * @param compilation The compilation
+   *
+   * @return The Java source code of the generated class
+   *
+   * @throws MFXCompilerException On errors
+   */
+
+  public String compile(
+    final MFXCompilation compilation)
+    throws MFXCompilerException
+  {
+    Objects.requireNonNull(compilation, "compilation");
+
+    final var document = parse(compilation.file());
+    final var imports = new ArrayList<String>();
+    final var nodes = document.getChildNodes();
+    for (int index = 0; index < nodes.getLength(); ++index) {
+      final var node = nodes.item(index);
+      if (node.getNodeType() == Node.PROCESSING_INSTRUCTION_NODE) {
+        final var instruction = (ProcessingInstruction) node;
+        if (Objects.equals(instruction.getTarget(), "import")) {
+          imports.add(instruction.getData().trim());
+        }
+      }
+    }
+
+    final var emitter =
+      new MFXEmitter(this.classLoader, compilation, imports);
+    return emitter.emit(document.getDocumentElement());
+  }
+
+  private static Document parse(
+    final Path file)
+    throws MFXCompilerException
+  {
+    try {
+      final var factory = DocumentBuilderFactory.newInstance();
+      factory.setNamespaceAware(false);
+      factory.setXIncludeAware(false);
+      factory.setExpandEntityReferences(false);
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+
+      final var builder = factory.newDocumentBuilder();
+      builder.setErrorHandler(new ThrowingErrorHandler());
+      try (var stream = Files.newInputStream(file)) {
+        return builder.parse(stream, file.toUri().toString());
+      }
+    } catch (final SAXParseException e) {
+      throw new MFXCompilerException(
+        "Failed to parse %s:%d:%d: %s".formatted(
+          file,
+          Integer.valueOf(e.getLineNumber()),
+          Integer.valueOf(e.getColumnNumber()),
+          e.getMessage()
+        ),
+        e
+      );
+    } catch (final ParserConfigurationException
+                   | SAXException
+                   | IOException e) {
+      throw new MFXCompilerException(
+        "Failed to parse %s: %s".formatted(file, e.getMessage()),
+        e
+      );
+    }
+  }
+
+  /**
+   * An error handler that raises errors instead of printing them, so that
+   * problems are only reported by the resulting {@link MFXCompilerException}.
+   * Warnings do not prevent compilation, and are ignored.
+   */
+
+  private static final class ThrowingErrorHandler implements ErrorHandler
+  {
+    ThrowingErrorHandler()
+    {
+
+    }
+
+    @Override
+    public void warning(
+      final SAXParseException exception)
+    {
+
+    }
+
+    @Override
+    public void error(
+      final SAXParseException exception)
+      throws SAXParseException
+    {
+      throw exception;
+    }
+
+    @Override
+    public void fatalError(
+      final SAXParseException exception)
+      throws SAXParseException
+    {
+      throw exception;
+    }
+  }
+}
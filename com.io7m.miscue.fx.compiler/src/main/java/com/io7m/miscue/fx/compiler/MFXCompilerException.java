@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.compiler;
+
+/**
+ * An error raised during FXML compilation.
+ */
+
+public final class MFXCompilerException extends Exception
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * An error raised during FXML compilation.
+   *
+   * @param message The message
+   */
+
+  public MFXCompilerException(
+    final String message)
+  {
+    super(message);
+  }
+
+  /**
+   * An error raised during FXML compilation.
+   *
+   * @param message The message
+   * @param cause   The cause
+   */
+
+  public MFXCompilerException(
+    final String message,
+    final Throwable cause)
+  {
+    super(message, cause);
+  }
+}
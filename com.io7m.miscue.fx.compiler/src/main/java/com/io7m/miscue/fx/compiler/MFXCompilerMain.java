@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.compiler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * <p>The command-line entry point for the FXML compiler.</p>
+ *
+ * <p>Usage: {@code output-directory resource-directory
+ * (resource class controller)+}, where {@code resource} is the absolute
+ * classpath path of an FXML file within {@code resource-directory},
+ * {@code class} is the fully-qualified name of the class to generate, and
+ * {@code controller} is the fully-qualified name of the controller class.</p>
+ */
+
+public final class MFXCompilerMain
+{
+  private MFXCompilerMain()
+  {
+
+  }
+
+  /**
+   * The command-line entry point.
+   *
+   * @param args The command-line arguments
+   *
+   * @throws Exception On errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws Exception
+  {
+    if (args.length < 5 || (args.length - 2) % 3 != 0) {
+      throw new IllegalArgumentException(
+        "Usage: output-directory resource-directory (resource class controller)+"
+      );
+    }
+
+    final var outputDirectory =
+      Path.of(args[0]).toAbsolutePath();
+    final var resourceDirectory =
+      Path.of(args[1]).toAbsolutePath();
+
+    final var compilations = new ArrayList<MFXCompilation>();
+    for (int index = 2; index < args.length; index += 3) {
+      final var resource = args[index];
+      compilations.add(
+        new MFXCompilation(
+          resourceDirectory.resolve(resource.substring(1)),
+          resource,
+          args[index + 1],
+          args[index + 2]
+        )
+      );
+    }
+
+    final var compiler =
+      new MFXCompiler(Thread.currentThread().getContextClassLoader());
+
+    for (final var compilation : compilations) {
+      write(outputDirectory, compilation, compiler.compile(compilation));
+    }
+  }
+
+  private static void write(
+    final Path outputDirectory,
+    final MFXCompilation compilation,
+    final String source)
+    throws IOException
+  {
+    final var file =
+      outputDirectory.resolve(
+        compilation.className().replace('.', '/') + ".java");
+
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, source, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,916 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.compiler;
+
+import javafx.beans.DefaultProperty;
+import javafx.beans.NamedArg;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The code emitter for a single FXML compilation.
+ */
+
+final class MFXEmitter
+{
+  private static final String INDENT = "    ";
+  private static final String IMAGE_CLASS = "javafx.scene.image.Image";
+
+  private final ClassLoader classLoader;
+  private final MFXCompilation compilation;
+  private final List<String> imports;
+  private final StringBuilder body;
+  private final Map<String, MFXValue> identified;
+  private final List<String> images;
+  private int variables;
+
+  MFXEmitter(
+    final ClassLoader inClassLoader,
+    final MFXCompilation inCompilation,
+    final List<String> inImports)
+  {
+    this.classLoader =
+      Objects.requireNonNull(inClassLoader, "classLoader");
+    this.compilation =
+      Objects.requireNonNull(inCompilation, "compilation");
+    this.imports =
+      List.copyOf(inImports);
+    this.body =
+      new StringBuilder(4096);
+    this.identified =
+      new LinkedHashMap<>();
+    this.images =
+      new ArrayList<>();
+  }
+
+  private record MFXValue(
+    String expression,
+    Class<?> type)
+  {
+
+  }
+
+  String emit(
+    final Element root)
+    throws MFXCompilerException
+  {
+    final var rootValue = this.instance(root);
+    final var existing = this.identified.get("root");
+    if (existing == null) {
+      this.identified.put("root", rootValue);
+    } else if (!Objects.equals(existing, rootValue)) {
+      throw this.error("The fx:id 'root' is reserved for the root element");
+    }
+    return this.source();
+  }
+
+  private String source()
+  {
+    final var out = new StringBuilder(this.body.length() + 4096);
+    this.sourceHeader(out);
+    this.sourceCreate(out);
+    this.sourceAccessors(out);
+    this.sourceImages(out);
+    out.append("}\n");
+    return out.toString();
+  }
+
+  private void sourceHeader(
+    final StringBuilder out)
+  {
+    final var className = this.compilation.simpleClassName();
+
+    out.append("/*\n");
+    out.append(" * Generated by ")
+      .append(MFXCompiler.class.getName())
+      .append(" from ")
+      .append(this.compilation.resource())
+      .append(".\n");
+    out.append(" * Do not edit: Edit the FXML file instead.\n");
+    out.append(" */\n\n");
+
+    if (!this.compilation.packageName().isEmpty()) {
+      out.append("package ")
+        .append(this.compilation.packageName())
+        .append(";\n\n");
+    }
+
+    out.append("/**\n");
+    out.append(" * A scene graph compiled from {@code ")
+      .append(this.compilation.resource())
+      .append("}.\n");
+    out.append(" */\n\n");
+    out.append("@SuppressWarnings({\"rawtypes\", \"unchecked\", \"deprecation\"})\n");
+    out.append("public final class ").append(className).append("\n{\n");
+    out.append("  private static final String LOCATION =\n");
+    out.append("    ")
+      .append(literal(this.compilation.resource()))
+      .append(";\n\n");
+
+    for (final var entry : this.identified.entrySet()) {
+      out.append("  private ")
+        .append(typeName(entry.getValue().type()))
+        .append(' ')
+        .append(entry.getKey())
+        .append(";\n");
+    }
+
+    out.append("\n  private ").append(className).append("()\n  {\n\n  }\n\n");
+    out.append("  /**\n");
+    out.append("   * @return The location of the source FXML file\n");
+    out.append("   */\n\n");
+    out.append("  public static java.net.URL location()\n  {\n");
+    out.append("    return ").append(className)
+      .append(".class.getResource(LOCATION);\n");
+    out.append("  }\n\n");
+  }
+
+  private void sourceCreate(
+    final StringBuilder out)
+  {
+    final var className = this.compilation.simpleClassName();
+
+    out.append("  /**\n");
+    out.append("   * Construct the scene graph.\n");
+    out.append("   *\n");
+    out.append("   * @param resources  The resource bundle\n");
+    out.append("   * @param controller The controller\n");
+    out.append("   *\n");
+    out.append("   * @return The constructed scene graph\n");
+    out.append("   */\n\n");
+    out.append("  public static ").append(className).append(" create(\n");
+    out.append("    final java.util.ResourceBundle resources,\n");
+    out.append("    final ")
+      .append(this.compilation.controllerName())
+      .append(" controller)\n");
+    out.append("  {\n");
+    out.append("    java.util.Objects.requireNonNull(resources, \"resources\");\n");
+    out.append("    java.util.Objects.requireNonNull(controller, \"controller\");\n\n");
+    out.append(this.body);
+    out.append('\n');
+    out.append("    final ").append(className).append(" view = new ")
+      .append(className).append("();\n");
+
+    for (final var entry : this.identified.entrySet()) {
+      out.append("    view.")
+        .append(entry.getKey())
+        .append(" = ")
+        .append(entry.getValue().expression())
+        .append(";\n");
+    }
+
+    out.append("    controller.attach(view);\n");
+    out.append("    controller.initialize(location(), resources);\n");
+    out.append("    return view;\n");
+    out.append("  }\n");
+  }
+
+  private void sourceAccessors(
+    final StringBuilder out)
+  {
+    for (final var entry : this.identified.entrySet()) {
+      out.append("\n  /**\n");
+      out.append("   * @return The node with ID {@code ")
+        .append(entry.getKey())
+        .append("}\n");
+      out.append("   */\n\n");
+      out.append("  public ")
+        .append(typeName(entry.getValue().type()))
+        .append(' ')
+        .append(entry.getKey())
+        .append("()\n  {\n");
+      out.append("    return this.").append(entry.getKey()).append(";\n");
+      out.append("  }\n");
+    }
+  }
+
+  private void sourceImages(
+    final StringBuilder out)
+  {
+    if (this.images.isEmpty()) {
+      return;
+    }
+
+    out.append("\n  /**\n");
+    out.append("   * Images loaded on first use and shared by every scene graph.\n");
+    out.append("   */\n\n");
+    out.append("  private static final class Images\n  {\n");
+    for (int index = 0; index < this.images.size(); ++index) {
+      out.append("    private static final ")
+        .append(IMAGE_CLASS)
+        .append(" IMAGE_")
+        .append(index)
+        .append(" =\n      ")
+        .append(this.images.get(index))
+        .append(";\n");
+    }
+    out.append("\n    private Images()\n    {\n\n    }\n");
+    out.append("  }\n");
+  }
+
+  private MFXValue instance(
+    final Element element)
+    throws MFXCompilerException
+  {
+    this.checkSupported(element);
+
+    final var type = this.resolveClass(element.getTagName());
+
+    final var constant = element.getAttribute("fx:constant");
+    if (!constant.isEmpty()) {
+      try {
+        final var field = type.getField(constant);
+        return new MFXValue(
+          typeName(type) + "." + constant,
+          field.getType()
+        );
+      } catch (final NoSuchFieldException e) {
+        throw this.error(
+          "No such constant %s.%s".formatted(type.getName(), constant)
+        );
+      }
+    }
+
+    final var variable = "n" + this.variables;
+    this.variables += 1;
+
+    final var consumed = new HashSet<String>();
+    this.declare(type, element, variable, consumed);
+
+    final var value = new MFXValue(variable, type);
+    final var id = element.getAttribute("fx:id");
+    if (!id.isEmpty()) {
+      if (this.identified.containsKey(id)) {
+        throw this.error("Duplicate fx:id '%s'".formatted(id));
+      }
+      this.identified.put(id, value);
+      if (!element.hasAttribute("id")
+          && findSetter(type, "id", String.class).isPresent()) {
+        this.line("%s.setId(%s);", variable, literal(id));
+      }
+    }
+
+    final var attributes = element.getAttributes();
+    for (int index = 0; index < attributes.getLength(); ++index) {
+      final var attribute = (Attr) attributes.item(index);
+      if (!consumed.contains(attribute.getName())) {
+        this.attribute(value, attribute.getName(), attribute.getValue());
+      }
+    }
+
+    for (final var child : childElements(element)) {
+      this.child(value, child);
+    }
+    return value;
+  }
+
+  private void declare(
+    final Class<?> type,
+    final Element element,
+    final String variable,
+    final Set<String> consumed)
+    throws MFXCompilerException
+  {
+    final var construction = this.construct(type, element, consumed);
+    if (isShareableImage(type, element, consumed, construction)) {
+      this.line(
+        "final %s %s = Images.IMAGE_%d;",
+        typeName(type),
+        variable,
+        Integer.valueOf(this.images.size())
+      );
+      this.images.add(construction);
+    } else {
+      this.line("final %s %s = %s;", typeName(type), variable, construction);
+    }
+  }
+
+  /**
+   * An image is immutable once loaded, so an image that is built purely from
+   * constructor arguments that do not depend on the resource bundle can be
+   * loaded once and shared, rather than decoded again for every scene graph.
+   */
+
+  private static boolean isShareableImage(
+    final Class<?> type,
+    final Element element,
+    final Set<String> consumed,
+    final String construction)
+  {
+    if (!IMAGE_CLASS.equals(type.getName())) {
+      return false;
+    }
+    if (!childElements(element).isEmpty()) {
+      return false;
+    }
+    if (construction.contains("resources.")) {
+      return false;
+    }
+
+    final var attributes = element.getAttributes();
+    for (int index = 0; index < attributes.getLength(); ++index) {
+      final var name = ((Attr) attributes.item(index)).getName();
+      if (!isSpecialAttribute(name) && !consumed.contains(name)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void checkSupported(
+    final Element element)
+    throws MFXCompilerException
+  {
+    final var name = element.getTagName();
+    if (name.startsWith("fx:")) {
+      throw this.error("The element %s is not supported".formatted(name));
+    }
+  }
+
+  private String construct(
+    final Class<?> type,
+    final Element element,
+    final Set<String> consumed)
+    throws MFXCompilerException
+  {
+    for (final var constructor : type.getConstructors()) {
+      if (constructor.getParameterCount() == 0) {
+        return "new %s()".formatted(typeName(type));
+      }
+    }
+
+    final var names = new HashSet<String>();
+    final var attributes = element.getAttributes();
+    for (int index = 0; index < attributes.getLength(); ++index) {
+      final var name = ((Attr) attributes.item(index)).getName();
+      if (!isSpecialAttribute(name)) {
+        names.add(name);
+      }
+    }
+
+    final var constructor =
+      this.findNamedArgConstructor(type, names);
+    final var parameters = constructor.getParameters();
+    final var arguments = new ArrayList<String>(parameters.length);
+    for (final var parameter : parameters) {
+      final var named = parameter.getAnnotation(NamedArg.class);
+      final var ptype = parameter.getType();
+      if (element.hasAttribute(named.value())) {
+        arguments.add(this.coerce(element.getAttribute(named.value()), ptype));
+        consumed.add(named.value());
+      } else if (!named.defaultValue().isEmpty()) {
+        arguments.add(this.coerce(named.defaultValue(), ptype));
+      } else {
+        arguments.add(defaultValueOf(ptype));
+      }
+    }
+    return "new %s(%s)".formatted(typeName(type), String.join(", ", arguments));
+  }
+
+  private Constructor<?> findNamedArgConstructor(
+    final Class<?> type,
+    final Set<String> names)
+    throws MFXCompilerException
+  {
+    Constructor<?> best = null;
+    for (final var constructor : type.getConstructors()) {
+      final var parameterNames = new HashSet<String>();
+      for (final var parameter : constructor.getParameters()) {
+        final var named = parameter.getAnnotation(NamedArg.class);
+        if (named == null) {
+          parameterNames.clear();
+          break;
+        }
+        parameterNames.add(named.value());
+      }
+      if (parameterNames.size() != constructor.getParameterCount()) {
+        continue;
+      }
+      if (!parameterNames.containsAll(names)) {
+        continue;
+      }
+      if (best == null
+          || constructor.getParameterCount() < best.getParameterCount()) {
+        best = constructor;
+      }
+    }
+
+    if (best == null) {
+      throw this.error(
+        "No usable constructor for %s with arguments %s"
+          .formatted(type.getName(), names)
+      );
+    }
+    return best;
+  }
+
+  private void attribute(
+    final MFXValue owner,
+    final String name,
+    final String value)
+    throws MFXCompilerException
+  {
+    if (isSpecialAttribute(name)) {
+      return;
+    }
+
+    final var dot = name.lastIndexOf('.');
+    if (dot > 0) {
+      final var staticOwner =
+        this.resolveClass(name.substring(0, dot));
+      final var property =
+        name.substring(dot + 1);
+      final var method =
+        this.findStaticSetter(staticOwner, property);
+      this.line(
+        "%s.%s(%s, %s);",
+        typeName(staticOwner),
+        method.getName(),
+        owner.expression(),
+        this.coerce(value, method.getParameterTypes()[1])
+      );
+      return;
+    }
+
+    if (value.startsWith("#") && name.startsWith("on")) {
+      this.line(
+        "%s.%s(event -> controller.%s());",
+        owner.expression(),
+        setterName(name),
+        value.substring(1)
+      );
+      return;
+    }
+
+    final var setter = findSetter(owner.type(), name, null);
+    if (setter.isPresent()) {
+      final var method = setter.get();
+      this.line(
+        "%s.%s(%s);",
+        owner.expression(),
+        method.getName(),
+        this.coerce(value, method.getParameterTypes()[0])
+      );
+      return;
+    }
+
+    final var getter = findListGetter(owner.type(), name);
+    if (getter.isPresent()) {
+      for (final var item : value.split(",")) {
+        this.line(
+          "%s.%s().add(%s);",
+          owner.expression(),
+          getter.get().getName(),
+          this.coerce(item.trim(), String.class)
+        );
+      }
+      return;
+    }
+
+    throw this.error(
+      "No writable property '%s' on %s".formatted(name, owner.type().getName())
+    );
+  }
+
+  private void child(
+    final MFXValue owner,
+    final Element element)
+    throws MFXCompilerException
+  {
+    this.checkSupported(element);
+
+    final var name = element.getTagName();
+    final var dot = name.lastIndexOf('.');
+    final var last = name.substring(dot + 1);
+
+    if (Character.isUpperCase(last.charAt(0))) {
+      final var defaultProperty =
+        owner.type().getAnnotation(DefaultProperty.class);
+      if (defaultProperty == null) {
+        throw this.error(
+          "%s has no default property".formatted(owner.type().getName())
+        );
+      }
+      this.property(owner, defaultProperty.value(), List.of(element));
+      return;
+    }
+
+    if (dot > 0) {
+      final var staticOwner =
+        this.resolveClass(name.substring(0, dot));
+      final var method =
+        this.findStaticSetter(staticOwner, last);
+      final var values = childElements(element);
+      if (values.size() != 1) {
+        throw this.error(
+          "Static property %s requires exactly one value".formatted(name)
+        );
+      }
+      final var value = this.instance(values.get(0));
+      this.line(
+        "%s.%s(%s, %s);",
+        typeName(staticOwner),
+        method.getName(),
+        owner.expression(),
+        value.expression()
+      );
+      return;
+    }
+
+    this.property(owner, name, childElements(element));
+  }
+
+  private void property(
+    final MFXValue owner,
+    final String name,
+    final List<Element> elements)
+    throws MFXCompilerException
+  {
+    final var getter = findListGetter(owner.type(), name);
+    if (getter.isPresent() && findSetter(owner.type(), name, null).isEmpty()) {
+      for (final var element : elements) {
+        final var value = this.instance(element);
+        this.line(
+          "%s.%s().add(%s);",
+          owner.expression(),
+          getter.get().getName(),
+          value.expression()
+        );
+      }
+      return;
+    }
+
+    if (elements.size() != 1) {
+      throw this.error(
+        "Property %s requires exactly one value".formatted(name)
+      );
+    }
+
+    final var value = this.instance(elements.get(0));
+    final var setter = findSetter(owner.type(), name, value.type());
+    if (setter.isEmpty()) {
+      throw this.error(
+        "No writable property '%s' on %s"
+          .formatted(name, owner.type().getName())
+      );
+    }
+    this.line(
+      "%s.%s(%s);",
+      owner.expression(),
+      setter.get().getName(),
+      value.expression()
+    );
+  }
+
+  private String coerce(
+    final String value,
+    final Class<?> type)
+    throws MFXCompilerException
+  {
+    if (value.startsWith("%")) {
+      return "resources.getString(%s)".formatted(literal(value.substring(1)));
+    }
+    if (value.startsWith("@")) {
+      return this.location(value.substring(1));
+    }
+    if (value.startsWith("$")) {
+      throw this.error(
+        "Variable references are not supported (%s)".formatted(value)
+      );
+    }
+
+    final String text;
+    if (value.startsWith("\\")) {
+      text = value.substring(1);
+    } else {
+      text = value;
+    }
+
+    try {
+      return this.coerceLiteral(text, type);
+    } catch (final NumberFormatException e) {
+      throw this.error(
+        "Cannot convert '%s' to %s".formatted(text, type.getName())
+      );
+    }
+  }
+
+  private String coerceLiteral(
+    final String text,
+    final Class<?> type)
+    throws MFXCompilerException
+  {
+    final var boxed =
+      MethodType.methodType(type).wrap().returnType();
+
+    return switch (boxed.getName()) {
+      case "java.lang.String", "java.lang.Object", "java.lang.CharSequence" ->
+        literal(text);
+      case "java.lang.Double" ->
+        doubleLiteral(Double.parseDouble(text));
+      case "java.lang.Float" ->
+        Float.parseFloat(text) + "f";
+      case "java.lang.Integer" ->
+        Integer.toString(Integer.parseInt(text));
+      case "java.lang.Long" ->
+        Long.parseLong(text) + "L";
+      case "java.lang.Boolean" ->
+        Boolean.toString(Boolean.parseBoolean(text));
+      default ->
+        this.enumConstant(text, type);
+    };
+  }
+
+  private String enumConstant(
+    final String text,
+    final Class<?> type)
+    throws MFXCompilerException
+  {
+    if (!type.isEnum()) {
+      throw this.error(
+        "Cannot convert '%s' to %s".formatted(text, type.getName())
+      );
+    }
+
+    final var candidates = List.of(
+      text,
+      text.toUpperCase(Locale.ROOT),
+      text.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT)
+    );
+    for (final var candidate : candidates) {
+      for (final var constant : type.getEnumConstants()) {
+        if (((Enum<?>) constant).name().equals(candidate)) {
+          return typeName(type) + "." + candidate;
+        }
+      }
+    }
+    throw this.error(
+      "%s is not a constant of %s".formatted(text, type.getName())
+    );
+  }
+
+  private String location(
+    final String path)
+  {
+    final var resolved =
+      URI.create(this.compilation.resource())
+        .resolve(path)
+        .getPath();
+
+    return "%s.class.getResource(%s).toExternalForm()"
+      .formatted(this.compilation.simpleClassName(), literal(resolved));
+  }
+
+  private Method findStaticSetter(
+    final Class<?> type,
+    final String property)
+    throws MFXCompilerException
+  {
+    final var name = setterName(property);
+    for (final var method : type.getMethods()) {
+      if (Modifier.isStatic(method.getModifiers())
+          && method.getParameterCount() == 2
+          && method.getName().equals(name)) {
+        return method;
+      }
+    }
+    throw this.error(
+      "No static property '%s' on %s".formatted(property, type.getName())
+    );
+  }
+
+  private static Optional<Method> findSetter(
+    final Class<?> type,
+    final String property,
+    final Class<?> argumentType)
+  {
+    final var name = setterName(property);
+    Method found = null;
+    for (final var method : type.getMethods()) {
+      if (Modifier.isStatic(method.getModifiers())
+          || method.getParameterCount() != 1
+          || !method.getName().equals(name)) {
+        continue;
+      }
+      final var parameter = method.getParameterTypes()[0];
+      if (argumentType == null || isAssignable(parameter, argumentType)) {
+        if (found == null || parameter == String.class) {
+          found = method;
+        }
+      }
+    }
+    return Optional.ofNullable(found);
+  }
+
+  private static boolean isAssignable(
+    final Class<?> parameter,
+    final Class<?> argument)
+  {
+    if (parameter.isPrimitive()) {
+      return true;
+    }
+    return parameter.isAssignableFrom(argument);
+  }
+
+  private static Optional<Method> findListGetter(
+    final Class<?> type,
+    final String property)
+  {
+    final var name = "get" + capitalize(property);
+    try {
+      final var method = type.getMethod(name);
+      if (List.class.isAssignableFrom(method.getReturnType())) {
+        return Optional.of(method);
+      }
+      return Optional.empty();
+    } catch (final NoSuchMethodException e) {
+      return Optional.empty();
+    }
+  }
+
+  private Class<?> resolveClass(
+    final String name)
+    throws MFXCompilerException
+  {
+    if (name.indexOf('.') > 0
+        && Character.isLowerCase(name.charAt(0))) {
+      final var direct = this.tryLoad(name);
+      if (direct.isPresent()) {
+        return direct.get();
+      }
+    }
+
+    for (final var importName : this.imports) {
+      final Optional<Class<?>> candidate;
+      if (importName.endsWith(".*")) {
+        candidate = this.tryLoad(
+          importName.substring(0, importName.length() - 1) + name);
+      } else if (importName.endsWith("." + name)) {
+        candidate = this.tryLoad(importName);
+      } else {
+        candidate = Optional.empty();
+      }
+      if (candidate.isPresent()) {
+        return candidate.get();
+      }
+    }
+
+    return this.tryLoad("java.lang." + name)
+      .orElseThrow(() -> this.error("Unresolvable class %s".formatted(name)));
+  }
+
+  private Optional<Class<?>> tryLoad(
+    final String name)
+  {
+    try {
+      return Optional.of(Class.forName(name, false, this.classLoader));
+    } catch (final ClassNotFoundException | LinkageError e) {
+      return Optional.empty();
+    }
+  }
+
+  private void line(
+    final String format,
+    final Object... arguments)
+  {
+    this.body.append(INDENT);
+    this.body.append(format.formatted(arguments));
+    this.body.append('\n');
+  }
+
+  private MFXCompilerException error(
+    final String message)
+  {
+    return new MFXCompilerException(
+      "%s: %s".formatted(this.compilation.file(), message)
+    );
+  }
+
+  private static List<Element> childElements(
+    final Element element)
+  {
+    final var nodes = element.getChildNodes();
+    final var results = new ArrayList<Element>(nodes.getLength());
+    for (int index = 0; index < nodes.getLength(); ++index) {
+      if (nodes.item(index) instanceof final Element child) {
+        results.add(child);
+      }
+    }
+    return results;
+  }
+
+  private static boolean isSpecialAttribute(
+    final String name)
+  {
+    return name.startsWith("xmlns") || name.startsWith("fx:");
+  }
+
+  private static String setterName(
+    final String property)
+  {
+    return "set" + capitalize(property);
+  }
+
+  private static String capitalize(
+    final String property)
+  {
+    return Character.toUpperCase(property.charAt(0)) + property.substring(1);
+  }
+
+  private static String typeName(
+    final Class<?> type)
+  {
+    return type.getCanonicalName();
+  }
+
+  private static String defaultValueOf(
+    final Class<?> type)
+  {
+    if (type == boolean.class) {
+      return "false";
+    }
+    if (type == double.class) {
+      return "0.0";
+    }
+    if (type == float.class) {
+      return "0.0f";
+    }
+    if (type == long.class) {
+      return "0L";
+    }
+    if (type.isPrimitive()) {
+      return "0";
+    }
+    return "null";
+  }
+
+  private static String doubleLiteral(
+    final double value)
+  {
+    if (Double.isNaN(value)) {
+      return "Double.NaN";
+    }
+    if (value == Double.POSITIVE_INFINITY) {
+      return "Double.POSITIVE_INFINITY";
+    }
+    if (value == Double.NEGATIVE_INFINITY) {
+      return "Double.NEGATIVE_INFINITY";
+    }
+    return Double.toString(value);
+  }
+
+  private static String literal(
+    final String text)
+  {
+    final var out = new StringBuilder(text.length() + 2);
+    out.append('"');
+    for (int index = 0; index < text.length(); ++index) {
+      final var c = text.charAt(index);
+      switch (c) {
+        case '"' -> out.append("\\\"");
+        case '\\' -> out.append("\\\\");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        case '\t' -> out.append("\\t");
+        default -> {
+          if (c < 0x20 || c > 0x7e) {
+            out.append("\\u%04x".formatted((int) c));
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+    out.append('"');
+    return out.toString();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.seltzer;
+
+import com.io7m.seltzer.api.SStructuredErrorType;
+import javafx.scene.image.Image;
+
+import java.net.URI;
+import java.util.function.Consumer;
+
+/**
+ * The type of error console builders.
+ */
+
+public interface MSErrorConsoleBuilderType
+{
+  /**
+   * Set the callback that will be executed when the user presses the
+   * "report" button. The callback receives the selected error. If no
+   * callback has been specified, the button will be disabled.
+   *
+   * @param callback The callback
+   *
+   * @return this
+   */
+
+  MSErrorConsoleBuilderType setErrorReportCallback(
+    Consumer<SStructuredErrorType<?>> callback);
+
+  /**
+   * Set the window/stage title of the console.
+   *
+   * @param title The title
+   *
+   * @return this
+   */
+
+  MSErrorConsoleBuilderType setTitle(
+    String title);
+
+  /**
+   * Set the custom CSS stylesheet to be used.
+   *
+   * @param css The CSS stylesheet location
+   *
+   * @return this
+   */
+
+  MSErrorConsoleBuilderType setCSS(
+    URI css);
+
+  /**
+   * Set the custom icon to be used.
+   *
+   * @param image The image
+   *
+   * @return this
+   */
+
+  MSErrorConsoleBuilderType setIcon(
+    Image image);
+
+  /**
+   * Set the way in which the exception attached to an error (if any) is
+   * displayed. The default is {@link MSExceptionDisplay#TREE}.
+   *
+   * @param display The exception display
+   *
+   * @return this
+   */
+
+  MSErrorConsoleBuilderType setExceptionDisplay(
+    MSExceptionDisplay display);
+
+  /**
+   * Set the maximum number of errors retained by the console. The default
+   * is 1000.
+   *
+   * @param capacity The capacity
+   *
+   * @return this
+   */
+
+  MSErrorConsoleBuilderType setCapacity(
+    int capacity);
+
+  /**
+   * Build the console. This must be called on the FX thread.
+   *
+   * @return A new console
+   */
+
+  MSErrorConsoleType build();
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.seltzer;
+
+import com.io7m.seltzer.api.SStructuredErrorType;
+import javafx.collections.ObservableList;
+
+/**
+ * <p>An error console: a single window that lists incoming errors and
+ * displays the details of the selected error.</p>
+ *
+ * <p>The console retains a bounded number of the most recent errors; the
+ * oldest error is forgotten whenever a new error arrives at a full console.
+ * Only one window is ever created for the console, however many errors
+ * arrive. Errors may be submitted from other threads via a
+ * {@link com.io7m.miscue.core.MiscueErrorSinkType} that delivers them on
+ * the FX thread.</p>
+ */
+
+public interface MSErrorConsoleType
+  extends MSErrorDialogType
+{
+  /**
+   * Add an error to the console. This must be called on the FX thread.
+   *
+   * @param error The error
+   */
+
+  void submit(
+    SStructuredErrorType<?> error);
+
+  /**
+   * @return A read-only view of the errors currently retained, oldest first
+   */
+
+  ObservableList<SStructuredErrorType<?>> errors();
+
+  /**
+   * @return The maximum number of errors retained
+   */
+
+  int capacity();
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.seltzer;
+
+import com.io7m.miscue.core.MiscueDialogResult;
+import com.io7m.miscue.core.internal.MiscueDialogSession;
+import com.io7m.miscue.core.internal.MiscueDialogTracking;
+import com.io7m.miscue.core.internal.MiscueReporting;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorConsoleCell;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorController;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorStrings;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorView;
+import com.io7m.miscue.fx.seltzer.internal.MSRingBuffer;
+import com.io7m.seltzer.api.SStructuredErrorType;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SplitPane;
+import javafx.scene.image.Image;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+/**
+ * A factory of error consoles.
+ *
+ * @see MSErrorConsoleType
+ */
+
+public final class MSErrorConsoles
+{
+  private static final MSErrorStrings STRINGS;
+  private static final int DEFAULT_CAPACITY = 1000;
+  private static final double DEFAULT_WIDTH = 1024.0;
+  private static final double DEFAULT_HEIGHT = 600.0;
+  private static final double DEFAULT_DIVIDER = 0.3;
+
+  static {
+    STRINGS = new MSErrorStrings(Locale.getDefault());
+  }
+
+  private MSErrorConsoles()
+  {
+
+  }
+
+  /**
+   * @return A new console builder
+   */
+
+  public static MSErrorConsoleBuilderType builder()
+  {
+    return new Builder();
+  }
+
+  private static final class Builder
+    implements MSErrorConsoleBuilderType
+  {
+    private URI css;
+    private Optional<Consumer<SStructuredErrorType<?>>> errorReportCallback;
+    private Optional<Image> icon;
+    private String title;
+    private MSExceptionDisplay exceptionDisplay;
+    private int capacity;
+
+    Builder()
+    {
+      this.errorReportCallback =
+        Optional.empty();
+      this.icon =
+        Optional.empty();
+      this.title = "";
+      this.exceptionDisplay = MSExceptionDisplay.TREE;
+      this.capacity = DEFAULT_CAPACITY;
+
+      try {
+        this.css =
+          MSErrorConsoles.class.getResource(
+            "/com/io7m/miscue/fx/seltzer/internal/errorSeltzer.css"
+          ).toURI();
+      } catch (final URISyntaxException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public MSErrorConsoleBuilderType setErrorReportCallback(
+      final Consumer<SStructuredErrorType<?>> callback)
+    {
+      this.errorReportCallback = Optional.of(callback);
+      return this;
+    }
+
+    @Override
+    public MSErrorConsoleBuilderType setTitle(
+      final String newTitle)
+    {
+      this.title = Objects.requireNonNull(newTitle, "title");
+      return this;
+    }
+
+    @Override
+    public MSErrorConsoleBuilderType setCSS(
+      final URI newCSS)
+    {
+      this.css = Objects.requireNonNull(newCSS, "css");
+      return this;
+    }
+
+    @Override
+    public MSErrorConsoleBuilderType setIcon(
+      final Image image)
+    {
+      this.icon = Optional.of(image);
+      return this;
+    }
+
+    @Override
+    public MSErrorConsoleBuilderType setExceptionDisplay(
+      final MSExceptionDisplay display)
+    {
+      this.exceptionDisplay = Objects.requireNonNull(display, "display");
+      return this;
+    }
+
+    @Override
+    public MSErrorConsoleBuilderType setCapacity(
+      final int newCapacity)
+    {
+      if (newCapacity <= 0) {
+        throw new IllegalArgumentException(
+          "Capacity %d must be positive"
+            .formatted(Integer.valueOf(newCapacity))
+        );
+      }
+      this.capacity = newCapacity;
+      return this;
+    }
+
+    @Override
+    public MSErrorConsoleType build()
+    {
+      final var stage = new Stage();
+      final var errors =
+        new MSRingBuffer<SStructuredErrorType<?>>(this.capacity);
+
+      final var list = new ListView<SStructuredErrorType<?>>(errors);
+      list.setId("errorConsoleList");
+      list.getStyleClass().add("errorConsoleList");
+      list.setCellFactory(view -> new MSErrorConsoleCell());
+      list.setPlaceholder(
+        new Label(STRINGS.resources().getString("error.consoleEmpty")));
+
+      final var details = new StackPane();
+      details.setId("errorConsoleDetails");
+
+      final var split = new SplitPane(list, details);
+      split.setOrientation(Orientation.HORIZONTAL);
+      split.setDividerPositions(DEFAULT_DIVIDER);
+      split.getStylesheets().add(this.css.toString());
+
+      stage.setTitle(this.title);
+      stage.setWidth(DEFAULT_WIDTH);
+      stage.setHeight(DEFAULT_HEIGHT);
+      stage.setScene(new Scene(split));
+
+      final var console =
+        new Console(
+          stage,
+          errors,
+          list,
+          details,
+          this.errorReportCallback,
+          this.icon,
+          this.exceptionDisplay
+        );
+
+      list.getSelectionModel()
+        .selectedItemProperty()
+        .addListener((observable, oldError, newError) -> {
+          if (newError != null) {
+            console.display(newError);
+          }
+        });
+      return console;
+    }
+  }
+
+  private static final class Console implements MSErrorConsoleType
+  {
+    private final Stage stage;
+    private final MSRingBuffer<SStructuredErrorType<?>> errors;
+    private final ObservableList<SStructuredErrorType<?>> errorsReadable;
+    private final ListView<SStructuredErrorType<?>> list;
+    private final StackPane details;
+    private final Optional<Consumer<SStructuredErrorType<?>>> reportCallback;
+    private final Optional<Image> icon;
+    private final MSExceptionDisplay exceptionDisplay;
+    private MSErrorController controller;
+    private boolean disposed;
+    private MiscueDialogSession session;
+
+    Console(
+      final Stage inStage,
+      final MSRingBuffer<SStructuredErrorType<?>> inErrors,
+      final ListView<SStructuredErrorType<?>> inList,
+      final StackPane inDetails,
+      final Optional<Consumer<SStructuredErrorType<?>>> inReportCallback,
+      final Optional<Image> inIcon,
+      final MSExceptionDisplay inExceptionDisplay)
+    {
+      this.stage =
+        Objects.requireNonNull(inStage, "stage");
+      this.errors =
+        Objects.requireNonNull(inErrors, "errors");
+      this.errorsReadable =
+        FXCollections.unmodifiableObservableList(inErrors);
+      this.list =
+        Objects.requireNonNull(inList, "list");
+      this.details =
+        Objects.requireNonNull(inDetails, "details");
+      this.reportCallback =
+        Objects.requireNonNull(inReportCallback, "reportCallback");
+      this.icon =
+        Objects.requireNonNull(inIcon, "icon");
+      this.exceptionDisplay =
+        Objects.requireNonNull(inExceptionDisplay, "exceptionDisplay");
+
+      MiscueDialogTracking.track(this.stage, this);
+
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_SHOWING, event -> this.onSessionShowing());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_SHOWN, event -> this.onSessionShown());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_CLOSE_REQUEST,
+        event -> this.onSessionCloseRequested());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_HIDDEN, event -> this.onSessionHidden());
+    }
+
+    /**
+     * Display the details of the given error. The details view is created
+     * for the first error displayed, and rebound for every error after that.
+     */
+
+    private void display(
+      final SStructuredErrorType<?> error)
+    {
+      final MiscueReporting<SStructuredErrorType<?>> report =
+        new MiscueReporting<>(
+          this.reportCallback.map(callback -> () -> callback.accept(error)),
+          Optional.empty(),
+          MiscueReporting.DEFAULT_EXECUTOR
+        );
+
+      if (this.controller == null) {
+        this.controller =
+          new MSErrorController(
+            error,
+            report,
+            this.icon,
+            this.exceptionDisplay,
+            this.stage
+          );
+        this.details.getChildren()
+          .setAll(MSErrorView.create(STRINGS.resources(), this.controller)
+                    .root());
+        return;
+      }
+
+      this.controller.rebind(error, report, this.icon, this.exceptionDisplay);
+      this.list.requestFocus();
+    }
+
+    @Override
+    public void submit(
+      final SStructuredErrorType<?> error)
+    {
+      this.checkNotDisposed();
+      this.errors.push(Objects.requireNonNull(error, "error"));
+
+      final var selection = this.list.getSelectionModel();
+      if (selection.isEmpty()) {
+        selection.selectLast();
+      }
+    }
+
+    @Override
+    public ObservableList<SStructuredErrorType<?>> errors()
+    {
+      return this.errorsReadable;
+    }
+
+    @Override
+    public int capacity()
+    {
+      return this.errors.capacity();
+    }
+
+    private void checkNotDisposed()
+    {
+      if (this.disposed) {
+        throw new IllegalStateException("Console has been disposed.");
+      }
+    }
+
+    private MiscueDialogSession newSession()
+    {
+      if (this.controller == null) {
+        return new MiscueDialogSession(0L, 0L);
+      }
+      return new MiscueDialogSession(
+        this.controller.reportCount(),
+        this.controller.dismissCount()
+      );
+    }
+
+    private void onSessionShowing()
+    {
+      if (this.session == null) {
+        this.session = this.newSession();
+      }
+    }
+
+    private void onSessionShown()
+    {
+      this.session.onShown();
+    }
+
+    private void onSessionCloseRequested()
+    {
+      this.session.onCloseRequested();
+    }
+
+    private void onSessionHidden()
+    {
+      if (this.session == null) {
+        return;
+      }
+      if (this.controller == null) {
+        this.session.onHidden(0L, 0L);
+      } else {
+        this.session.onHidden(
+          this.controller.reportCount(),
+          this.controller.dismissCount()
+        );
+      }
+      this.session = null;
+    }
+
+    @Override
+    public CompletionStage<MiscueDialogResult> showAsync()
+    {
+      this.checkNotDisposed();
+      this.onSessionShowing();
+      final var result = this.session.result();
+      this.stage.show();
+      return result;
+    }
+
+    @Override
+    public void show()
+    {
+      this.checkNotDisposed();
+      this.stage.show();
+    }
+
+    @Override
+    public void showAndWait()
+    {
+      this.checkNotDisposed();
+      this.stage.showAndWait();
+    }
+
+    @Override
+    public void dispose()
+    {
+      if (this.disposed) {
+        return;
+      }
+
+      this.disposed = true;
+      this.stage.close();
+      this.list.getSelectionModel().clearSelection();
+      this.errors.clear();
+      this.details.getChildren().clear();
+      this.stage.setScene(null);
+      if (this.controller != null) {
+        this.controller.dispose();
+        this.controller = null;
+      }
+    }
+
+    @Override
+    public void close()
+    {
+      this.stage.close();
+    }
+
+    @Override
+    public Stage stage()
+    {
+      return this.stage;
+    }
+  }
+}
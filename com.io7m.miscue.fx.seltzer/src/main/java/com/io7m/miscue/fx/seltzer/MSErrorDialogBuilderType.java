@@ -18,10 +18,14 @@
 package com.io7m.miscue.fx.seltzer;
 
 import com.io7m.miscue.core.MiscueDialogBuilderType;
+import com.io7m.miscue.core.MiscueReportTaskType;
+import com.io7m.seltzer.api.SStructuredErrorType;
 import javafx.scene.image.Image;
 import javafx.stage.Modality;
 
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 /**
  * The type of JavaFX error dialog builders that consume Seltzer errors.
@@ -37,6 +41,43 @@ public interface MSErrorDialogBuilderType
   MSErrorDialogBuilderType setErrorReportCallback(
     Runnable callback);
 
+  @Override
+  MSErrorDialogBuilderType setErrorReportExecutor(
+    Executor executor);
+
+  /**
+   * Set the report task. When the report button is pressed, the task is
+   * executed on the report executor with the displayed error as its
+   * subject; the dialog shows the progress of the task, disables the
+   * report button until the task finishes, and allows the user to cancel
+   * the task. If a report task is set, it is used instead of any report
+   * callback.
+   *
+   * @param task The report task
+   *
+   * @return this
+   *
+   * @see #setErrorReportExecutor(Executor)
+   */
+
+  MSErrorDialogBuilderType setErrorReportTask(
+    MiscueReportTaskType<? super SStructuredErrorType<?>> task);
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A bundle contains {@code error.txt}, {@code attributes.json},
+   * {@code exception.txt} (if the error has an exception), and
+   * {@code snapshot.png}.</p>
+   *
+   * @see com.io7m.miscue.export.MXErrorBundles
+   */
+
+  @Override
+  MSErrorDialogBuilderType setErrorReportBundle(
+    Path directory,
+    MiscueReportTaskType<? super Path> receiver);
+
   /**
    * Set the window/stage title of the dialog.
    *
@@ -81,6 +122,59 @@ public interface MSErrorDialogBuilderType
   MSErrorDialogBuilderType setIcon(
     Image image);
 
+  /**
+   * Set the way in which the exception attached to the error (if any) is
+   * displayed. The default is {@link MSExceptionDisplay#TREE}.
+   *
+   * @param display The exception display
+   *
+   * @return this
+   */
+
+  MSErrorDialogBuilderType setExceptionDisplay(
+    MSExceptionDisplay display);
+
+  /**
+   * Set whether the dialog is pooled. A pooled dialog is returned to a
+   * process-wide, bounded pool when it is closed, and a later pooled
+   * dialog with the same modality and CSS stylesheet is built by rebinding
+   * the existing window and scene graph to the new error rather than
+   * creating new ones. A pooled dialog must not be used after it has been
+   * closed, because it may already be displaying a different error. The
+   * default is {@code false}.
+   *
+   * @param pooled {@code true} if the dialog should be pooled
+   *
+   * @return this
+   *
+   * @see MSErrorDialogs#setPoolCapacity(int)
+   */
+
+  MSErrorDialogBuilderType setPooled(
+    boolean pooled);
+
+  /**
+   * Set whether the dialog coalesces duplicate errors. From the time a
+   * coalescing dialog is built until it is hidden or disposed, building
+   * another coalescing dialog for an error with the same fingerprint (the
+   * same error code, message, exception class, and top stack frames) does
+   * not create a new window or scene. Instead, showing the returned dialog
+   * increments an occurrence counter on the existing dialog, and shows the
+   * existing dialog if it is not already showing; the counter is redrawn at
+   * most once per pulse. The returned dialog shares the existing dialog's
+   * stage (see {@link MSErrorDialogType#stage()}). A coalescing dialog
+   * that is built but never shown or disposed stops receiving duplicates
+   * once it is no longer referenced and has been garbage collected. The
+   * default is {@code false}.
+   *
+   * @param coalescing {@code true} if duplicate errors should be coalesced
+   *
+   * @return this
+   */
+
+  MSErrorDialogBuilderType setCoalescing(
+    boolean coalescing);
+
   @Override
   MSErrorDialogType build();
 }
@@ -30,7 +30,15 @@ public interface MSErrorDialogType
   extends MiscueDialogType
 {
   /**
+   * Return the stage containing the dialog. For a dialog returned for a
+   * duplicate error by a coalescing builder, this is the stage of the
+   * existing dialog that displays the error, and so it is shared with that
+   * dialog and with any other duplicates: closing or modifying it affects
+   * all of them.
+   *
    * @return The stage containing the dialog
+   *
+   * @see MSErrorDialogBuilderType#setCoalescing(boolean)
    */
 
   Stage stage();
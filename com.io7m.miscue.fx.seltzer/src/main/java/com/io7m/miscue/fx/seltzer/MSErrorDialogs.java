@@ -17,23 +17,42 @@
 
 package com.io7m.miscue.fx.seltzer;
 
+import com.io7m.miscue.core.MiscueDialogResult;
+import com.io7m.miscue.core.MiscueReportTaskType;
+import com.io7m.miscue.core.internal.MiscueDialogPool;
+import com.io7m.miscue.core.internal.MiscueDialogSession;
+import com.io7m.miscue.core.internal.MiscueDialogTracking;
+import com.io7m.miscue.core.internal.MiscueReporting;
+import com.io7m.miscue.core.internal.MiscueSnapshots;
+import com.io7m.miscue.export.MXErrorBundles;
+import com.io7m.miscue.export.MXSnapshot;
+import com.io7m.miscue.export.internal.MXReportBundles;
 import com.io7m.miscue.fx.seltzer.internal.MSErrorController;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorFingerprint;
 import com.io7m.miscue.fx.seltzer.internal.MSErrorStrings;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorView;
+import com.io7m.miscue.fx.seltzer.internal.MSPreloading;
 import com.io7m.seltzer.api.SStructuredErrorType;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * A factory of JavaFX error dialogs that consume Seltzer errors.
@@ -44,6 +63,29 @@ import java.util.Optional;
 public final class MSErrorDialogs
 {
   private static final MSErrorStrings STRINGS;
+  private static final int DEFAULT_POOL_CAPACITY = 4;
+  private static final double DEFAULT_WIDTH = 800.0;
+  private static final double DEFAULT_HEIGHT = 600.0;
+  private static final MiscueDialogPool<PoolKey, Dialog> POOL =
+    new MiscueDialogPool<>(DEFAULT_POOL_CAPACITY);
+
+  /**
+   * <p>The coalescing dialogs that have been built and not yet hidden or
+   * disposed, by fingerprint. Only accessed on the FX thread.</p>
+   *
+   * <p>Dialogs are referenced weakly. A dialog that is showing is kept
+   * alive by its stage, which JavaFX retains until it is hidden, and is
+   * removed from the map when it is hidden or disposed. A dialog that has
+   * been built but not yet shown is kept alive only by its caller (and by
+   * any duplicates built since); if the caller drops it without showing or
+   * disposing it, it is collected, and its entry is removed the next time
+   * a coalescing dialog is built.</p>
+   */
+
+  private static final HashMap<Long, OpenReference> OPEN =
+    new HashMap<>();
+  private static final ReferenceQueue<Dialog> OPEN_COLLECTED =
+    new ReferenceQueue<>();
 
   static {
     STRINGS = new MSErrorStrings(Locale.getDefault());
@@ -54,6 +96,73 @@ public final class MSErrorDialogs
 
   }
 
+  /**
+   * <p>Warm up error dialogs so that the first dialog shown is created as
+   * quickly as any subsequent dialog.</p>
+   *
+   * <p>This is intended to be called once, early in application startup,
+   * after the JavaFX platform has been started. It may be called from any
+   * thread. Most of the work happens on a background thread; a hidden
+   * dialog is then built and discarded on the FX thread. Calling this
+   * method more than once has no further effect.</p>
+   *
+   * @return An operation that completes when preloading has finished
+   */
+
+  public static CompletionStage<Void> preload()
+  {
+    return MSPreloading.preloader()
+      .preload()
+      .minimalCompletionStage();
+  }
+
+  /**
+   * Set the maximum number of closed dialogs that are retained for reuse
+   * by pooled dialog builders. Setting the capacity to zero effectively
+   * disables pooling. The default capacity is 4.
+   *
+   * @param capacity The capacity
+   *
+   * @see MSErrorDialogBuilderType#setPooled(boolean)
+   */
+
+  public static void setPoolCapacity(
+    final int capacity)
+  {
+    POOL.setCapacity(capacity);
+  }
+
+  /**
+   * @return The number of closed dialogs currently retained for reuse
+   */
+
+  public static int pooledDialogs()
+  {
+    return POOL.size();
+  }
+
+  private static Optional<Dialog> openDialog(
+    final long fingerprint)
+  {
+    expungeCollected();
+    final var reference = OPEN.get(Long.valueOf(fingerprint));
+    if (reference == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(reference.get());
+  }
+
+  private static void expungeCollected()
+  {
+    while (true) {
+      final var reference = (OpenReference) OPEN_COLLECTED.poll();
+      if (reference == null) {
+        return;
+      }
+      OPEN.remove(reference.fingerprint, reference);
+    }
+  }
+
   /**
    * @param error The error to be displayed
    *
@@ -72,9 +181,16 @@ public final class MSErrorDialogs
     private final SStructuredErrorType<?> error;
     private URI css;
     private Optional<Runnable> errorReportCallback;
+    private Optional<MiscueReportTaskType<? super SStructuredErrorType<?>>>
+      errorReportTask;
+    private Executor errorReportExecutor;
+    private Optional<ReportBundle> errorReportBundle;
     private Modality modality;
     private Optional<Image> icon;
     private String title;
+    private MSExceptionDisplay exceptionDisplay;
+    private boolean pooled;
+    private boolean coalescing;
 
     Builder(
       final SStructuredErrorType<?> inError)
@@ -83,11 +199,18 @@ public final class MSErrorDialogs
         Objects.requireNonNull(inError, "error");
       this.errorReportCallback =
         Optional.empty();
+      this.errorReportTask =
+        Optional.empty();
+      this.errorReportExecutor =
+        MiscueReporting.DEFAULT_EXECUTOR;
+      this.errorReportBundle =
+        Optional.empty();
       this.modality =
         Modality.NONE;
       this.icon =
         Optional.empty();
       this.title = "";
+      this.exceptionDisplay = MSExceptionDisplay.TREE;
 
       try {
         this.css =
@@ -107,6 +230,44 @@ public final class MSErrorDialogs
       return this;
     }
 
+    @Override
+    public MSErrorDialogBuilderType setErrorReportExecutor(
+      final Executor executor)
+    {
+      this.errorReportExecutor =
+        Objects.requireNonNull(executor, "executor");
+      return this;
+    }
+
+    @Override
+    public MSErrorDialogBuilderType setErrorReportTask(
+      final MiscueReportTaskType<? super SStructuredErrorType<?>> task)
+    {
+      this.errorReportTask = Optional.of(task);
+      return this;
+    }
+
+    @Override
+    public MSErrorDialogBuilderType setErrorReportBundle(
+      final Path directory,
+      final MiscueReportTaskType<? super Path> receiver)
+    {
+      this.errorReportBundle =
+        Optional.of(new ReportBundle(directory, receiver));
+      return this;
+    }
+
+    private MiscueReporting<SStructuredErrorType<?>> reporting(
+      final Stage stage)
+    {
+      return new MiscueReporting<>(
+        this.errorReportCallback,
+        this.errorReportTask,
+        this.errorReportExecutor,
+        this.errorReportBundle.map(bundle -> bundle.factory(stage::getScene))
+      );
+    }
+
     @Override
     public MSErrorDialogBuilderType setTitle(
       final String newTitle)
@@ -139,49 +300,161 @@ public final class MSErrorDialogs
       return this;
     }
 
+    @Override
+    public MSErrorDialogBuilderType setExceptionDisplay(
+      final MSExceptionDisplay display)
+    {
+      this.exceptionDisplay = Objects.requireNonNull(display, "display");
+      return this;
+    }
+
+    @Override
+    public MSErrorDialogBuilderType setPooled(
+      final boolean newPooled)
+    {
+      this.pooled = newPooled;
+      return this;
+    }
+
+    @Override
+    public MSErrorDialogBuilderType setCoalescing(
+      final boolean newCoalescing)
+    {
+      this.coalescing = newCoalescing;
+      return this;
+    }
+
     @Override
     public MSErrorDialogType build()
     {
-      try {
-        final var stage =
-          new Stage();
+      if (!this.coalescing) {
+        final var dialog = this.buildDialog();
+        dialog.fingerprint = OptionalLong.empty();
+        return dialog;
+      }
 
-        final var layout =
-          MSErrorDialogs.class.getResource(
-            "/com/io7m/miscue/fx/seltzer/internal/errorSeltzer.fxml");
-
-        Objects.requireNonNull(layout, "layout");
-
-        final var loader =
-          new FXMLLoader(layout, STRINGS.resources());
-        final var controller =
-          new MSErrorController(
-            this.error,
-            this.errorReportCallback,
-            this.icon,
-            stage
-          );
-
-        loader.setControllerFactory(param -> controller);
-
-        final Pane pane = loader.load();
-        pane.getStylesheets().add(this.css.toString());
-        stage.setTitle(this.title);
-        stage.initModality(this.modality);
-        stage.setWidth(800);
-        stage.setHeight(600);
-        stage.setScene(new Scene(pane));
-        return new Dialog(stage, controller);
-      } catch (final IOException e) {
-        throw new UncheckedIOException(e);
+      final var fingerprint = MSErrorFingerprint.of(this.error);
+      final var open = openDialog(fingerprint);
+      if (open.isPresent()) {
+        return new Occurrence(open.get(), fingerprint, this::buildDialog);
+      }
+
+      final var dialog = this.buildDialog();
+      dialog.register(fingerprint);
+      return dialog;
+    }
+
+    private Dialog buildDialog()
+    {
+      if (!this.pooled) {
+        return this.create();
       }
+
+      final var key = new PoolKey(this.modality, this.css);
+      final var existing = POOL.take(key);
+      if (existing.isPresent()) {
+        final var dialog = existing.get();
+        dialog.controller.rebind(
+          this.error,
+          this.reporting(dialog.stage),
+          this.icon,
+          this.exceptionDisplay
+        );
+        dialog.stage.setTitle(this.title);
+        dialog.stage.setWidth(DEFAULT_WIDTH);
+        dialog.stage.setHeight(DEFAULT_HEIGHT);
+        dialog.stage.centerOnScreen();
+        return dialog;
+      }
+
+      final var dialog = this.create();
+      dialog.poolKey = Optional.of(key);
+      return dialog;
+    }
+
+    private Dialog create()
+    {
+      final var stage =
+        new Stage();
+      final var controller =
+        new MSErrorController(
+          this.error,
+          this.reporting(stage),
+          this.icon,
+          this.exceptionDisplay,
+          stage
+        );
+
+      final Pane pane =
+        MSErrorView.create(STRINGS.resources(), controller)
+          .root();
+
+      pane.getStylesheets().add(this.css.toString());
+      stage.setTitle(this.title);
+      stage.initModality(this.modality);
+      stage.setWidth(DEFAULT_WIDTH);
+      stage.setHeight(DEFAULT_HEIGHT);
+      stage.setScene(new Scene(pane));
+      return new Dialog(stage, controller);
+    }
+  }
+
+  private record PoolKey(
+    Modality modality,
+    URI css)
+  {
+
+  }
+
+  private record ReportBundle(
+    Path directory,
+    MiscueReportTaskType<? super Path> receiver)
+  {
+    private ReportBundle
+    {
+      Objects.requireNonNull(directory, "directory");
+      Objects.requireNonNull(receiver, "receiver");
+    }
+
+    /**
+     * Create a report task factory that captures the given scene and then
+     * writes a bundle. The factory is evaluated on the FX thread; the
+     * bundle is written, and the receiver is executed, on the report
+     * executor.
+     */
+
+    Supplier<MiscueReportTaskType<? super SStructuredErrorType<?>>> factory(
+      final Supplier<Scene> scene)
+    {
+      return () -> {
+        final var snapshot =
+          MiscueSnapshots.capture(scene.get(), MXSnapshot::new);
+        return (error, progress) -> {
+          final var file =
+            MXReportBundles.<SStructuredErrorType<?>>write(
+              MXErrorBundles::write,
+              error,
+              snapshot,
+              this.directory,
+              "error-report-",
+              progress::isCancelled
+            );
+          if (file.isPresent()) {
+            this.receiver.report(file.get(), progress);
+          }
+        };
+      };
     }
   }
 
   private static final class Dialog implements MSErrorDialogType
   {
     private final Stage stage;
-    private final MSErrorController controller;
+    private MSErrorController controller;
+    private OptionalLong fingerprint;
+    private Optional<PoolKey> poolKey;
+    private boolean disposed;
+    private MiscueDialogSession session;
 
     Dialog(
       final Stage inStage,
@@ -191,20 +464,165 @@ public final class MSErrorDialogs
         Objects.requireNonNull(inStage, "stage");
       this.controller =
         Objects.requireNonNull(inController, "controller");
+      this.fingerprint =
+        OptionalLong.empty();
+      this.poolKey =
+        Optional.empty();
+
+      MiscueDialogTracking.track(this.stage, this);
+
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_SHOWING, event -> this.onShowing());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_SHOWN, event -> this.onSessionShown());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_CLOSE_REQUEST,
+        event -> this.onSessionCloseRequested());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_HIDDEN, event -> this.onHidden());
+    }
+
+    /**
+     * Register the dialog as the one that displays errors with the given
+     * fingerprint. This happens when the dialog is built, rather than when
+     * it is shown, so that duplicates built before the dialog is first
+     * shown are coalesced too. The registration does not keep the dialog
+     * alive; see {@link #OPEN}.
+     */
+
+    private void register(
+      final long newFingerprint)
+    {
+      this.fingerprint = OptionalLong.of(newFingerprint);
+      final var key = Long.valueOf(newFingerprint);
+      OPEN.put(key, new OpenReference(key, this));
+    }
+
+    private void unregister()
+    {
+      this.fingerprint.ifPresent(f -> {
+        final var key = Long.valueOf(f);
+        final var reference = OPEN.get(key);
+        if (reference != null && reference.get() == this) {
+          OPEN.remove(key);
+        }
+      });
+    }
+
+    /**
+     * A dialog that is shown again after being hidden registers itself
+     * again, unless another dialog has taken its place.
+     */
+
+    private void onShowing()
+    {
+      this.onSessionShowing();
+      this.fingerprint.ifPresent(f -> {
+        if (openDialog(f).isEmpty()) {
+          this.register(f);
+        }
+      });
+    }
+
+    /**
+     * A pooled dialog releases its error, report configuration, icon and
+     * view contents as soon as it is hidden, so that an idle dialog in the
+     * pool retains nothing but its window and scene graph.
+     */
+
+    private void onHidden()
+    {
+      this.onSessionHidden();
+      this.unregister();
+      if (!this.disposed && this.poolKey.isPresent()) {
+        this.controller.release();
+        POOL.offer(this.poolKey.get(), this);
+      }
+    }
+
+    private void checkNotDisposed()
+    {
+      if (this.disposed) {
+        throw new IllegalStateException("Dialog has been disposed.");
+      }
+    }
+
+    private MiscueDialogSession newSession()
+    {
+      return new MiscueDialogSession(
+        this.controller.reportCount(),
+        this.controller.dismissCount()
+      );
+    }
+
+    private void onSessionShowing()
+    {
+      if (this.session == null) {
+        this.session = this.newSession();
+      }
+    }
+
+    private void onSessionShown()
+    {
+      this.session.onShown();
+    }
+
+    private void onSessionCloseRequested()
+    {
+      this.session.onCloseRequested();
+    }
+
+    private void onSessionHidden()
+    {
+      if (this.session != null) {
+        this.session.onHidden(
+          this.controller.reportCount(),
+          this.controller.dismissCount()
+        );
+        this.session = null;
+      }
+    }
+
+    @Override
+    public CompletionStage<MiscueDialogResult> showAsync()
+    {
+      this.checkNotDisposed();
+      this.onSessionShowing();
+      final var result = this.session.result();
+      this.stage.show();
+      return result;
     }
 
     @Override
     public void show()
     {
+      this.checkNotDisposed();
       this.stage.show();
     }
 
     @Override
     public void showAndWait()
     {
+      this.checkNotDisposed();
       this.stage.showAndWait();
     }
 
+    @Override
+    public void dispose()
+    {
+      if (this.disposed) {
+        return;
+      }
+
+      this.disposed = true;
+      this.unregister();
+      this.poolKey.ifPresent(key -> POOL.remove(key, this));
+      this.stage.close();
+      this.stage.setScene(null);
+      this.controller.dispose();
+      this.controller = null;
+    }
+
     @Override
     public void close()
     {
@@ -217,4 +635,138 @@ public final class MSErrorDialogs
       return this.stage;
     }
   }
+
+  /**
+   * A duplicate of an error that is already displayed by a dialog. Showing
+   * a duplicate counts another occurrence on that dialog, and shows the
+   * dialog if it has been built but not yet shown. If the dialog has been
+   * hidden or disposed in the meantime, a real dialog is built and shown
+   * instead.
+   */
+
+  private static final class Occurrence implements MSErrorDialogType
+  {
+    private final Dialog open;
+    private final long fingerprint;
+    private final Supplier<Dialog> fallback;
+
+    Occurrence(
+      final Dialog inOpen,
+      final long inFingerprint,
+      final Supplier<Dialog> inFallback)
+    {
+      this.open =
+        Objects.requireNonNull(inOpen, "open");
+      this.fingerprint =
+        inFingerprint;
+      this.fallback =
+        Objects.requireNonNull(inFallback, "fallback");
+    }
+
+    private Optional<Dialog> stillOpen()
+    {
+      return openDialog(this.fingerprint)
+        .filter(dialog -> dialog == this.open);
+    }
+
+    private Dialog rebuild()
+    {
+      final var dialog = this.fallback.get();
+      dialog.register(this.fingerprint);
+      return dialog;
+    }
+
+    @Override
+    public void show()
+    {
+      this.stillOpen()
+        .ifPresentOrElse(
+          dialog -> {
+            dialog.controller.recordOccurrence();
+            dialog.show();
+          },
+          () -> this.rebuild().show()
+        );
+    }
+
+    @Override
+    public CompletionStage<MiscueDialogResult> showAsync()
+    {
+      final var dialog = this.stillOpen();
+      if (dialog.isPresent()) {
+        dialog.get().controller.recordOccurrence();
+        return dialog.get().showAsync();
+      }
+      return this.rebuild().showAsync();
+    }
+
+    /**
+     * If the dialog is already showing, only the occurrence is counted, and
+     * this method returns immediately rather than waiting for the dialog to
+     * be hidden.
+     */
+
+    @Override
+    public void showAndWait()
+    {
+      this.stillOpen()
+        .ifPresentOrElse(
+          dialog -> {
+            dialog.controller.recordOccurrence();
+            if (!dialog.stage.isShowing()) {
+              dialog.showAndWait();
+            }
+          },
+          () -> this.rebuild().showAndWait()
+        );
+    }
+
+    @Override
+    public void close()
+    {
+      this.stillOpen().ifPresent(Dialog::close);
+    }
+
+    /**
+     * An occurrence does not own the dialog that displays it, and so there
+     * is nothing to release.
+     */
+
+    @Override
+    public void dispose()
+    {
+
+    }
+
+    /**
+     * An occurrence has no stage of its own.
+     *
+     * @return The stage of the dialog that displays the error, which is
+     * shared with that dialog and with any other occurrences
+     */
+
+    @Override
+    public Stage stage()
+    {
+      return this.open.stage();
+    }
+  }
+
+  /**
+   * A weak reference to a coalescing dialog, enqueued when the dialog is
+   * collected so that its entry can be removed from {@link #OPEN}.
+   */
+
+  private static final class OpenReference extends WeakReference<Dialog>
+  {
+    private final Long fingerprint;
+
+    OpenReference(
+      final Long inFingerprint,
+      final Dialog dialog)
+    {
+      super(dialog, OPEN_COLLECTED);
+      this.fingerprint = inFingerprint;
+    }
+  }
 }
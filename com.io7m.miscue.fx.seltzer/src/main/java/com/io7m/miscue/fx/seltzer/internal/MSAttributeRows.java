@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>The rows of the attribute table.</p>
+ *
+ * <p>Each row is the position of an attribute in an {@link MSAttributes}
+ * instance, held in a plain {@code int} array rather than as a list of
+ * entry objects. Rows are always in ascending order, and so are always
+ * sorted by name without any sorting taking place here.</p>
+ */
+
+public final class MSAttributeRows extends ObservableListBase<Integer>
+{
+  private final MSAttributes attributes;
+  private int[] rows;
+  private int size;
+
+  /**
+   * The rows of the attribute table. Initially, every attribute is
+   * displayed.
+   *
+   * @param inAttributes The attributes
+   */
+
+  public MSAttributeRows(
+    final MSAttributes inAttributes)
+  {
+    this.attributes =
+      Objects.requireNonNull(inAttributes, "attributes");
+    this.rows = new int[inAttributes.size()];
+    this.size = this.rows.length;
+    Arrays.setAll(this.rows, index -> index);
+  }
+
+  /**
+   * @return The attributes
+   */
+
+  public MSAttributes attributes()
+  {
+    return this.attributes;
+  }
+
+  /**
+   * @param index The row
+   *
+   * @return The attribute displayed on the given row
+   */
+
+  public int attribute(
+    final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    return this.rows[index];
+  }
+
+  /**
+   * Display every attribute.
+   */
+
+  public void showAll()
+  {
+    final var all = new int[this.attributes.size()];
+    Arrays.setAll(all, index -> index);
+    this.setRows(all, all.length);
+  }
+
+  /**
+   * Remove all rows in preparation for receiving the results of a search.
+   *
+   * @see #addMatches(int[])
+   */
+
+  public void searchStart()
+  {
+    this.setRows(new int[16], 0);
+  }
+
+  /**
+   * Append matching attributes. Searches deliver matches in ascending
+   * order, and so appending keeps the rows sorted.
+   *
+   * @param matches The matching attributes
+   */
+
+  public void addMatches(
+    final int[] matches)
+  {
+    Objects.requireNonNull(matches, "matches");
+    if (matches.length == 0) {
+      return;
+    }
+
+    final var index = this.size;
+    final var newSize = index + matches.length;
+    if (newSize > this.rows.length) {
+      this.rows =
+        Arrays.copyOf(this.rows, Math.max(newSize, this.rows.length << 1));
+    }
+    System.arraycopy(matches, 0, this.rows, index, matches.length);
+    this.size = newSize;
+
+    this.beginChange();
+    this.nextAdd(index, newSize);
+    this.endChange();
+  }
+
+  @Override
+  public Integer get(
+    final int index)
+  {
+    return Integer.valueOf(this.attribute(index));
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+
+  private void setRows(
+    final int[] newRows,
+    final int newSize)
+  {
+    final var removed = new Rows(this.rows, this.size);
+    this.rows = newRows;
+    this.size = newSize;
+
+    this.beginChange();
+    this.nextReplace(0, newSize, removed);
+    this.endChange();
+  }
+
+  /**
+   * A read-only view of a range of rows.
+   */
+
+  private static final class Rows extends AbstractList<Integer>
+  {
+    private final int[] values;
+    private final int count;
+
+    Rows(
+      final int[] inValues,
+      final int inCount)
+    {
+      this.values = inValues;
+      this.count = inCount;
+    }
+
+    @Override
+    public Integer get(
+      final int index)
+    {
+      Objects.checkIndex(index, this.count);
+      return Integer.valueOf(this.values[index]);
+    }
+
+    @Override
+    public int size()
+    {
+      return this.count;
+    }
+  }
+}
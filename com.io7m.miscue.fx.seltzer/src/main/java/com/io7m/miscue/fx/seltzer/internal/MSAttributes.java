@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import com.io7m.miscue.core.internal.MiscueSubstringIndex;
+import com.io7m.miscue.export.internal.MXAttributes;
+
+import java.util.AbstractList;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>The attributes of an error, sorted by name.</p>
+ *
+ * <p>The attributes are sorted once, when the instance is created, and
+ * attributes are identified by their position in the sorted order. Any
+ * ascending list of attributes (such as the results of searching the
+ * {@link #index() index}) is therefore already in display order and never
+ * needs to be sorted again.</p>
+ */
+
+public final class MSAttributes
+{
+  /**
+   * The maximum number of characters of a name or value that will be
+   * displayed in a table cell.
+   */
+
+  public static final int TRUNCATE_LENGTH = 200;
+
+  private static final char ELLIPSIS = '…';
+
+  private final String[] names;
+  private final String[] values;
+
+  private MSAttributes(
+    final String[] inNames,
+    final String[] inValues)
+  {
+    this.names =
+      Objects.requireNonNull(inNames, "names");
+    this.values =
+      Objects.requireNonNull(inValues, "values");
+  }
+
+  /**
+   * Sort the given attributes by name.
+   *
+   * @param attributes The attributes
+   *
+   * @return The sorted attributes
+   */
+
+  public static MSAttributes create(
+    final Map<String, String> attributes)
+  {
+    Objects.requireNonNull(attributes, "attributes");
+
+    final var entries = MXAttributes.sorted(attributes);
+    final var names = new String[entries.size()];
+    final var values = new String[entries.size()];
+    for (int index = 0; index < names.length; ++index) {
+      final var entry = entries.get(index);
+      names[index] = entry.getKey();
+      values[index] = entry.getValue();
+    }
+    return new MSAttributes(names, values);
+  }
+
+  /**
+   * Truncate the given text for display in a table cell. The text is cut
+   * at the first line break or after {@link #TRUNCATE_LENGTH} characters,
+   * whichever comes first.
+   *
+   * @param text The text
+   *
+   * @return The truncated text
+   */
+
+  public static String truncate(
+    final String text)
+  {
+    final var end = truncatedLength(text);
+    if (end == text.length()) {
+      return text;
+    }
+    return text.substring(0, end) + ELLIPSIS;
+  }
+
+  private static int truncatedLength(
+    final String text)
+  {
+    final var limit = Math.min(text.length(), TRUNCATE_LENGTH);
+    for (int index = 0; index < limit; ++index) {
+      final var c = text.charAt(index);
+      if (c == '\n' || c == '\r') {
+        return index;
+      }
+    }
+    return limit;
+  }
+
+  /**
+   * @return The number of attributes
+   */
+
+  public int size()
+  {
+    return this.names.length;
+  }
+
+  /**
+   * @param attribute The attribute
+   *
+   * @return The name of the attribute
+   */
+
+  public String name(
+    final int attribute)
+  {
+    return this.names[attribute];
+  }
+
+  /**
+   * @param attribute The attribute
+   *
+   * @return The value of the attribute
+   */
+
+  public String value(
+    final int attribute)
+  {
+    return this.values[attribute];
+  }
+
+  /**
+   * @param attribute The attribute
+   *
+   * @return {@code true} if the value of the attribute is truncated when
+   * displayed in a table cell
+   *
+   * @see #truncate(String)
+   */
+
+  public boolean isValueTruncated(
+    final int attribute)
+  {
+    final var value = this.values[attribute];
+    return truncatedLength(value) != value.length();
+  }
+
+  /**
+   * Build a substring index over the names and values of the attributes.
+   * Each attribute is a single document in the index, and so a query
+   * matches an attribute if it appears in either the name or the value.
+   * This is comparatively expensive and should not be executed on the FX
+   * thread.
+   *
+   * @return An index
+   */
+
+  public MiscueSubstringIndex index()
+  {
+    return MiscueSubstringIndex.create(new Documents(this.names, this.values));
+  }
+
+  /**
+   * The documents of the index. A name and value are separated with a
+   * character that cannot be typed into a query, so that no query can
+   * match across the boundary.
+   */
+
+  private static final class Documents extends AbstractList<String>
+  {
+    private final String[] names;
+    private final String[] values;
+
+    Documents(
+      final String[] inNames,
+      final String[] inValues)
+    {
+      this.names = inNames;
+      this.values = inValues;
+    }
+
+    @Override
+    public String get(
+      final int index)
+    {
+      return this.names[index] + '\0' + this.values[index];
+    }
+
+    @Override
+    public int size()
+    {
+      return this.names.length;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import com.io7m.seltzer.api.SStructuredErrorType;
+import javafx.scene.control.ListCell;
+
+/**
+ * A cell displaying a one-line summary of an error in the error console.
+ */
+
+public final class MSErrorConsoleCell
+  extends ListCell<SStructuredErrorType<?>>
+{
+  /**
+   * A cell displaying a one-line summary of an error in the error console.
+   */
+
+  public MSErrorConsoleCell()
+  {
+    this.getStyleClass().add("errorConsoleEntry");
+  }
+
+  @Override
+  protected void updateItem(
+    final SStructuredErrorType<?> item,
+    final boolean empty)
+  {
+    super.updateItem(item, empty);
+
+    if (empty || item == null) {
+      this.setText(null);
+      return;
+    }
+
+    this.setText(
+      MSAttributes.truncate(
+        "%s: %s".formatted(item.errorCode(), item.message())
+      )
+    );
+  }
+}
@@ -17,7 +17,14 @@
 
 package com.io7m.miscue.fx.seltzer.internal;
 
+import com.io7m.miscue.core.MiscueReportTaskType;
+import com.io7m.miscue.core.internal.MiscueReportExecution;
+import com.io7m.miscue.core.internal.MiscueReportListenerType;
+import com.io7m.miscue.core.internal.MiscueReporting;
+import com.io7m.miscue.core.internal.MiscueSubstringSearch;
+import com.io7m.miscue.fx.seltzer.MSExceptionDisplay;
 import com.io7m.seltzer.api.SStructuredErrorType;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
@@ -26,72 +33,155 @@ import javafx.fxml.Initializable;
 import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TreeView;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
 
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.io.UncheckedIOException;
 import java.net.URL;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The error controller.
  */
 
-public final class MSErrorController implements Initializable
+public final class MSErrorController
+  implements Initializable, MiscueReportListenerType
 {
-  private final SStructuredErrorType<?> error;
-  private final Optional<Runnable> onReportCallback;
-  private final Optional<Image> iconImage;
+  private static final int EXCEPTION_PAGE_LINES = 500;
+
+  private static final Executor BACKGROUND =
+    command -> Thread.ofVirtual().start(command);
+
   private final Stage stage;
+  private SStructuredErrorType<?> error;
+  private MiscueReporting<SStructuredErrorType<?>> reporting;
+  private Optional<Image> iconImage;
+  private MSExceptionDisplay exceptionDisplay;
 
   @FXML private Label errorTitle;
+  @FXML private Label occurrences;
   @FXML private ImageView icon;
   @FXML private Button cancel;
   @FXML private Button report;
-  @FXML private TextArea details;
-  @FXML private TextArea exception;
-  @FXML private TextArea remediation;
-  @FXML private TableView<Map.Entry<String, String>> errorTable;
-  @FXML private TableColumn<Map.Entry<String, String>, String> errorNameColumn;
-  @FXML private TableColumn<Map.Entry<String, String>, String> errorValueColumn;
+  @FXML private Parent reportProgressContainer;
+  @FXML private Label reportStatus;
+  @FXML private ProgressBar reportProgress;
+  @FXML private Button reportCancel;
+  @FXML private ListView<String> details;
+  @FXML private ListView<String> exception;
+  @FXML private TreeView<String> exceptionTree;
+  @FXML private Parent exceptionMoreContainer;
+  @FXML private Label exceptionLines;
+  @FXML private Button exceptionMore;
+  @FXML private ListView<String> remediation;
+  @FXML private TextField attributeFilter;
+  @FXML private TableView<Integer> errorTable;
+  @FXML private TableColumn<Integer, String> errorNameColumn;
+  @FXML private TableColumn<Integer, String> errorValueColumn;
+  @FXML private ListView<String> attributeValue;
+  @FXML private Parent attributesContainer;
   @FXML private Parent detailsContainer;
   @FXML private Parent exceptionContainer;
   @FXML private Parent remediationContainer;
   @FXML private Parent mainContainer;
 
+  private ResourceBundle resources;
+  private MSTextView detailsText;
+  private MSTextView exceptionText;
+  private MSTextView remediationText;
+  private MSStackTrace exceptionTrace;
+  private int exceptionShown;
+  private MSTextView attributeValueText;
+  private MSAttributeRows attributeRows;
+  private CompletableFuture<MiscueSubstringSearch> attributeSearch;
+  private AtomicBoolean attributeFilterCancel;
+  private Image iconDefault;
+  private int generation;
+  private MiscueReportExecution reportRunning;
+  private long reportCount;
+  private long dismissCount;
+  private int occurrenceCount;
+  private AnimationTimer occurrenceUpdate;
+
   /**
    * The error controller.
    *
    * @param inError            The error
-   * @param inOnReportCallback The report callback
+   * @param inReporting        The way in which errors are reported
    * @param inIconImage        The custom icon
+   * @param inExceptionDisplay The way in which exceptions are displayed
    * @param inStage            The stage
    */
 
   public MSErrorController(
     final SStructuredErrorType<?> inError,
-    final Optional<Runnable> inOnReportCallback,
+    final MiscueReporting<SStructuredErrorType<?>> inReporting,
     final Optional<Image> inIconImage,
+    final MSExceptionDisplay inExceptionDisplay,
     final Stage inStage)
   {
     this.error =
       Objects.requireNonNull(inError, "error");
-    this.onReportCallback =
-      Objects.requireNonNull(inOnReportCallback, "onReportCallback");
+    this.reporting =
+      Objects.requireNonNull(inReporting, "reporting");
     this.iconImage =
       Objects.requireNonNull(inIconImage, "iconImage");
+    this.exceptionDisplay =
+      Objects.requireNonNull(inExceptionDisplay, "exceptionDisplay");
     this.stage =
       Objects.requireNonNull(inStage, "stage");
+    this.attributeFilterCancel =
+      new AtomicBoolean(false);
+  }
+
+  /**
+   * Attach the nodes of a compiled view. This is the equivalent of the
+   * {@code @FXML} field injection performed by {@code FXMLLoader}.
+   *
+   * @param view The view
+   */
+
+  @SuppressWarnings("unchecked")
+  void attach(
+    final MSErrorView view)
+  {
+    this.errorTitle = view.errorTitle();
+    this.occurrences = view.occurrences();
+    this.icon = view.icon();
+    this.cancel = view.cancel();
+    this.report = view.report();
+    this.reportProgressContainer = view.reportProgressContainer();
+    this.reportStatus = view.reportStatus();
+    this.reportProgress = view.reportProgress();
+    this.reportCancel = view.reportCancel();
+    this.details = view.details();
+    this.exception = view.exception();
+    this.exceptionTree = view.exceptionTree();
+    this.exceptionMoreContainer = view.exceptionMoreContainer();
+    this.exceptionLines = view.exceptionLines();
+    this.exceptionMore = view.exceptionMore();
+    this.remediation = view.remediation();
+    this.attributeFilter = view.attributeFilter();
+    this.errorTable = view.errorTable();
+    this.errorNameColumn = view.errorNameColumn();
+    this.errorValueColumn = view.errorValueColumn();
+    this.attributeValue = view.attributeValue();
+    this.attributesContainer = view.attributesContainer();
+    this.detailsContainer = view.detailsContainer();
+    this.exceptionContainer = view.exceptionContainer();
+    this.remediationContainer = view.remediationContainer();
+    this.mainContainer = view.mainContainer();
   }
 
   @Override
@@ -99,79 +189,568 @@ public final class MSErrorController implements Initializable
     final URL url,
     final ResourceBundle resourceBundle)
   {
+    this.resources = resourceBundle;
+    this.detailsText =
+      new MSTextView(this.details, resourceBundle, true);
+    this.exceptionText =
+      new MSTextView(this.exception, resourceBundle, false);
+    this.remediationText =
+      new MSTextView(this.remediation, resourceBundle, true);
+    this.attributeValueText =
+      new MSTextView(this.attributeValue, resourceBundle, true);
+
     this.exceptionContainer.managedProperty()
       .bind(this.exceptionContainer.visibleProperty());
     this.remediationContainer.managedProperty()
       .bind(this.remediationContainer.visibleProperty());
     this.errorTable.managedProperty()
       .bind(this.errorTable.visibleProperty());
+    this.attributesContainer.managedProperty()
+      .bind(this.attributesContainer.visibleProperty());
+    this.attributeValue.managedProperty()
+      .bind(this.attributeValue.visibleProperty());
+    this.exceptionMoreContainer.managedProperty()
+      .bind(this.exceptionMoreContainer.visibleProperty());
+    this.exception.managedProperty()
+      .bind(this.exception.visibleProperty());
+    this.exceptionTree.managedProperty()
+      .bind(this.exceptionTree.visibleProperty());
+    this.occurrences.managedProperty()
+      .bind(this.occurrences.visibleProperty());
+    this.reportProgressContainer.managedProperty()
+      .bind(this.reportProgressContainer.visibleProperty());
+    this.reportProgress.managedProperty()
+      .bind(this.reportProgress.visibleProperty());
+    this.reportCancel.managedProperty()
+      .bind(this.reportCancel.visibleProperty());
 
-    this.iconImage.ifPresent(image -> this.icon.setImage(image));
-    this.details.setText(this.error.message());
+    this.occurrenceUpdate = new AnimationTimer()
+    {
+      @Override
+      public void handle(
+        final long now)
+      {
+        MSErrorController.this.showOccurrences();
+        this.stop();
+      }
+    };
+
+    this.iconDefault = this.icon.getImage();
 
     this.errorNameColumn.setCellValueFactory(param -> {
-      return new ReadOnlyStringWrapper(param.getValue().getKey());
+      final var attribute = param.getValue().intValue();
+      return new ReadOnlyStringWrapper(
+        MSAttributes.truncate(this.attributeRows.attributes().name(attribute)));
     });
     this.errorValueColumn.setCellValueFactory(param -> {
-      return new ReadOnlyStringWrapper(param.getValue().getValue());
+      final var attribute = param.getValue().intValue();
+      return new ReadOnlyStringWrapper(
+        MSAttributes.truncate(this.attributeRows.attributes().value(attribute)));
     });
 
-    if (!this.error.attributes().isEmpty()) {
-      this.errorTable.setItems(
-        FXCollections.observableList(
-          this.error.attributes()
-            .entrySet()
-            .stream()
-            .sorted(Map.Entry.comparingByKey())
-            .toList()
-        )
-      );
-    } else {
-      this.errorTable.setVisible(false);
+    this.errorTable.getSelectionModel()
+      .selectedItemProperty()
+      .addListener((observable, oldRow, newRow) -> {
+        this.onAttributeSelected(newRow);
+      });
+    this.attributeFilter.textProperty()
+      .addListener((observable, oldQuery, newQuery) -> {
+        this.onAttributeFilterChanged(newQuery);
+      });
+
+    this.bind();
+
+    Platform.runLater(() -> {
+      this.cancel.requestFocus();
+    });
+  }
+
+  /**
+   * Rebind the controller to a new error, reusing the existing scene graph.
+   * Any work still in progress for the previous error is discarded when it
+   * completes. This must be called on the FX thread.
+   *
+   * @param newError            The error
+   * @param newReporting        The way in which errors are reported
+   * @param newIconImage        The custom icon
+   * @param newExceptionDisplay The way in which exceptions are displayed
+   */
+
+  public void rebind(
+    final SStructuredErrorType<?> newError,
+    final MiscueReporting<SStructuredErrorType<?>> newReporting,
+    final Optional<Image> newIconImage,
+    final MSExceptionDisplay newExceptionDisplay)
+  {
+    this.error =
+      Objects.requireNonNull(newError, "error");
+    this.reporting =
+      Objects.requireNonNull(newReporting, "reporting");
+    this.iconImage =
+      Objects.requireNonNull(newIconImage, "iconImage");
+    this.exceptionDisplay =
+      Objects.requireNonNull(newExceptionDisplay, "exceptionDisplay");
+
+    this.bind();
+    this.cancel.requestFocus();
+  }
+
+  /**
+   * @return The number of times the user has reported an error with this
+   * controller, over the lifetime of the controller
+   */
+
+  public long reportCount()
+  {
+    return this.reportCount;
+  }
+
+  /**
+   * @return The number of times the user has dismissed an error with this
+   * controller, over the lifetime of the controller
+   */
+
+  public long dismissCount()
+  {
+    return this.dismissCount;
+  }
+
+  /**
+   * Release everything retained for the current error: the error itself,
+   * any running report (which is cancelled), the report callback, the
+   * custom icon, and the contents of every view. Any work still in
+   * progress is discarded when it completes. The scene graph is kept, and
+   * the controller can be bound to a new error with
+   * {@link #rebind(SStructuredErrorType, MiscueReporting, Optional, MSExceptionDisplay)}.
+   * This must be called on the FX thread.
+   */
+
+  public void release()
+  {
+    ++this.generation;
+
+    this.occurrenceUpdate.stop();
+    this.attributeFilterCancel.set(true);
+    this.attributeRows = null;
+    this.attributeSearch = null;
+    this.exceptionTrace = null;
+
+    this.errorTable.setItems(FXCollections.emptyObservableList());
+    this.exceptionTree.setRoot(null);
+    this.detailsText.setText("");
+    this.exceptionText.setText("");
+    this.remediationText.setText("");
+    this.attributeValueText.setText("");
+
+    this.icon.setImage(null);
+    this.iconImage = Optional.empty();
+    this.cancelReport();
+    this.reporting = MiscueReporting.none();
+    this.error = null;
+  }
+
+  /**
+   * Release everything retained for the current error, as with
+   * {@link #release()}, along with the default icon and the bindings
+   * established in {@link #initialize(URL, ResourceBundle)}. The controller
+   * cannot be used after it has been disposed. This must be called on the
+   * FX thread.
+   */
+
+  public void dispose()
+  {
+    this.release();
+    this.iconDefault = null;
+
+    this.exceptionContainer.managedProperty().unbind();
+    this.remediationContainer.managedProperty().unbind();
+    this.errorTable.managedProperty().unbind();
+    this.attributesContainer.managedProperty().unbind();
+    this.attributeValue.managedProperty().unbind();
+    this.exceptionMoreContainer.managedProperty().unbind();
+    this.exception.managedProperty().unbind();
+    this.exceptionTree.managedProperty().unbind();
+    this.occurrences.managedProperty().unbind();
+    this.reportProgressContainer.managedProperty().unbind();
+    this.reportProgress.managedProperty().unbind();
+    this.reportCancel.managedProperty().unbind();
+  }
+
+  /**
+   * Record another occurrence of the displayed error. The occurrence
+   * counter is not updated immediately; it is updated on the next pulse,
+   * and so it is updated at most once per pulse however many occurrences
+   * are recorded. This must be called on the FX thread.
+   */
+
+  public void recordOccurrence()
+  {
+    ++this.occurrenceCount;
+    this.occurrenceUpdate.start();
+  }
+
+  /**
+   * @return The number of times the displayed error has occurred
+   */
+
+  public int occurrenceCount()
+  {
+    return this.occurrenceCount;
+  }
+
+  private void showOccurrences()
+  {
+    this.occurrences.setText(
+      this.resources.getString("error.occurrences")
+        .formatted(Integer.valueOf(this.occurrenceCount))
+    );
+    this.occurrences.setVisible(this.occurrenceCount > 1);
+  }
+
+  /**
+   * Display the current error. Every node that depends on the error is
+   * explicitly reset here, so that nothing survives from an error that
+   * was previously displayed.
+   */
+
+  private void bind()
+  {
+    ++this.generation;
+
+    this.occurrenceUpdate.stop();
+    this.occurrenceCount = 1;
+    this.occurrences.setVisible(false);
+
+    this.icon.setImage(this.iconImage.orElse(this.iconDefault));
+    this.detailsText.setText(this.error.message());
+
+    this.attributeFilterCancel.set(true);
+    this.attributeRows = null;
+    this.attributeSearch = null;
+    this.errorTable.setItems(FXCollections.observableArrayList());
+    this.attributeFilter.setText("");
+
+    final var hasAttributes = !this.error.attributes().isEmpty();
+    this.errorTable.setVisible(hasAttributes);
+    this.attributesContainer.setVisible(hasAttributes);
+    if (hasAttributes) {
+      this.fillAttributes();
     }
 
     this.error.remediatingAction()
       .ifPresentOrElse(
-        text -> this.remediation.setText(text),
-        () -> this.remediationContainer.setVisible(false)
+        text -> {
+          this.remediationText.setText(text);
+          this.remediationContainer.setVisible(true);
+        },
+        () -> {
+          this.remediationText.setText("");
+          this.remediationContainer.setVisible(false);
+        }
       );
 
+    this.exceptionTrace = null;
+    this.exceptionShown = 0;
+    this.exceptionText.setText("");
+    this.exceptionTree.setRoot(null);
+    this.exception.setVisible(true);
+    this.exceptionTree.setVisible(false);
+    this.exceptionMoreContainer.setVisible(false);
+
     this.error.exception()
       .ifPresentOrElse(
-        this::fillExceptionTrace,
+        throwable -> {
+          this.exceptionContainer.setVisible(true);
+          this.fillException(throwable);
+        },
         () -> this.exceptionContainer.setVisible(false)
       );
 
-    this.report.setDisable(this.onReportCallback.isEmpty());
+    this.cancelReport();
+    this.reportProgressContainer.setVisible(false);
+    this.report.setDisable(!this.reporting.isEnabled());
+  }
 
-    Platform.runLater(() -> {
-      this.cancel.requestFocus();
-    });
+  /**
+   * Sort the attributes and build the attribute index off the FX thread.
+   * The table is filled as soon as the attributes are sorted; the index
+   * is only needed once the user starts filtering, and so the table does
+   * not wait for it.
+   */
+
+  private void fillAttributes()
+  {
+    final var attributes = this.error.attributes();
+    final var sorted =
+      CompletableFuture.supplyAsync(
+        () -> MSAttributes.create(attributes), BACKGROUND);
+
+    this.attributeSearch =
+      sorted.thenApplyAsync(
+        sortedAttributes -> new MiscueSubstringSearch(sortedAttributes.index()),
+        BACKGROUND
+      );
+
+    final var current = this.generation;
+    sorted.thenAcceptAsync(sortedAttributes -> {
+      if (this.generation == current) {
+        this.showAttributes(sortedAttributes);
+      }
+    }, Platform::runLater);
+  }
+
+  private void showAttributes(
+    final MSAttributes attributes)
+  {
+    this.attributeRows = new MSAttributeRows(attributes);
+    this.errorTable.setItems(this.attributeRows);
+    this.onAttributeFilterChanged(this.attributeFilter.getText());
+  }
+
+  /**
+   * Values that are truncated in the table are displayed in full below the
+   * table when they are selected.
+   */
+
+  private void onAttributeSelected(
+    final Integer row)
+  {
+    if (row == null || this.attributeRows == null) {
+      this.attributeValue.setVisible(false);
+      this.attributeValueText.setText("");
+      return;
+    }
+
+    final var attributes = this.attributeRows.attributes();
+    final var attribute = row.intValue();
+    if (attributes.isValueTruncated(attribute)) {
+      this.attributeValueText.setText(attributes.value(attribute));
+      this.attributeValue.setVisible(true);
+    } else {
+      this.attributeValue.setVisible(false);
+      this.attributeValueText.setText("");
+    }
+  }
+
+  private void onAttributeFilterChanged(
+    final String query)
+  {
+    this.attributeFilterCancel.set(true);
+    if (this.attributeRows == null) {
+      return;
+    }
+
+    if (query == null || query.isBlank()) {
+      this.attributeRows.showAll();
+      return;
+    }
+
+    final var cancelled = new AtomicBoolean(false);
+    this.attributeFilterCancel = cancelled;
+    this.attributeRows.searchStart();
+
+    this.attributeSearch.thenAcceptAsync(search -> {
+      search.search(query, cancelled::get, matches -> {
+        Platform.runLater(() -> {
+          if (!cancelled.get()) {
+            this.attributeRows.addMatches(matches);
+          }
+        });
+      });
+    }, BACKGROUND);
+  }
+
+  private void fillException(
+    final Throwable throwable)
+  {
+    switch (this.exceptionDisplay) {
+      case TREE -> this.fillExceptionTree(throwable);
+      case TEXT -> this.fillExceptionTrace(throwable);
+    }
   }
 
+  /**
+   * Display the exception as a tree. Only the root item is created here;
+   * everything else is created as the user expands the tree.
+   */
+
+  private void fillExceptionTree(
+    final Throwable throwable)
+  {
+    final var root = new MSExceptionTreeItem(throwable);
+    root.setExpanded(true);
+    this.exceptionTree.setRoot(root);
+    this.exceptionTree.setVisible(true);
+    this.exception.setVisible(false);
+  }
+
+  /**
+   * Format the exception trace off the FX thread. The trace is always
+   * displayed on a later pulse, even if it has already been formatted and
+   * cached, so that the dialog is laid out in the same way regardless of
+   * the state of the cache.
+   */
+
   private void fillExceptionTrace(
     final Throwable throwable)
   {
-    try (var writer = new StringWriter()) {
-      try (var printer = new PrintWriter(writer)) {
-        throwable.printStackTrace(printer);
-        printer.flush();
-        this.exception.setText(writer.toString());
-      }
-    } catch (final IOException e) {
-      throw new UncheckedIOException(e);
+    final var current = this.generation;
+    MSStackTraces.format(throwable)
+      .thenAcceptAsync(trace -> {
+        if (this.generation == current) {
+          this.showExceptionTrace(trace);
+        }
+      }, Platform::runLater);
+  }
+
+  private void showExceptionTrace(
+    final MSStackTrace trace)
+  {
+    this.exceptionTrace = trace;
+    this.exceptionShown = 0;
+    this.exceptionText.setText("");
+    this.showMoreExceptionTrace();
+  }
+
+  private void showMoreExceptionTrace()
+  {
+    final var trace = this.exceptionTrace;
+    final var count = trace.lineCount();
+    final var next = Math.min(count, this.exceptionShown + EXCEPTION_PAGE_LINES);
+    this.exceptionText.appendText(trace.lines(this.exceptionShown, next));
+    this.exceptionShown = next;
+
+    this.exceptionLines.setText(
+      this.resources.getString("error.exceptionLines")
+        .formatted(Integer.valueOf(next), Integer.valueOf(count))
+    );
+    this.exceptionMoreContainer.setVisible(next < count);
+  }
+
+  @FXML
+  void onExceptionMoreSelected()
+  {
+    if (this.exceptionTrace != null) {
+      this.showMoreExceptionTrace();
     }
   }
 
   @FXML
-  private void onReportSelected()
+  void onReportSelected()
+  {
+    if (this.reportRunning != null) {
+      return;
+    }
+
+    final var task = this.reporting.startTask();
+    if (task.isPresent()) {
+      this.startReport(task.get());
+      return;
+    }
+
+    this.reporting.callback().ifPresent(callback -> {
+      ++this.reportCount;
+      callback.run();
+    });
+  }
+
+  /**
+   * Run a report task on the reporting executor. The report button is
+   * disabled until the task finishes.
+   */
+
+  private void startReport(
+    final MiscueReportTaskType<? super SStructuredErrorType<?>> task)
+  {
+    ++this.reportCount;
+
+    this.report.setDisable(true);
+    this.reportStatus.setText(this.resources.getString("error.reportRunning"));
+    this.reportProgress.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+    this.reportProgress.setVisible(true);
+    this.reportCancel.setDisable(false);
+    this.reportCancel.setVisible(true);
+    this.reportProgressContainer.setVisible(true);
+
+    final var subject = this.error;
+    this.reportRunning =
+      MiscueReportExecution.start(
+        task,
+        () -> subject,
+        this.reporting.executor(),
+        Platform::runLater,
+        this
+      );
+  }
+
+  private void cancelReport()
   {
-    this.onReportCallback.ifPresent(Runnable::run);
+    if (this.reportRunning != null) {
+      this.reportRunning.cancel();
+      this.reportRunning = null;
+    }
+  }
+
+  @Override
+  public void onReportProgress(
+    final MiscueReportExecution execution,
+    final double fraction,
+    final String message)
+  {
+    if (execution != this.reportRunning) {
+      return;
+    }
+
+    this.reportProgress.setProgress(
+      fraction < 0.0
+        ? ProgressBar.INDETERMINATE_PROGRESS
+        : Math.min(fraction, 1.0)
+    );
+    this.reportStatus.setText(message);
+  }
+
+  @Override
+  public void onReportFinished(
+    final MiscueReportExecution execution,
+    final Optional<Throwable> failure,
+    final boolean cancelled)
+  {
+    if (execution != this.reportRunning) {
+      return;
+    }
+
+    this.reportRunning = null;
+    this.reportProgress.setVisible(false);
+    this.reportCancel.setVisible(false);
+    this.report.setDisable(false);
+
+    if (cancelled) {
+      this.reportStatus.setText(
+        this.resources.getString("error.reportCancelled"));
+    } else if (failure.isPresent()) {
+      this.reportStatus.setText(
+        this.resources.getString("error.reportFailed")
+          .formatted(MiscueReportExecution.describe(failure.get()))
+      );
+    } else {
+      this.reportStatus.setText(
+        this.resources.getString("error.reportFinished"));
+    }
+  }
+
+  @FXML
+  void onReportCancelSelected()
+  {
+    if (this.reportRunning != null) {
+      this.reportRunning.cancel();
+      this.reportCancel.setDisable(true);
+    }
   }
 
   @FXML
-  private void onDismissSelected()
+  void onDismissSelected()
   {
+    ++this.dismissCount;
     this.stage.close();
   }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import com.io7m.seltzer.api.SStructuredErrorType;
+
+import java.util.Objects;
+
+/**
+ * <p>Functions to compute fingerprints of errors.</p>
+ *
+ * <p>A fingerprint is a 64-bit hash of the error code, the error message,
+ * the class of the attached exception (if any), and the top
+ * {@link #TOP_FRAMES} frames of the exception's stack trace. Two errors
+ * raised from the same place for the same reason therefore have the same
+ * fingerprint, even if their attributes or exception messages differ. The
+ * computation does not format the exception, and does not examine its
+ * causes or suppressed exceptions, so that it remains cheap enough to run
+ * for every error in an error storm.</p>
+ */
+
+public final class MSErrorFingerprint
+{
+  /**
+   * The number of stack frames included in a fingerprint.
+   */
+
+  public static final int TOP_FRAMES = 5;
+
+  private static final long SEED = 0xcbf29ce484222325L;
+  private static final long MULTIPLIER = 0x9e3779b97f4a7c15L;
+
+  private MSErrorFingerprint()
+  {
+
+  }
+
+  /**
+   * Compute the fingerprint of the given error.
+   *
+   * @param error The error
+   *
+   * @return The fingerprint
+   */
+
+  public static long of(
+    final SStructuredErrorType<?> error)
+  {
+    Objects.requireNonNull(error, "error");
+
+    long hash = SEED;
+    hash = mix(hash, Objects.hashCode(error.errorCode()));
+    hash = mix(hash, error.message().hashCode());
+
+    final var exceptionOpt = error.exception();
+    if (exceptionOpt.isPresent()) {
+      final var exception = exceptionOpt.get();
+      hash = mix(hash, exception.getClass().getName().hashCode());
+
+      final var frames = exception.getStackTrace();
+      final var count = Math.min(frames.length, TOP_FRAMES);
+      for (int index = 0; index < count; ++index) {
+        final var frame = frames[index];
+        hash = mix(hash, frame.getClassName().hashCode());
+        hash = mix(hash, frame.getMethodName().hashCode());
+        hash = mix(hash, frame.getLineNumber());
+      }
+    }
+    return hash;
+  }
+
+  private static long mix(
+    final long hash,
+    final int value)
+  {
+    final var mixed = (hash ^ (long) value) * MULTIPLIER;
+    return mixed ^ (mixed >>> 32);
+  }
+}
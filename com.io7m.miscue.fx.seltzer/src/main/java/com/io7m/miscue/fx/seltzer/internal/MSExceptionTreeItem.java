@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * <p>A tree item representing an exception.</p>
+ *
+ * <p>The children of the item are the stack frames of the exception,
+ * followed by its suppressed exceptions, followed by its cause. As with
+ * {@link Throwable#printStackTrace()}, frames that the exception has in
+ * common with the exception that encloses it are folded into a single
+ * {@code ... N more} item. Children are only created when they are first
+ * requested (typically when the item is expanded), and so the frames of
+ * an exception are never formatted unless the user asks to see them.
+ * An exception that already appears on the path from the root to an item
+ * is displayed as a circular reference rather than being expanded
+ * again.</p>
+ *
+ * <p>If an exception has a large number of suppressed exceptions, the
+ * suppressed exceptions are grouped into nested ranges so that no single
+ * expansion creates more than {@link #GROUP_SIZE} items.</p>
+ */
+
+public final class MSExceptionTreeItem extends TreeItem<String>
+{
+  private static final StackTraceElement[] NO_FRAMES =
+    new StackTraceElement[0];
+  private static final int GROUP_SIZE = 64;
+
+  private final Throwable throwable;
+  private final StackTraceElement[] enclosingTrace;
+  private boolean childrenCreated;
+
+  /**
+   * A tree item representing an exception.
+   *
+   * @param inThrowable The exception
+   */
+
+  public MSExceptionTreeItem(
+    final Throwable inThrowable)
+  {
+    this(inThrowable, NO_FRAMES, "");
+  }
+
+  private MSExceptionTreeItem(
+    final Throwable inThrowable,
+    final StackTraceElement[] inEnclosingTrace,
+    final String caption)
+  {
+    super(caption + inThrowable);
+
+    this.throwable =
+      Objects.requireNonNull(inThrowable, "throwable");
+    this.enclosingTrace =
+      Objects.requireNonNull(inEnclosingTrace, "enclosingTrace");
+  }
+
+  /**
+   * @return The exception
+   */
+
+  public Throwable throwable()
+  {
+    return this.throwable;
+  }
+
+  @Override
+  public boolean isLeaf()
+  {
+    if (this.childrenCreated) {
+      return super.getChildren().isEmpty();
+    }
+    return this.throwable.getCause() == null
+           && this.throwable.getSuppressed().length == 0
+           && this.throwable.getStackTrace().length == 0;
+  }
+
+  @Override
+  public ObservableList<TreeItem<String>> getChildren()
+  {
+    if (!this.childrenCreated) {
+      this.childrenCreated = true;
+      super.getChildren().setAll(this.createChildren());
+    }
+    return super.getChildren();
+  }
+
+  private ArrayList<TreeItem<String>> createChildren()
+  {
+    final var trace = this.throwable.getStackTrace();
+    final var suppressed = this.throwable.getSuppressed();
+    final var cause = this.throwable.getCause();
+
+    int m = trace.length - 1;
+    int n = this.enclosingTrace.length - 1;
+    while (m >= 0 && n >= 0 && trace[m].equals(this.enclosingTrace[n])) {
+      --m;
+      --n;
+    }
+    final var framesInCommon = trace.length - 1 - m;
+
+    final var items = new ArrayList<TreeItem<String>>(m + 2 + GROUP_SIZE);
+    for (int index = 0; index <= m; ++index) {
+      items.add(new TreeItem<>("at " + trace[index]));
+    }
+    if (framesInCommon != 0) {
+      items.add(new TreeItem<>("... %d more".formatted(
+        Integer.valueOf(framesInCommon))));
+    }
+    this.createSuppressed(items, suppressed, trace, 0, suppressed.length);
+    if (cause != null) {
+      items.add(this.createEnclosed(cause, trace, "Caused by: "));
+    }
+    return items;
+  }
+
+  /**
+   * Create items for the suppressed exceptions in the range
+   * {@code [from, to)}. If the range is larger than the group size, it is
+   * divided into at most {@link #GROUP_SIZE} subranges, each of which
+   * creates its own children when expanded.
+   */
+
+  private void createSuppressed(
+    final ArrayList<TreeItem<String>> items,
+    final Throwable[] suppressed,
+    final StackTraceElement[] trace,
+    final int from,
+    final int to)
+  {
+    final var count = to - from;
+    if (count <= GROUP_SIZE) {
+      for (int index = from; index < to; ++index) {
+        items.add(this.createEnclosed(suppressed[index], trace, "Suppressed: "));
+      }
+      return;
+    }
+
+    long span = GROUP_SIZE;
+    while (span * GROUP_SIZE < count) {
+      span *= GROUP_SIZE;
+    }
+
+    for (int start = from; start < to; start += (int) span) {
+      final var end = (int) Math.min(to, start + span);
+      items.add(new SuppressedRange(this, suppressed, trace, start, end));
+    }
+  }
+
+  private TreeItem<String> createEnclosed(
+    final Throwable enclosed,
+    final StackTraceElement[] trace,
+    final String caption)
+  {
+    for (TreeItem<String> item = this; item != null; item = item.getParent()) {
+      if (item instanceof final MSExceptionTreeItem exceptionItem
+          && exceptionItem.throwable == enclosed) {
+        return new TreeItem<>(
+          caption + "[CIRCULAR REFERENCE: " + enclosed + "]");
+      }
+    }
+    return new MSExceptionTreeItem(enclosed, trace, caption);
+  }
+
+  /**
+   * A range of suppressed exceptions.
+   */
+
+  private static final class SuppressedRange extends TreeItem<String>
+  {
+    private final MSExceptionTreeItem owner;
+    private final Throwable[] suppressed;
+    private final StackTraceElement[] trace;
+    private final int from;
+    private final int to;
+    private boolean childrenCreated;
+
+    SuppressedRange(
+      final MSExceptionTreeItem inOwner,
+      final Throwable[] inSuppressed,
+      final StackTraceElement[] inTrace,
+      final int inFrom,
+      final int inTo)
+    {
+      super("Suppressed: [%d - %d] of %d".formatted(
+        Integer.valueOf(inFrom + 1),
+        Integer.valueOf(inTo),
+        Integer.valueOf(inSuppressed.length)
+      ));
+
+      this.owner = inOwner;
+      this.suppressed = inSuppressed;
+      this.trace = inTrace;
+      this.from = inFrom;
+      this.to = inTo;
+    }
+
+    @Override
+    public boolean isLeaf()
+    {
+      return false;
+    }
+
+    @Override
+    public ObservableList<TreeItem<String>> getChildren()
+    {
+      if (!this.childrenCreated) {
+        this.childrenCreated = true;
+        final var items = new ArrayList<TreeItem<String>>(GROUP_SIZE);
+        this.owner.createSuppressed(
+          items, this.suppressed, this.trace, this.from, this.to);
+        super.getChildren().setAll(items);
+      }
+      return super.getChildren();
+    }
+  }
+}
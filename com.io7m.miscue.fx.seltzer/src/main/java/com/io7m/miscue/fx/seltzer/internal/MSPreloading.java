@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import com.io7m.miscue.core.internal.MiscuePreloader;
+import com.io7m.miscue.fx.seltzer.MSErrorDialogs;
+import com.io7m.seltzer.api.SStructuredError;
+import javafx.application.Platform;
+import javafx.css.CssParser;
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>Functions to warm up error dialogs before they are first needed.</p>
+ *
+ * <p>The first dialog created in a process otherwise pays for class
+ * loading, resource bundle loading, CSS parsing, image decoding, and the
+ * creation of control skins. The background stage loads and initializes
+ * the classes used by dialogs, and exercises the resource bundle, the CSS
+ * parser, and the image decoder. The foreground stage builds a complete
+ * dialog on the FX thread, applies CSS to it and lays it out (creating
+ * skins and cells), and then discards it without ever showing it.</p>
+ */
+
+public final class MSPreloading
+{
+  private static final double WIDTH = 800.0;
+  private static final double HEIGHT = 600.0;
+
+  private static final MiscuePreloader PRELOADER =
+    new MiscuePreloader(
+      MSPreloading::warmUp,
+      MSPreloading::buildHiddenScene,
+      Platform::runLater
+    );
+
+  private MSPreloading()
+  {
+
+  }
+
+  /**
+   * @return The process-wide preloader for error dialogs
+   */
+
+  public static MiscuePreloader preloader()
+  {
+    return PRELOADER;
+  }
+
+  private static SStructuredError<String> sampleError()
+  {
+    final var exception = new IllegalStateException("Preload.");
+    exception.addSuppressed(new UnsupportedOperationException("Preload."));
+
+    return new SStructuredError<>(
+      "preload",
+      "Preload.\nPreload.",
+      Map.of("Preload", "Preload", "Preload Long", "Preload\n".repeat(8)),
+      Optional.of("Preload."),
+      Optional.of(exception)
+    );
+  }
+
+  private static void warmUp()
+  {
+    new MSErrorStrings(Locale.getDefault()).resources();
+
+    final var error = sampleError();
+    MSStackTraces.formatNow(error.exception().orElseThrow());
+    MSAttributes.create(error.attributes()).index();
+    new MSTextLines().setText(error.message());
+
+    final var css =
+      MSPreloading.class.getResource(
+        "/com/io7m/miscue/fx/seltzer/internal/errorSeltzer.css");
+    try {
+      new CssParser().parse(css);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    final var icon =
+      MSPreloading.class.getResource(
+        "/com/io7m/miscue/fx/seltzer/internal/error-32.png");
+    final var image = new Image(icon.toString(), false);
+    if (image.getException() != null) {
+      throw new IllegalStateException(image.getException());
+    }
+  }
+
+  private static void buildHiddenScene()
+  {
+    final var dialog =
+      MSErrorDialogs.builder(sampleError())
+        .setErrorReportCallback(() -> { })
+        .build();
+
+    final var root = dialog.stage().getScene().getRoot();
+    root.applyCss();
+    root.resize(WIDTH, HEIGHT);
+    root.layout();
+  }
+}
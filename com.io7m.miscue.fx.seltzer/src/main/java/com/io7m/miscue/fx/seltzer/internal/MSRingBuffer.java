@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>A fixed-capacity ring buffer presented as an observable list.</p>
+ *
+ * <p>Adding an item to a full buffer removes the oldest item, and both
+ * changes are reported to listeners as a single change. The memory used by
+ * the buffer is therefore fixed at construction, regardless of how many
+ * items are added over its lifetime.</p>
+ *
+ * @param <T> The type of items
+ */
+
+public final class MSRingBuffer<T> extends ObservableListBase<T>
+{
+  private final Object[] items;
+  private int head;
+  private int size;
+
+  /**
+   * A fixed-capacity ring buffer.
+   *
+   * @param inCapacity The capacity
+   */
+
+  public MSRingBuffer(
+    final int inCapacity)
+  {
+    if (inCapacity <= 0) {
+      throw new IllegalArgumentException(
+        "Capacity %d must be positive".formatted(Integer.valueOf(inCapacity))
+      );
+    }
+    this.items = new Object[inCapacity];
+  }
+
+  /**
+   * @return The capacity of the buffer
+   */
+
+  public int capacity()
+  {
+    return this.items.length;
+  }
+
+  /**
+   * Add an item to the end of the buffer, removing the oldest item if the
+   * buffer is full.
+   *
+   * @param item The item
+   */
+
+  public void push(
+    final T item)
+  {
+    Objects.requireNonNull(item, "item");
+
+    this.beginChange();
+    if (this.size == this.items.length) {
+      final var oldest = this.get(0);
+      this.items[this.head] = null;
+      this.head = (this.head + 1) % this.items.length;
+      --this.size;
+      this.nextRemove(0, oldest);
+    }
+
+    this.items[(this.head + this.size) % this.items.length] = item;
+    ++this.size;
+    this.nextAdd(this.size - 1, this.size);
+    this.endChange();
+  }
+
+  /**
+   * Remove all items from the buffer.
+   */
+
+  @Override
+  public void clear()
+  {
+    if (this.size == 0) {
+      return;
+    }
+
+    final var removed = new ArrayList<>(this);
+    Arrays.fill(this.items, null);
+    this.head = 0;
+    this.size = 0;
+
+    this.beginChange();
+    this.nextRemove(0, removed);
+    this.endChange();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(
+    final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    return (T) this.items[(this.head + index) % this.items.length];
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+}
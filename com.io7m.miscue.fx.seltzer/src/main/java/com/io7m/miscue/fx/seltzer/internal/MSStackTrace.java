@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import java.util.Objects;
+
+/**
+ * A formatted stack trace, stored as a single string together with the
+ * offsets of the start of each line so that ranges of lines can be
+ * extracted without splitting the text.
+ */
+
+public final class MSStackTrace
+{
+  private final String text;
+  private final int[] lineStarts;
+
+  MSStackTrace(
+    final String inText,
+    final int[] inLineStarts)
+  {
+    this.text =
+      Objects.requireNonNull(inText, "text");
+    this.lineStarts =
+      Objects.requireNonNull(inLineStarts, "lineStarts");
+  }
+
+  /**
+   * @return The complete text of the trace
+   */
+
+  public String text()
+  {
+    return this.text;
+  }
+
+  /**
+   * @return The number of lines in the trace
+   */
+
+  public int lineCount()
+  {
+    return this.lineStarts.length;
+  }
+
+  /**
+   * Extract a range of lines, including the line terminator of each line.
+   *
+   * @param from The first line (inclusive)
+   * @param to   The last line (exclusive)
+   *
+   * @return The text of the lines
+   */
+
+  public String lines(
+    final int from,
+    final int to)
+  {
+    Objects.checkFromToIndex(from, to, this.lineStarts.length);
+    if (from == to) {
+      return "";
+    }
+    final var end =
+      to == this.lineStarts.length ? this.text.length() : this.lineStarts[to];
+    return this.text.substring(this.lineStarts[from], end);
+  }
+}
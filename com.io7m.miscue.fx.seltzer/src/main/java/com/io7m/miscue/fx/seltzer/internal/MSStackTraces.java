@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import com.io7m.miscue.export.internal.MXExceptionLines;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Functions to format stack traces off the JavaFX application thread.</p>
+ *
+ * <p>Traces are formatted in exactly the same way as
+ * {@link Throwable#printStackTrace()}: frames that a cause or suppressed
+ * exception has in common with its enclosing trace are folded into a
+ * single {@code ... N more} line, and circular references are reported
+ * rather than followed. The lines are produced by the same formatter used
+ * by the exporters, and so a trace shown in a dialog is identical to the
+ * trace in an exported error.</p>
+ *
+ * <p>Formatted traces are cached by the identity of the exception. The
+ * cache holds its keys weakly, and so an exception's trace is discarded
+ * when the exception itself becomes unreachable.</p>
+ */
+
+public final class MSStackTraces
+{
+  private static final Executor FORMATTER =
+    command -> Thread.ofVirtual().name("com.io7m.miscue.trace").start(command);
+
+  private static final ReferenceQueue<Throwable> QUEUE =
+    new ReferenceQueue<>();
+  private static final HashMap<Key, CompletableFuture<MSStackTrace>> CACHE =
+    new HashMap<>();
+
+  private MSStackTraces()
+  {
+
+  }
+
+  /**
+   * Format the stack trace of the given exception on a background thread,
+   * or return the trace formatted by an earlier call.
+   *
+   * @param throwable The exception
+   *
+   * @return The formatted trace
+   */
+
+  public static CompletableFuture<MSStackTrace> format(
+    final Throwable throwable)
+  {
+    Objects.requireNonNull(throwable, "throwable");
+
+    synchronized (CACHE) {
+      expunge();
+
+      final var key = new Key(throwable, null);
+      final var existing = CACHE.get(key);
+      if (existing != null && !existing.isCompletedExceptionally()) {
+        return existing;
+      }
+
+      final var future =
+        CompletableFuture.supplyAsync(() -> formatNow(throwable), FORMATTER);
+      CACHE.put(new Key(throwable, QUEUE), future);
+      return future;
+    }
+  }
+
+  /**
+   * @return The number of traces currently cached
+   */
+
+  public static int cacheSize()
+  {
+    synchronized (CACHE) {
+      expunge();
+      return CACHE.size();
+    }
+  }
+
+  private static void expunge()
+  {
+    while (true) {
+      final var reference = QUEUE.poll();
+      if (reference == null) {
+        return;
+      }
+      CACHE.remove(reference);
+    }
+  }
+
+  /**
+   * Format the stack trace of the given exception on the current thread.
+   *
+   * @param throwable The exception
+   *
+   * @return The formatted trace
+   */
+
+  public static MSStackTrace formatNow(
+    final Throwable throwable)
+  {
+    Objects.requireNonNull(throwable, "throwable");
+
+    final var output = new Output();
+    MXExceptionLines.walk(throwable, output::line);
+    return output.finish();
+  }
+
+  private static final class Output
+  {
+    private final StringBuilder text;
+    private int[] lineStarts;
+    private int lineCount;
+
+    Output()
+    {
+      this.text = new StringBuilder(4096);
+      this.lineStarts = new int[64];
+    }
+
+    void line(
+      final String prefix,
+      final String content)
+    {
+      if (this.lineCount == this.lineStarts.length) {
+        this.lineStarts =
+          Arrays.copyOf(this.lineStarts, this.lineCount << 1);
+      }
+      this.lineStarts[this.lineCount] = this.text.length();
+      ++this.lineCount;
+      this.text.append(prefix);
+      this.text.append(content);
+      this.text.append(System.lineSeparator());
+    }
+
+    MSStackTrace finish()
+    {
+      return new MSStackTrace(
+        this.text.toString(),
+        Arrays.copyOf(this.lineStarts, this.lineCount)
+      );
+    }
+  }
+
+  /**
+   * A weak reference to an exception that is compared by the identity of
+   * the exception.
+   */
+
+  private static final class Key extends WeakReference<Throwable>
+  {
+    private final int hash;
+
+    Key(
+      final Throwable throwable,
+      final ReferenceQueue<Throwable> queue)
+    {
+      super(throwable, queue);
+      this.hash = System.identityHashCode(throwable);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(
+      final Object other)
+    {
+      if (this == other) {
+        return true;
+      }
+      if (other instanceof final Key key) {
+        final var referent = this.get();
+        return referent != null && referent == key.get();
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * <p>A read-only text divided into display lines, presented as an
+ * observable list of strings suitable for use as the items of a
+ * {@code ListView}.</p>
+ *
+ * <p>The text is stored once, along with the start and end offsets of each
+ * display line; the string for a line is only created when the line is
+ * requested (typically when a cell for the line becomes visible). Lines
+ * longer than {@link #MAXIMUM_LINE_LENGTH} characters are divided into
+ * several display lines so that no single cell ever has to lay out an
+ * unbounded amount of text. Display lines that continue a previous line
+ * are tracked so that copied text reproduces the original line breaks.</p>
+ */
+
+public final class MSTextLines extends ObservableListBase<String>
+{
+  /**
+   * The maximum length of a display line.
+   */
+
+  public static final int MAXIMUM_LINE_LENGTH = 1024;
+
+  private String text;
+  private int[] starts;
+  private int[] ends;
+  private BitSet continued;
+  private int size;
+
+  /**
+   * An empty text.
+   */
+
+  public MSTextLines()
+  {
+    this.text = "";
+    this.starts = new int[16];
+    this.ends = new int[16];
+    this.continued = new BitSet();
+  }
+
+  /**
+   * @return The complete text
+   */
+
+  public String text()
+  {
+    return this.text;
+  }
+
+  /**
+   * Replace the text.
+   *
+   * @param newText The new text
+   */
+
+  public void setText(
+    final String newText)
+  {
+    Objects.requireNonNull(newText, "text");
+
+    final var removed =
+      new Lines(this.text, this.starts, this.ends, this.size);
+
+    this.text = "";
+    this.starts = new int[16];
+    this.ends = new int[16];
+    this.continued = new BitSet();
+    this.size = 0;
+    this.index(newText);
+
+    this.beginChange();
+    this.nextReplace(0, this.size, removed);
+    this.endChange();
+  }
+
+  /**
+   * Append text.
+   *
+   * @param more The text to append
+   */
+
+  public void appendText(
+    final String more)
+  {
+    Objects.requireNonNull(more, "more");
+    if (more.isEmpty()) {
+      return;
+    }
+
+    /*
+     * If the existing text does not end with a line break, then the last
+     * line is extended by the new text, and so the last line (including
+     * any display lines that continue it) is divided again.
+     */
+
+    final var sizeBefore = this.size;
+    int first = sizeBefore;
+    if (!this.text.isEmpty()
+        && this.text.charAt(this.text.length() - 1) != '\n') {
+      first = sizeBefore - 1;
+      while (first > 0 && this.continued.get(first)) {
+        --first;
+      }
+    }
+
+    final var removed =
+      new Lines(this.text, this.starts, this.ends, sizeBefore)
+        .subList(first, sizeBefore);
+    final var from =
+      first < sizeBefore ? this.starts[first] : this.text.length();
+
+    this.size = first;
+    this.continued.clear(first, sizeBefore);
+    this.text = this.text.concat(more);
+    this.addLines(from, this.text.length());
+
+    this.beginChange();
+    if (removed.isEmpty()) {
+      this.nextAdd(first, this.size);
+    } else {
+      this.nextReplace(first, this.size, removed);
+    }
+    this.endChange();
+  }
+
+  /**
+   * Append the given text to the stored text, and divide it into lines.
+   */
+
+  private void index(
+    final String more)
+  {
+    final var offset = this.text.length();
+    this.text = this.text.concat(more);
+    this.addLines(offset, this.text.length());
+  }
+
+  private void addLines(
+    final int from,
+    final int end)
+  {
+    int lineStart = from;
+    boolean isContinued = false;
+
+    while (lineStart < end) {
+      var newline = this.text.indexOf('\n', lineStart);
+      if (newline < 0 || newline >= end) {
+        newline = end;
+      }
+
+      int lineEnd = newline;
+      if (lineEnd > lineStart && this.text.charAt(lineEnd - 1) == '\r') {
+        lineEnd -= 1;
+      }
+
+      int segment = lineStart;
+      do {
+        final var segmentEnd = Math.min(lineEnd, segment + MAXIMUM_LINE_LENGTH);
+        this.add(segment, segmentEnd, isContinued);
+        isContinued = true;
+        segment = segmentEnd;
+      } while (segment < lineEnd);
+
+      isContinued = false;
+      lineStart = newline + 1;
+    }
+  }
+
+  private void add(
+    final int start,
+    final int end,
+    final boolean isContinued)
+  {
+    if (this.size == this.starts.length) {
+      this.starts = Arrays.copyOf(this.starts, this.size << 1);
+      this.ends = Arrays.copyOf(this.ends, this.size << 1);
+    }
+    this.starts[this.size] = start;
+    this.ends[this.size] = end;
+    this.continued.set(this.size, isContinued);
+    ++this.size;
+  }
+
+  @Override
+  public String get(
+    final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    return this.text.substring(this.starts[index], this.ends[index]);
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * Extract the text of the given display lines. Lines that continue a
+   * previous line are joined to it without a line break.
+   *
+   * @param indices The indices of the lines, in increasing order
+   *
+   * @return The text
+   */
+
+  public String text(
+    final int[] indices)
+  {
+    final var builder = new StringBuilder();
+    for (int index = 0; index < indices.length; ++index) {
+      final var line = indices[index];
+      if (index > 0 && !this.continued.get(line)) {
+        builder.append('\n');
+      }
+      builder.append(this.text, this.starts[line], this.ends[line]);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * A read-only view of the lines of a previous text.
+   */
+
+  private static final class Lines extends AbstractList<String>
+  {
+    private final String text;
+    private final int[] starts;
+    private final int[] ends;
+    private final int size;
+
+    Lines(
+      final String inText,
+      final int[] inStarts,
+      final int[] inEnds,
+      final int inSize)
+    {
+      this.text = inText;
+      this.starts = inStarts.clone();
+      this.ends = inEnds.clone();
+      this.size = inSize;
+    }
+
+    @Override
+    public String get(
+      final int index)
+    {
+      Objects.checkIndex(index, this.size);
+      return this.text.substring(this.starts[index], this.ends[index]);
+    }
+
+    @Override
+    public int size()
+    {
+      return this.size;
+    }
+  }
+}
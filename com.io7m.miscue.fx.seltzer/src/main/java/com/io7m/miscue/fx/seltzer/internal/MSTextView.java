@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.seltzer.internal;
+
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.ResourceBundle;
+
+/**
+ * <p>A line-virtualized, read-only text view.</p>
+ *
+ * <p>The view turns a {@code ListView} into a text viewer: the items of
+ * the list are the display lines of an {@link MSTextLines} instance, and
+ * so only the lines that are actually on screen have cells, and only
+ * those lines are laid out. This keeps the cost of displaying a text
+ * proportional to the size of the viewport rather than the size of the
+ * text. Whole lines can be selected with the mouse and keyboard, and the
+ * selected lines can be copied with the platform shortcut or the context
+ * menu.</p>
+ */
+
+public final class MSTextView
+{
+  private static final KeyCombination COPY =
+    new KeyCodeCombination(KeyCode.C, KeyCombination.SHORTCUT_DOWN);
+
+  private final ListView<String> view;
+  private final MSTextLines lines;
+
+  /**
+   * A line-virtualized, read-only text view.
+   *
+   * @param inView      The list view that will display the text
+   * @param inResources The resources
+   * @param inWrap      {@code true} if lines should be wrapped to the width
+   *                    of the view
+   */
+
+  public MSTextView(
+    final ListView<String> inView,
+    final ResourceBundle inResources,
+    final boolean inWrap)
+  {
+    this.view =
+      Objects.requireNonNull(inView, "view");
+    this.lines =
+      new MSTextLines();
+
+    Objects.requireNonNull(inResources, "resources");
+
+    this.view.setItems(this.lines);
+    this.view.setEditable(false);
+    this.view.getStyleClass().add("errorText");
+    this.view.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+    this.view.setCellFactory(param -> new Cell(inWrap));
+    this.view.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
+      if (COPY.match(event)) {
+        this.copySelection();
+        event.consume();
+      }
+    });
+
+    final var copy = new MenuItem(inResources.getString("error.copy"));
+    copy.setOnAction(event -> this.copySelection());
+    final var selectAll =
+      new MenuItem(inResources.getString("error.selectAll"));
+    selectAll.setOnAction(event -> this.view.getSelectionModel().selectAll());
+    this.view.setContextMenu(new ContextMenu(copy, selectAll));
+  }
+
+  /**
+   * @return The lines of the text
+   */
+
+  public MSTextLines lines()
+  {
+    return this.lines;
+  }
+
+  /**
+   * @return The text
+   */
+
+  public String text()
+  {
+    return this.lines.text();
+  }
+
+  /**
+   * Replace the text.
+   *
+   * @param text The text
+   */
+
+  public void setText(
+    final String text)
+  {
+    this.view.getSelectionModel().clearSelection();
+    this.lines.setText(text);
+    this.view.scrollTo(0);
+  }
+
+  /**
+   * Append text, preserving the scroll position and selection.
+   *
+   * @param text The text
+   */
+
+  public void appendText(
+    final String text)
+  {
+    this.lines.appendText(text);
+  }
+
+  /**
+   * @return The text of the selected lines
+   */
+
+  public String selectedText()
+  {
+    final var indices =
+      this.view.getSelectionModel()
+        .getSelectedIndices()
+        .stream()
+        .mapToInt(Integer::intValue)
+        .filter(index -> index >= 0 && index < this.lines.size())
+        .toArray();
+    Arrays.sort(indices);
+    return this.lines.text(indices);
+  }
+
+  /**
+   * Copy the text of the selected lines to the system clipboard.
+   */
+
+  public void copySelection()
+  {
+    final var content = new ClipboardContent();
+    content.putString(this.selectedText());
+    Clipboard.getSystemClipboard().setContent(content);
+  }
+
+  private static final class Cell extends ListCell<String>
+  {
+    Cell(
+      final boolean wrap)
+    {
+      if (wrap) {
+        this.setWrapText(true);
+        this.setPrefWidth(0.0);
+      }
+    }
+
+    @Override
+    protected void updateItem(
+      final String item,
+      final boolean empty)
+    {
+      super.updateItem(item, empty);
+      this.setGraphic(null);
+      this.setText(empty ? null : item);
+    }
+  }
+}
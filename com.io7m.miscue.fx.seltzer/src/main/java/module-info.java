@@ -29,6 +29,7 @@ module com.io7m.miscue.fx.seltzer
   requires javafx.graphics;
 
   requires com.io7m.miscue.core;
+  requires com.io7m.miscue.export;
   requires com.io7m.seltzer.api;
 
   opens com.io7m.miscue.fx.seltzer.internal
@@ -18,10 +18,14 @@
 package com.io7m.miscue.fx.taskrecorder;
 
 import com.io7m.miscue.core.MiscueDialogBuilderType;
+import com.io7m.miscue.core.MiscueReportTaskType;
+import com.io7m.taskrecorder.core.TRTask;
 import javafx.scene.image.Image;
 import javafx.stage.Modality;
 
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 /**
  * The type of JavaFX error dialog builders that consume Taskrecorder results.
@@ -34,6 +38,44 @@ public interface MTRErrorDialogBuilderType
   MTRErrorDialogBuilderType setErrorReportCallback(
     Runnable callback);
 
+  @Override
+  MTRErrorDialogBuilderType setErrorReportExecutor(
+    Executor executor);
+
+  /**
+   * Set the report task. When the report button is pressed, the task is
+   * executed on the report executor with the displayed task as its
+   * subject; the dialog shows the progress of the report, disables the
+   * report button until the report finishes, and allows the user to cancel
+   * the report. If a report task is set, it is used instead of any report
+   * callback.
+   *
+   * @param task The report task
+   *
+   * @return this
+   *
+   * @see #setErrorReportExecutor(Executor)
+   */
+
+  MTRErrorDialogBuilderType setErrorReportTask(
+    MiscueReportTaskType<? super TRTask<?>> task);
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A bundle contains {@code task.txt}, {@code task.json},
+   * {@code exceptions.txt} (if any failed task or step has an exception),
+   * and {@code snapshot.png}. For a dialog that displays a task recording,
+   * the task is read from the recording on the report executor.</p>
+   *
+   * @see com.io7m.miscue.export.taskrecorder.MXTaskBundles
+   */
+
+  @Override
+  MTRErrorDialogBuilderType setErrorReportBundle(
+    Path directory,
+    MiscueReportTaskType<? super Path> receiver);
+
   /**
    * Set the modality of the dialog.
    *
@@ -67,6 +109,74 @@ public interface MTRErrorDialogBuilderType
   MTRErrorDialogBuilderType setIcon(
     Image image);
 
+  /**
+   * Set the icons used to display the status of tasks and steps.
+   *
+   * @param iconSet The icon set
+   *
+   * @return this
+   *
+   * @see MTRIconSet#defaults()
+   */
+
+  MTRErrorDialogBuilderType setIconSet(
+    MTRIconSet iconSet);
+
+  /**
+   * <p>Build the task tree model, and search it, on the given executor. The
+   * dialog displays a placeholder until the model is ready. If no executor
+   * is specified, a virtual thread is used.</p>
+   *
+   * <p>The model is built in a single sequential pass by one task submitted
+   * to the executor; the work is not split across threads, so the executor
+   * only decides which thread does the work, and a parallel executor such
+   * as {@link java.util.concurrent.ForkJoinPool#commonPool()} builds the
+   * model no faster than a single thread. Each search is likewise one
+   * task. The items displayed in the tree are not built on the executor:
+   * they are created on the JavaFX application thread when a branch is
+   * first expanded, at most one batch per frame.</p>
+   *
+   * @param executor The executor
+   *
+   * @return this
+   */
+
+  MTRErrorDialogBuilderType setTreeBuildExecutor(
+    Executor executor);
+
+  /**
+   * Enable or disable folding. When folding is enabled (the default), each
+   * run of consecutive steps that have the same description and outcome is
+   * displayed as a single collapsed item labelled with the number of steps
+   * in the run.
+   *
+   * @param enabled {@code true} if folding should be enabled
+   *
+   * @return this
+   */
+
+  MTRErrorDialogBuilderType setFoldingEnabled(
+    boolean enabled);
+
+  /**
+   * Set whether the dialog is pooled. A pooled dialog is returned to a
+   * process-wide, bounded pool when it is closed, and a later pooled
+   * dialog with the same modality, CSS stylesheet, and icon set is built
+   * by rebinding the existing window and scene graph to the new task
+   * rather than creating new ones. A pooled dialog must not be used after
+   * it has been closed, because it may already be displaying a different
+   * task. The default is {@code false}.
+   *
+   * @param pooled {@code true} if the dialog should be pooled
+   *
+   * @return this
+   *
+   * @see MTRErrorDialogs#setPoolCapacity(int)
+   */
+
+  MTRErrorDialogBuilderType setPooled(
+    boolean pooled);
+
   @Override
   MTRErrorDialogType build();
 }
@@ -17,21 +17,39 @@
 
 package com.io7m.miscue.fx.taskrecorder;
 
+import com.io7m.miscue.core.MiscueDialogResult;
+import com.io7m.miscue.core.MiscueReportTaskType;
+import com.io7m.miscue.core.internal.MiscueDialogPool;
+import com.io7m.miscue.core.internal.MiscueDialogSession;
+import com.io7m.miscue.core.internal.MiscueDialogTracking;
+import com.io7m.miscue.core.internal.MiscueReporting;
+import com.io7m.miscue.core.internal.MiscueSnapshots;
+import com.io7m.miscue.export.MXSnapshot;
+import com.io7m.miscue.export.internal.MXReportBundles;
+import com.io7m.miscue.export.taskrecorder.MXTaskBundles;
+import com.io7m.miscue.export.taskrecorder.MXTaskRecordings;
 import com.io7m.miscue.fx.taskrecorder.internal.MTRErrorController;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRErrorView;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRPreloading;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskTreeModel;
 import com.io7m.taskrecorder.core.TRTask;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import static com.io7m.miscue.fx.taskrecorder.internal.MTRErrorStrings.STRINGS;
 
@@ -41,11 +59,62 @@ import static com.io7m.miscue.fx.taskrecorder.internal.MTRErrorStrings.STRINGS;
 
 public final class MTRErrorDialogs
 {
+  private static final int DEFAULT_POOL_CAPACITY = 4;
+  private static final double DEFAULT_WIDTH = 800.0;
+  private static final double DEFAULT_HEIGHT = 600.0;
+  private static final MiscueDialogPool<PoolKey, Dialog> POOL =
+    new MiscueDialogPool<>(DEFAULT_POOL_CAPACITY);
+
   private MTRErrorDialogs()
   {
 
   }
 
+  /**
+   * <p>Warm up task recorder dialogs so that the first dialog shown is
+   * created as quickly as any subsequent dialog.</p>
+   *
+   * <p>This is intended to be called once, early in application startup,
+   * after the JavaFX platform has been started. It may be called from any
+   * thread. Most of the work happens on a background thread; a hidden
+   * dialog is then built and discarded on the FX thread. Calling this
+   * method more than once has no further effect.</p>
+   *
+   * @return An operation that completes when preloading has finished
+   */
+
+  public static CompletionStage<Void> preload()
+  {
+    return MTRPreloading.preloader()
+      .preload()
+      .minimalCompletionStage();
+  }
+
+  /**
+   * Set the maximum number of closed dialogs that are retained for reuse
+   * by pooled dialog builders. Setting the capacity to zero effectively
+   * disables pooling. The default capacity is 4.
+   *
+   * @param capacity The capacity
+   *
+   * @see MTRErrorDialogBuilderType#setPooled(boolean)
+   */
+
+  public static void setPoolCapacity(
+    final int capacity)
+  {
+    POOL.setCapacity(capacity);
+  }
+
+  /**
+   * @return The number of closed dialogs currently retained for reuse
+   */
+
+  public static int pooledDialogs()
+  {
+    return POOL.size();
+  }
+
   /**
    * @param task The task to be displayed
    *
@@ -55,28 +124,98 @@ public final class MTRErrorDialogs
   public static MTRErrorDialogBuilderType builder(
     final TRTask<?> task)
   {
-    return new Builder(task);
+    Objects.requireNonNull(task, "task");
+    return new Builder(() -> MTRTaskTreeModel.create(task), () -> task);
+  }
+
+  /**
+   * <p>Create a builder for a dialog that displays the task recording in
+   * the given file.</p>
+   *
+   * <p>The file is opened when the dialog is shown, and only the header
+   * and the parts of the task tree that are displayed are read from it.
+   * The file is closed when the dialog is disposed, or when a pooled
+   * dialog is reused for another task. If an error report task is
+   * configured, the complete task is read from the file on the report
+   * executor when a report is requested.</p>
+   *
+   * <p>The cost of opening a recording does not depend on its size, as
+   * only the header and the blocks of nodes holding the first rows are
+   * read before the tree is displayed. Recordings larger than 2GiB are
+   * not supported and are rejected.</p>
+   *
+   * @param file The task recording file
+   *
+   * @return A new dialog builder
+   *
+   * @see MXTaskRecordings
+   */
+
+  public static MTRErrorDialogBuilderType builder(
+    final Path file)
+  {
+    Objects.requireNonNull(file, "file");
+    return new Builder(
+      () -> {
+        try {
+          return MTRTaskTreeModel.open(file);
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      },
+      () -> {
+        try {
+          return MXTaskRecordings.read(file);
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    );
   }
 
   private static final class Builder implements MTRErrorDialogBuilderType
   {
-    private final TRTask<?> task;
+    private final Supplier<MTRTaskTreeModel> modelSource;
+    private final Supplier<? extends TRTask<?>> reportSubject;
     private Modality modality;
     private Optional<Image> icon;
+    private MTRIconSet iconSet;
+    private Optional<Executor> treeExecutor;
+    private boolean folding;
     private URI css;
     private Optional<Runnable> errorReportCallback;
+    private Optional<MiscueReportTaskType<? super TRTask<?>>> errorReportTask;
+    private Executor errorReportExecutor;
+    private Optional<ReportBundle> errorReportBundle;
+    private boolean pooled;
 
     public Builder(
-      final TRTask<?> inTask)
+      final Supplier<MTRTaskTreeModel> inModelSource,
+      final Supplier<? extends TRTask<?>> inReportSubject)
     {
-      this.task = Objects.requireNonNull(inTask, "task");
+      this.modelSource =
+        Objects.requireNonNull(inModelSource, "modelSource");
+      this.reportSubject =
+        Objects.requireNonNull(inReportSubject, "reportSubject");
 
       this.errorReportCallback =
         Optional.empty();
+      this.errorReportTask =
+        Optional.empty();
+      this.errorReportExecutor =
+        MiscueReporting.DEFAULT_EXECUTOR;
+      this.errorReportBundle =
+        Optional.empty();
       this.modality =
         Modality.NONE;
       this.icon =
         Optional.empty();
+      this.iconSet =
+        MTRIconSet.defaults();
+      this.treeExecutor =
+        Optional.empty();
+      this.folding =
+        true;
 
       try {
         this.css =
@@ -96,6 +235,44 @@ public final class MTRErrorDialogs
       return this;
     }
 
+    @Override
+    public MTRErrorDialogBuilderType setErrorReportExecutor(
+      final Executor executor)
+    {
+      this.errorReportExecutor =
+        Objects.requireNonNull(executor, "executor");
+      return this;
+    }
+
+    @Override
+    public MTRErrorDialogBuilderType setErrorReportTask(
+      final MiscueReportTaskType<? super TRTask<?>> reportTask)
+    {
+      this.errorReportTask = Optional.of(reportTask);
+      return this;
+    }
+
+    @Override
+    public MTRErrorDialogBuilderType setErrorReportBundle(
+      final Path directory,
+      final MiscueReportTaskType<? super Path> receiver)
+    {
+      this.errorReportBundle =
+        Optional.of(new ReportBundle(directory, receiver));
+      return this;
+    }
+
+    private MiscueReporting<TRTask<?>> reporting(
+      final Stage stage)
+    {
+      return new MiscueReporting<>(
+        this.errorReportCallback,
+        this.errorReportTask,
+        this.errorReportExecutor,
+        this.errorReportBundle.map(bundle -> bundle.factory(stage::getScene))
+      );
+    }
+
     @Override
     public MTRErrorDialogBuilderType setModality(
       final Modality newModality)
@@ -120,48 +297,153 @@ public final class MTRErrorDialogs
       return this;
     }
 
+    @Override
+    public MTRErrorDialogBuilderType setIconSet(
+      final MTRIconSet newIconSet)
+    {
+      this.iconSet = Objects.requireNonNull(newIconSet, "iconSet");
+      return this;
+    }
+
+    @Override
+    public MTRErrorDialogBuilderType setTreeBuildExecutor(
+      final Executor executor)
+    {
+      this.treeExecutor = Optional.of(executor);
+      return this;
+    }
+
+    @Override
+    public MTRErrorDialogBuilderType setFoldingEnabled(
+      final boolean enabled)
+    {
+      this.folding = enabled;
+      return this;
+    }
+
+    @Override
+    public MTRErrorDialogBuilderType setPooled(
+      final boolean newPooled)
+    {
+      this.pooled = newPooled;
+      return this;
+    }
+
     @Override
     public MTRErrorDialogType build()
     {
-      try {
-        final var stage =
-          new Stage();
+      if (!this.pooled) {
+        return this.create();
+      }
 
-        final var layout =
-          MTRErrorDialogs.class.getResource(
-            "/com/io7m/miscue/fx/taskrecorder/internal/errorTaskRecorder.fxml");
-
-        Objects.requireNonNull(layout, "layout");
-
-        final var loader =
-          new FXMLLoader(layout, STRINGS.resources());
-        final var controller =
-          new MTRErrorController(
-            this.task,
-            this.errorReportCallback,
-            this.icon,
-            stage
-          );
-
-        loader.setControllerFactory(param -> controller);
-
-        final Pane pane = loader.load();
-        pane.getStylesheets().add(this.css.toString());
-        stage.initModality(this.modality);
-        stage.setWidth(800);
-        stage.setHeight(600);
-        stage.setScene(new Scene(pane));
-        return new Dialog(stage, controller);
-      } catch (final IOException e) {
-        throw new UncheckedIOException(e);
+      final var key = new PoolKey(this.modality, this.css, this.iconSet);
+      final var existing = POOL.take(key);
+      if (existing.isPresent()) {
+        final var dialog = existing.get();
+        dialog.controller.rebind(
+          this.modelSource,
+          this.reporting(dialog.stage),
+          this.reportSubject,
+          this.icon,
+          this.treeExecutor,
+          this.folding
+        );
+        dialog.stage.setWidth(DEFAULT_WIDTH);
+        dialog.stage.setHeight(DEFAULT_HEIGHT);
+        dialog.stage.centerOnScreen();
+        return dialog;
       }
+
+      final var dialog = this.create();
+      dialog.poolKey = Optional.of(key);
+      return dialog;
+    }
+
+    private Dialog create()
+    {
+      final var stage =
+        new Stage();
+      final var controller =
+        new MTRErrorController(
+          this.modelSource,
+          this.reporting(stage),
+          this.reportSubject,
+          this.icon,
+          this.iconSet,
+          this.treeExecutor,
+          this.folding,
+          stage
+        );
+
+      final Pane pane =
+        MTRErrorView.create(STRINGS.resources(), controller)
+          .root();
+
+      pane.getStylesheets().add(this.css.toString());
+      stage.initModality(this.modality);
+      stage.setWidth(DEFAULT_WIDTH);
+      stage.setHeight(DEFAULT_HEIGHT);
+      stage.setScene(new Scene(pane));
+      return new Dialog(stage, controller);
+    }
+  }
+
+  private record PoolKey(
+    Modality modality,
+    URI css,
+    MTRIconSet iconSet)
+  {
+
+  }
+
+  private record ReportBundle(
+    Path directory,
+    MiscueReportTaskType<? super Path> receiver)
+  {
+    private ReportBundle
+    {
+      Objects.requireNonNull(directory, "directory");
+      Objects.requireNonNull(receiver, "receiver");
+    }
+
+    /**
+     * Create a report task factory that captures the given scene and then
+     * writes a bundle. The factory is evaluated on the FX thread; the
+     * bundle is written, and the receiver is executed, on the report
+     * executor.
+     */
+
+    Supplier<MiscueReportTaskType<? super TRTask<?>>> factory(
+      final Supplier<Scene> scene)
+    {
+      return () -> {
+        final var snapshot =
+          MiscueSnapshots.capture(scene.get(), MXSnapshot::new);
+        return (task, progress) -> {
+          final var file =
+            MXReportBundles.<TRTask<?>>write(
+              MXTaskBundles::write,
+              task,
+              snapshot,
+              this.directory,
+              "task-report-",
+              progress::isCancelled
+            );
+          if (file.isPresent()) {
+            this.receiver.report(file.get(), progress);
+          }
+        };
+      };
     }
   }
 
   private static final class Dialog implements MTRErrorDialogType
   {
     private final Stage stage;
-    private final MTRErrorController controller;
+    private MTRErrorController controller;
+    private Optional<PoolKey> poolKey;
+    private boolean disposed;
+    private MiscueDialogSession session;
 
     Dialog(
       final Stage inStage,
@@ -171,20 +453,119 @@ public final class MTRErrorDialogs
         Objects.requireNonNull(inStage, "stage");
       this.controller =
         Objects.requireNonNull(inController, "controller");
+      this.poolKey =
+        Optional.empty();
+
+      MiscueDialogTracking.track(this.stage, this);
+
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_SHOWING, event -> this.onSessionShowing());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_SHOWN, event -> this.onSessionShown());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_CLOSE_REQUEST,
+        event -> this.onSessionCloseRequested());
+      this.stage.addEventHandler(
+        WindowEvent.WINDOW_HIDDEN, event -> this.onHidden());
+    }
+
+    /**
+     * A pooled dialog releases its task, model, report configuration and
+     * icon as soon as it is hidden, so that an idle dialog in the pool
+     * retains nothing but its window and scene graph.
+     */
+
+    private void onHidden()
+    {
+      this.onSessionHidden();
+      if (!this.disposed && this.poolKey.isPresent()) {
+        this.controller.release();
+        POOL.offer(this.poolKey.get(), this);
+      }
+    }
+
+    private void checkNotDisposed()
+    {
+      if (this.disposed) {
+        throw new IllegalStateException("Dialog has been disposed.");
+      }
+    }
+
+    private MiscueDialogSession newSession()
+    {
+      return new MiscueDialogSession(
+        this.controller.reportCount(),
+        this.controller.dismissCount()
+      );
+    }
+
+    private void onSessionShowing()
+    {
+      if (this.session == null) {
+        this.session = this.newSession();
+      }
+    }
+
+    private void onSessionShown()
+    {
+      this.session.onShown();
+    }
+
+    private void onSessionCloseRequested()
+    {
+      this.session.onCloseRequested();
+    }
+
+    private void onSessionHidden()
+    {
+      if (this.session != null) {
+        this.session.onHidden(
+          this.controller.reportCount(),
+          this.controller.dismissCount()
+        );
+        this.session = null;
+      }
+    }
+
+    @Override
+    public CompletionStage<MiscueDialogResult> showAsync()
+    {
+      this.checkNotDisposed();
+      this.onSessionShowing();
+      final var result = this.session.result();
+      this.stage.show();
+      return result;
     }
 
     @Override
     public void show()
     {
+      this.checkNotDisposed();
       this.stage.show();
     }
 
     @Override
     public void showAndWait()
     {
+      this.checkNotDisposed();
       this.stage.showAndWait();
     }
 
+    @Override
+    public void dispose()
+    {
+      if (this.disposed) {
+        return;
+      }
+
+      this.disposed = true;
+      this.poolKey.ifPresent(key -> POOL.remove(key, this));
+      this.stage.close();
+      this.stage.setScene(null);
+      this.controller.dispose();
+      this.controller = null;
+    }
+
     @Override
     public void close()
     {
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.taskrecorder;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Objects;
+
+/**
+ * <p>The set of icons used to display the status of tasks and steps.</p>
+ *
+ * <p>Icons are loaded once per URI and shared between every dialog in the
+ * process. The usual JavaFX naming convention for HiDPI variants applies:
+ * If a resource {@code task-24@2x.png} exists alongside
+ * {@code task-24.png}, it is used on screens with an output scale of two
+ * or more.</p>
+ *
+ * @param taskNeutral   The icon used for items with no known status
+ * @param taskSucceeded The icon used for items that succeeded
+ * @param taskFailed    The icon used for items that failed
+ */
+
+public record MTRIconSet(
+  URI taskNeutral,
+  URI taskSucceeded,
+  URI taskFailed)
+{
+  private static final MTRIconSet DEFAULTS =
+    new MTRIconSet(
+      resource("task-24.png"),
+      resource("task-succeed-24.png"),
+      resource("task-fail-24.png")
+    );
+
+  /**
+   * The set of icons used to display the status of tasks and steps.
+   *
+   * @param taskNeutral   The icon used for items with no known status
+   * @param taskSucceeded The icon used for items that succeeded
+   * @param taskFailed    The icon used for items that failed
+   */
+
+  public MTRIconSet
+  {
+    Objects.requireNonNull(taskNeutral, "taskNeutral");
+    Objects.requireNonNull(taskSucceeded, "taskSucceeded");
+    Objects.requireNonNull(taskFailed, "taskFailed");
+  }
+
+  /**
+   * @return The default icon set
+   */
+
+  public static MTRIconSet defaults()
+  {
+    return DEFAULTS;
+  }
+
+  private static URI resource(
+    final String name)
+  {
+    try {
+      return MTRIconSet.class.getResource(
+        "/com/io7m/miscue/fx/taskrecorder/internal/" + name
+      ).toURI();
+    } catch (final URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -17,61 +17,175 @@
 
 package com.io7m.miscue.fx.taskrecorder.internal;
 
-import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.miscue.core.MiscueReportTaskType;
+import com.io7m.miscue.core.internal.MiscueReportExecution;
+import com.io7m.miscue.core.internal.MiscueReportListenerType;
+import com.io7m.miscue.core.internal.MiscueReporting;
+import com.io7m.miscue.core.internal.MiscueSubstringIndex;
+import com.io7m.miscue.core.internal.MiscueSubstringSearch;
+import com.io7m.miscue.fx.taskrecorder.MTRIconSet;
 import com.io7m.taskrecorder.core.TRTask;
-import com.io7m.taskrecorder.core.TRTaskItemType;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
-import javafx.scene.control.TreeItem;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TreeView;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
 
 import java.net.URL;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * The error controller.
  */
 
-public final class MTRErrorController implements Initializable
+public final class MTRErrorController
+  implements Initializable, MiscueReportListenerType
 {
-  private final TRTask<?> task;
-  private final Optional<Runnable> onReportCallback;
-  private final Optional<Image> iconImage;
+  private static final int SEARCH_CHUNK = 65536;
+  private static final int ATTACH_BATCH = 256;
+
+  private final MTRIconSet iconSet;
   private final Stage stage;
+  private Supplier<MTRTaskTreeModel> modelSource;
+  private MiscueReporting<TRTask<?>> reporting;
+  private Supplier<? extends TRTask<?>> reportSubject;
+  private Optional<Image> iconImage;
+  private Executor background;
+  private boolean folding;
 
   @FXML private Label errorTitle;
   @FXML private ImageView icon;
-  @FXML private TreeView<TRTaskItemType> taskTree;
+  @FXML private TreeView<Integer> taskTree;
+  @FXML private Label taskTreeLoading;
+  @FXML private Button failurePrevious;
+  @FXML private Button failureNext;
+  @FXML private CheckBox failuresOnly;
+  @FXML private TextField search;
+  @FXML private Button report;
+  @FXML private Parent reportProgressContainer;
+  @FXML private Label reportStatus;
+  @FXML private ProgressBar reportProgress;
+  @FXML private Button reportCancel;
+
+  private final SimpleBooleanProperty failuresNone;
+  private final SimpleBooleanProperty searchActive;
+  private CompletableFuture<Loaded> loaded;
+  private MTRTaskTreeModel model;
+  private MTRTaskTreeItem treeFull;
+  private MTRTaskTreeItem treeFailures;
+  private MTRTaskTreeAttacher attacher;
+  private AnimationTimer attachTimer;
+  private int failureCurrent;
+  private AtomicBoolean searchCancel;
+  private Image iconDefault;
+  private String loadingText;
+  private Node loadingGraphic;
+  private int generation;
+  private long reportCount;
+  private ResourceBundle resources;
+  private MiscueReportExecution reportRunning;
+  private long dismissCount;
 
   /**
    * The error controller.
    *
-   * @param inTask             The task
-   * @param inOnReportCallback The report callback
+   * @param inModelSource      A function that builds the task tree model;
+   *                           evaluated on the tree build executor
+   * @param inReporting        The way in which the task is reported
+   * @param inReportSubject    A function that yields the task to report;
+   *                           evaluated on the report executor
    * @param inIconImage        The custom icon
+   * @param inIconSet          The icon set used for tasks and steps
+   * @param inTreeExecutor     The executor used to build the task tree model
+   * @param inFolding          {@code true} if runs of identical steps should
+   *                           be folded
    * @param inStage            The stage
    */
 
   public MTRErrorController(
-    final TRTask<?> inTask,
-    final Optional<Runnable> inOnReportCallback,
+    final Supplier<MTRTaskTreeModel> inModelSource,
+    final MiscueReporting<TRTask<?>> inReporting,
+    final Supplier<? extends TRTask<?>> inReportSubject,
     final Optional<Image> inIconImage,
+    final MTRIconSet inIconSet,
+    final Optional<Executor> inTreeExecutor,
+    final boolean inFolding,
     final Stage inStage)
   {
-    this.task =
-      Objects.requireNonNull(inTask, "error");
-    this.onReportCallback =
-      Objects.requireNonNull(inOnReportCallback, "onReportCallback");
+    this.modelSource =
+      Objects.requireNonNull(inModelSource, "modelSource");
+    this.reporting =
+      Objects.requireNonNull(inReporting, "reporting");
+    this.reportSubject =
+      Objects.requireNonNull(inReportSubject, "reportSubject");
     this.iconImage =
       Objects.requireNonNull(inIconImage, "iconImage");
+    this.iconSet =
+      Objects.requireNonNull(inIconSet, "iconSet");
+    this.background =
+      executorOf(inTreeExecutor);
+    this.folding =
+      inFolding;
     this.stage =
       Objects.requireNonNull(inStage, "stage");
+
+    this.failuresNone = new SimpleBooleanProperty(false);
+    this.failureCurrent = -1;
+    this.searchActive = new SimpleBooleanProperty(false);
+    this.searchCancel = new AtomicBoolean(false);
+  }
+
+  private static Executor executorOf(
+    final Optional<Executor> executor)
+  {
+    return Objects.requireNonNull(executor, "treeExecutor")
+      .orElse(command -> Thread.ofVirtual().start(command));
+  }
+
+  /**
+   * Attach the nodes of a compiled view. This is the equivalent of the
+   * {@code @FXML} field injection performed by {@code FXMLLoader}.
+   *
+   * @param view The view
+   */
+
+  @SuppressWarnings("unchecked")
+  void attach(
+    final MTRErrorView view)
+  {
+    this.errorTitle = view.errorTitle();
+    this.icon = view.icon();
+    this.taskTree = view.taskTree();
+    this.taskTreeLoading = view.taskTreeLoading();
+    this.failurePrevious = view.failurePrevious();
+    this.failureNext = view.failureNext();
+    this.failuresOnly = view.failuresOnly();
+    this.search = view.search();
+    this.report = view.report();
+    this.reportProgressContainer = view.reportProgressContainer();
+    this.reportStatus = view.reportStatus();
+    this.reportProgress = view.reportProgress();
+    this.reportCancel = view.reportCancel();
   }
 
   @Override
@@ -79,38 +193,599 @@ public final class MTRErrorController implements Initializable
     final URL url,
     final ResourceBundle resourceBundle)
   {
-    this.iconImage.ifPresent(image -> this.icon.setImage(image));
-    this.taskTree.setRoot(buildTree(this.task));
-    this.taskTree.setCellFactory(param -> new MTRTaskCell());
+    this.resources = resourceBundle;
+    this.iconDefault = this.icon.getImage();
+    this.loadingText = this.taskTreeLoading.getText();
+    this.loadingGraphic = this.taskTreeLoading.getGraphic();
+
+    final var navigationDisabled =
+      this.taskTreeLoading.visibleProperty()
+        .or(this.failuresNone)
+        .or(this.searchActive);
+    this.failurePrevious.disableProperty().bind(navigationDisabled);
+    this.failureNext.disableProperty().bind(navigationDisabled);
+    this.failuresOnly.disableProperty().bind(navigationDisabled);
+    this.search.disableProperty().bind(this.taskTreeLoading.visibleProperty());
+    this.search.textProperty().addListener(
+      (observable, oldQuery, newQuery) -> this.onSearchChanged(newQuery));
+
+    this.reportProgressContainer.managedProperty()
+      .bind(this.reportProgressContainer.visibleProperty());
+    this.reportProgress.managedProperty()
+      .bind(this.reportProgress.visibleProperty());
+    this.reportCancel.managedProperty()
+      .bind(this.reportCancel.visibleProperty());
+
+    this.taskTree.setCellFactory(param -> new MTRTaskCell(this.iconSet));
     this.taskTree.setShowRoot(false);
+
+    this.attachTimer = new AnimationTimer()
+    {
+      @Override
+      public void handle(
+        final long now)
+      {
+        if (!MTRErrorController.this.attacher.run()) {
+          this.stop();
+        }
+      }
+    };
+    this.attacher =
+      new MTRTaskTreeAttacher(ATTACH_BATCH, this.attachTimer::start);
+
+    this.bind();
+  }
+
+  /**
+   * Rebind the controller to a new task, reusing the existing scene graph.
+   * Any work still in progress for the previous task is discarded when it
+   * completes. This must be called on the FX thread.
+   *
+   * @param newModelSource      A function that builds the task tree model;
+   *                            evaluated on the tree build executor
+   * @param newReporting        The way in which the task is reported
+   * @param newReportSubject    A function that yields the task to report;
+   *                            evaluated on the report executor
+   * @param newIconImage        The custom icon
+   * @param newTreeExecutor     The executor used to build the task tree
+   *                            model
+   * @param newFolding          {@code true} if runs of identical steps
+   *                            should be folded
+   */
+
+  public void rebind(
+    final Supplier<MTRTaskTreeModel> newModelSource,
+    final MiscueReporting<TRTask<?>> newReporting,
+    final Supplier<? extends TRTask<?>> newReportSubject,
+    final Optional<Image> newIconImage,
+    final Optional<Executor> newTreeExecutor,
+    final boolean newFolding)
+  {
+    this.modelSource =
+      Objects.requireNonNull(newModelSource, "modelSource");
+    this.reporting =
+      Objects.requireNonNull(newReporting, "reporting");
+    this.reportSubject =
+      Objects.requireNonNull(newReportSubject, "reportSubject");
+    this.iconImage =
+      Objects.requireNonNull(newIconImage, "iconImage");
+    this.background =
+      executorOf(newTreeExecutor);
+    this.folding =
+      newFolding;
+
+    this.bind();
+  }
+
+  /**
+   * @return The number of times the user has reported an error with this
+   * controller, over the lifetime of the controller
+   */
+
+  public long reportCount()
+  {
+    return this.reportCount;
+  }
+
+  /**
+   * @return The number of times the user has dismissed an error with this
+   * controller, over the lifetime of the controller
+   */
+
+  public long dismissCount()
+  {
+    return this.dismissCount;
+  }
+
+  /**
+   * Release everything retained for the current task: the task (via the
+   * model source), the built model (closing its file if it was opened on a
+   * task recording), any running report (which is cancelled), the report
+   * callback, and the custom icon. Any work still in progress is discarded
+   * when it completes. The scene graph is kept, and the controller can be
+   * bound to a new task with
+   * {@link #rebind(Supplier, MiscueReporting, Supplier, Optional, Optional, boolean)}.
+   * This must be called on the FX thread.
+   */
+
+  public void release()
+  {
+    ++this.generation;
+
+    this.searchCancel.set(true);
+    this.closeModel();
+    this.loaded = null;
+    this.clearTree();
+
+    this.icon.setImage(null);
+    this.iconImage = Optional.empty();
+    this.cancelReport();
+    this.reporting = MiscueReporting.none();
+    this.reportSubject = null;
+    this.modelSource = null;
+  }
+
+  /**
+   * Release everything retained for the current task, as with
+   * {@link #release()}, along with the default icon and the bindings
+   * established in {@link #initialize(URL, ResourceBundle)}. The controller
+   * cannot be used after it has been disposed. This must be called on the
+   * FX thread.
+   */
+
+  public void dispose()
+  {
+    this.release();
+    this.iconDefault = null;
+
+    this.failurePrevious.disableProperty().unbind();
+    this.failureNext.disableProperty().unbind();
+    this.failuresOnly.disableProperty().unbind();
+    this.search.disableProperty().unbind();
+    this.reportProgressContainer.managedProperty().unbind();
+    this.reportProgress.managedProperty().unbind();
+    this.reportCancel.managedProperty().unbind();
+  }
+
+  /**
+   * Display the current task. Every piece of state that depends on the
+   * task is explicitly reset here, so that nothing survives from a task
+   * that was previously displayed.
+   */
+
+  private void bind()
+  {
+    ++this.generation;
+
+    this.icon.setImage(this.iconImage.orElse(this.iconDefault));
+
+    this.searchCancel.set(true);
+    this.closeModel();
+    this.clearTree();
+    this.failureCurrent = -1;
+    this.failuresNone.set(false);
+    this.searchActive.set(false);
+    this.search.setText("");
+    this.failuresOnly.setSelected(false);
+
+    this.taskTreeLoading.setText(this.loadingText);
+    this.taskTreeLoading.setGraphic(this.loadingGraphic);
+    this.taskTreeLoading.setVisible(true);
+
+    this.cancelReport();
+    this.reportProgressContainer.setVisible(false);
+    this.report.setDisable(!this.reporting.isEnabled());
+
+    final var current = this.generation;
+    final var source = this.modelSource;
+    final var executor = this.background;
+    this.loaded =
+      CompletableFuture.supplyAsync(() -> load(source, executor), executor);
+    this.loaded.whenCompleteAsync((result, exception) -> {
+      if (this.generation == current) {
+        this.onLoaded(result, exception);
+      }
+    }, Platform::runLater);
+  }
+
+  /**
+   * Discard the displayed tree, and any children that were still waiting
+   * to be attached to it.
+   */
+
+  private void clearTree()
+  {
+    this.attachTimer.stop();
+    this.attacher.clear();
+    this.taskTree.setRoot(null);
+    this.model = null;
+    this.treeFull = null;
+    this.treeFailures = null;
+  }
+
+  /**
+   * Close the model of the previous task once it has loaded. A model that
+   * is still loading is closed as soon as the load completes. A model that
+   * is still being indexed has its index build cancelled, and is closed as
+   * soon as the build stops; the build must stop first, as it may still be
+   * reading from a task recording.
+   */
+
+  private void closeModel()
+  {
+    final var previous = this.loaded;
+    if (previous != null) {
+      previous.thenAccept(result -> {
+        result.indexCancel().set(true);
+        result.search().whenComplete((index, exception) -> {
+          result.model().close();
+        });
+      });
+    }
+  }
+
+  /**
+   * Build the model, and then start building the search index as a
+   * separate task. This runs on the background executor; the model is a
+   * single pass over the task, or only a header read for a task recording.
+   * The tree is displayed as soon as the model is ready, without waiting
+   * for the index. Only the descriptions of nodes are indexed, and so the
+   * messages held in the string table of a task recording are never
+   * decoded.
+   */
+
+  private static Loaded load(
+    final Supplier<MTRTaskTreeModel> source,
+    final Executor executor)
+  {
+    final var model = source.get();
+    final var cancel = new AtomicBoolean(false);
+    final var search =
+      CompletableFuture.supplyAsync(() -> {
+        return MiscueSubstringIndex.create(
+          model.searchableDescriptions(),
+          cancel::get
+        ).map(MiscueSubstringSearch::new);
+      }, executor);
+    return new Loaded(model, cancel, search);
+  }
+
+  private void onLoaded(
+    final Loaded result,
+    final Throwable exception)
+  {
+    if (exception != null) {
+      this.taskTreeLoading.setGraphic(null);
+      this.taskTreeLoading.setText(exception.getMessage());
+      return;
+    }
+
+    this.model = result.model();
+    this.treeFull =
+      MTRTaskTreeItem.root(
+        this.model, this.folding, Optional.empty(), this.attacher);
+    this.failuresNone.set(this.model.failureCount() == 0);
+    this.taskTree.setRoot(this.treeFull);
+    this.taskTreeLoading.setVisible(false);
+
+    /*
+     * Only the root is expanded when the tree is first shown. The path to
+     * the first failure is then expanded as it is revealed, one batch per
+     * pulse.
+     */
+
+    if (this.model.failureCount() > 0) {
+      this.failureCurrent = 0;
+      this.revealFailure(this.model.failure(0));
+    }
+  }
+
+  /**
+   * @return The tree for the current view: the full tree, or the tree of
+   * failure paths, which is created the first time it is needed
+   */
+
+  private MTRTaskTreeItem treeCurrent()
+  {
+    if (!this.failuresOnly.isSelected()) {
+      return this.treeFull;
+    }
+
+    if (this.treeFailures == null) {
+      this.treeFailures =
+        MTRTaskTreeItem.root(
+          this.model,
+          this.folding,
+          Optional.of(this.model.failurePaths()),
+          this.attacher
+        );
+    }
+    return this.treeFailures;
   }
 
-  private static TreeItem<TRTaskItemType> buildTree(
-    final TRTaskItemType item)
+  private void onSearchChanged(
+    final String query)
+  {
+    this.searchCancel.set(true);
+    if (this.model == null) {
+      return;
+    }
+
+    if (query.isBlank()) {
+      this.searchActive.set(false);
+      this.taskTree.setRoot(this.treeCurrent());
+      return;
+    }
+
+    final var cancel = new AtomicBoolean(false);
+    this.searchCancel = cancel;
+    this.searchActive.set(true);
+
+    final var results = new MTRSearchTree(this.model);
+    this.taskTree.setRoot(results.root());
+
+    this.loaded.thenAcceptAsync(result -> {
+      searchNodes(result, query, cancel, matches -> {
+        Platform.runLater(() -> {
+          if (!cancel.get()) {
+            results.addMatches(matches);
+          }
+        });
+      });
+    }, this.background);
+  }
+
+  /**
+   * Search the distinct descriptions, and then scan the nodes in chunks,
+   * delivering the nodes whose descriptions matched as each chunk is
+   * scanned.
+   */
+
+  private static void searchNodes(
+    final Loaded result,
+    final String query,
+    final AtomicBoolean cancel,
+    final Consumer<int[]> receiver)
   {
-    return switch (item) {
-      case final TRStep currentStep -> {
-        yield new TreeItem<>(currentStep);
+    final var descriptions =
+      result.search()
+        .join()
+        .flatMap(index -> index.search(query, cancel::get, ids -> { }));
+    if (descriptions.isEmpty()) {
+      return;
+    }
+
+    final var matching = new BitSet();
+    for (final var id : descriptions.get()) {
+      matching.set(id);
+    }
+    if (matching.isEmpty()) {
+      return;
+    }
+
+    final var model = result.model();
+    final var size = model.size();
+    final var buffer = new int[SEARCH_CHUNK];
+    for (int start = 1; start < size; start += SEARCH_CHUNK) {
+      if (cancel.get()) {
+        return;
       }
-      case final TRTask<?> currentTask -> {
-        final var rItem = new TreeItem<TRTaskItemType>(currentTask);
-        for (final var subItem : currentTask.items()) {
-          rItem.getChildren().add(buildTree(subItem));
+
+      final var end = Math.min(size, start + SEARCH_CHUNK);
+      int count = 0;
+      for (int node = start; node < end; ++node) {
+        if (matching.get(model.descriptionId(node))) {
+          buffer[count] = node;
+          ++count;
         }
-        yield rItem;
       }
-    };
+      if (count > 0) {
+        receiver.accept(Arrays.copyOf(buffer, count));
+      }
+    }
+  }
+
+  @FXML
+  void onFailureNextSelected()
+  {
+    this.showFailure(1);
+  }
+
+  @FXML
+  void onFailurePreviousSelected()
+  {
+    this.showFailure(-1);
+  }
+
+  @FXML
+  void onFailuresOnlySelected()
+  {
+    if (this.model == null) {
+      return;
+    }
+
+    this.taskTree.setRoot(this.treeCurrent());
+    if (this.failureCurrent >= 0) {
+      this.revealFailure(this.model.failure(this.failureCurrent));
+    }
+  }
+
+  private void showFailure(
+    final int direction)
+  {
+    if (this.model == null) {
+      return;
+    }
+
+    final var count = this.model.failureCount();
+    if (count == 0) {
+      return;
+    }
+
+    if (this.failureCurrent < 0) {
+      this.failureCurrent = direction > 0 ? 0 : count - 1;
+    } else {
+      this.failureCurrent =
+        Math.floorMod(this.failureCurrent + direction, count);
+    }
+    this.revealFailure(this.model.failure(this.failureCurrent));
+  }
+
+  /**
+   * Select the item that displays the given node, expanding only the
+   * ancestors of the node, and scroll the tree so that the item is visible.
+   * The item is selected once the attacher has created it, unless the tree
+   * has been replaced in the meantime.
+   */
+
+  private void revealFailure(
+    final int node)
+  {
+    final var root = this.treeCurrent();
+    this.attacher.reveal(root, node, item -> {
+      if (this.taskTree.getRoot() == root) {
+        this.taskTree.getSelectionModel().select(item);
+        this.taskTree.scrollTo(this.taskTree.getRow(item));
+      }
+    });
+  }
+
+  @FXML
+  void onReportSelected()
+  {
+    if (this.reportRunning != null) {
+      return;
+    }
+
+    final var task = this.reporting.startTask();
+    if (task.isPresent()) {
+      this.startReport(task.get());
+      return;
+    }
+
+    this.reporting.callback().ifPresent(callback -> {
+      ++this.reportCount;
+      callback.run();
+    });
+  }
+
+  /**
+   * Run a report task on the reporting executor. The report button is
+   * disabled until the task finishes.
+   */
+
+  private void startReport(
+    final MiscueReportTaskType<? super TRTask<?>> task)
+  {
+    ++this.reportCount;
+
+    this.report.setDisable(true);
+    this.reportStatus.setText(this.resources.getString("error.reportRunning"));
+    this.reportProgress.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+    this.reportProgress.setVisible(true);
+    this.reportCancel.setDisable(false);
+    this.reportCancel.setVisible(true);
+    this.reportProgressContainer.setVisible(true);
+
+    this.reportRunning =
+      MiscueReportExecution.start(
+        task,
+        this.reportSubject,
+        this.reporting.executor(),
+        Platform::runLater,
+        this
+      );
+  }
+
+  private void cancelReport()
+  {
+    if (this.reportRunning != null) {
+      this.reportRunning.cancel();
+      this.reportRunning = null;
+    }
+  }
+
+  @Override
+  public void onReportProgress(
+    final MiscueReportExecution execution,
+    final double fraction,
+    final String message)
+  {
+    if (execution != this.reportRunning) {
+      return;
+    }
+
+    this.reportProgress.setProgress(
+      fraction < 0.0
+        ? ProgressBar.INDETERMINATE_PROGRESS
+        : Math.min(fraction, 1.0)
+    );
+    this.reportStatus.setText(message);
+  }
+
+  @Override
+  public void onReportFinished(
+    final MiscueReportExecution execution,
+    final Optional<Throwable> failure,
+    final boolean cancelled)
+  {
+    if (execution != this.reportRunning) {
+      return;
+    }
+
+    this.reportRunning = null;
+    this.reportProgress.setVisible(false);
+    this.reportCancel.setVisible(false);
+    this.report.setDisable(false);
+
+    if (cancelled) {
+      this.reportStatus.setText(
+        this.resources.getString("error.reportCancelled"));
+    } else if (failure.isPresent()) {
+      this.reportStatus.setText(
+        this.resources.getString("error.reportFailed")
+          .formatted(MiscueReportExecution.describe(failure.get()))
+      );
+    } else {
+      this.reportStatus.setText(
+        this.resources.getString("error.reportFinished"));
+    }
   }
 
   @FXML
-  private void onReportSelected()
+  void onReportCancelSelected()
   {
-    this.onReportCallback.ifPresent(Runnable::run);
+    if (this.reportRunning != null) {
+      this.reportRunning.cancel();
+      this.reportCancel.setDisable(true);
+    }
   }
 
   @FXML
-  private void onDismissSelected()
+  void onDismissSelected()
   {
+    ++this.dismissCount;
     this.stage.close();
   }
+
+  /**
+   * A loaded model, and its search index. The index only covers the
+   * distinct descriptions in the model, and is built in the background as
+   * soon as the model is loaded, so that the first search does not pay for
+   * it. A search started before the index is ready waits for it on the
+   * background executor. The build is cancelled when the model is closed,
+   * in which case the index is empty.
+   *
+   * @param model       The model
+   * @param indexCancel Set to cancel the index build
+   * @param search      The search index, once built
+   */
+
+  private record Loaded(
+    MTRTaskTreeModel model,
+    AtomicBoolean indexCancel,
+    CompletableFuture<Optional<MiscueSubstringSearch>> search)
+  {
+
+  }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import javafx.scene.image.Image;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>A process-wide cache of decoded icons.</p>
+ *
+ * <p>Icons are decoded synchronously on first use and then shared by every
+ * cell that displays them, so the number of decoded images is bounded by
+ * the number of distinct icon URIs rather than by the number of displayed
+ * tree nodes.</p>
+ */
+
+public final class MTRIconCache
+{
+  private static final ConcurrentHashMap<URI, Image> IMAGES =
+    new ConcurrentHashMap<>();
+
+  private MTRIconCache()
+  {
+
+  }
+
+  /**
+   * Retrieve the decoded image at the given URI, loading it if necessary.
+   *
+   * @param uri The image URI
+   *
+   * @return The image
+   */
+
+  public static Image get(
+    final URI uri)
+  {
+    Objects.requireNonNull(uri, "uri");
+    return IMAGES.computeIfAbsent(uri, MTRIconCache::load);
+  }
+
+  private static Image load(
+    final URI uri)
+  {
+    final var image = new Image(uri.toString(), false);
+    final var exception = image.getException();
+    if (exception != null) {
+      throw new IllegalArgumentException(
+        "Failed to load icon %s: %s".formatted(uri, exception.getMessage()),
+        exception
+      );
+    }
+    return image;
+  }
+}
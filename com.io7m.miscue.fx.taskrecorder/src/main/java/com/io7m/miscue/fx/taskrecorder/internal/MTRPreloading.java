@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import com.io7m.miscue.core.internal.MiscuePreloader;
+import com.io7m.miscue.core.internal.MiscueReporting;
+import com.io7m.miscue.core.internal.MiscueSubstringIndex;
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskTreeFlattener;
+import com.io7m.miscue.fx.taskrecorder.MTRIconSet;
+import javafx.application.Platform;
+import javafx.css.CssParser;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.TreeView;
+import javafx.scene.image.Image;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+import static com.io7m.miscue.fx.taskrecorder.internal.MTRErrorStrings.STRINGS;
+
+/**
+ * <p>Functions to warm up task recorder dialogs before they are first
+ * needed.</p>
+ *
+ * <p>The background stage loads and initializes the classes used by
+ * dialogs, loads the resource bundle, parses the stylesheet, decodes the
+ * default icons into the shared {@link MTRIconCache}, and builds a small
+ * task tree model and search index. The foreground stage builds a dialog
+ * and a list of task cells on the FX thread, applies CSS to them and lays
+ * them out (creating skins and cells), and then discards them without
+ * ever showing them.</p>
+ */
+
+public final class MTRPreloading
+{
+  private static final double WIDTH = 800.0;
+  private static final double HEIGHT = 600.0;
+  private static final String CSS =
+    "/com/io7m/miscue/fx/taskrecorder/internal/errorTaskRecorder.css";
+
+  private static final MiscuePreloader PRELOADER =
+    new MiscuePreloader(
+      MTRPreloading::warmUp,
+      MTRPreloading::buildHiddenScene,
+      Platform::runLater
+    );
+
+  private MTRPreloading()
+  {
+
+  }
+
+  /**
+   * @return The process-wide preloader for task recorder dialogs
+   */
+
+  public static MiscuePreloader preloader()
+  {
+    return PRELOADER;
+  }
+
+  private static MTRTaskTreeModel sampleModel()
+  {
+    final var tree = new MXTaskTreeFlattener(false);
+    final var root =
+      tree.add(-1, MTRTaskTreeModel.kind(true, true), "Preload", "");
+    final var task =
+      tree.add(root, MTRTaskTreeModel.kind(true, true), "Preload", "");
+    tree.add(task, MTRTaskTreeModel.kind(false, false), "Preload", "");
+    tree.add(task, MTRTaskTreeModel.kind(false, false), "Preload", "");
+    tree.add(task, MTRTaskTreeModel.kind(false, true), "Preload", "");
+    tree.add(root, MTRTaskTreeModel.kind(false, false), "Preload", "");
+    return MTRTaskTreeModel.create(tree);
+  }
+
+  private static void warmUp()
+  {
+    STRINGS.resources();
+
+    final var model = sampleModel();
+    MiscueSubstringIndex.create(model.descriptions());
+
+    try {
+      new CssParser().parse(MTRPreloading.class.getResource(CSS));
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    final var icons = MTRIconSet.defaults();
+    MTRIconCache.get(icons.taskNeutral());
+    MTRIconCache.get(icons.taskSucceeded());
+    MTRIconCache.get(icons.taskFailed());
+
+    final var icon =
+      MTRPreloading.class.getResource(
+        "/com/io7m/miscue/fx/taskrecorder/internal/error-32.png");
+    final var image = new Image(icon.toString(), false);
+    if (image.getException() != null) {
+      throw new IllegalStateException(image.getException());
+    }
+  }
+
+  private static void buildHiddenScene()
+  {
+    final var css =
+      MTRPreloading.class.getResource(CSS).toString();
+
+    final var controller =
+      new MTRErrorController(
+        MTRPreloading::sampleModel,
+        new MiscueReporting<>(
+          Optional.of(() -> { }),
+          Optional.empty(),
+          Runnable::run
+        ),
+        () -> null,
+        Optional.empty(),
+        MTRIconSet.defaults(),
+        Optional.of(Runnable::run),
+        true,
+        new Stage()
+      );
+
+    final var dialog =
+      MTRErrorView.create(STRINGS.resources(), controller)
+        .root();
+    layOut(dialog, css);
+
+    /*
+     * The dialog's own tree receives its items on a later pulse, so the
+     * task cells are warmed up separately.
+     */
+
+    final var cells =
+      new TreeView<>(
+        MTRTaskTreeItem.root(
+          sampleModel(),
+          true,
+          Optional.empty(),
+          new MTRTaskTreeAttacher(256, () -> { })
+        )
+      );
+    cells.setShowRoot(false);
+    cells.setCellFactory(param -> new MTRTaskCell(MTRIconSet.defaults()));
+    layOut(cells, css);
+  }
+
+  private static void layOut(
+    final Parent root,
+    final String css)
+  {
+    root.getStylesheets().add(css);
+    new Scene(root);
+    root.applyCss();
+    root.resize(WIDTH, HEIGHT);
+    root.layout();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import javafx.scene.control.TreeItem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>A tree of search results that grows as matches are delivered.</p>
+ *
+ * <p>The tree contains the matching nodes and their ancestors, all
+ * expanded. Matches must be delivered in increasing order. Because nodes
+ * are numbered in preorder, any ancestor of a new match that lies before
+ * an earlier match is also an ancestor of the earlier match, and so new
+ * items are only ever appended along the rightmost path of the tree. That
+ * path is kept as a stack, so adding a match costs time proportional to
+ * the number of new items.</p>
+ */
+
+public final class MTRSearchTree
+{
+  private final MTRTaskTreeModel model;
+  private final MTRTaskTreeItem root;
+  private final ArrayList<MTRTaskTreeItem> path;
+
+  /**
+   * A tree of search results that grows as matches are delivered.
+   *
+   * @param inModel The model
+   */
+
+  public MTRSearchTree(
+    final MTRTaskTreeModel inModel)
+  {
+    this.model = Objects.requireNonNull(inModel, "model");
+    this.root = MTRTaskTreeItem.explicit(inModel, 0, false);
+    this.root.setExpanded(true);
+    this.path = new ArrayList<>();
+    this.path.add(this.root);
+  }
+
+  /**
+   * @return The root item
+   */
+
+  public MTRTaskTreeItem root()
+  {
+    return this.root;
+  }
+
+  /**
+   * Add matches to the tree. The matching nodes and their ancestors become
+   * visible. The items added to each existing item are attached with a
+   * single change per item.
+   *
+   * @param nodes The matching nodes, in increasing order
+   */
+
+  public void addMatches(
+    final int[] nodes)
+  {
+    final var added =
+      new LinkedHashMap<MTRTaskTreeItem, List<TreeItem<Integer>>>();
+    final var chain = new ArrayList<Integer>();
+
+    for (final var node : nodes) {
+      var top = this.path.get(this.path.size() - 1);
+      while (!this.isAncestor(top.node(), node)) {
+        this.path.remove(this.path.size() - 1);
+        top = this.path.get(this.path.size() - 1);
+      }
+
+      chain.clear();
+      for (int ancestor = node;
+           ancestor != top.node();
+           ancestor = this.model.parent(ancestor)) {
+        chain.add(Integer.valueOf(ancestor));
+      }
+
+      for (int index = chain.size() - 1; index >= 0; --index) {
+        final var item =
+          MTRTaskTreeItem.explicit(
+            this.model, chain.get(index).intValue(), index == 0);
+        item.setExpanded(true);
+        added.computeIfAbsent(top, k -> new ArrayList<>()).add(item);
+        this.path.add(item);
+        top = item;
+      }
+    }
+
+    for (final var entry : added.entrySet()) {
+      entry.getKey().getChildren().addAll(entry.getValue());
+    }
+  }
+
+  private boolean isAncestor(
+    final int ancestor,
+    final int node)
+  {
+    return ancestor < node && node < this.model.end(ancestor);
+  }
+}
@@ -17,56 +17,61 @@
 
 package com.io7m.miscue.fx.taskrecorder.internal;
 
-import com.io7m.taskrecorder.core.TRTaskItemType;
-import javafx.fxml.FXMLLoader;
+import com.io7m.miscue.fx.taskrecorder.MTRIconSet;
+import javafx.css.PseudoClass;
 import javafx.scene.control.TreeCell;
 import javafx.scene.layout.Pane;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.util.Objects;
-
 import static com.io7m.miscue.fx.taskrecorder.internal.MTRErrorStrings.STRINGS;
 import static javafx.scene.control.ContentDisplay.GRAPHIC_ONLY;
 
-public final class MTRTaskCell extends TreeCell<TRTaskItemType>
+/**
+ * A cell in the task tree. The items of the tree view that contains the
+ * cell must be instances of {@link MTRTaskTreeItem}.
+ */
+
+public final class MTRTaskCell extends TreeCell<Integer>
 {
+  private static final PseudoClass SEARCH_MATCH =
+    PseudoClass.getPseudoClass("search-match");
+
   private final Pane root;
   private final MTRTaskCellController controller;
 
-  public MTRTaskCell()
+  /**
+   * A cell in the task tree.
+   *
+   * @param icons The icon set
+   */
+
+  public MTRTaskCell(
+    final MTRIconSet icons)
   {
-    try {
-      final FXMLLoader loader =
-        new FXMLLoader(
-          MTRTaskCell.class.getResource(
-            "/com/io7m/miscue/fx/taskrecorder/internal/errorTaskRecorderItem.fxml"));
-      loader.setResources(STRINGS.resources());
-      loader.setControllerFactory(param -> new MTRTaskCellController());
-      this.root = loader.load();
-      this.controller = loader.getController();
-      Objects.requireNonNull(this.root, "this.root");
-      Objects.requireNonNull(this.controller, "this.controller");
-    } catch (final IOException e) {
-      throw new UncheckedIOException(e);
-    }
+    this.controller = new MTRTaskCellController(icons);
+    this.root = MTRTaskCellView.create(STRINGS.resources(), this.controller)
+      .root();
   }
 
   @Override
   protected void updateItem(
-    final TRTaskItemType item,
+    final Integer item,
     final boolean empty)
   {
     super.updateItem(item, empty);
 
     this.setContentDisplay(GRAPHIC_ONLY);
-    if (empty || item == null) {
+    this.setText(null);
+
+    if (empty
+        || item == null
+        || !(this.getTreeItem() instanceof final MTRTaskTreeItem treeItem)) {
+      this.pseudoClassStateChanged(SEARCH_MATCH, false);
       this.setGraphic(null);
-      this.setText(null);
-    } else {
-      this.controller.setItem(item);
-      this.setGraphic(this.root);
-      this.setText(null);
+      return;
     }
+
+    this.pseudoClassStateChanged(SEARCH_MATCH, treeItem.isMatch());
+    this.controller.setItem(treeItem);
+    this.setGraphic(this.root);
   }
 }
@@ -17,60 +17,56 @@
 
 package com.io7m.miscue.fx.taskrecorder.internal;
 
-import com.io7m.taskrecorder.core.TRStep;
-import com.io7m.taskrecorder.core.TRStepFailed;
-import com.io7m.taskrecorder.core.TRStepSucceeded;
-import com.io7m.taskrecorder.core.TRTask;
-import com.io7m.taskrecorder.core.TRTaskFailed;
-import com.io7m.taskrecorder.core.TRTaskItemType;
-import com.io7m.taskrecorder.core.TRTaskSucceeded;
+import com.io7m.miscue.fx.taskrecorder.MTRIconSet;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
 import javafx.scene.control.Label;
-import javafx.scene.control.TextArea;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.ResourceBundle;
 
+/**
+ * The controller for a cell in the task tree.
+ */
+
 public final class MTRTaskCellController implements Initializable
 {
-  private static final URI ICON_TASK_NEUTRAL;
-  private static final URI ICON_TASK_SUCCEED;
-  private static final URI ICON_TASK_FAIL;
-
-  static {
-    try {
-      ICON_TASK_NEUTRAL =
-        MTRTaskCellController.class.getResource(
-          "/com/io7m/miscue/fx/taskrecorder/internal/task-24.png")
-          .toURI();
-      ICON_TASK_SUCCEED =
-        MTRTaskCellController.class.getResource(
-            "/com/io7m/miscue/fx/taskrecorder/internal/task-succeed-24.png")
-          .toURI();
-      ICON_TASK_FAIL =
-        MTRTaskCellController.class.getResource(
-            "/com/io7m/miscue/fx/taskrecorder/internal/task-fail-24.png")
-          .toURI();
-    } catch (final URISyntaxException e) {
-      throw new IllegalStateException(e);
-    }
-  }
+  private final MTRIconSet icons;
+
+  private ResourceBundle resources;
 
   @FXML private HBox root;
   @FXML private Label title;
   @FXML private ImageView icon;
 
-  public MTRTaskCellController()
+  /**
+   * The controller for a cell in the task tree.
+   *
+   * @param inIcons The icon set
+   */
+
+  public MTRTaskCellController(
+    final MTRIconSet inIcons)
   {
+    this.icons = Objects.requireNonNull(inIcons, "icons");
+  }
 
+  /**
+   * Attach the nodes of a compiled view. This is the equivalent of the
+   * {@code @FXML} field injection performed by {@code FXMLLoader}.
+   *
+   * @param view The view
+   */
+
+  void attach(
+    final MTRTaskCellView view)
+  {
+    this.root = view.root();
+    this.title = view.title();
+    this.icon = view.icon();
   }
 
   @Override
@@ -78,42 +74,38 @@ public final class MTRTaskCellController implements Initializable
     final URL url,
     final ResourceBundle resourceBundle)
   {
+    this.resources = resourceBundle;
     this.title.setText("");
+    this.icon.setImage(MTRIconCache.get(this.icons.taskNeutral()));
   }
 
+  /**
+   * Display the given tree item.
+   *
+   * @param item The tree item
+   */
+
   public void setItem(
-    final TRTaskItemType taskItem)
+    final MTRTaskTreeItem item)
   {
-    switch (taskItem) {
-      case final TRStep step -> {
-        this.title.setText(step.description());
-
-        switch (step.resolution()) {
-          case final TRStepFailed failed -> {
-            this.icon.setImage(
-              new Image(ICON_TASK_FAIL.toString(), true));
-          }
-
-          case final TRStepSucceeded ignored -> {
-            this.icon.setImage(
-              new Image(ICON_TASK_SUCCEED.toString(), true));
-          }
-        }
-      }
-
-      case final TRTask<?> task -> {
-        this.title.setText(task.description());
-        switch (task.resolution()) {
-          case final TRTaskFailed<?> ignored -> {
-            this.icon.setImage(
-              new Image(ICON_TASK_FAIL.toString(), true));
-          }
-          case final TRTaskSucceeded<?> ignored -> {
-            this.icon.setImage(
-              new Image(ICON_TASK_SUCCEED.toString(), true));
-          }
-        }
-      }
+    Objects.requireNonNull(item, "item");
+
+    final var model = item.model();
+    final var node = item.node();
+    final var description = model.description(node);
+    if (item.isFold()) {
+      this.title.setText(
+        this.resources.getString("error.repeated")
+          .formatted(description, Integer.valueOf(item.count()))
+      );
+    } else {
+      this.title.setText(description);
+    }
+
+    if (model.isFailed(node)) {
+      this.icon.setImage(MTRIconCache.get(this.icons.taskFailed()));
+    } else {
+      this.icon.setImage(MTRIconCache.get(this.icons.taskSucceeded()));
     }
   }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepFailed;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskFailed;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+
+import java.util.List;
+
+/**
+ * Functions over task items.
+ */
+
+public final class MTRTaskItems
+{
+  private MTRTaskItems()
+  {
+
+  }
+
+  /**
+   * @param item The item
+   *
+   * @return {@code true} if the item represents a failure
+   */
+
+  public static boolean isFailed(
+    final TRTaskItemType item)
+  {
+    return switch (item) {
+      case final TRStep step -> {
+        yield switch (step.resolution()) {
+          case final TRStepFailed ignored -> true;
+          case final TRStepSucceeded ignored -> false;
+        };
+      }
+      case final TRTask<?> task -> {
+        yield switch (task.resolution()) {
+          case final TRTaskFailed<?> ignored -> true;
+          case final TRTaskSucceeded<?> ignored -> false;
+        };
+      }
+    };
+  }
+
+  /**
+   * @param item The item
+   *
+   * @return The description of the item
+   */
+
+  public static String description(
+    final TRTaskItemType item)
+  {
+    return switch (item) {
+      case final TRStep step -> step.description();
+      case final TRTask<?> task -> task.description();
+    };
+  }
+
+  /**
+   * @param item The item
+   *
+   * @return The immediate children of the item
+   */
+
+  public static List<? extends TRTaskItemType> children(
+    final TRTaskItemType item)
+  {
+    return switch (item) {
+      case final TRStep step -> List.of();
+      case final TRTask<?> task -> task.items();
+    };
+  }
+}
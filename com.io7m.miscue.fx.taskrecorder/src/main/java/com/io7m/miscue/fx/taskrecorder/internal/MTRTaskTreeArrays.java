@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Task tree storage held in primitive arrays indexed by node number.
+ */
+
+final class MTRTaskTreeArrays implements MTRTaskTreeStorageType
+{
+  private final int size;
+  private final int[] parents;
+  private final int[] depths;
+  private final int[] ends;
+  private final byte[] kinds;
+  private final int[] descriptions;
+  private final List<String> descriptionTable;
+  private final int[] failures;
+  private final BitSet failurePaths;
+
+  MTRTaskTreeArrays(
+    final int inSize,
+    final int[] inParents,
+    final int[] inDepths,
+    final int[] inEnds,
+    final byte[] inKinds,
+    final int[] inDescriptions,
+    final String[] inDescriptionTable)
+  {
+    this.size = inSize;
+    this.parents =
+      Objects.requireNonNull(inParents, "parents");
+    this.depths =
+      Objects.requireNonNull(inDepths, "depths");
+    this.ends =
+      Objects.requireNonNull(inEnds, "ends");
+    this.kinds =
+      Objects.requireNonNull(inKinds, "kinds");
+    this.descriptions =
+      Objects.requireNonNull(inDescriptions, "descriptions");
+    this.descriptionTable =
+      List.of(inDescriptionTable);
+
+    int failureCount = 0;
+    for (int node = 1; node < this.size; ++node) {
+      if (this.isFailed(node)) {
+        ++failureCount;
+      }
+    }
+
+    this.failures = new int[failureCount];
+    this.failurePaths = new BitSet(this.size);
+
+    int failureIndex = 0;
+    for (int node = 1; node < this.size; ++node) {
+      if (this.isFailed(node)) {
+        this.failures[failureIndex] = node;
+        ++failureIndex;
+        for (int path = node;
+             path >= 0 && !this.failurePaths.get(path);
+             path = this.parents[path]) {
+          this.failurePaths.set(path);
+        }
+      }
+    }
+  }
+
+  private boolean isFailed(
+    final int node)
+  {
+    return (this.kinds[node] & MTRTaskTreeModel.KIND_FAILED) != 0;
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+
+  @Override
+  public int parent(
+    final int node)
+  {
+    return this.parents[node];
+  }
+
+  @Override
+  public int depth(
+    final int node)
+  {
+    return this.depths[node];
+  }
+
+  @Override
+  public int end(
+    final int node)
+  {
+    return this.ends[node];
+  }
+
+  @Override
+  public int kind(
+    final int node)
+  {
+    return this.kinds[node];
+  }
+
+  @Override
+  public int descriptionId(
+    final int node)
+  {
+    return this.descriptions[node];
+  }
+
+  @Override
+  public List<String> descriptions()
+  {
+    return this.descriptionTable;
+  }
+
+  @Override
+  public List<String> searchableDescriptions()
+  {
+    return this.descriptionTable;
+  }
+
+  @Override
+  public int failureCount()
+  {
+    return this.failures.length;
+  }
+
+  @Override
+  public int failure(
+    final int index)
+  {
+    return this.failures[index];
+  }
+
+  @Override
+  public boolean isOnFailurePath(
+    final int node)
+  {
+    return this.failurePaths.get(node);
+  }
+
+  @Override
+  public BitSet failurePaths()
+  {
+    return (BitSet) this.failurePaths.clone();
+  }
+
+  @Override
+  public void close()
+  {
+
+  }
+}
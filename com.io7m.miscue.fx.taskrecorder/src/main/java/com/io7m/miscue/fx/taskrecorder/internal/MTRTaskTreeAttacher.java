@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * <p>Creates the children of task tree items in batches.</p>
+ *
+ * <p>When a {@link MTRTaskTreeItem} is first asked for its children, it
+ * creates at most one batch of child items immediately. If more children
+ * remain, it schedules itself with the attacher, and each run of the
+ * attacher creates at most one further batch, shared between all pending
+ * items. The dialog runs the attacher once per pulse, so expanding a task
+ * with a very large number of children never stalls a frame. An attacher
+ * must only be used on the FX thread.</p>
+ *
+ * <p>The attacher also reveals nodes: at most one reveal is in progress at
+ * a time, and each run walks the path to the node as far as the items
+ * created so far allow, so that revealing a node deep inside a large task
+ * also costs at most one batch per pulse.</p>
+ */
+
+public final class MTRTaskTreeAttacher
+{
+  private final ArrayDeque<MTRTaskTreeItem> pending;
+  private final int batch;
+  private final Runnable onPending;
+  private MTRTaskTreeItem revealRoot;
+  private int revealTarget;
+  private Consumer<MTRTaskTreeItem> revealReceiver;
+
+  /**
+   * Creates the children of task tree items in batches.
+   *
+   * @param inBatch     The maximum number of items created per run
+   * @param inOnPending A function called when work becomes pending, which
+   *                    must arrange for {@link #run()} to be called
+   *                    until it returns {@code false}
+   */
+
+  public MTRTaskTreeAttacher(
+    final int inBatch,
+    final Runnable inOnPending)
+  {
+    if (inBatch < 1) {
+      throw new IllegalArgumentException("Batch size must be positive.");
+    }
+
+    this.batch = inBatch;
+    this.onPending = Objects.requireNonNull(inOnPending, "onPending");
+    this.pending = new ArrayDeque<>();
+  }
+
+  /**
+   * @return The maximum number of items created per run
+   */
+
+  public int batch()
+  {
+    return this.batch;
+  }
+
+  /**
+   * @return {@code true} if any items still have children to create, or a
+   * reveal is in progress
+   */
+
+  public boolean isPending()
+  {
+    return !this.pending.isEmpty() || this.revealRoot != null;
+  }
+
+  void schedule(
+    final MTRTaskTreeItem item)
+  {
+    final var wasIdle = !this.isPending();
+    this.pending.add(item);
+    if (wasIdle) {
+      this.onPending.run();
+    }
+  }
+
+  /**
+   * Reveal the item that displays the given node in the tree with the given
+   * root, replacing any reveal in progress. The items on the path to the
+   * node are expanded, and the receiver is called with the item once it
+   * has been created, which may be immediately.
+   *
+   * @param root     The root item
+   * @param target   The node
+   * @param receiver The receiver of the revealed item
+   *
+   * @return {@code false} if the tree does not display the node
+   */
+
+  public boolean reveal(
+    final MTRTaskTreeItem root,
+    final int target,
+    final Consumer<MTRTaskTreeItem> receiver)
+  {
+    Objects.requireNonNull(root, "root");
+    Objects.requireNonNull(receiver, "receiver");
+
+    this.revealRoot = null;
+    if (!root.canReveal(target)) {
+      return false;
+    }
+
+    final var wasIdle = !this.isPending();
+    this.revealRoot = root;
+    this.revealTarget = target;
+    this.revealReceiver = receiver;
+    this.revealStep();
+    if (wasIdle && this.isPending()) {
+      this.onPending.run();
+    }
+    return true;
+  }
+
+  private void revealStep()
+  {
+    final var item = this.revealRoot.revealCreated(this.revealTarget);
+    if (item.isPresent()) {
+      final var receiver = this.revealReceiver;
+      this.revealRoot = null;
+      this.revealReceiver = null;
+      receiver.accept(item.get());
+    }
+  }
+
+  /**
+   * Create at most one batch of child items for the pending items, and
+   * then continue any reveal in progress.
+   *
+   * @return {@code true} if any work is still pending
+   */
+
+  public boolean run()
+  {
+    int budget = this.batch;
+    while (budget > 0 && !this.pending.isEmpty()) {
+      final var item = this.pending.peek();
+      budget -= item.attach(budget);
+      if (item.isComplete()) {
+        this.pending.remove();
+      }
+    }
+    if (this.revealRoot != null) {
+      this.revealStep();
+    }
+    return this.isPending();
+  }
+
+  /**
+   * Discard all pending work, including any reveal in progress. Items that
+   * were pending keep the children created so far, and never receive the
+   * rest, so this is only suitable when the trees are being discarded.
+   */
+
+  public void clear()
+  {
+    this.pending.clear();
+    this.revealRoot = null;
+    this.revealReceiver = null;
+  }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>A tree item that displays a node of a {@link MTRTaskTreeModel}, and
+ * that creates the items for its children only when the children are
+ * first requested.</p>
+ *
+ * <p>The value of an item is the number of the node that it displays. A
+ * {@code TreeView} only requests the children of expanded items, so the
+ * number of items in existence is proportional to the number of expanded
+ * branches rather than the size of the task. Children are created in
+ * batches by a {@link MTRTaskTreeAttacher}, so that expanding a task with
+ * a very large number of children costs at most one batch per frame.</p>
+ *
+ * <p>Items other than the root are created collapsed, including the items
+ * of failed tasks, so that the first frame only ever shows the first batch
+ * of the root's children. The path to a failure is expanded by revealing
+ * the failure through the {@link MTRTaskTreeAttacher}, which creates the
+ * items on the path one batch per pulse.</p>
+ *
+ * <p>A tree may be given a filter, in which case only the nodes in the
+ * filter are shown. A filter must contain the ancestors of every node
+ * that it contains.</p>
+ *
+ * <p>If folding is enabled, each run of consecutive visible siblings that
+ * are repeats of each other (see
+ * {@link MTRTaskTreeModel#isRepeat(int, int)}) is displayed as a single
+ * collapsed <i>fold</i> item whose value is the first node of the run, and
+ * whose children are the nodes of the run.</p>
+ *
+ * <p>An item may instead be <i>explicit</i>, in which case its children
+ * are added by its owner, as in a {@link MTRSearchTree}.</p>
+ */
+
+public final class MTRTaskTreeItem extends TreeItem<Integer>
+{
+  private final Tree tree;
+  private final int node;
+  private final int count;
+  private final boolean leaf;
+  private final boolean explicit;
+  private boolean requested;
+  private boolean match;
+  private int next;
+
+  private MTRTaskTreeItem(
+    final Tree inTree,
+    final int inNode,
+    final int inCount,
+    final boolean inExplicit)
+  {
+    super(Integer.valueOf(inNode));
+
+    this.tree = Objects.requireNonNull(inTree, "tree");
+    this.node = inNode;
+    this.count = inCount;
+    this.explicit = inExplicit;
+    this.requested = inExplicit;
+
+    if (inExplicit) {
+      this.leaf = false;
+    } else if (inCount > 1) {
+      this.leaf = false;
+    } else {
+      final var end = inTree.model().end(inNode);
+      this.leaf = inTree.nextVisible(inNode + 1, end) == end;
+    }
+  }
+
+  /**
+   * Create the root item of a tree over the given model. The root item
+   * is expanded.
+   *
+   * @param model    The model
+   * @param folding  {@code true} if runs of identical steps are folded
+   * @param filter   The filter, if any
+   * @param attacher The attacher used to create children in batches
+   *
+   * @return The root item
+   */
+
+  public static MTRTaskTreeItem root(
+    final MTRTaskTreeModel model,
+    final boolean folding,
+    final Optional<BitSet> filter,
+    final MTRTaskTreeAttacher attacher)
+  {
+    final var tree =
+      new Tree(
+        Objects.requireNonNull(model, "model"),
+        folding,
+        Objects.requireNonNull(filter, "filter"),
+        Objects.requireNonNull(attacher, "attacher")
+      );
+    final var root = new MTRTaskTreeItem(tree, 0, 1, false);
+    root.setExpanded(true);
+    return root;
+  }
+
+  /**
+   * Create an explicit item, the children of which must be added by the
+   * caller.
+   *
+   * @param model The model
+   * @param node  The node
+   * @param match {@code true} if the node is a search match
+   *
+   * @return The item
+   */
+
+  static MTRTaskTreeItem explicit(
+    final MTRTaskTreeModel model,
+    final int node,
+    final boolean match)
+  {
+    final var tree =
+      new Tree(
+        Objects.requireNonNull(model, "model"),
+        false,
+        Optional.empty(),
+        null
+      );
+    final var item = new MTRTaskTreeItem(tree, node, 1, true);
+    item.match = match;
+    return item;
+  }
+
+  /**
+   * @return The model
+   */
+
+  public MTRTaskTreeModel model()
+  {
+    return this.tree.model();
+  }
+
+  /**
+   * @return The node displayed by this item; the first node for a fold
+   */
+
+  public int node()
+  {
+    return this.node;
+  }
+
+  /**
+   * @return The number of nodes represented by this item
+   */
+
+  public int count()
+  {
+    return this.count;
+  }
+
+  /**
+   * @return {@code true} if this item represents a run of identical steps
+   */
+
+  public boolean isFold()
+  {
+    return this.count > 1;
+  }
+
+  /**
+   * @return {@code true} if this item is a search match
+   */
+
+  public boolean isMatch()
+  {
+    return this.match;
+  }
+
+  /**
+   * @return {@code true} if every child of this item has been created
+   */
+
+  public boolean isComplete()
+  {
+    return this.explicit || this.requested && this.next >= this.childEnd();
+  }
+
+  @Override
+  public boolean isLeaf()
+  {
+    if (this.explicit) {
+      return super.getChildren().isEmpty();
+    }
+    return this.leaf;
+  }
+
+  @Override
+  public ObservableList<TreeItem<Integer>> getChildren()
+  {
+    if (!this.requested) {
+      this.requested = true;
+      this.next = this.isFold() ? this.node : this.node + 1;
+
+      final var attacher = this.tree.attacher();
+      this.attach(attacher.batch());
+      if (!this.isComplete()) {
+        attacher.schedule(this);
+      }
+    }
+    return super.getChildren();
+  }
+
+  /**
+   * @param target The node
+   *
+   * @return {@code true} if this item contains the given node, and the node
+   * is accepted by the filter
+   */
+
+  boolean canReveal(
+    final int target)
+  {
+    return this.contains(target) && this.tree.isVisible(target);
+  }
+
+  /**
+   * Walk towards the item that displays the given node, expanding the items
+   * on the path to it and any fold that contains it. No children are
+   * created beyond the first batch of each item on the path; if the walk
+   * reaches an item whose children containing the node have not been
+   * created yet, it stops, and the item's remaining children are left to
+   * the attacher.
+   *
+   * @param target The node, which must be revealable
+   *
+   * @return The item, or nothing if it has not been created yet
+   *
+   * @see #canReveal(int)
+   */
+
+  Optional<MTRTaskTreeItem> revealCreated(
+    final int target)
+  {
+    var current = this;
+    while (current.node != target || current.isFold()) {
+      current.setExpanded(true);
+      final var child = current.childContaining(target);
+      if (child == null) {
+        return Optional.empty();
+      }
+      current = child;
+    }
+    return Optional.of(current);
+  }
+
+  /**
+   * Create at most {@code limit} child items.
+   *
+   * @param limit The maximum number of items to create
+   *
+   * @return The number of items created
+   */
+
+  int attach(
+    final int limit)
+  {
+    final var model = this.tree.model();
+    final var end = this.childEnd();
+    final var created = new ArrayList<MTRTaskTreeItem>(Math.min(limit, 64));
+
+    while (created.size() < limit && this.next < end) {
+      if (this.isFold()) {
+        created.add(new MTRTaskTreeItem(this.tree, this.next, 1, false));
+        ++this.next;
+        continue;
+      }
+
+      final var child = this.tree.nextVisible(this.next, end);
+      if (child == end) {
+        this.next = end;
+        break;
+      }
+
+      final var run = this.tree.runLength(child, end);
+      created.add(new MTRTaskTreeItem(this.tree, child, run, false));
+      this.next = run > 1 ? child + run : model.end(child);
+    }
+
+    super.getChildren().addAll(created);
+    return created.size();
+  }
+
+  private boolean contains(
+    final int target)
+  {
+    if (this.isFold()) {
+      return this.node <= target && target < this.node + this.count;
+    }
+    return this.node <= target && target < this.tree.model().end(this.node);
+  }
+
+  private int childEnd()
+  {
+    if (this.isFold()) {
+      return this.node + this.count;
+    }
+    return this.tree.model().end(this.node);
+  }
+
+  /**
+   * @return The created child item that contains the given node, if any
+   */
+
+  private MTRTaskTreeItem childContaining(
+    final int target)
+  {
+    final var children = this.getChildren();
+    int low = 0;
+    int high = children.size() - 1;
+    while (low <= high) {
+      final var middle = (low + high) >>> 1;
+      final var child = (MTRTaskTreeItem) children.get(middle);
+      if (child.node > target) {
+        high = middle - 1;
+      } else if (child.contains(target)) {
+        return child;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The state shared by the items of a single tree.
+   *
+   * @param model    The model
+   * @param folding  {@code true} if runs of identical steps are folded
+   * @param filter   The filter, if any
+   * @param attacher The attacher, or {@code null} for explicit items
+   */
+
+  private record Tree(
+    MTRTaskTreeModel model,
+    boolean folding,
+    Optional<BitSet> filter,
+    MTRTaskTreeAttacher attacher)
+  {
+    boolean isVisible(
+      final int node)
+    {
+      return this.filter.isEmpty() || this.filter.get().get(node);
+    }
+
+    /**
+     * Nodes in a filter have their ancestors in the filter, so the first
+     * filtered node at or after {@code from} is never inside a subtree
+     * that was skipped.
+     *
+     * @return The first visible node in {@code [from, end)}, or {@code end}
+     */
+
+    int nextVisible(
+      final int from,
+      final int end)
+    {
+      if (this.filter.isEmpty()) {
+        return from;
+      }
+      final var found = this.filter.get().nextSetBit(from);
+      if (found < 0 || found >= end) {
+        return end;
+      }
+      return found;
+    }
+
+    /**
+     * @return The number of consecutive visible siblings, starting at
+     * {@code node}, that are repeats of {@code node}
+     */
+
+    int runLength(
+      final int node,
+      final int end)
+    {
+      if (!this.folding || this.model.isTask(node)) {
+        return 1;
+      }
+
+      int next = node + 1;
+      while (next < end
+             && this.model.isRepeat(node, next)
+             && this.isVisible(next)) {
+        ++next;
+      }
+      return next - node;
+    }
+  }
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFile;
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat;
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskTreeFlattener;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>A compact, read-only model of a task tree.</p>
+ *
+ * <p>Nodes are numbered in preorder, so the root is node {@code 0}, every
+ * node has a larger number than its ancestors, and the descendants of a
+ * node {@code n} are exactly the nodes in the range
+ * {@code [n + 1, end(n))}. Each property of a node is stored in a separate
+ * primitive array indexed by node number, and descriptions are interned
+ * into a table so that repeated descriptions are stored once. The model
+ * holds no references to the original task items, and so a model
+ * typically costs around twenty bytes per node regardless of the shape of
+ * the tree. A model may instead be opened on a task recording file, in
+ * which case the same properties are read on demand from the file
+ * and the model itself holds almost nothing on the heap.</p>
+ */
+
+public final class MTRTaskTreeModel
+{
+  static final byte KIND_FAILED = MXTaskRecordingFormat.KIND_FAILED;
+  static final byte KIND_TASK = MXTaskRecordingFormat.KIND_TASK;
+
+  private final MTRTaskTreeStorageType storage;
+
+  private MTRTaskTreeModel(
+    final MTRTaskTreeStorageType inStorage)
+  {
+    this.storage = Objects.requireNonNull(inStorage, "storage");
+  }
+
+  /**
+   * Open a model of the task recording in the given file. Only the file
+   * header is read; nodes are read from the file as they are
+   * requested.
+   *
+   * @param file The task recording file
+   *
+   * @return The model
+   *
+   * @throws IOException On I/O errors, or if the file is not a valid task
+   *                     recording
+   *
+   * @see com.io7m.miscue.export.taskrecorder.MXTaskRecordings
+   */
+
+  public static MTRTaskTreeModel open(
+    final Path file)
+    throws IOException
+  {
+    return new MTRTaskTreeModel(
+      new MTRTaskTreeRecording(MXTaskRecordingFile.open(file))
+    );
+  }
+
+  /**
+   * Build a model of the given task item in a single non-recursive pass.
+   *
+   * @param root The root item
+   *
+   * @return The model
+   */
+
+  public static MTRTaskTreeModel create(
+    final TRTaskItemType root)
+  {
+    Objects.requireNonNull(root, "root");
+
+    final var tree = new MXTaskTreeFlattener(false);
+    tree.addTree(-1, root);
+    return create(tree);
+  }
+
+  /**
+   * Build a model of the nodes added to the given flattener. Open nodes
+   * are closed.
+   *
+   * @param tree The flattened tree
+   *
+   * @return The model
+   */
+
+  static MTRTaskTreeModel create(
+    final MXTaskTreeFlattener tree)
+  {
+    tree.finish();
+    return new MTRTaskTreeModel(new MTRTaskTreeArrays(
+      tree.size(),
+      tree.parents(),
+      tree.depths(),
+      tree.ends(),
+      tree.kinds(),
+      tree.descriptions(),
+      tree.strings().toArray(new String[0])
+    ));
+  }
+
+  static byte kind(
+    final boolean task,
+    final boolean failed)
+  {
+    byte kind = 0;
+    if (task) {
+      kind |= KIND_TASK;
+    }
+    if (failed) {
+      kind |= KIND_FAILED;
+    }
+    return kind;
+  }
+
+  /**
+   * @return The number of nodes, including the root
+   */
+
+  public int size()
+  {
+    return this.storage.size();
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The parent of the node, or {@code -1} for the root
+   */
+
+  public int parent(
+    final int node)
+  {
+    return this.storage.parent(node);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The depth of the node, where the root has depth {@code 0}
+   */
+
+  public int depth(
+    final int node)
+  {
+    return this.storage.depth(node);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The node that follows the last descendant of the node
+   */
+
+  public int end(
+    final int node)
+  {
+    return this.storage.end(node);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return {@code true} if the node has children
+   */
+
+  public boolean hasChildren(
+    final int node)
+  {
+    return this.storage.end(node) > node + 1;
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return {@code true} if the node is a task, {@code false} if it is a step
+   */
+
+  public boolean isTask(
+    final int node)
+  {
+    return (this.storage.kind(node) & KIND_TASK) != 0;
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return {@code true} if the node represents a failure
+   */
+
+  public boolean isFailed(
+    final int node)
+  {
+    return (this.storage.kind(node) & KIND_FAILED) != 0;
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The index of the description of the node in the description
+   * table
+   */
+
+  public int descriptionId(
+    final int node)
+  {
+    return this.storage.descriptionId(node);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return The description of the node
+   */
+
+  public String description(
+    final int node)
+  {
+    return this.storage.descriptions()
+      .get(this.storage.descriptionId(node));
+  }
+
+  /**
+   * @return The table of distinct descriptions
+   */
+
+  public List<String> descriptions()
+  {
+    return this.storage.descriptions();
+  }
+
+  /**
+   * The table of descriptions in the form that should be indexed for
+   * searching. Every entry that is not the description of some node (such
+   * as the message of a resolution in a task recording) is replaced by the
+   * empty string, and so is neither decoded nor indexed.
+   *
+   * @return The table of distinct descriptions, for searching
+   */
+
+  public List<String> searchableDescriptions()
+  {
+    return this.storage.searchableDescriptions();
+  }
+
+  /**
+   * Determine if the second node is a repeat of the first. A node is a
+   * repeat of another if both nodes are steps with the same description
+   * and the same outcome.
+   *
+   * @param x The first node
+   * @param y The second node
+   *
+   * @return {@code true} if {@code y} is a repeat of {@code x}
+   */
+
+  public boolean isRepeat(
+    final int x,
+    final int y)
+  {
+    if (this.isTask(x)) {
+      return false;
+    }
+
+    final var mask = KIND_FAILED | KIND_TASK;
+    return (this.storage.kind(x) & mask) == (this.storage.kind(y) & mask)
+           && this.storage.descriptionId(x) == this.storage.descriptionId(y);
+  }
+
+  /**
+   * @return The failed nodes, excluding the root, in preorder
+   */
+
+  public int[] failures()
+  {
+    final var failures = new int[this.storage.failureCount()];
+    for (int index = 0; index < failures.length; ++index) {
+      failures[index] = this.storage.failure(index);
+    }
+    return failures;
+  }
+
+  /**
+   * @return The number of failed nodes, excluding the root
+   */
+
+  public int failureCount()
+  {
+    return this.storage.failureCount();
+  }
+
+  /**
+   * @param index The failure index
+   *
+   * @return The failed node at the given index
+   */
+
+  public int failure(
+    final int index)
+  {
+    return this.storage.failure(index);
+  }
+
+  /**
+   * @param node The node
+   *
+   * @return {@code true} if the node is a failure or has a failed descendant
+   */
+
+  public boolean isOnFailurePath(
+    final int node)
+  {
+    return this.storage.isOnFailurePath(node);
+  }
+
+  /**
+   * @return The set of nodes that are failures or have failed descendants
+   */
+
+  public BitSet failurePaths()
+  {
+    return this.storage.failurePaths();
+  }
+
+  /**
+   * Close the file underlying the model, if the model was opened
+   * on a task recording. The model cannot be used after it has been closed.
+   * Closing a model built in memory has no effect.
+   */
+
+  public void close()
+  {
+    this.storage.close();
+  }
+}
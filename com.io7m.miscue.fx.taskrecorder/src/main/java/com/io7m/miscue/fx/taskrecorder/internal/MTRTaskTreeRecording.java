@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFile;
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>Task tree storage read directly from a task recording file.</p>
+ *
+ * <p>Nothing is decoded in advance: each property of a node is read from
+ * the recording when it is requested, and so only the nodes that are
+ * actually displayed (or searched) are ever decoded.</p>
+ */
+
+final class MTRTaskTreeRecording implements MTRTaskTreeStorageType
+{
+  private final MXTaskRecordingFile recording;
+  private final List<String> descriptions;
+
+  MTRTaskTreeRecording(
+    final MXTaskRecordingFile inRecording)
+  {
+    this.recording =
+      Objects.requireNonNull(inRecording, "recording");
+    this.descriptions =
+      new Strings(this.recording);
+  }
+
+  @Override
+  public int size()
+  {
+    return this.recording.nodeCount();
+  }
+
+  @Override
+  public int parent(
+    final int node)
+  {
+    return this.recording.parent(node);
+  }
+
+  @Override
+  public int depth(
+    final int node)
+  {
+    return this.recording.depth(node);
+  }
+
+  @Override
+  public int end(
+    final int node)
+  {
+    return this.recording.end(node);
+  }
+
+  @Override
+  public int kind(
+    final int node)
+  {
+    return this.recording.kind(node);
+  }
+
+  @Override
+  public int descriptionId(
+    final int node)
+  {
+    return this.recording.description(node);
+  }
+
+  @Override
+  public List<String> descriptions()
+  {
+    return this.descriptions;
+  }
+
+  /**
+   * The string table of a recording also holds the messages of every
+   * recorded resolution, and these may be far larger than the
+   * descriptions. The returned list never decodes them.
+   */
+
+  @Override
+  public List<String> searchableDescriptions()
+  {
+    final var used = new BitSet(this.recording.stringCount());
+    final var count = this.recording.nodeCount();
+    for (int node = 0; node < count; ++node) {
+      used.set(this.recording.description(node));
+    }
+    return new SearchableStrings(this.recording, used);
+  }
+
+  @Override
+  public int failureCount()
+  {
+    return this.recording.failureCount();
+  }
+
+  @Override
+  public int failure(
+    final int index)
+  {
+    return this.recording.failure(index);
+  }
+
+  @Override
+  public boolean isOnFailurePath(
+    final int node)
+  {
+    return (this.recording.kind(node)
+            & MXTaskRecordingFormat.KIND_FAILURE_PATH) != 0;
+  }
+
+  @Override
+  public BitSet failurePaths()
+  {
+    final var paths = new BitSet();
+    final var count = this.recording.failureCount();
+    for (int index = 0; index < count; ++index) {
+      for (int path = this.recording.failure(index);
+           path >= 0 && !paths.get(path);
+           path = this.recording.parent(path)) {
+        paths.set(path);
+      }
+    }
+    return paths;
+  }
+
+  @Override
+  public void close()
+  {
+    this.recording.close();
+  }
+
+  /**
+   * The string table of a recording, decoded on demand.
+   */
+
+  private static final class Strings extends AbstractList<String>
+  {
+    private final MXTaskRecordingFile recording;
+
+    Strings(
+      final MXTaskRecordingFile inRecording)
+    {
+      this.recording = inRecording;
+    }
+
+    @Override
+    public String get(
+      final int index)
+    {
+      return this.recording.string(index);
+    }
+
+    @Override
+    public int size()
+    {
+      return this.recording.stringCount();
+    }
+  }
+
+  /**
+   * The string table of a recording, decoded on demand, with every string
+   * that is not in the given set read as the empty string.
+   */
+
+  private static final class SearchableStrings extends AbstractList<String>
+  {
+    private final MXTaskRecordingFile recording;
+    private final BitSet used;
+
+    SearchableStrings(
+      final MXTaskRecordingFile inRecording,
+      final BitSet inUsed)
+    {
+      this.recording = inRecording;
+      this.used = inUsed;
+    }
+
+    @Override
+    public String get(
+      final int index)
+    {
+      if (this.used.get(index)) {
+        return this.recording.string(index);
+      }
+      return "";
+    }
+
+    @Override
+    public int size()
+    {
+      return this.recording.stringCount();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.fx.taskrecorder.internal;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The storage underlying a task tree model.
+ *
+ * @see MTRTaskTreeModel
+ */
+
+interface MTRTaskTreeStorageType
+{
+  /**
+   * @return The number of nodes, including the root
+   */
+
+  int size();
+
+  /**
+   * @param node The node
+   *
+   * @return The parent of the node, or {@code -1} for the root
+   */
+
+  int parent(int node);
+
+  /**
+   * @param node The node
+   *
+   * @return The depth of the node
+   */
+
+  int depth(int node);
+
+  /**
+   * @param node The node
+   *
+   * @return The node that follows the last descendant of the node
+   */
+
+  int end(int node);
+
+  /**
+   * @param node The node
+   *
+   * @return The kind bits of the node
+   */
+
+  int kind(int node);
+
+  /**
+   * @param node The node
+   *
+   * @return The index of the description of the node
+   */
+
+  int descriptionId(int node);
+
+  /**
+   * @return The table of descriptions
+   */
+
+  List<String> descriptions();
+
+  /**
+   * @return The table of descriptions, with every entry that is not the
+   * description of some node replaced by the empty string
+   */
+
+  List<String> searchableDescriptions();
+
+  /**
+   * @return The number of failed nodes, excluding the root
+   */
+
+  int failureCount();
+
+  /**
+   * @param index The failure index
+   *
+   * @return The failed node at the given index
+   */
+
+  int failure(int index);
+
+  /**
+   * @param node The node
+   *
+   * @return {@code true} if the node is a failure or has a failed descendant
+   */
+
+  boolean isOnFailurePath(int node);
+
+  /**
+   * @return The set of nodes that are failures or have failed descendants
+   */
+
+  BitSet failurePaths();
+
+  /**
+   * Release any resources held by the storage, such as an open file.
+   */
+
+  void close();
+}
@@ -24,6 +24,8 @@ module com.io7m.miscue.fx.taskrecorder
   requires static org.osgi.annotation.versioning;
 
   requires com.io7m.miscue.core;
+  requires com.io7m.miscue.export;
+  requires com.io7m.miscue.export.taskrecorder;
   requires com.io7m.taskrecorder.core;
   requires javafx.controls;
   requires javafx.fxml;
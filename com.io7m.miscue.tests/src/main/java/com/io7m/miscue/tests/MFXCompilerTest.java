@@ -0,0 +1,461 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.compiler.MFXCompilation;
+import com.io7m.miscue.fx.compiler.MFXCompiler;
+import com.io7m.miscue.fx.compiler.MFXCompilerException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MFXCompilerTest
+{
+  private static final String HEADER = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <?import javafx.scene.control.*?>
+    <?import javafx.scene.image.Image?>
+    <?import javafx.scene.image.ImageView?>
+    <?import javafx.scene.layout.*?>
+    """;
+
+  private static String compile(
+    final Path directory,
+    final String text)
+    throws IOException, MFXCompilerException
+  {
+    final var file = directory.resolve("view.fxml");
+    Files.writeString(file, HEADER + text, UTF_8);
+
+    final var compiler =
+      new MFXCompiler(MFXCompilerTest.class.getClassLoader());
+
+    return compiler.compile(
+      new MFXCompilation(
+        file,
+        "/com/io7m/example/view.fxml",
+        "com.io7m.example.ExampleView",
+        "com.io7m.example.ExampleController"
+      )
+    );
+  }
+
+  private static MFXCompilerException compileFails(
+    final Path directory,
+    final String text)
+  {
+    return assertThrows(
+      MFXCompilerException.class,
+      () -> compile(directory, text)
+    );
+  }
+
+  private static int count(
+    final String text,
+    final String search)
+  {
+    int count = 0;
+    int index = text.indexOf(search);
+    while (index >= 0) {
+      ++count;
+      index = text.indexOf(search, index + search.length());
+    }
+    return count;
+  }
+
+  /**
+   * Identified elements are stored in the view, exposed with accessors, and
+   * given an ID.
+   *
+   * @param directory The temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testIdentifiers(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var source = compile(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <Label fx:id="title" text="Title"/>
+        <Button fx:id="ok" id="okButton" text="OK"/>
+      </VBox>
+      """);
+
+    assertTrue(source.contains("package com.io7m.example;"));
+    assertTrue(source.contains("public final class ExampleView"));
+    assertTrue(source.contains(
+      "final com.io7m.example.ExampleController controller)"));
+
+    assertTrue(source.contains("private javafx.scene.control.Label title;"));
+    assertTrue(source.contains("public javafx.scene.control.Label title()"));
+    assertTrue(source.contains("private javafx.scene.control.Button ok;"));
+    assertTrue(source.contains("public javafx.scene.layout.VBox root()"));
+
+    assertTrue(source.contains("n1.setId(\"title\");"));
+    assertTrue(source.contains("n2.setId(\"okButton\");"));
+    assertFalse(source.contains("n2.setId(\"ok\");"));
+    assertTrue(source.contains("view.title = n1;"));
+    assertTrue(source.contains("view.ok = n2;"));
+    assertTrue(source.contains("view.root = n0;"));
+    assertTrue(source.contains("n0.getChildren().add(n1);"));
+    assertTrue(source.contains("controller.attach(view);"));
+  }
+
+  /**
+   * Resource keys are looked up in the bundle passed to the view.
+   *
+   * @param directory The temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testResourceKeys(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var source = compile(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <Label text="%error.title"/>
+        <Label text="\\%literal"/>
+      </VBox>
+      """);
+
+    assertTrue(source.contains(
+      "n1.setText(resources.getString(\"error.title\"));"));
+    assertTrue(source.contains("n2.setText(\"%literal\");"));
+  }
+
+  /**
+   * Event handlers, static properties, enums, and constants are translated.
+   *
+   * @param directory The temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testProperties(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var source = compile(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1" spacing="8">
+        <Button onAction="#onDismiss" VBox.vgrow="ALWAYS" maxWidth="Infinity">
+          <minWidth><Double fx:constant="MAX_VALUE"/></minWidth>
+        </Button>
+      </VBox>
+      """);
+
+    assertTrue(source.contains("n0.setSpacing(8.0);"));
+    assertTrue(source.contains(
+      "n1.setOnAction(event -> controller.onDismiss());"));
+    assertTrue(source.contains(
+      "javafx.scene.layout.VBox.setVgrow(n1, javafx.scene.layout.Priority.ALWAYS);"));
+    assertTrue(source.contains(
+      "n1.setMaxWidth(Double.POSITIVE_INFINITY);"));
+    assertTrue(source.contains(
+      "n1.setMinWidth(java.lang.Double.MAX_VALUE);"));
+  }
+
+  /**
+   * Images are loaded once and shared between views.
+   *
+   * @param directory The temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testImageShared(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var source = compile(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <ImageView fx:id="icon">
+          <image><Image url="@icons/error-32.png"/></image>
+        </ImageView>
+      </VBox>
+      """);
+
+    assertTrue(source.contains("private static final class Images"));
+    assertTrue(source.contains(
+      "ExampleView.class.getResource(\"/com/io7m/example/icons/error-32.png\")"));
+    assertTrue(source.contains("= Images.IMAGE_0;"));
+    assertEquals(1, count(source, "new javafx.scene.image.Image("));
+
+    final var create =
+      source.substring(
+        source.indexOf("create("),
+        source.indexOf("return view;")
+      );
+    assertFalse(create.contains("new javafx.scene.image.Image("));
+  }
+
+  /**
+   * Images that depend on the resource bundle are not shared.
+   *
+   * @param directory The temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testImageNotShared(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var source = compile(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <ImageView>
+          <image><Image url="%error.icon"/></image>
+        </ImageView>
+      </VBox>
+      """);
+
+    assertFalse(source.contains("class Images"));
+    assertTrue(source.contains(
+      "new javafx.scene.image.Image(resources.getString(\"error.icon\"))"));
+  }
+
+  /**
+   * Includes are rejected.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectInclude(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <fx:include source="other.fxml"/>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("fx:include is not supported"));
+  }
+
+  /**
+   * Includes are rejected inside properties.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectIncludeProperty(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <children>
+          <fx:include source="other.fxml"/>
+        </children>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("fx:include is not supported"));
+  }
+
+  /**
+   * Scripts and definitions are rejected.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectDefine(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <fx:define><Label fx:id="x"/></fx:define>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("fx:define is not supported"));
+  }
+
+  /**
+   * Unknown elements are rejected.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectUnknownElement(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <NoSuchNode/>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("Unresolvable class NoSuchNode"));
+  }
+
+  /**
+   * Unknown properties are rejected.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectUnknownProperty(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <Label nonexistent="x"/>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("No writable property 'nonexistent'"));
+  }
+
+  /**
+   * Duplicate identifiers are rejected.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectDuplicateId(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <Label fx:id="title"/>
+        <Label fx:id="title"/>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("Duplicate fx:id 'title'"));
+  }
+
+  /**
+   * The root identifier is reserved.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectReservedRoot(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <Label fx:id="root"/>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("'root' is reserved"));
+  }
+
+  /**
+   * Variable references are rejected.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectVariable(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <Label text="$other.text"/>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("Variable references"));
+  }
+
+  /**
+   * Invalid enum constants are rejected.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectEnum(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1">
+        <Button VBox.vgrow="SOMETIMES_MAYBE"/>
+      </VBox>
+      """);
+    assertTrue(ex.getMessage().contains("is not a constant of"));
+  }
+
+  /**
+   * Invalid numbers are rejected.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectNumber(
+    final @TempDir Path directory)
+  {
+    final var ex = compileFails(directory, """
+      <VBox xmlns:fx="http://javafx.com/fxml/1" spacing="wide"/>
+      """);
+    assertTrue(ex.getMessage().contains("Cannot convert 'wide'"));
+  }
+
+  /**
+   * Malformed documents are rejected with the position of the problem, and
+   * nothing is printed to the standard error stream.
+   *
+   * @param directory The temporary directory
+   */
+
+  @Test
+  public void testRejectMalformed(
+    final @TempDir Path directory)
+  {
+    final var errors = new ByteArrayOutputStream();
+    final var original = System.err;
+    final MFXCompilerException ex;
+    System.setErr(new PrintStream(errors, true, UTF_8));
+    try {
+      ex = compileFails(directory, """
+        <VBox xmlns:fx="http://javafx.com/fxml/1">
+        """);
+    } finally {
+      System.setErr(original);
+    }
+
+    assertTrue(
+      ex.getMessage().matches("(?s)Failed to parse .*:[0-9]+:[0-9]+: .*"),
+      ex.getMessage()
+    );
+    assertEquals("", errors.toString(UTF_8));
+  }
+}
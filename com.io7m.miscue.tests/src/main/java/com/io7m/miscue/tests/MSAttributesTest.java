@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.seltzer.internal.MSAttributeRows;
+import com.io7m.miscue.fx.seltzer.internal.MSAttributes;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MSAttributesTest
+{
+  /**
+   * Attributes are sorted by name once, and rows remain in that order.
+   */
+
+  @Test
+  public void testSorted()
+  {
+    final var attributes =
+      MSAttributes.create(Map.of("c", "3", "a", "1", "b", "2"));
+
+    assertEquals(3, attributes.size());
+    assertEquals("a", attributes.name(0));
+    assertEquals("b", attributes.name(1));
+    assertEquals("c", attributes.name(2));
+    assertEquals("3", attributes.value(2));
+
+    final var rows = new MSAttributeRows(attributes);
+    assertEquals(List.of(0, 1, 2), rows);
+
+    rows.searchStart();
+    assertEquals(List.of(), rows);
+    rows.addMatches(new int[]{0});
+    rows.addMatches(new int[]{2});
+    assertEquals(List.of(0, 2), rows);
+
+    rows.showAll();
+    assertEquals(List.of(0, 1, 2), rows);
+  }
+
+  /**
+   * Values are truncated at line breaks and at the maximum length.
+   */
+
+  @Test
+  public void testTruncated()
+  {
+    final var length = MSAttributes.TRUNCATE_LENGTH;
+    final var attributes =
+      MSAttributes.create(Map.of(
+        "a", "short",
+        "b", "first\nsecond",
+        "c", "x".repeat(length + 1),
+        "d", "x".repeat(length)
+      ));
+
+    assertFalse(attributes.isValueTruncated(0));
+    assertTrue(attributes.isValueTruncated(1));
+    assertTrue(attributes.isValueTruncated(2));
+    assertFalse(attributes.isValueTruncated(3));
+
+    assertEquals("short", MSAttributes.truncate("short"));
+    assertEquals("first…", MSAttributes.truncate("first\nsecond"));
+    assertEquals(
+      "x".repeat(length) + "…",
+      MSAttributes.truncate(attributes.value(2)));
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.seltzer.MSErrorConsoleType;
+import com.io7m.miscue.fx.seltzer.MSErrorConsoles;
+import com.io7m.miscue.fx.seltzer.internal.MSTextLines;
+import com.io7m.seltzer.api.SStructuredError;
+import com.io7m.xoanon.commander.api.XCRobotType;
+import com.io7m.xoanon.extension.XoExtension;
+import javafx.scene.control.ListView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(XoExtension.class)
+public final class MSErrorConsolesTest
+{
+  /**
+   * The console retains only the most recent errors in a single window, and
+   * displays the details of the selected error.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testConsole(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var console = new AtomicReference<MSErrorConsoleType>();
+    robot.execute(() -> {
+      console.set(MSErrorConsoles.builder().setCapacity(100).build());
+      console.get().show();
+    });
+
+    robot.execute(() -> {
+      for (int index = 0; index < 1000; ++index) {
+        console.get().submit(
+          SStructuredError.builder("error-code", "Problem " + index)
+            .withAttribute("Attribute 0", "Value 0")
+            .build()
+        );
+      }
+    });
+    robot.waitForFrames(600);
+
+    final var stage =
+      robot.evaluate(() -> console.get().stage());
+    final var list =
+      (ListView<?>) robot.findWithId(stage, "errorConsoleList");
+    final var details =
+      (ListView<?>) robot.findWithId(stage, "details");
+
+    assertEquals(100, robot.evaluate(() -> console.get().errors().size()));
+    assertEquals(
+      "Problem 900",
+      robot.evaluate(() -> console.get().errors().get(0).message())
+    );
+    robot.execute(() -> list.getSelectionModel().select(99));
+    robot.waitForFrames(10);
+
+    assertEquals(
+      "Problem 999",
+      robot.evaluate(() -> ((MSTextLines) details.getItems()).text())
+    );
+
+    robot.execute(() -> console.get().close());
+  }
+}
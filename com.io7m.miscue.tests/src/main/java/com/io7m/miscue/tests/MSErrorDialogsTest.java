@@ -17,12 +17,22 @@
 
 package com.io7m.miscue.tests;
 
+import com.io7m.miscue.core.MiscueDialogOutcome;
+import com.io7m.miscue.core.MiscueDialogResult;
+import com.io7m.miscue.core.MiscueOpenDialogs;
 import com.io7m.miscue.fx.seltzer.MSErrorDialogType;
 import com.io7m.miscue.fx.seltzer.MSErrorDialogs;
+import com.io7m.miscue.fx.seltzer.MSExceptionDisplay;
+import com.io7m.miscue.fx.seltzer.internal.MSTextLines;
 import com.io7m.seltzer.api.SStructuredError;
 import com.io7m.xoanon.commander.api.XCRobotType;
 import com.io7m.xoanon.extension.XoExtension;
-import javafx.scene.control.TextArea;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TreeView;
 import javafx.scene.image.Image;
 import javafx.stage.Modality;
 import org.junit.jupiter.api.Test;
@@ -31,12 +41,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(XoExtension.class)
@@ -169,7 +191,11 @@ public final class MSErrorDialogsTest
           .withException(new IOException("Printer out of paper."))
           .build();
 
-      dialog.set(MSErrorDialogs.builder(error).build());
+      dialog.set(
+        MSErrorDialogs.builder(error)
+          .setExceptionDisplay(MSExceptionDisplay.TEXT)
+          .build()
+      );
     });
 
     robot.execute(() -> dialog.get().show());
@@ -183,7 +209,7 @@ public final class MSErrorDialogsTest
     final var exceptionContainer =
       robot.findWithId(stage, "exceptionContainer");
     final var exceptionField =
-      (TextArea) robot.findWithId(stage, "exception");
+      (ListView<?>) robot.findWithId(stage, "exception");
     final var remediationContainer =
       robot.findWithId(stage, "remediationContainer");
     final var report =
@@ -193,7 +219,132 @@ public final class MSErrorDialogsTest
     assertTrue(exceptionContainer.isVisible());
     assertFalse(remediationContainer.isVisible());
     assertTrue(report.isDisabled());
-    assertTrue(exceptionField.getText().contains("Printer out of paper."));
+    assertTrue(textOf(robot, exceptionField).contains("Printer out of paper."));
+
+    robot.execute(() -> dialog.get().close());
+  }
+
+  /**
+   * Exceptions are displayed as trees by default.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testErrorWithExceptionTree(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var exception =
+      new IOException("Printer out of paper.", new Exception("Out of ink."));
+    for (int index = 0; index < 10_000; ++index) {
+      exception.addSuppressed(new Exception("Suppressed " + index));
+    }
+
+    final var dialog = new AtomicReference<MSErrorDialogType>();
+    robot.execute(() -> {
+      final var error =
+        SStructuredError.builder("error-code", "A problem occurred.")
+          .withException(exception)
+          .build();
+
+      dialog.set(MSErrorDialogs.builder(error).build());
+    });
+
+    robot.execute(() -> dialog.get().show());
+    robot.waitForFrames(600);
+
+    final var stage =
+      robot.evaluate(() -> dialog.get().stage());
+
+    final var exceptionField =
+      robot.findWithId(stage, "exception");
+    final var exceptionTree =
+      (TreeView<?>) robot.findWithId(stage, "exceptionTree");
+
+    assertFalse(exceptionField.isVisible());
+    assertTrue(exceptionTree.isVisible());
+
+    final var root = exceptionTree.getRoot();
+    assertTrue(root.isExpanded());
+    assertTrue(String.valueOf(root.getValue()).contains("Printer out of paper."));
+
+    final var children =
+      robot.evaluate(() -> Integer.valueOf(root.getChildren().size()));
+    assertTrue(children.intValue() < 100);
+
+    final var last =
+      robot.evaluate(() -> {
+        final var items = root.getChildren();
+        return String.valueOf(items.get(items.size() - 1).getValue());
+      });
+    assertTrue(last.contains("Caused by: "));
+    assertTrue(last.contains("Out of ink."));
+
+    robot.execute(() -> dialog.get().close());
+  }
+
+  /**
+   * Long exception traces are truncated, and can be extended.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testErrorWithLongException(
+    final XCRobotType robot)
+    throws Exception
+  {
+    Exception exception = new IOException("Printer out of paper.");
+    for (int index = 0; index < 1000; ++index) {
+      exception = new IllegalStateException("Wrapped " + index, exception);
+    }
+
+    final var dialog = new AtomicReference<MSErrorDialogType>();
+    final var cause = exception;
+    robot.execute(() -> {
+      final var error =
+        SStructuredError.builder("error-code", "A problem occurred.")
+          .withException(cause)
+          .build();
+
+      dialog.set(
+        MSErrorDialogs.builder(error)
+          .setExceptionDisplay(MSExceptionDisplay.TEXT)
+          .build()
+      );
+    });
+
+    robot.execute(() -> dialog.get().show());
+    robot.waitForFrames(600);
+
+    final var stage =
+      robot.evaluate(() -> dialog.get().stage());
+
+    final var exceptionField =
+      (ListView<?>) robot.findWithId(stage, "exception");
+    final var exceptionMoreContainer =
+      robot.findWithId(stage, "exceptionMoreContainer");
+    final var exceptionMore =
+      robot.findWithId(stage, "exceptionMore");
+
+    assertTrue(exceptionMoreContainer.isVisible());
+    final var lengthBefore =
+      Integer.valueOf(textOf(robot, exceptionField).length());
+    assertFalse(textOf(robot, exceptionField).contains("Printer out of paper."));
+
+    robot.pointAt(exceptionMore);
+    robot.waitForFrames(1);
+    robot.click(exceptionMore);
+    robot.waitForFrames(1);
+
+    final var lengthAfter =
+      Integer.valueOf(textOf(robot, exceptionField).length());
+    assertTrue(lengthAfter.intValue() > lengthBefore.intValue());
 
     robot.execute(() -> dialog.get().close());
   }
@@ -232,9 +383,9 @@ public final class MSErrorDialogsTest
     final var exceptionContainer =
       robot.findWithId(stage, "exceptionContainer");
     final var exceptionField =
-      (TextArea) robot.findWithId(stage, "exception");
+      (ListView<?>) robot.findWithId(stage, "exception");
     final var remediationField =
-      (TextArea) robot.findWithId(stage, "remediation");
+      (ListView<?>) robot.findWithId(stage, "remediation");
     final var remediationContainer =
       robot.findWithId(stage, "remediationContainer");
     final var report =
@@ -244,7 +395,7 @@ public final class MSErrorDialogsTest
     assertFalse(exceptionContainer.isVisible());
     assertTrue(remediationContainer.isVisible());
     assertTrue(report.isDisabled());
-    assertTrue(remediationField.getText().contains(
+    assertTrue(textOf(robot, remediationField).contains(
       "Try turning it off and leaving it off."));
 
     robot.execute(() -> dialog.get().close());
@@ -298,6 +449,648 @@ public final class MSErrorDialogsTest
     robot.execute(() -> dialog.get().close());
   }
 
+  /**
+   * Pooled dialogs reuse the window and scene graph of closed dialogs,
+   * and nothing from the previous error survives.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPooled(
+    final XCRobotType robot)
+    throws Exception
+  {
+    MSErrorDialogs.setPoolCapacity(1);
+
+    try {
+      final var first = new AtomicReference<MSErrorDialogType>();
+      robot.execute(() -> {
+        final var error =
+          SStructuredError.builder("error-code", "First problem.")
+            .withException(new IOException("Printer out of paper."))
+            .withRemediatingAction("Try turning it off and leaving it off.")
+            .build();
+
+        first.set(
+          MSErrorDialogs.builder(error)
+            .setExceptionDisplay(MSExceptionDisplay.TEXT)
+            .setPooled(true)
+            .build()
+        );
+      });
+
+      robot.execute(() -> first.get().show());
+      robot.waitForFrames(600);
+      final var firstStage =
+        robot.evaluate(() -> first.get().stage());
+
+      robot.execute(() -> first.get().close());
+      robot.waitForFrames(1);
+      assertEquals(1, MSErrorDialogs.pooledDialogs());
+
+      final var second = new AtomicReference<MSErrorDialogType>();
+      robot.execute(() -> {
+        final var error =
+          SStructuredError.builder("error-code", "Second problem.")
+            .withAttribute("Attribute 0", "Value 0")
+            .build();
+
+        second.set(
+          MSErrorDialogs.builder(error)
+            .setPooled(true)
+            .build()
+        );
+      });
+
+      assertEquals(0, MSErrorDialogs.pooledDialogs());
+
+      robot.execute(() -> second.get().show());
+      robot.waitForFrames(600);
+
+      final var stage =
+        robot.evaluate(() -> second.get().stage());
+      assertSame(firstStage, stage);
+
+      final var attributeTable =
+        robot.findWithId(stage, "errorTable");
+      final var exceptionContainer =
+        robot.findWithId(stage, "exceptionContainer");
+      final var remediationContainer =
+        robot.findWithId(stage, "remediationContainer");
+      final var details =
+        (ListView<?>) robot.findWithId(stage, "details");
+
+      assertTrue(attributeTable.isVisible());
+      assertFalse(exceptionContainer.isVisible());
+      assertFalse(remediationContainer.isVisible());
+      assertEquals("Second problem.", textOf(robot, details));
+
+      robot.execute(() -> second.get().close());
+    } finally {
+      MSErrorDialogs.setPoolCapacity(0);
+    }
+  }
+
+  /**
+   * Duplicate errors are routed to the open coalescing dialog, which counts
+   * the occurrences.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCoalescing(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var exception = new IOException("Printer out of paper.");
+    final var first = new AtomicReference<MSErrorDialogType>();
+    robot.execute(() -> {
+      final var error =
+        SStructuredError.builder("error-code", "A problem occurred.")
+          .withException(exception)
+          .build();
+
+      first.set(MSErrorDialogs.builder(error).setCoalescing(true).build());
+      first.get().show();
+    });
+    robot.waitForFrames(600);
+
+    final var stage =
+      robot.evaluate(() -> first.get().stage());
+    final var occurrences =
+      (Label) robot.findWithId(stage, "occurrences");
+    assertFalse(occurrences.isVisible());
+
+    robot.execute(() -> {
+      for (int index = 0; index < 100; ++index) {
+        final var error =
+          SStructuredError.builder("error-code", "A problem occurred.")
+            .withException(exception)
+            .build();
+
+        final var duplicate =
+          MSErrorDialogs.builder(error).setCoalescing(true).build();
+        assertSame(stage, duplicate.stage());
+        duplicate.show();
+      }
+    });
+    robot.waitForFrames(10);
+
+    assertTrue(occurrences.isVisible());
+    assertEquals(
+      "Occurred 101 times",
+      robot.evaluate(occurrences::getText)
+    );
+
+    robot.execute(() -> first.get().close());
+  }
+
+  /**
+   * Coalescing dialogs are registered when they are built, so duplicates
+   * built before the first dialog is shown are coalesced, and a dialog
+   * that is disposed without being shown no longer receives duplicates.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCoalescingBeforeShown(
+    final XCRobotType robot)
+    throws Exception
+  {
+    robot.execute(() -> {
+      final var error =
+        SStructuredError.builder("error-code", "Not shown yet.")
+          .build();
+
+      final var first =
+        MSErrorDialogs.builder(error).setCoalescing(true).build();
+      final var duplicate =
+        MSErrorDialogs.builder(error).setCoalescing(true).build();
+      assertSame(first.stage(), duplicate.stage());
+
+      first.dispose();
+
+      final var replacement =
+        MSErrorDialogs.builder(error).setCoalescing(true).build();
+      assertNotSame(first.stage(), replacement.stage());
+      replacement.dispose();
+    });
+  }
+
+  /**
+   * A coalescing dialog that is built and then dropped without being shown
+   * or disposed is not retained, and a later duplicate gets a new dialog.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCoalescingDroppedCollected(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var error =
+      SStructuredError.builder("error-code", "Never shown.")
+        .build();
+
+    final var stageRef = new AtomicReference<WeakReference<Object>>();
+    robot.execute(() -> {
+      final var dropped =
+        MSErrorDialogs.builder(error).setCoalescing(true).build();
+      stageRef.set(new WeakReference<>(dropped.stage()));
+    });
+
+    for (int index = 0; index < 10; ++index) {
+      System.gc();
+      if (stageRef.get().get() == null) {
+        break;
+      }
+      Thread.sleep(100L);
+    }
+    assertNull(stageRef.get().get());
+
+    robot.execute(() -> {
+      final var first =
+        MSErrorDialogs.builder(error).setCoalescing(true).build();
+      final var duplicate =
+        MSErrorDialogs.builder(error).setCoalescing(true).build();
+      assertSame(first.stage(), duplicate.stage());
+      first.dispose();
+    });
+  }
+
+  /**
+   * Opening dialogs past the limit closes the least recently focused ones.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testOpenLimit(
+    final XCRobotType robot)
+    throws Exception
+  {
+    MiscueOpenDialogs.setLimit(2);
+
+    try {
+      final var dialogs = new ArrayList<MSErrorDialogType>();
+      robot.execute(() -> {
+        for (int index = 0; index < 5; ++index) {
+          final var error =
+            SStructuredError.builder("error-code", "Problem " + index)
+              .build();
+          final var dialog = MSErrorDialogs.builder(error).build();
+          dialogs.add(dialog);
+          dialog.show();
+        }
+      });
+      robot.waitForFrames(60);
+
+      assertEquals(2, MiscueOpenDialogs.openCount());
+      for (int index = 0; index < 3; ++index) {
+        assertFalse(dialogs.get(index).stage().isShowing());
+      }
+      for (int index = 3; index < 5; ++index) {
+        assertTrue(dialogs.get(index).stage().isShowing());
+      }
+
+      robot.execute(() -> dialogs.forEach(MSErrorDialogType::close));
+      assertEquals(0, MiscueOpenDialogs.openCount());
+    } finally {
+      MiscueOpenDialogs.setLimit(Integer.MAX_VALUE);
+    }
+  }
+
+  /**
+   * A disposed dialog no longer retains its error, even while the dialog
+   * itself is still referenced.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDisposeReleasesError(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var dialog = new AtomicReference<MSErrorDialogType>();
+    final var errorRef = new AtomicReference<WeakReference<Object>>();
+    robot.execute(() -> {
+      final var error =
+        SStructuredError.builder("error-code", "A problem occurred.")
+          .withAttribute("Attribute 0", "Value 0")
+          .withException(new IOException("Printer out of paper."))
+          .build();
+
+      errorRef.set(new WeakReference<>(error));
+      dialog.set(MSErrorDialogs.builder(error).build());
+      dialog.get().show();
+    });
+    robot.waitForFrames(60);
+
+    robot.execute(() -> {
+      dialog.get().dispose();
+      dialog.get().dispose();
+    });
+    robot.waitForFrames(60);
+
+    for (int index = 0; index < 10; ++index) {
+      System.gc();
+      if (errorRef.get().get() == null) {
+        break;
+      }
+      Thread.sleep(100L);
+    }
+
+    assertNull(errorRef.get().get());
+    assertNull(robot.evaluate(() -> dialog.get().stage().getScene()));
+    assertThrows(IllegalStateException.class, () -> dialog.get().show());
+  }
+
+  /**
+   * Opening, closing, and disposing many dialogs does not grow the heap.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDisposeHeapFlat(
+    final XCRobotType robot)
+    throws Exception
+  {
+    openAndDispose(robot, 1_000);
+    final var before = usedHeapAfterGC();
+    openAndDispose(robot, 9_000);
+    final var after = usedHeapAfterGC();
+
+    LOG.debug("Heap before: {} after: {}", before, after);
+    assertTrue(
+      after - before < 16L * 1024L * 1024L,
+      "Heap grew from %d to %d".formatted(before, after)
+    );
+  }
+
+  private static void openAndDispose(
+    final XCRobotType robot,
+    final int count)
+    throws Exception
+  {
+    final var batch = 100;
+    for (int base = 0; base < count; base += batch) {
+      final var first = base;
+      robot.execute(() -> {
+        for (int index = first; index < first + batch; ++index) {
+          final var error =
+            SStructuredError.builder("error-code", "Problem " + index)
+              .withAttribute("Attribute 0", "Value " + index)
+              .withException(new IOException("Printer out of paper."))
+              .build();
+
+          final var dialog = MSErrorDialogs.builder(error).build();
+          dialog.show();
+          dialog.close();
+          dialog.dispose();
+        }
+      });
+      robot.waitForFrames(1);
+    }
+  }
+
+  private static long usedHeapAfterGC()
+    throws InterruptedException
+  {
+    final var runtime = Runtime.getRuntime();
+    for (int index = 0; index < 5; ++index) {
+      System.gc();
+      Thread.sleep(100L);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Showing a dialog asynchronously yields the way in which it was closed.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testShowAsync(
+    final XCRobotType robot)
+    throws Exception
+  {
+    assertEquals(
+      MiscueDialogOutcome.CLOSED_BY_OWNER,
+      showAsyncAndPress(robot, Optional.empty()).outcome()
+    );
+    assertEquals(
+      MiscueDialogOutcome.DISMISSED,
+      showAsyncAndPress(robot, Optional.of("cancel")).outcome()
+    );
+
+    final var reported =
+      showAsyncAndPress(robot, Optional.of("report"));
+    assertEquals(MiscueDialogOutcome.REPORTED, reported.outcome());
+    assertFalse(reported.timeShown().isNegative());
+    assertFalse(reported.timeToShow().isNegative());
+  }
+
+  private static MiscueDialogResult showAsyncAndPress(
+    final XCRobotType robot,
+    final Optional<String> button)
+    throws Exception
+  {
+    final var dialog = new AtomicReference<MSErrorDialogType>();
+    final var result =
+      new AtomicReference<CompletableFuture<MiscueDialogResult>>();
+    robot.execute(() -> {
+      final var error =
+        SStructuredError.builder("error-code", "A problem occurred.")
+          .build();
+
+      dialog.set(
+        MSErrorDialogs.builder(error)
+          .setErrorReportCallback(() -> LOG.debug("Reported"))
+          .build()
+      );
+      result.set(dialog.get().showAsync().toCompletableFuture());
+    });
+    robot.waitForFrames(60);
+
+    final var stage =
+      robot.evaluate(() -> dialog.get().stage());
+
+    assertFalse(result.get().isDone());
+    if (button.isPresent()) {
+      final var node = robot.findWithId(stage, button.get());
+      robot.pointAt(node);
+      robot.waitForFrames(1);
+      robot.click(node);
+      robot.waitForFrames(1);
+    }
+
+    robot.execute(() -> dialog.get().close());
+    return result.get().get(1L, TimeUnit.MINUTES);
+  }
+
+  /**
+   * A report task runs off the FX thread and receives the error, the
+   * report button is disabled while it runs, and it can be cancelled.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReportTask(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var error =
+      SStructuredError.builder("error-code", "A problem occurred.")
+        .build();
+    final var subjects = new ArrayList<Object>();
+    final var onFxThread = new AtomicBoolean(true);
+    final var started = new CountDownLatch(1);
+
+    final var dialog =
+      robot.evaluate(() -> {
+        return MSErrorDialogs.builder(error)
+          .setErrorReportTask((subject, progress) -> {
+            subjects.add(subject);
+            onFxThread.set(Platform.isFxApplicationThread());
+            progress.setProgress(0.5, "Half");
+            started.countDown();
+            while (!progress.isCancelled()) {
+              Thread.sleep(10L);
+            }
+          })
+          .build();
+      });
+
+    robot.execute(dialog::show);
+    robot.waitForFrames(60);
+
+    final var stage =
+      robot.evaluate(dialog::stage);
+    final var report =
+      robot.findWithId(stage, "report");
+    final var cancel =
+      robot.findWithId(stage, "reportCancel");
+    final var status =
+      (Label) robot.findWithId(stage, "reportStatus");
+
+    robot.pointAt(report);
+    robot.click(report);
+    assertTrue(started.await(1L, TimeUnit.MINUTES));
+    robot.waitForFrames(10);
+
+    assertTrue(report.isDisabled());
+    assertTrue(cancel.isVisible());
+    assertEquals("Half", robot.evaluate(status::getText));
+    assertEquals(List.of(error), subjects);
+    assertFalse(onFxThread.get());
+
+    robot.pointAt(cancel);
+    robot.click(cancel);
+    robot.waitForFrames(10);
+
+    assertFalse(report.isDisabled());
+    assertFalse(cancel.isVisible());
+    assertEquals("Report cancelled.", robot.evaluate(status::getText));
+
+    robot.execute(dialog::close);
+  }
+
+  /**
+   * Preloading completes, can be requested more than once, and dialogs
+   * can be created afterwards.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPreload(
+    final XCRobotType robot)
+    throws Exception
+  {
+    MSErrorDialogs.preload()
+      .toCompletableFuture()
+      .get(1L, TimeUnit.MINUTES);
+    MSErrorDialogs.preload()
+      .toCompletableFuture()
+      .get(1L, TimeUnit.MINUTES);
+
+    final var dialog = new AtomicReference<MSErrorDialogType>();
+    robot.execute(() -> {
+      final var error =
+        SStructuredError.builder("error-code", "A problem occurred.")
+          .withAttribute("Attribute 0", "Value 0")
+          .build();
+
+      dialog.set(MSErrorDialogs.builder(error).build());
+    });
+
+    robot.execute(() -> dialog.get().show());
+    robot.waitForFrames(600);
+
+    final var stage =
+      robot.evaluate(() -> dialog.get().stage());
+    final var attributeTable =
+      robot.findWithId(stage, "errorTable");
+
+    assertTrue(attributeTable.isVisible());
+    robot.execute(() -> dialog.get().close());
+  }
+
+  /**
+   * Large numbers of attributes can be filtered, and long values are
+   * truncated and displayed in full when selected.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testErrorManyAttributes(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var attributes = new HashMap<String, String>();
+    for (int index = 0; index < 50_000; ++index) {
+      attributes.put("Attribute " + index, "Value " + index);
+    }
+    attributes.put("Long", "Long value. ".repeat(100_000));
+
+    final var dialog = new AtomicReference<MSErrorDialogType>();
+    robot.execute(() -> {
+      final var error =
+        new SStructuredError<>(
+          "error-code",
+          "A problem occurred.",
+          attributes,
+          Optional.empty(),
+          Optional.empty()
+        );
+
+      dialog.set(MSErrorDialogs.builder(error).build());
+    });
+
+    robot.execute(() -> dialog.get().show());
+    robot.waitForFrames(600);
+
+    final var stage =
+      robot.evaluate(() -> dialog.get().stage());
+
+    final var attributeTable =
+      (TableView<?>) robot.findWithId(stage, "errorTable");
+    final var attributeFilter =
+      (TextField) robot.findWithId(stage, "attributeFilter");
+    final var attributeValue =
+      (ListView<?>) robot.findWithId(stage, "attributeValue");
+
+    assertEquals(
+      Integer.valueOf(50_001),
+      robot.evaluate(() -> Integer.valueOf(attributeTable.getItems().size()))
+    );
+    assertEquals(
+      "Attribute 0",
+      robot.evaluate(() -> cellText(attributeTable, 0, 0))
+    );
+
+    robot.execute(() -> attributeFilter.setText("value 4999"));
+    robot.waitForFrames(600);
+
+    assertEquals(
+      Integer.valueOf(11),
+      robot.evaluate(() -> Integer.valueOf(attributeTable.getItems().size()))
+    );
+
+    robot.execute(() -> attributeFilter.setText("long"));
+    robot.waitForFrames(600);
+
+    assertEquals(
+      Integer.valueOf(1),
+      robot.evaluate(() -> Integer.valueOf(attributeTable.getItems().size()))
+    );
+    assertTrue(
+      robot.evaluate(() -> cellText(attributeTable, 0, 1)).endsWith("\u2026"));
+    assertFalse(attributeValue.isVisible());
+
+    robot.execute(() -> attributeTable.getSelectionModel().select(0));
+    robot.waitForFrames(1);
+
+    assertTrue(attributeValue.isVisible());
+    assertEquals(
+      attributes.get("Long"),
+      textOf(robot, attributeValue)
+    );
+
+    robot.execute(() -> dialog.get().close());
+  }
+
   /**
    * Error dialogs show the right fields.
    *
@@ -468,4 +1261,20 @@ public final class MSErrorDialogsTest
     assertEquals(Modality.APPLICATION_MODAL, stage.getModality());
     robot.execute(() -> dialog.get().close());
   }
+
+  private static String textOf(
+    final XCRobotType robot,
+    final ListView<?> view)
+    throws Exception
+  {
+    return robot.evaluate(() -> ((MSTextLines) view.getItems()).text());
+  }
+
+  private static String cellText(
+    final TableView<?> table,
+    final int row,
+    final int column)
+  {
+    return String.valueOf(table.getColumns().get(column).getCellData(row));
+  }
 }
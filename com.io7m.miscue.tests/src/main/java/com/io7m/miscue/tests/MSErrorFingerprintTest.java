@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.seltzer.internal.MSErrorFingerprint;
+import com.io7m.seltzer.api.SStructuredError;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public final class MSErrorFingerprintTest
+{
+  private static IOException exceptionHere()
+  {
+    return new IOException("Printer out of paper.");
+  }
+
+  private static IOException exceptionThere()
+  {
+    return new IOException("Printer out of paper.");
+  }
+
+  /**
+   * Errors that differ only in attributes and exception messages have the
+   * same fingerprint.
+   */
+
+  @Test
+  public void testSame()
+  {
+    final var fingerprints = new long[2];
+    for (int index = 0; index < fingerprints.length; ++index) {
+      final var error =
+        SStructuredError.builder("error-code", "A problem occurred.")
+          .withAttribute("Attribute", "Value " + index)
+          .withException(new IOException("Printer out of paper " + index))
+          .build();
+      fingerprints[index] = MSErrorFingerprint.of(error);
+    }
+
+    assertEquals(fingerprints[0], fingerprints[1]);
+  }
+
+  /**
+   * Errors with different codes, messages, or stack frames have different
+   * fingerprints.
+   */
+
+  @Test
+  public void testDifferent()
+  {
+    final var e0 =
+      SStructuredError.builder("error-code", "A problem occurred.")
+        .withException(exceptionHere())
+        .build();
+    final var e1 =
+      SStructuredError.builder("error-code", "Another problem occurred.")
+        .withException(exceptionHere())
+        .build();
+    final var e2 =
+      SStructuredError.builder("other-code", "A problem occurred.")
+        .withException(exceptionHere())
+        .build();
+    final var e3 =
+      SStructuredError.builder("error-code", "A problem occurred.")
+        .withException(exceptionThere())
+        .build();
+    final var e4 =
+      SStructuredError.builder("error-code", "A problem occurred.")
+        .build();
+
+    final var f0 = MSErrorFingerprint.of(e0);
+    assertNotEquals(f0, MSErrorFingerprint.of(e1));
+    assertNotEquals(f0, MSErrorFingerprint.of(e2));
+    assertNotEquals(f0, MSErrorFingerprint.of(e3));
+    assertNotEquals(f0, MSErrorFingerprint.of(e4));
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.core.internal.MiscueReporting;
+import com.io7m.miscue.fx.seltzer.MSExceptionDisplay;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorController;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorStrings;
+import com.io7m.miscue.fx.seltzer.internal.MSErrorView;
+import com.io7m.seltzer.api.SStructuredError;
+import com.io7m.seltzer.api.SStructuredErrorType;
+import com.io7m.xoanon.commander.api.XCRobotType;
+import com.io7m.xoanon.extension.XoExtension;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(XoExtension.class)
+public final class MSErrorViewTest
+{
+  /**
+   * The compiled view produces the same scene graph as the FXML loader.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCompiledViewMatchesFXML(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var error =
+      SStructuredError.builder("error-code", "A problem occurred.")
+        .withAttribute("Attribute 0", "Value 0")
+        .withException(new IOException("Printer out of paper."))
+        .withRemediatingAction("Try turning it off and leaving it off.")
+        .build();
+
+    final var resources =
+      new MSErrorStrings(Locale.getDefault()).resources();
+
+    final var compiled =
+      robot.evaluate(() -> {
+        final var controller = controllerFor(error);
+        return MiscueTestScenes.describe(
+          MSErrorView.create(resources, controller).root());
+      });
+
+    final var loaded =
+      robot.evaluate(() -> {
+        final var controller = controllerFor(error);
+        final var loader = new FXMLLoader(MSErrorView.location(), resources);
+        loader.setControllerFactory(param -> controller);
+        try {
+          return MiscueTestScenes.describe(loader.<Parent>load());
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+
+    assertEquals(loaded, compiled);
+  }
+
+  private static MSErrorController controllerFor(
+    final SStructuredErrorType<?> error)
+  {
+    return new MSErrorController(
+      error,
+      MiscueReporting.none(),
+      Optional.empty(),
+      MSExceptionDisplay.TREE,
+      new Stage()
+    );
+  }
+}
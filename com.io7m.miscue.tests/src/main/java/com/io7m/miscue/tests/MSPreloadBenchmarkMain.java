@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.seltzer.MSErrorDialogs;
+import com.io7m.seltzer.api.SStructuredError;
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>A benchmark that measures the cost of creating the first error dialog
+ * in a process, with and without preloading.</p>
+ *
+ * <p>The benchmark must be run twice, in separate processes, because the
+ * cold case can only be observed once per process: once with the argument
+ * {@code cold}, and once with the argument {@code warm}. In the warm case,
+ * {@link MSErrorDialogs#preload()} is called and awaited before anything
+ * is measured. In both cases, the time taken to build, style, and lay out
+ * the first dialog on the FX thread is printed, followed by the mean time
+ * over the next {@link #DIALOGS} dialogs for comparison.</p>
+ *
+ * <p>The benchmark needs a display, and is not run as part of the test
+ * suite. To run it, install the project with
+ * {@code mvn install -DskipTests} and then, from the project root:</p>
+ *
+ * <pre>
+ * mvn -pl com.io7m.miscue.tests exec:java \
+ *   -Dexec.mainClass=com.io7m.miscue.tests.MSPreloadBenchmarkMain \
+ *   -Dexec.args=cold
+ * </pre>
+ *
+ * <p>Then run it again with {@code -Dexec.args=warm}.</p>
+ */
+
+public final class MSPreloadBenchmarkMain
+{
+  private static final int DIALOGS = 100;
+  private static final double WIDTH = 800.0;
+  private static final double HEIGHT = 600.0;
+
+  private MSPreloadBenchmarkMain()
+  {
+
+  }
+
+  /**
+   * The main entry point.
+   *
+   * @param args The command-line arguments: {@code cold} or {@code warm}
+   *
+   * @throws Exception On errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws Exception
+  {
+    if (args.length != 1) {
+      throw new IllegalArgumentException("Usage: (cold | warm)");
+    }
+
+    final var warm = switch (args[0]) {
+      case "cold" -> false;
+      case "warm" -> true;
+      default -> throw new IllegalArgumentException("Usage: (cold | warm)");
+    };
+
+    final var started = new CompletableFuture<Void>();
+    Platform.startup(() -> started.complete(null));
+    started.get();
+
+    try {
+      if (warm) {
+        final var timeThen = System.nanoTime();
+        MSErrorDialogs.preload().toCompletableFuture().get();
+        final var preloadTime = System.nanoTime() - timeThen;
+        System.out.printf(
+          "Preload:       %10.2f ms%n",
+          Double.valueOf((double) preloadTime / 1_000_000.0)
+        );
+      }
+
+      final var first = onFXThread(MSPreloadBenchmarkMain::createDialog);
+      long total = 0L;
+      for (int index = 0; index < DIALOGS; ++index) {
+        total += onFXThread(MSPreloadBenchmarkMain::createDialog);
+      }
+
+      System.out.printf(
+        "First dialog:  %10.2f ms (%s)%n",
+        Double.valueOf((double) first / 1_000_000.0),
+        args[0]
+      );
+      System.out.printf(
+        "Later dialogs: %10.2f ms (mean of %d)%n",
+        Double.valueOf((double) total / (double) DIALOGS / 1_000_000.0),
+        Integer.valueOf(DIALOGS)
+      );
+    } finally {
+      Platform.exit();
+    }
+  }
+
+  private static long createDialog()
+  {
+    final var timeThen = System.nanoTime();
+    final var error =
+      new SStructuredError<>(
+        "error-code",
+        "A problem occurred.",
+        Map.of("Attribute 0", "Value 0", "Attribute 1", "Value 1"),
+        Optional.of("Try turning it off and leaving it off."),
+        Optional.of(new IOException("Printer out of paper."))
+      );
+
+    final var dialog =
+      MSErrorDialogs.builder(error)
+        .build();
+
+    final var root = dialog.stage().getScene().getRoot();
+    root.applyCss();
+    root.resize(WIDTH, HEIGHT);
+    root.layout();
+    return System.nanoTime() - timeThen;
+  }
+
+  private static long onFXThread(
+    final LongSupplier timed)
+    throws Exception
+  {
+    final var future = new CompletableFuture<Long>();
+    Platform.runLater(() -> {
+      try {
+        future.complete(Long.valueOf(timed.getAsLong()));
+      } catch (final Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future.get().longValue();
+  }
+}
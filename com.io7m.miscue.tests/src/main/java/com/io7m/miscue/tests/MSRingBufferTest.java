@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.seltzer.internal.MSRingBuffer;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class MSRingBufferTest
+{
+  /**
+   * A full buffer forgets its oldest items, and listeners observe the same
+   * contents as the buffer.
+   */
+
+  @Test
+  public void testBounded()
+  {
+    final var buffer = new MSRingBuffer<Integer>(3);
+    final var mirror = new ArrayList<Integer>();
+    buffer.addListener((ListChangeListener<Integer>) change -> {
+      while (change.next()) {
+        for (int index = 0; index < change.getRemovedSize(); ++index) {
+          mirror.remove(change.getFrom());
+        }
+        if (change.wasAdded()) {
+          mirror.addAll(change.getFrom(), change.getAddedSubList());
+        }
+      }
+    });
+
+    for (int index = 0; index < 2; ++index) {
+      buffer.push(Integer.valueOf(index));
+    }
+    assertEquals(List.of(0, 1), buffer);
+    assertEquals(buffer, mirror);
+
+    for (int index = 2; index < 10; ++index) {
+      buffer.push(Integer.valueOf(index));
+    }
+    assertEquals(List.of(7, 8, 9), buffer);
+    assertEquals(buffer, mirror);
+    assertEquals(3, buffer.capacity());
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.seltzer.internal.MSStackTraces;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MSStackTracesTest
+{
+  private static String printed(
+    final Throwable throwable)
+  {
+    final var writer = new StringWriter();
+    throwable.printStackTrace(new PrintWriter(writer));
+    return writer.toString();
+  }
+
+  private static Exception chain(
+    final int depth)
+  {
+    Exception exception = new IllegalStateException("Bottom.");
+    for (int index = 0; index < depth; ++index) {
+      exception = new RuntimeException("Level " + index, exception);
+    }
+    return exception;
+  }
+
+  /**
+   * Formatting matches printStackTrace for causes and suppressed exceptions.
+   */
+
+  @Test
+  public void testSameAsPrintStackTrace()
+  {
+    final var suppressed =
+      new IllegalArgumentException("Suppressed.", new Error("Cause."));
+    suppressed.addSuppressed(new Exception("Nested."));
+
+    final var exception = new IOException("Top.", chain(5));
+    exception.addSuppressed(suppressed);
+
+    final var trace = MSStackTraces.formatNow(exception);
+    assertEquals(printed(exception), trace.text());
+    assertTrue(trace.text().contains("... "));
+    assertTrue(trace.text().contains("\tSuppressed: "));
+  }
+
+  /**
+   * Circular references are reported in the same way as printStackTrace.
+   */
+
+  @Test
+  public void testCircular()
+  {
+    final var x = new Exception("X");
+    final var y = new Exception("Y", x);
+    x.initCause(y);
+
+    final var exception = new RuntimeException("Top.", y);
+    final var trace = MSStackTraces.formatNow(exception);
+    assertEquals(printed(exception), trace.text());
+    assertTrue(trace.text().contains("[CIRCULAR REFERENCE: "));
+  }
+
+  /**
+   * Very long cause chains do not exhaust the stack.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testLongChain()
+    throws Exception
+  {
+    final var exception = chain(100_000);
+    final var trace = MSStackTraces.format(exception).get();
+    assertTrue(trace.lineCount() > 200_000);
+    assertEquals(
+      exception.toString() + System.lineSeparator(),
+      trace.lines(0, 1)
+    );
+  }
+
+  /**
+   * Traces are cached by exception.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCached()
+    throws Exception
+  {
+    final var exception = new IOException("Cached.");
+    final var trace0 = MSStackTraces.format(exception).get();
+    final var trace1 = MSStackTraces.format(exception).get();
+    assertSame(trace0, trace1);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.seltzer.internal.MSTextLines;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MSTextLinesTest
+{
+  private static List<String> mirror(
+    final MSTextLines lines)
+  {
+    final var mirror = new ArrayList<>(lines);
+    lines.addListener((ListChangeListener<String>) change -> {
+      while (change.next()) {
+        for (int index = 0; index < change.getRemovedSize(); ++index) {
+          mirror.remove(change.getFrom());
+        }
+        if (change.wasAdded()) {
+          mirror.addAll(change.getFrom(), change.getAddedSubList());
+        }
+      }
+    });
+    return mirror;
+  }
+
+  /**
+   * Text is divided into lines, and carriage returns are not displayed.
+   */
+
+  @Test
+  public void testLines()
+  {
+    final var lines = new MSTextLines();
+    final var mirror = mirror(lines);
+
+    lines.setText("a\r\nbb\n\nccc");
+    assertEquals(List.of("a", "bb", "", "ccc"), lines);
+    assertEquals(lines, mirror);
+  }
+
+  /**
+   * Appending text continues an unterminated last line and notifies
+   * listeners.
+   */
+
+  @Test
+  public void testAppend()
+  {
+    final var lines = new MSTextLines();
+    final var mirror = mirror(lines);
+
+    lines.setText("a\nccc");
+    lines.appendText("dd\neee\n");
+    assertEquals(List.of("a", "cccdd", "eee"), lines);
+    assertEquals(lines, mirror);
+    assertEquals("a\ncccdd\neee\n", lines.text());
+  }
+
+  /**
+   * Very long lines are divided, and copying rejoins the divided parts.
+   */
+
+  @Test
+  public void testLongLines()
+  {
+    final var lines = new MSTextLines();
+    final var mirror = mirror(lines);
+    final var length = MSTextLines.MAXIMUM_LINE_LENGTH * 2 + 1;
+
+    lines.setText("x".repeat(length));
+    lines.appendText("y\nz");
+    assertEquals(4, lines.size());
+    assertEquals(lines, mirror);
+    assertTrue(lines.stream()
+                 .allMatch(s -> s.length() <= MSTextLines.MAXIMUM_LINE_LENGTH));
+
+    final var all = IntStream.range(0, lines.size()).toArray();
+    assertEquals(lines.text(), lines.text(all));
+    assertEquals("z", lines.text(new int[]{3}));
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.seltzer.internal.MSErrorStrings;
+import com.io7m.miscue.fx.seltzer.internal.MSTextView;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextArea;
+import javafx.stage.Stage;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * <p>A benchmark that measures frame times when displaying very large
+ * texts.</p>
+ *
+ * <p>The benchmark generates a message of around {@link #TEXT_SIZE}
+ * characters, displays it in a window, and then scrolls through it by
+ * {@link #LINES_PER_FRAME} lines on every frame for {@link #FRAMES}
+ * frames. The old strategy of a {@code TextArea} holding the entire text
+ * is compared against a {@link MSTextView}. The time from showing the
+ * window to the first frame is printed, along with the mean and maximum
+ * time between subsequent frames.</p>
+ *
+ * <p>The benchmark needs a display, and is not run as part of the test
+ * suite. To run it, install the project with
+ * {@code mvn install -DskipTests} and then, from the project root:</p>
+ *
+ * <pre>
+ * mvn -pl com.io7m.miscue.tests exec:java \
+ *   -Dexec.mainClass=com.io7m.miscue.tests.MSTextViewBenchmarkMain
+ * </pre>
+ */
+
+public final class MSTextViewBenchmarkMain
+{
+  private static final int TEXT_SIZE = 10 * 1024 * 1024;
+  private static final int FRAMES = 300;
+  private static final int LINES_PER_FRAME = 100;
+  private static final double LINE_HEIGHT = 16.0;
+  private static final double WIDTH = 800.0;
+  private static final double HEIGHT = 600.0;
+
+  private MSTextViewBenchmarkMain()
+  {
+
+  }
+
+  /**
+   * The main entry point.
+   *
+   * @param args The command-line arguments (ignored)
+   *
+   * @throws Exception On errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws Exception
+  {
+    final var started = new CompletableFuture<Void>();
+    Platform.startup(() -> started.complete(null));
+    started.get();
+
+    try {
+      final var text = generateText();
+      final var strings = new MSErrorStrings(Locale.getDefault());
+
+      final var textArea = run(() -> {
+        final var area = new TextArea();
+        area.setEditable(false);
+        area.setText(text);
+        return area;
+      }, node -> {
+        final var area = (TextArea) node;
+        area.setScrollTop(area.getScrollTop() + LINES_PER_FRAME * LINE_HEIGHT);
+      });
+
+      final var textView = run(() -> {
+        final var list = new ListView<String>();
+        new MSTextView(list, strings.resources(), false).setText(text);
+        return list;
+      }, new Consumer<>()
+      {
+        private int line;
+
+        @Override
+        public void accept(
+          final Parent node)
+        {
+          this.line += LINES_PER_FRAME;
+          ((ListView<?>) node).scrollTo(this.line);
+        }
+      });
+
+      System.out.printf("Text size: %d characters%n",
+                        Integer.valueOf(text.length()));
+      textArea.print("TextArea");
+      textView.print("MSTextView");
+    } finally {
+      Platform.exit();
+    }
+  }
+
+  private static String generateText()
+  {
+    final var text = new StringBuilder(TEXT_SIZE + 128);
+    long line = 0L;
+    while (text.length() < TEXT_SIZE) {
+      text.append("Line ");
+      text.append(line);
+      text.append(": The printer reported that it is out of paper, ");
+      text.append("and the print job could not be completed.\n");
+      ++line;
+    }
+    return text.toString();
+  }
+
+  private record Result(
+    double firstFrameMillis,
+    double meanFrameMillis,
+    double maximumFrameMillis)
+  {
+    void print(
+      final String name)
+    {
+      System.out.printf(
+        "%-10s first frame %10.2f ms, mean frame %8.2f ms, max frame %8.2f ms%n",
+        name,
+        Double.valueOf(this.firstFrameMillis),
+        Double.valueOf(this.meanFrameMillis),
+        Double.valueOf(this.maximumFrameMillis)
+      );
+    }
+  }
+
+  private static Result run(
+    final Supplier<Parent> content,
+    final Consumer<Parent> scroll)
+    throws Exception
+  {
+    final var future = new CompletableFuture<Result>();
+
+    Platform.runLater(() -> {
+      final var timeThen = System.nanoTime();
+      final var node = content.get();
+      final var stage = new Stage();
+      stage.setScene(new Scene(node, WIDTH, HEIGHT));
+      stage.show();
+      new FrameTimer(timeThen, () -> scroll.accept(node), result -> {
+        stage.close();
+        future.complete(result);
+      }).start();
+    });
+
+    return future.get();
+  }
+
+  private static final class FrameTimer extends AnimationTimer
+  {
+    private final Runnable onFrame;
+    private final Consumer<Result> onFinished;
+    private long previous;
+    private long first;
+    private long total;
+    private long maximum;
+    private int frames;
+
+    FrameTimer(
+      final long inTimeThen,
+      final Runnable inOnFrame,
+      final Consumer<Result> inOnFinished)
+    {
+      this.previous = inTimeThen;
+      this.onFrame =
+        Objects.requireNonNull(inOnFrame, "onFrame");
+      this.onFinished =
+        Objects.requireNonNull(inOnFinished, "onFinished");
+    }
+
+    @Override
+    public void handle(
+      final long now)
+    {
+      final var timeNow = System.nanoTime();
+      final var delta = timeNow - this.previous;
+      this.previous = timeNow;
+
+      if (this.frames == 0) {
+        this.first = delta;
+      } else {
+        this.total += delta;
+        this.maximum = Math.max(this.maximum, delta);
+      }
+
+      if (this.frames == FRAMES) {
+        this.stop();
+        this.onFinished.accept(new Result(
+          (double) this.first / 1_000_000.0,
+          (double) this.total / (double) FRAMES / 1_000_000.0,
+          (double) this.maximum / 1_000_000.0
+        ));
+        return;
+      }
+
+      ++this.frames;
+      this.onFrame.run();
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.taskrecorder.MTRErrorDialogType;
+import com.io7m.miscue.fx.taskrecorder.MTRErrorDialogs;
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepFailed;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskFailed;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.xoanon.commander.api.XCRobotType;
+import com.io7m.xoanon.extension.XoExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(XoExtension.class)
+public final class MTRErrorDialogsTest
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(MTRErrorDialogsTest.class);
+
+  private static TRTask<Optional<?>> task(
+    final int index)
+  {
+    final var items = new ArrayList<TRTaskItemType>();
+    for (int step = 0; step < 10; ++step) {
+      items.add(new TRStep("Step " + step, new TRStepSucceeded("OK")));
+    }
+    items.add(
+      new TRStep(
+        "Print",
+        new TRStepFailed(
+          "Failed " + index,
+          Optional.of(new IOException("Printer out of paper.")))
+      )
+    );
+    return new TRTask<>(
+      "Task " + index,
+      items,
+      new TRTaskFailed<>("Failed " + index, Optional.empty())
+    );
+  }
+
+  private static void awaitCollected(
+    final WeakReference<?> reference)
+    throws InterruptedException
+  {
+    for (int index = 0; index < 10; ++index) {
+      System.gc();
+      if (reference.get() == null) {
+        return;
+      }
+      Thread.sleep(100L);
+    }
+  }
+
+  /**
+   * A disposed dialog no longer retains its task, even while the dialog
+   * itself is still referenced.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDisposeReleasesTask(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var dialog = new AtomicReference<MTRErrorDialogType>();
+    final var taskRef = new AtomicReference<WeakReference<Object>>();
+    robot.execute(() -> {
+      final var task = task(0);
+      taskRef.set(new WeakReference<>(task));
+      dialog.set(MTRErrorDialogs.builder(task).build());
+      dialog.get().show();
+    });
+    robot.waitForFrames(60);
+
+    robot.execute(() -> {
+      dialog.get().dispose();
+      dialog.get().dispose();
+    });
+    robot.waitForFrames(60);
+
+    awaitCollected(taskRef.get());
+    assertNull(taskRef.get().get());
+    assertNull(robot.evaluate(() -> dialog.get().stage().getScene()));
+    assertThrows(IllegalStateException.class, () -> dialog.get().show());
+  }
+
+  /**
+   * A pooled dialog no longer retains its task once it has been closed
+   * and returned to the pool.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPooledReleasesTask(
+    final XCRobotType robot)
+    throws Exception
+  {
+    MTRErrorDialogs.setPoolCapacity(1);
+
+    try {
+      final var dialog = new AtomicReference<MTRErrorDialogType>();
+      final var taskRef = new AtomicReference<WeakReference<Object>>();
+      robot.execute(() -> {
+        final var task = task(0);
+        taskRef.set(new WeakReference<>(task));
+        dialog.set(MTRErrorDialogs.builder(task).setPooled(true).build());
+        dialog.get().show();
+      });
+      robot.waitForFrames(60);
+
+      robot.execute(() -> dialog.get().close());
+      robot.waitForFrames(60);
+      assertEquals(1, MTRErrorDialogs.pooledDialogs());
+
+      awaitCollected(taskRef.get());
+      assertNull(taskRef.get().get());
+    } finally {
+      MTRErrorDialogs.setPoolCapacity(0);
+    }
+  }
+
+  /**
+   * Opening, closing, and disposing many dialogs does not grow the heap,
+   * and the task of the last dialog becomes unreachable.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDisposeHeapFlat(
+    final XCRobotType robot)
+    throws Exception
+  {
+    openAndDispose(robot, 1_000);
+    final var before = usedHeapAfterGC();
+    final var last = openAndDispose(robot, 9_000);
+    final var after = usedHeapAfterGC();
+
+    LOG.debug("Heap before: {} after: {}", before, after);
+    assertTrue(
+      after - before < 16L * 1024L * 1024L,
+      "Heap grew from %d to %d".formatted(before, after)
+    );
+
+    awaitCollected(last);
+    assertNull(last.get());
+  }
+
+  private static WeakReference<Object> openAndDispose(
+    final XCRobotType robot,
+    final int count)
+    throws Exception
+  {
+    final var last = new AtomicReference<WeakReference<Object>>();
+    final var batch = 100;
+    for (int base = 0; base < count; base += batch) {
+      final var first = base;
+      robot.execute(() -> {
+        for (int index = first; index < first + batch; ++index) {
+          final var task = task(index);
+          last.set(new WeakReference<>(task));
+
+          final var dialog = MTRErrorDialogs.builder(task).build();
+          dialog.show();
+          dialog.close();
+          dialog.dispose();
+        }
+      });
+      robot.waitForFrames(1);
+    }
+    return last.get();
+  }
+
+  private static long usedHeapAfterGC()
+    throws InterruptedException
+  {
+    final var runtime = Runtime.getRuntime();
+    for (int index = 0; index < 5; ++index) {
+      System.gc();
+      Thread.sleep(100L);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
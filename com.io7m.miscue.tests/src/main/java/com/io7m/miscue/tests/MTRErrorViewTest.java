@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.core.internal.MiscueReporting;
+import com.io7m.miscue.fx.taskrecorder.MTRIconSet;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRErrorController;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRErrorView;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskCellController;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskCellView;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskTreeModel;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+import com.io7m.xoanon.commander.api.XCRobotType;
+import com.io7m.xoanon.extension.XoExtension;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.io7m.miscue.fx.taskrecorder.internal.MTRErrorStrings.STRINGS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(XoExtension.class)
+public final class MTRErrorViewTest
+{
+  /**
+   * The compiled dialog view produces the same scene graph as the FXML
+   * loader.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCompiledViewMatchesFXML(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final var compiled =
+      robot.evaluate(() -> {
+        return MiscueTestScenes.describe(
+          MTRErrorView.create(STRINGS.resources(), controller()).root());
+      });
+
+    final var loaded =
+      robot.evaluate(() -> load(MTRErrorView.location(), controller()));
+
+    assertEquals(loaded, compiled);
+  }
+
+  /**
+   * The compiled task cell view produces the same scene graph as the FXML
+   * loader.
+   *
+   * @param robot The robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCompiledCellViewMatchesFXML(
+    final XCRobotType robot)
+    throws Exception
+  {
+    final Supplier<MTRTaskCellController> controllers =
+      () -> new MTRTaskCellController(MTRIconSet.defaults());
+
+    final var compiled =
+      robot.evaluate(() -> {
+        return MiscueTestScenes.describe(
+          MTRTaskCellView.create(STRINGS.resources(), controllers.get())
+            .root());
+      });
+
+    final var loaded =
+      robot.evaluate(() -> {
+        return load(MTRTaskCellView.location(), controllers.get());
+      });
+
+    assertEquals(loaded, compiled);
+  }
+
+  private static String load(
+    final URL location,
+    final Object controller)
+  {
+    final var loader = new FXMLLoader(location, STRINGS.resources());
+    loader.setControllerFactory(param -> controller);
+    try {
+      return MiscueTestScenes.describe(loader.<Parent>load());
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A controller whose model is never delivered, so that both views are
+   * described in their initial, loading state.
+   */
+
+  private static MTRErrorController controller()
+  {
+    final var task =
+      new TRTask<>(
+        "Task", List.of(), new TRTaskSucceeded<>("OK", Optional.empty()));
+    return new MTRErrorController(
+      () -> MTRTaskTreeModel.create(task),
+      MiscueReporting.none(),
+      () -> task,
+      Optional.empty(),
+      MTRIconSet.defaults(),
+      Optional.of(runnable -> { }),
+      true,
+      new Stage()
+    );
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.taskrecorder.MTRIconSet;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskCell;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskCellController;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskCellView;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static com.io7m.miscue.fx.taskrecorder.internal.MTRErrorStrings.STRINGS;
+
+/**
+ * <p>A benchmark that measures the cost of creating task tree cells.</p>
+ *
+ * <p>The benchmark compares the old strategy of running an
+ * {@code FXMLLoader} over {@code errorTaskRecorderItem.fxml} for each
+ * cell against the generated {@link MTRTaskCellView}. Each strategy
+ * is run for a number of warm-up rounds, and then for a number of
+ * measured rounds, and the mean time per cell is printed.</p>
+ *
+ * <p>The benchmark needs a display, and is not run as part of the test
+ * suite. To run it, install the project with
+ * {@code mvn install -DskipTests} and then, from the project root:</p>
+ *
+ * <pre>
+ * mvn -pl com.io7m.miscue.tests exec:java \
+ *   -Dexec.mainClass=com.io7m.miscue.tests.MTRTaskCellBenchmarkMain
+ * </pre>
+ */
+
+public final class MTRTaskCellBenchmarkMain
+{
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int MEASURED_ROUNDS = 20;
+  private static final int CELLS_PER_ROUND = 1000;
+
+  private MTRTaskCellBenchmarkMain()
+  {
+
+  }
+
+  /**
+   * The main entry point.
+   *
+   * @param args The command-line arguments (ignored)
+   *
+   * @throws Exception On errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws Exception
+  {
+    final var started = new CompletableFuture<Void>();
+    Platform.startup(() -> started.complete(null));
+    started.get();
+
+    try {
+      final var loaderTime =
+        onFXThread(() -> measure(MTRTaskCellBenchmarkMain::createWithLoader));
+      final var compiledTime =
+        onFXThread(() -> measure(MTRTaskCellBenchmarkMain::createCompiled));
+      final var cellTime =
+        onFXThread(() -> measure(() -> new MTRTaskCell(MTRIconSet.defaults())));
+
+      System.out.printf("FXMLLoader:    %10.2f us/cell%n", loaderTime);
+      System.out.printf("Compiled view: %10.2f us/cell%n", compiledTime);
+      System.out.printf("MTRTaskCell:   %10.2f us/cell%n", cellTime);
+    } finally {
+      Platform.exit();
+    }
+  }
+
+  private static Node createWithLoader()
+  {
+    try {
+      final var loader =
+        new FXMLLoader(MTRTaskCellView.location(), STRINGS.resources());
+      loader.setControllerFactory(
+        param -> new MTRTaskCellController(MTRIconSet.defaults()));
+      return loader.load();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Node createCompiled()
+  {
+    return MTRTaskCellView.create(
+      STRINGS.resources(),
+      new MTRTaskCellController(MTRIconSet.defaults())
+    ).root();
+  }
+
+  private static double onFXThread(
+    final Supplier<Double> supplier)
+    throws Exception
+  {
+    final var future = new CompletableFuture<Double>();
+    Platform.runLater(() -> {
+      try {
+        future.complete(supplier.get());
+      } catch (final Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future.get().doubleValue();
+  }
+
+  private static double measure(
+    final Supplier<?> cells)
+  {
+    for (int round = 0; round < WARMUP_ROUNDS; ++round) {
+      runRound(cells);
+    }
+
+    long total = 0L;
+    for (int round = 0; round < MEASURED_ROUNDS; ++round) {
+      total += runRound(cells);
+    }
+
+    final double perCell =
+      (double) total / (double) (MEASURED_ROUNDS * CELLS_PER_ROUND);
+    return perCell / 1000.0;
+  }
+
+  private static long runRound(
+    final Supplier<?> cells)
+  {
+    final var timeThen = System.nanoTime();
+    for (int index = 0; index < CELLS_PER_ROUND; ++index) {
+      if (cells.get() == null) {
+        throw new IllegalStateException("Cell creation returned null.");
+      }
+    }
+    return System.nanoTime() - timeThen;
+  }
+}
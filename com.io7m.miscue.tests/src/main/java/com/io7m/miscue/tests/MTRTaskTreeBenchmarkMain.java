@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskTreeAttacher;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskTreeItem;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskTreeModel;
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+import javafx.scene.control.TreeItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * <p>A benchmark that measures the memory cost per node of task trees.</p>
+ *
+ * <p>The benchmark builds a synthetic task of around a million nodes (a
+ * root with {@link #TASKS} tasks, each containing {@link #STEPS} steps
+ * drawn from a small set of descriptions) and compares the old strategy of
+ * eagerly creating a {@code TreeItem} for every node against
+ * {@link MTRTaskTreeModel}, and against the model together with the
+ * {@link MTRTaskTreeItem} items created for the initial view. The task
+ * items themselves are not counted, because all strategies share them.
+ * The heap is measured after garbage collection, and the results are
+ * printed in bytes per node.</p>
+ *
+ * <p>The benchmark does not need a display, but is not run as part of the
+ * test suite.</p>
+ */
+
+public final class MTRTaskTreeBenchmarkMain
+{
+  private static final int TASKS = 1000;
+  private static final int STEPS = 999;
+  private static final int DESCRIPTIONS = 50;
+  private static final int NODES = 1 + TASKS * (1 + STEPS);
+  private static final int ATTACH_BATCH = 256;
+
+  private MTRTaskTreeBenchmarkMain()
+  {
+
+  }
+
+  /**
+   * The main entry point.
+   *
+   * @param args The command-line arguments (ignored)
+   *
+   * @throws Exception On errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws Exception
+  {
+    final var task = buildTask();
+
+    final var treeItems =
+      measure(() -> buildTreeItems(task));
+    final var model =
+      measure(() -> MTRTaskTreeModel.create(task));
+    final var view =
+      measure(() -> buildInitialView(MTRTaskTreeModel.create(task)));
+
+    System.out.printf("Nodes:                %10d%n", Integer.valueOf(NODES));
+    System.out.printf("TreeItem per node:    %10.2f bytes/node%n", treeItems);
+    System.out.printf("MTRTaskTreeModel:     %10.2f bytes/node%n", model);
+    System.out.printf("Model + initial view: %10.2f bytes/node%n", view);
+  }
+
+  private static TRTask<Integer> buildTask()
+  {
+    final var descriptions = new String[DESCRIPTIONS];
+    for (int index = 0; index < DESCRIPTIONS; ++index) {
+      descriptions[index] = "Step %d".formatted(Integer.valueOf(index));
+    }
+
+    final var tasks = new ArrayList<TRTaskItemType>(TASKS);
+    for (int task = 0; task < TASKS; ++task) {
+      final var steps = new ArrayList<TRTaskItemType>(STEPS);
+      for (int step = 0; step < STEPS; ++step) {
+        steps.add(
+          new TRStep(
+            descriptions[step % DESCRIPTIONS],
+            new TRStepSucceeded("OK"))
+        );
+      }
+      tasks.add(new TRTask<>("Task", steps, succeeded()));
+    }
+    return new TRTask<>("Task", tasks, succeeded());
+  }
+
+  private static TRTaskSucceeded<Integer> succeeded()
+  {
+    return new TRTaskSucceeded<>("OK", Integer.valueOf(0));
+  }
+
+  /**
+   * Build a tree the way the dialog originally did: one {@code TreeItem}
+   * for every node, created eagerly.
+   */
+
+  private static TreeItem<TRTaskItemType> buildTreeItems(
+    final TRTask<Integer> task)
+  {
+    final var root = new TreeItem<TRTaskItemType>(task);
+    for (final var taskItem : task.items()) {
+      final var taskNode = new TreeItem<>(taskItem);
+      final List<TRTaskItemType> steps = ((TRTask<?>) taskItem).items();
+      for (final var step : steps) {
+        taskNode.getChildren().add(new TreeItem<>(step));
+      }
+      root.getChildren().add(taskNode);
+    }
+    return root;
+  }
+
+  /**
+   * Build the items that a tree view creates when it is first shown: the
+   * root, and the first batch of its children.
+   */
+
+  private static TreeItem<Integer> buildInitialView(
+    final MTRTaskTreeModel model)
+  {
+    final var root =
+      MTRTaskTreeItem.root(
+        model,
+        true,
+        Optional.empty(),
+        new MTRTaskTreeAttacher(ATTACH_BATCH, () -> { })
+      );
+    root.getChildren();
+    return root;
+  }
+
+  private static double measure(
+    final Supplier<?> supplier)
+    throws InterruptedException
+  {
+    final var before = usedMemory();
+    final var retained = supplier.get();
+    final var after = usedMemory();
+    if (retained == null) {
+      throw new IllegalStateException("Supplier returned null.");
+    }
+    return (double) (after - before) / (double) NODES;
+  }
+
+  private static long usedMemory()
+    throws InterruptedException
+  {
+    final var runtime = Runtime.getRuntime();
+    for (int index = 0; index < 4; ++index) {
+      System.gc();
+      Thread.sleep(100L);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.export.taskrecorder.MXTaskRecordingCompression;
+import com.io7m.miscue.export.taskrecorder.MXTaskRecordings;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRSearchTree;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskTreeAttacher;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskTreeItem;
+import com.io7m.miscue.fx.taskrecorder.internal.MTRTaskTreeModel;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import javafx.scene.control.TreeItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.io7m.miscue.tests.MiscueTestTasks.step;
+import static com.io7m.miscue.tests.MiscueTestTasks.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MTRTaskTreeItemTest
+{
+  /**
+   * A root task containing a single task of distinct steps. The nodes of
+   * the steps are numbered from 2.
+   */
+
+  private static MTRTaskTreeModel wideModel(
+    final int steps)
+  {
+    final var items = new ArrayList<TRTaskItemType>();
+    for (int index = 0; index < steps; ++index) {
+      items.add(step("Step %d".formatted(index), false));
+    }
+    return MTRTaskTreeModel.create(
+      task("Root", List.of(task("Task", items, false)), false));
+  }
+
+  private static MTRTaskTreeAttacher attacher(
+    final int batch)
+  {
+    return new MTRTaskTreeAttacher(batch, () -> { });
+  }
+
+  /**
+   * Reveal a node, running the attacher until the reveal completes.
+   *
+   * @return The revealed item, and the number of runs needed
+   */
+
+  private static Revealed reveal(
+    final MTRTaskTreeAttacher attacher,
+    final MTRTaskTreeItem root,
+    final int node)
+  {
+    final var found = new ArrayList<MTRTaskTreeItem>();
+    assertTrue(attacher.reveal(root, node, found::add));
+
+    int runs = 0;
+    while (found.isEmpty()) {
+      assertTrue(attacher.isPending());
+      attacher.run();
+      ++runs;
+    }
+    return new Revealed(found.get(0), runs);
+  }
+
+  private record Revealed(
+    MTRTaskTreeItem item,
+    int runs)
+  {
+
+  }
+
+  private static List<Integer> nodes(
+    final TreeItem<Integer> item)
+  {
+    return item.getChildren()
+      .stream()
+      .map(TreeItem::getValue)
+      .toList();
+  }
+
+  /**
+   * Children are only created when requested, one batch at a time, and the
+   * remaining batches are created by the attacher.
+   */
+
+  @Test
+  public void testChildrenCreatedInBatches()
+  {
+    final var scheduled = new AtomicInteger();
+    final var attacher =
+      new MTRTaskTreeAttacher(100, scheduled::incrementAndGet);
+    final var root =
+      MTRTaskTreeItem.root(wideModel(1000), true, Optional.empty(), attacher);
+
+    assertEquals(1, root.getChildren().size());
+    assertEquals(0, scheduled.get());
+
+    final var task = (MTRTaskTreeItem) root.getChildren().get(0);
+    assertFalse(task.isLeaf());
+    assertFalse(task.isExpanded());
+    assertEquals(100, task.getChildren().size());
+    assertFalse(task.isComplete());
+    assertTrue(attacher.isPending());
+    assertEquals(1, scheduled.get());
+
+    int runs = 0;
+    while (attacher.run()) {
+      ++runs;
+    }
+    assertEquals(8, runs);
+    assertEquals(1000, task.getChildren().size());
+    assertTrue(task.isComplete());
+    assertFalse(attacher.isPending());
+
+    final var first = (MTRTaskTreeItem) task.getChildren().get(0);
+    assertEquals(2, first.node());
+    assertTrue(first.isLeaf());
+  }
+
+  /**
+   * Runs of identical steps are folded when folding is enabled, and the
+   * fold contains the steps of the run.
+   */
+
+  @Test
+  public void testFolding()
+  {
+    final var model =
+      MTRTaskTreeModel.create(
+        task("Root", List.of(
+          step("A", false),
+          step("A", false),
+          step("A", false),
+          step("B", false)
+        ), false));
+
+    final var folded =
+      MTRTaskTreeItem.root(model, true, Optional.empty(), attacher(16));
+    assertEquals(List.of(1, 4), nodes(folded));
+
+    final var fold = (MTRTaskTreeItem) folded.getChildren().get(0);
+    assertTrue(fold.isFold());
+    assertEquals(3, fold.count());
+    assertFalse(fold.isLeaf());
+    assertEquals(List.of(1, 2, 3), nodes(fold));
+
+    final var unfolded =
+      MTRTaskTreeItem.root(model, false, Optional.empty(), attacher(16));
+    assertEquals(List.of(1, 2, 3, 4), nodes(unfolded));
+  }
+
+  /**
+   * A tree filtered to the failure paths contains only failed nodes and
+   * their ancestors.
+   */
+
+  @Test
+  public void testFailureFilter()
+  {
+    final var model =
+      MTRTaskTreeModel.create(
+        task("Root", List.of(
+          task("T0", List.of(step("A", false)), false),
+          task("T1", List.of(step("B", false), step("C", true)), true)
+        ), true));
+
+    final var attacher = attacher(16);
+    final var root =
+      MTRTaskTreeItem.root(
+        model, true, Optional.of(model.failurePaths()), attacher);
+
+    assertEquals(List.of(3), nodes(root));
+    final var task = (MTRTaskTreeItem) root.getChildren().get(0);
+    assertEquals(List.of(5), nodes(task));
+    assertFalse(attacher.reveal(root, 1, item -> { }));
+    assertFalse(attacher.isPending());
+  }
+
+  /**
+   * Failed tasks are not expanded when they are created, so showing a tree
+   * never creates more than the first batch of the root's children.
+   */
+
+  @Test
+  public void testFailedTasksCollapsed()
+  {
+    final var items = new ArrayList<TRTaskItemType>();
+    for (int index = 0; index < 1000; ++index) {
+      items.add(task(
+        "Task %d".formatted(index),
+        List.of(step("A", false), step("B", true)),
+        true
+      ));
+    }
+    final var model =
+      MTRTaskTreeModel.create(task("Root", items, true));
+
+    final var unfiltered =
+      MTRTaskTreeItem.root(model, true, Optional.empty(), attacher(100));
+    final var filtered =
+      MTRTaskTreeItem.root(
+        model, true, Optional.of(model.failurePaths()), attacher(100));
+
+    for (final var root : List.of(unfiltered, filtered)) {
+      assertEquals(100, root.getChildren().size());
+      for (final var child : root.getChildren()) {
+        assertFalse(child.isExpanded());
+        assertFalse(((MTRTaskTreeItem) child).isComplete());
+      }
+    }
+  }
+
+  /**
+   * Revealing a node inside a fold expands the path and the fold.
+   */
+
+  @Test
+  public void testRevealInsideFold()
+  {
+    final var items = new ArrayList<TRTaskItemType>();
+    for (int index = 0; index < 2000; ++index) {
+      items.add(step("Step %d".formatted(index), false));
+    }
+    for (int index = 0; index < 500; ++index) {
+      items.add(step("Same", false));
+    }
+    final var model =
+      MTRTaskTreeModel.create(
+        task("Root", List.of(task("Task", items, false)), false));
+
+    final var attacher = attacher(100);
+    final var root =
+      MTRTaskTreeItem.root(model, true, Optional.empty(), attacher);
+    final var item = reveal(attacher, root, 2 + 2000 + 250).item();
+    assertEquals(2252, item.node());
+
+    final var fold = (MTRTaskTreeItem) item.getParent();
+    assertTrue(fold.isFold());
+    assertTrue(fold.isExpanded());
+    assertEquals(500, fold.count());
+
+    final var task = (MTRTaskTreeItem) fold.getParent();
+    assertTrue(task.isExpanded());
+    assertEquals(2001, task.getChildren().size());
+
+    final var early = reveal(attacher, root, 502).item();
+    assertEquals(502, early.node());
+    assertEquals(task, early.getParent());
+  }
+
+  /**
+   * Revealing a node deep inside a large task creates at most one batch of
+   * children per run, and completes once the node has been created.
+   */
+
+  @Test
+  public void testRevealIncremental()
+  {
+    final var attacher = attacher(100);
+    final var root =
+      MTRTaskTreeItem.root(
+        wideModel(10000), true, Optional.empty(), attacher);
+
+    final var revealed = reveal(attacher, root, 1502);
+    assertEquals(1502, revealed.item().node());
+    assertEquals(15, revealed.runs());
+    assertEquals(1600, revealed.item().getParent().getChildren().size());
+
+    final var again = reveal(attacher, root, 1402);
+    assertEquals(0, again.runs());
+  }
+
+  /**
+   * Search trees contain the matches and their ancestors, expanded, and
+   * grow as matches are delivered.
+   */
+
+  @Test
+  public void testSearchTree()
+  {
+    final var model =
+      MTRTaskTreeModel.create(
+        task("Root", List.of(
+          task("T0", List.of(step("A", false), step("B", false)), false),
+          task("T1", List.of(step("A", false)), false),
+          step("A", false)
+        ), false));
+
+    final var search = new MTRSearchTree(model);
+    final var root = search.root();
+    assertTrue(root.isLeaf());
+
+    search.addMatches(new int[]{2});
+    assertEquals(List.of(1), nodes(root));
+    final var t0 = (MTRTaskTreeItem) root.getChildren().get(0);
+    assertTrue(t0.isExpanded());
+    assertFalse(t0.isMatch());
+    assertEquals(List.of(2), nodes(t0));
+    assertTrue(((MTRTaskTreeItem) t0.getChildren().get(0)).isMatch());
+
+    search.addMatches(new int[]{5, 6});
+    assertEquals(List.of(1, 4, 6), nodes(root));
+    final var t1 = (MTRTaskTreeItem) root.getChildren().get(1);
+    assertEquals(List.of(5), nodes(t1));
+    assertTrue(((MTRTaskTreeItem) root.getChildren().get(2)).isMatch());
+  }
+
+  /**
+   * Only the descriptions of a model opened on a task recording are
+   * searchable; the messages in the string table are never exposed for
+   * indexing.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRecordingSearchableDescriptions(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(
+      task("Root", List.of(
+        step("A", true),
+        step("B", false)
+      ), true),
+      file,
+      MXTaskRecordingCompression.NONE
+    );
+
+    final var model = MTRTaskTreeModel.open(file);
+    try {
+      final var all = model.descriptions();
+      final var searchable = model.searchableDescriptions();
+      assertEquals(all.size(), searchable.size());
+      assertTrue(all.contains("Failed A"));
+      assertFalse(searchable.contains("Failed A"));
+
+      for (int node = 0; node < model.size(); ++node) {
+        final var id = model.descriptionId(node);
+        assertEquals(all.get(id), searchable.get(id));
+      }
+      for (int id = 0; id < all.size(); ++id) {
+        if (!searchable.get(id).equals(all.get(id))) {
+          assertEquals("", searchable.get(id));
+        }
+      }
+    } finally {
+      model.close();
+    }
+  }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.export.MXErrorBundles;
+import com.io7m.miscue.export.MXErrorExports;
+import com.io7m.miscue.export.MXFormat;
+import com.io7m.miscue.export.MXSnapshot;
+import com.io7m.miscue.export.internal.MXReportBundles;
+import com.io7m.seltzer.api.SStructuredError;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.ZipInputStream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MXErrorBundlesTest
+{
+  private static Map<String, byte[]> entries(
+    final Path file)
+    throws IOException
+  {
+    final var entries = new HashMap<String, byte[]>();
+    try (var zip = new ZipInputStream(Files.newInputStream(file))) {
+      for (var entry = zip.getNextEntry();
+           entry != null;
+           entry = zip.getNextEntry()) {
+        entries.put(entry.getName(), zip.readAllBytes());
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Decode an RGBA PNG written with the "sub" filter, checking the
+   * signature and the CRC of every chunk.
+   */
+
+  private static MXSnapshot decodePNG(
+    final byte[] png)
+    throws Exception
+  {
+    final var buffer = ByteBuffer.wrap(png);
+    assertEquals(0x89504E47_0D0A1A0AL, buffer.getLong());
+
+    final var data = new ByteArrayOutputStream();
+    int width = 0;
+    int height = 0;
+    while (true) {
+      final var length = buffer.getInt();
+      final var typeAndData = new byte[4 + length];
+      buffer.get(typeAndData);
+      final var crc = new CRC32();
+      crc.update(typeAndData);
+      assertEquals((int) crc.getValue(), buffer.getInt());
+
+      final var type = new String(typeAndData, 0, 4, US_ASCII);
+      final var body = ByteBuffer.wrap(typeAndData, 4, length);
+      if (type.equals("IHDR")) {
+        width = body.getInt();
+        height = body.getInt();
+        assertEquals(8, body.get());
+        assertEquals(6, body.get());
+      } else if (type.equals("IDAT")) {
+        data.write(typeAndData, 4, length);
+      } else if (type.equals("IEND")) {
+        break;
+      }
+    }
+
+    final var inflater = new Inflater();
+    inflater.setInput(data.toByteArray());
+    final var stride = 1 + width * 4;
+    final var raw = new byte[stride * height];
+    assertEquals(raw.length, inflater.inflate(raw));
+    assertTrue(inflater.finished());
+    inflater.end();
+
+    final var pixels = new int[width * height];
+    for (int y = 0; y < height; ++y) {
+      assertEquals(1, raw[y * stride]);
+      for (int index = 4; index < width * 4; ++index) {
+        final var offset = y * stride + 1 + index;
+        raw[offset] = (byte) (raw[offset] + raw[offset - 4]);
+      }
+      for (int x = 0; x < width; ++x) {
+        final var offset = y * stride + 1 + x * 4;
+        final var r = raw[offset] & 0xff;
+        final var g = raw[offset + 1] & 0xff;
+        final var b = raw[offset + 2] & 0xff;
+        final var a = raw[offset + 3] & 0xff;
+        pixels[y * width + x] = (a << 24) | (r << 16) | (g << 8) | b;
+      }
+    }
+    return new MXSnapshot(width, height, pixels);
+  }
+
+  /**
+   * A bundle contains the error text, the attributes, the exception chain,
+   * and a PNG image that decodes to the captured pixels.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBundle()
+    throws Exception
+  {
+    final var exception =
+      new IllegalStateException("Outer.", new Error("Cause."));
+    final var error =
+      SStructuredError.builder("error-code", "A problem occurred.")
+        .withAttribute("z", "Last")
+        .withAttribute("a", "First")
+        .withException(exception)
+        .build();
+
+    final var width = 300;
+    final var height = 7;
+    final var pixels = new int[width * height];
+    for (int index = 0; index < pixels.length; ++index) {
+      pixels[index] = index * 0x01030507 ^ 0x80402010;
+    }
+    final var snapshot = new MXSnapshot(width, height, pixels);
+
+    final var file = Files.createTempFile("miscue-bundle-", ".zip");
+    try {
+      MXErrorBundles.write(error, Optional.of(snapshot), file);
+      final var entries = entries(file);
+
+      final var text = new StringWriter();
+      MXErrorExports.export(error, MXFormat.TEXT, text);
+      assertEquals(text.toString(), new String(entries.get("error.txt"), UTF_8));
+
+      final var attributes = new String(entries.get("attributes.json"), UTF_8);
+      assertTrue(attributes.contains("\"attributes\":{\"a\":\"First\",\"z\":\"Last\"}"));
+
+      final var trace = new StringWriter();
+      exception.printStackTrace(new PrintWriter(trace));
+      assertEquals(
+        trace.toString().replace(System.lineSeparator(), "\n"),
+        new String(entries.get("exception.txt"), UTF_8)
+      );
+
+      final var decoded = decodePNG(entries.get("snapshot.png"));
+      assertEquals(width, decoded.width());
+      assertEquals(height, decoded.height());
+      assertArrayEquals(pixels, decoded.pixels());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Entries for an absent exception and snapshot are omitted.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBundleMinimal()
+    throws Exception
+  {
+    final var error =
+      SStructuredError.builder("error-code", "A problem occurred.")
+        .build();
+
+    final var file = Files.createTempFile("miscue-bundle-", ".zip");
+    try {
+      MXErrorBundles.write(error, Optional.empty(), file);
+      final var names = entries(file).keySet();
+      assertEquals(2, names.size());
+      assertTrue(names.contains("error.txt"));
+      assertTrue(names.contains("attributes.json"));
+      assertFalse(names.contains("exception.txt"));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Snapshots must have as many pixels as their size implies.
+   */
+
+  @Test
+  public void testSnapshotSize()
+  {
+    assertThrows(IllegalArgumentException.class, () -> {
+      new MXSnapshot(2, 2, new int[3]);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      new MXSnapshot(0, 0, new int[0]);
+    });
+  }
+
+  private static SStructuredError<String> errorWithException()
+  {
+    return SStructuredError.builder("error-code", "A problem occurred.")
+      .withException(new IllegalStateException("Outer."))
+      .build();
+  }
+
+  /**
+   * A cancellation function that reports cancellation once it has been
+   * asked a given number of times.
+   */
+
+  private static final class CancelAfter implements BooleanSupplier
+  {
+    private final int checks;
+    private final AtomicInteger count;
+
+    CancelAfter(
+      final int inChecks)
+    {
+      this.checks = inChecks;
+      this.count = new AtomicInteger();
+    }
+
+    @Override
+    public boolean getAsBoolean()
+    {
+      return this.count.incrementAndGet() > this.checks;
+    }
+  }
+
+  /**
+   * Cancellation is checked before each entry, and so a cancelled bundle
+   * stops at the next entry rather than after the whole zip is written.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBundleCancelledBetweenEntries(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("bundle.zip");
+    final var cancel = new CancelAfter(1);
+
+    assertThrows(CancellationException.class, () -> {
+      MXErrorBundles.write(
+        errorWithException(), Optional.empty(), file, cancel);
+    });
+    assertEquals(2, cancel.count.get());
+  }
+
+  /**
+   * A report bundle is written into the directory, with the given prefix.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReportBundle(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file =
+      MXReportBundles.<SStructuredError<String>>write(
+        MXErrorBundles::write,
+        errorWithException(),
+        Optional.empty(),
+        directory,
+        "error-report-",
+        new CancelAfter(Integer.MAX_VALUE)
+      ).orElseThrow();
+
+    assertEquals(directory, file.getParent());
+    assertTrue(file.getFileName().toString().startsWith("error-report-"));
+    assertTrue(entries(file).containsKey("exception.txt"));
+  }
+
+  /**
+   * A cancelled report bundle is deleted, and nothing is returned.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReportBundleCancelled(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file =
+      MXReportBundles.<SStructuredError<String>>write(
+        MXErrorBundles::write,
+        errorWithException(),
+        Optional.empty(),
+        directory,
+        "error-report-",
+        new CancelAfter(1)
+      );
+
+    assertTrue(file.isEmpty());
+    try (var files = Files.list(directory)) {
+      assertEquals(0L, files.count());
+    }
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.export.MXDocumentWriters;
+import com.io7m.miscue.export.MXErrorExports;
+import com.io7m.miscue.export.MXFormat;
+import com.io7m.miscue.export.MXNodeKind;
+import com.io7m.seltzer.api.SStructuredError;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MXErrorExportsTest
+{
+  private static String export(
+    final SStructuredError<String> error,
+    final MXFormat format)
+    throws IOException
+  {
+    final var writer = new StringWriter();
+    MXErrorExports.export(error, format, writer);
+    return writer.toString();
+  }
+
+  private static SStructuredError<String> error()
+  {
+    final var exception =
+      new IllegalStateException("Outer.", new Error("Cause."));
+    exception.addSuppressed(new Exception("Suppressed."));
+
+    return SStructuredError.builder("error-code", "A \"problem\" <occurred>.")
+      .withAttribute("z", "Last")
+      .withAttribute("a", "First\nSecond")
+      .withRemediatingAction("Try again.")
+      .withException(exception)
+      .build();
+  }
+
+  /**
+   * The exported text contains the fields and the sorted attributes, and
+   * the exception lines are exactly those of printStackTrace.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testText()
+    throws Exception
+  {
+    final var error = error();
+    final var text = export(error, MXFormat.TEXT);
+
+    assertTrue(text.startsWith("A \"problem\" <occurred>.\n\n"));
+    assertTrue(text.contains("errorCode: error-code\n"));
+    assertTrue(text.contains("attributes:\n  a: First\n    Second\n  z: Last\n"));
+    assertTrue(text.contains("remediatingAction: Try again.\n"));
+
+    final var printed = new StringWriter();
+    error.exception().orElseThrow().printStackTrace(new PrintWriter(printed));
+
+    final var start = text.indexOf("exception:\n") + "exception:\n".length();
+    final var exported =
+      Arrays.stream(text.substring(start).split("\n"))
+        .map(line -> line.substring(2))
+        .toList();
+    assertEquals(
+      Arrays.asList(printed.toString().split(System.lineSeparator())),
+      exported
+    );
+  }
+
+  /**
+   * The exported JSON escapes strings and sorts attributes.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testJSON()
+    throws Exception
+  {
+    final var json = export(error(), MXFormat.JSON);
+
+    assertTrue(json.startsWith(
+      "{\"title\":\"A \\\"problem\\\" <occurred>.\",\"errorCode\":\"error-code\""));
+    assertTrue(json.contains(
+      "\"attributes\":{\"a\":\"First\\nSecond\",\"z\":\"Last\"}"));
+    assertTrue(json.contains(
+      "\"exception\":[\"java.lang.IllegalStateException: Outer.\",\"\\tat "));
+    assertTrue(json.endsWith("]}\n"));
+  }
+
+  /**
+   * The exported HTML is self-contained and escapes text.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testHTML()
+    throws Exception
+  {
+    final var html = export(error(), MXFormat.HTML);
+
+    assertTrue(html.startsWith("<!DOCTYPE html>"));
+    assertTrue(html.contains("<h1>A &quot;problem&quot; &lt;occurred&gt;.</h1>"));
+    assertTrue(html.contains("<tr><th>a</th><td>First\nSecond</td></tr>"));
+    assertFalse(html.contains("<occurred>"));
+    assertFalse(html.contains("<link"));
+    assertFalse(html.contains("<script"));
+    assertTrue(html.endsWith("</html>\n"));
+  }
+
+  /**
+   * Exporting to a stream writes UTF-8.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStream()
+    throws Exception
+  {
+    final var error =
+      SStructuredError.builder("error-code", "Caf\u00e9")
+        .build();
+
+    final var stream = new ByteArrayOutputStream();
+    MXErrorExports.export(error, MXFormat.TEXT, stream);
+    assertEquals(
+      "Caf\u00e9\n\nerrorCode: error-code\nmessage: Caf\u00e9\nattributes:\n",
+      stream.toString(UTF_8)
+    );
+  }
+
+  /**
+   * Control characters are escaped in JSON.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testJSONControl()
+    throws Exception
+  {
+    final var error =
+      SStructuredError.builder("error-code", "x")
+        .withAttribute("a\u0001", "\\\u2028")
+        .build();
+
+    final var json = export(error, MXFormat.JSON);
+    assertTrue(json.contains("{\"a\\u0001\":\"\\\\\\u2028\"}"));
+  }
+
+  /**
+   * Trees are written as nested arrays of nodes in JSON, with the array of
+   * children only present for nodes that have children.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testJSONTree()
+    throws Exception
+  {
+    final var output = new StringWriter();
+    final var writer = MXDocumentWriters.create(MXFormat.JSON, output);
+    writer.begin("T");
+    writer.beginTree("task");
+    writer.beginNode(MXNodeKind.TASK, "Root", true, "Failed");
+    writer.beginNode(MXNodeKind.STEP, "A", false, "");
+    writer.endNode();
+    writer.beginNode(MXNodeKind.STEP, "B", true, "Bad");
+    writer.beginLines("exception");
+    writer.line("", "E");
+    writer.endLines();
+    writer.endNode();
+    writer.endNode();
+    writer.endTree();
+    writer.end();
+
+    assertEquals(
+      "{\"title\":\"T\",\"task\":[{\"kind\":\"task\",\"description\":\"Root\","
+      + "\"failed\":true,\"message\":\"Failed\",\"children\":["
+      + "{\"kind\":\"step\",\"description\":\"A\",\"failed\":false,"
+      + "\"message\":\"\"},"
+      + "{\"kind\":\"step\",\"description\":\"B\",\"failed\":true,"
+      + "\"message\":\"Bad\",\"exception\":[\"E\"]}]}]}\n",
+      output.toString()
+    );
+  }
+
+  /**
+   * Trees are written as nested, indented lines in text.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testTextTree()
+    throws Exception
+  {
+    final var output = new StringWriter();
+    final var writer = MXDocumentWriters.create(MXFormat.TEXT, output);
+    writer.begin("T");
+    writer.beginTree("task");
+    writer.beginNode(MXNodeKind.TASK, "Root", true, "Failed");
+    writer.beginNode(MXNodeKind.STEP, "A", false, "");
+    writer.endNode();
+    writer.endNode();
+    writer.endTree();
+    writer.end();
+
+    assertEquals(
+      "T\n\ntask:\n  [FAILED] Root: Failed\n    [OK] A\n",
+      output.toString()
+    );
+  }
+
+  /**
+   * Attributes are written in name order regardless of map order.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testAttributesSorted()
+    throws Exception
+  {
+    final var error =
+      new SStructuredError<>(
+        "error-code",
+        "x",
+        Map.of("c", "3", "a", "1", "b", "2"),
+        Optional.empty(),
+        Optional.empty()
+      );
+
+    final var text = export(error, MXFormat.TEXT);
+    assertTrue(text.endsWith("attributes:\n  a: 1\n  b: 2\n  c: 3\n"));
+  }
+}
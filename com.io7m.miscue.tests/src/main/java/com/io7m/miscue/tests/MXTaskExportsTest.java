@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.export.MXFormat;
+import com.io7m.miscue.export.taskrecorder.MXTaskBundles;
+import com.io7m.miscue.export.taskrecorder.MXTaskExports;
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepFailed;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskFailed;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.zip.ZipInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MXTaskExportsTest
+{
+  private static String export(
+    final TRTask<?> task,
+    final MXFormat format)
+    throws IOException
+  {
+    final var writer = new StringWriter();
+    MXTaskExports.export(task, format, writer);
+    return writer.toString();
+  }
+
+  private static TRTask<Integer> task()
+  {
+    final var sub =
+      new TRTask<Integer>(
+        "Sub <task>",
+        List.of(
+          new TRStep("Step C", new TRStepFailed(
+            "Failed \"C\".",
+            Optional.of(new IllegalStateException("Broken."))))
+        ),
+        new TRTaskFailed<>("Sub failed.", Optional.empty())
+      );
+
+    return new TRTask<>(
+      "Root",
+      List.<TRTaskItemType>of(
+        new TRStep("Step A", new TRStepSucceeded("A done.")),
+        sub,
+        new TRStep("Step B", new TRStepSucceeded("B done."))
+      ),
+      new TRTaskFailed<>("Root failed.", Optional.empty())
+    );
+  }
+
+  /**
+   * The exported text contains every task and step in preorder, indented
+   * by depth, with the exception of the failed step.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testText()
+    throws Exception
+  {
+    final var text = export(task(), MXFormat.TEXT);
+
+    assertTrue(text.startsWith(
+      "Root\n\ntask:\n"
+      + "  [FAILED] Root: Root failed.\n"
+      + "    [OK] Step A: A done.\n"
+      + "    [FAILED] Sub <task>: Sub failed.\n"
+      + "      [FAILED] Step C: Failed \"C\".\n"
+    ));
+    assertTrue(text.contains(
+      "java.lang.IllegalStateException: Broken.\n"));
+    assertTrue(text.endsWith("    [OK] Step B: B done.\n"));
+  }
+
+  /**
+   * The exported JSON nests children, and only nodes with children have
+   * a children array.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testJSON()
+    throws Exception
+  {
+    final var json = export(task(), MXFormat.JSON);
+
+    assertTrue(json.startsWith(
+      "{\"title\":\"Root\",\"task\":[{\"kind\":\"task\","
+      + "\"description\":\"Root\",\"failed\":true,"
+      + "\"message\":\"Root failed.\",\"children\":["
+      + "{\"kind\":\"step\",\"description\":\"Step A\",\"failed\":false,"
+      + "\"message\":\"A done.\"},"
+      + "{\"kind\":\"task\",\"description\":\"Sub <task>\",\"failed\":true,"
+      + "\"message\":\"Sub failed.\",\"children\":["
+      + "{\"kind\":\"step\",\"description\":\"Step C\",\"failed\":true,"
+      + "\"message\":\"Failed \\\"C\\\".\",\"exception\":["
+      + "\"java.lang.IllegalStateException: Broken.\""
+    ));
+    assertTrue(json.endsWith(
+      "{\"kind\":\"step\",\"description\":\"Step B\",\"failed\":false,"
+      + "\"message\":\"B done.\"}]}]}\n"
+    ));
+  }
+
+  /**
+   * The exported HTML escapes descriptions and messages.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testHTML()
+    throws Exception
+  {
+    final var html = export(task(), MXFormat.HTML);
+
+    assertTrue(html.startsWith("<!DOCTYPE html>"));
+    assertTrue(html.contains("Sub &lt;task&gt;"));
+    assertTrue(html.contains("Failed &quot;C&quot;."));
+    assertFalse(html.contains("<task>"));
+    assertTrue(html.endsWith("</html>\n"));
+  }
+
+  /**
+   * A task tree much deeper than the stack would allow for a recursive
+   * traversal is exported.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDeep()
+    throws Exception
+  {
+    TRTask<Integer> task =
+      new TRTask<>(
+        "T",
+        List.of(new TRStep("S", new TRStepSucceeded("OK"))),
+        new TRTaskSucceeded<>("OK", Integer.valueOf(0))
+      );
+
+    for (int index = 0; index < 100_000; ++index) {
+      task = new TRTask<>(
+        "T",
+        List.of(task),
+        new TRTaskSucceeded<>("OK", Integer.valueOf(0))
+      );
+    }
+
+    final var stream = new ByteArrayOutputStream();
+    MXTaskExports.export(task, MXFormat.JSON, stream);
+
+    final var json = stream.toString(UTF_8);
+    assertTrue(json.contains(
+      "{\"kind\":\"step\",\"description\":\"S\",\"failed\":false,"
+      + "\"message\":\"OK\"}"));
+    assertTrue(json.endsWith("}]}]}]}\n"));
+  }
+
+  /**
+   * Exporting to a stream writes UTF-8.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStream()
+    throws Exception
+  {
+    final var task =
+      new TRTask<Integer>(
+        "Café",
+        List.of(),
+        new TRTaskSucceeded<>("Done.", Integer.valueOf(23))
+      );
+
+    final var stream = new ByteArrayOutputStream();
+    MXTaskExports.export(task, MXFormat.TEXT, stream);
+    assertEquals(
+      "Café\n\ntask:\n  [OK] Café: Done.\n",
+      stream.toString(UTF_8)
+    );
+  }
+
+  /**
+   * A task bundle contains the task as text and JSON, and the exceptions
+   * of the failed items.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBundle(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var task = task();
+    final var file = directory.resolve("bundle.zip");
+    MXTaskBundles.write(task, Optional.empty(), file);
+
+    final var entries = new HashMap<String, String>();
+    try (var zip = new ZipInputStream(Files.newInputStream(file))) {
+      for (var entry = zip.getNextEntry();
+           entry != null;
+           entry = zip.getNextEntry()) {
+        entries.put(entry.getName(), new String(zip.readAllBytes(), UTF_8));
+      }
+    }
+
+    assertEquals(3, entries.size());
+    assertEquals(export(task, MXFormat.TEXT), entries.get("task.txt"));
+    assertEquals(export(task, MXFormat.JSON), entries.get("task.json"));
+    assertTrue(entries.get("exceptions.txt")
+                 .contains("java.lang.IllegalStateException: Broken."));
+  }
+
+  /**
+   * A cancelled task bundle stops at the next entry.
+   *
+   * @param directory A temporary directory
+   */
+
+  @Test
+  public void testBundleCancelled(
+    @TempDir final Path directory)
+  {
+    final var file = directory.resolve("bundle.zip");
+    assertThrows(CancellationException.class, () -> {
+      MXTaskBundles.write(task(), Optional.empty(), file, () -> true);
+    });
+  }
+}
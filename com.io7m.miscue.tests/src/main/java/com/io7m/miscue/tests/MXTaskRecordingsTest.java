@@ -0,0 +1,557 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.export.MXFormat;
+import com.io7m.miscue.export.taskrecorder.MXTaskExports;
+import com.io7m.miscue.export.taskrecorder.MXTaskRecordingCompression;
+import com.io7m.miscue.export.taskrecorder.MXTaskRecordings;
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFile;
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingFormat;
+import com.io7m.miscue.export.taskrecorder.internal.MXTaskRecordingWriter;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.io7m.miscue.tests.MiscueTestTasks.step;
+import static com.io7m.miscue.tests.MiscueTestTasks.task;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MXTaskRecordingsTest
+{
+  private static final int HEADER_NODE_COUNT = 12;
+  private static final int HEADER_BLOCK_INDEX = 32;
+
+  /**
+   * A task of ten thousand steps spread over ten subtasks, with a failure
+   * every 997 steps: enough nodes to fill several blocks, with many
+   * repeated strings.
+   */
+
+  private static TRTask<Optional<?>> wideTask()
+  {
+    final var tasks = new ArrayList<TRTaskItemType>();
+    int number = 0;
+    for (int t = 0; t < 10; ++t) {
+      final var steps = new ArrayList<TRTaskItemType>();
+      for (int s = 0; s < 1000; ++s) {
+        steps.add(step("Step %d".formatted(s % 100), number % 997 == 996));
+        ++number;
+      }
+      tasks.add(task("Task %d".formatted(t), steps, t == 3));
+    }
+    return task("Root", tasks, true);
+  }
+
+  private static String json(
+    final TRTask<?> task)
+    throws IOException
+  {
+    final var writer = new StringWriter();
+    MXTaskExports.export(task, MXFormat.JSON, writer);
+    return writer.toString();
+  }
+
+  private static void writeInt(
+    final Path file,
+    final long position,
+    final int value)
+    throws IOException
+  {
+    try (var channel = FileChannel.open(file, WRITE)) {
+      channel.write(ByteBuffer.allocate(4).putInt(0, value), position);
+    }
+  }
+
+  private static void writeLong(
+    final Path file,
+    final long position,
+    final long value)
+    throws IOException
+  {
+    try (var channel = FileChannel.open(file, WRITE)) {
+      channel.write(ByteBuffer.allocate(8).putLong(0, value), position);
+    }
+  }
+
+  private static void checkRoundTripWide(
+    final MXTaskRecordingCompression compression,
+    final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    final var task = wideTask();
+    MXTaskRecordings.write(task, file, compression);
+    assertEquals(json(task), json(MXTaskRecordings.read(file)));
+  }
+
+  /**
+   * A tree that spans several blocks survives a round trip, with
+   * uncompressed blocks.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRoundTripWideUncompressed(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    checkRoundTripWide(MXTaskRecordingCompression.NONE, directory);
+  }
+
+  /**
+   * A tree that spans several blocks survives a round trip, with
+   * compressed blocks.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRoundTripWideDeflate(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    checkRoundTripWide(MXTaskRecordingCompression.DEFLATE, directory);
+  }
+
+  private static void checkRoundTripDeep(
+    final MXTaskRecordingCompression compression,
+    final Path directory)
+    throws Exception
+  {
+    var task = task("Leaf", List.of(step("Step", true)), true);
+    for (int index = 0; index < 100_000; ++index) {
+      task = task("Task %d".formatted(index % 10), List.of(task), true);
+    }
+
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(task, file, compression);
+    assertEquals(json(task), json(MXTaskRecordings.read(file)));
+
+    try (var recording = MXTaskRecordingFile.open(file)) {
+      final var last = recording.nodeCount() - 1;
+      assertEquals(100_002, recording.nodeCount());
+      assertEquals(100_001, recording.depth(last));
+      assertEquals(last - 1, recording.parent(last));
+      assertEquals(100_001, recording.failureCount());
+    }
+  }
+
+  /**
+   * A tree far deeper than a recursive traversal could handle survives a
+   * round trip, with uncompressed blocks.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRoundTripDeepUncompressed(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    checkRoundTripDeep(MXTaskRecordingCompression.NONE, directory);
+  }
+
+  /**
+   * A tree far deeper than a recursive traversal could handle survives a
+   * round trip, with compressed blocks.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRoundTripDeepDeflate(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    checkRoundTripDeep(MXTaskRecordingCompression.DEFLATE, directory);
+  }
+
+  private static void checkFile(
+    final MXTaskRecordingCompression compression,
+    final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, compression);
+
+    try (var recording = MXTaskRecordingFile.open(file)) {
+      assertEquals(10_011, recording.nodeCount());
+
+      /*
+       * Each of the 10,000 step descriptions is one of "Step 0-99", and
+       * the string table holds each distinct string once.
+       */
+
+      final var strings = new ArrayList<String>();
+      for (int index = 0; index < recording.stringCount(); ++index) {
+        strings.add(recording.string(index));
+      }
+      assertEquals(strings.size(), Set.copyOf(strings).size());
+      assertTrue(strings.size() < 150);
+      assertTrue(strings.contains("Step 99"));
+      assertTrue(strings.contains("Failed Task 3"));
+
+      assertEquals(-1, recording.parent(0));
+      assertEquals(10_011, recording.end(0));
+      assertEquals(0, recording.parent(1));
+      assertEquals(1002, recording.end(1));
+      assertEquals(2, recording.depth(2));
+      assertEquals("Step 0", recording.string(recording.description(2)));
+      assertEquals("Task 9", recording.string(recording.description(9010)));
+
+      /*
+       * Steps 996, 1993, ... failed, as did task 3. Each task holds 1000
+       * steps and is preceded by its own node.
+       */
+
+      final var failures = new ArrayList<Integer>();
+      for (int index = 0; index < recording.failureCount(); ++index) {
+        failures.add(Integer.valueOf(recording.failure(index)));
+      }
+
+      final var expected = new ArrayList<Integer>();
+      for (int number = 996; number < 10_000; number += 997) {
+        final var t = number / 1000;
+        final var node = 1 + t * 1001 + 1 + number % 1000;
+        if (t == 3 && !expected.contains(Integer.valueOf(3004))) {
+          expected.add(Integer.valueOf(3004));
+        }
+        expected.add(Integer.valueOf(node));
+      }
+      assertEquals(expected, failures);
+
+      final var failedStep = failures.get(0).intValue();
+      assertEquals(
+        MXTaskRecordingFormat.KIND_FAILED
+        | MXTaskRecordingFormat.KIND_FAILURE_PATH,
+        recording.kind(failedStep));
+      assertEquals(
+        MXTaskRecordingFormat.KIND_TASK
+        | MXTaskRecordingFormat.KIND_FAILED
+        | MXTaskRecordingFormat.KIND_FAILURE_PATH,
+        recording.kind(0));
+      assertEquals(
+        MXTaskRecordingFormat.KIND_TASK
+        | MXTaskRecordingFormat.KIND_FAILURE_PATH,
+        recording.kind(1));
+      assertEquals(0, recording.kind(2));
+    }
+  }
+
+  /**
+   * The structure, strings and failures of a recording can be read
+   * directly from the mapped file, with uncompressed blocks.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testFileUncompressed(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    checkFile(MXTaskRecordingCompression.NONE, directory);
+  }
+
+  /**
+   * The structure, strings and failures of a recording can be read
+   * directly from the mapped file, with compressed blocks.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testFileDeflate(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    checkFile(MXTaskRecordingCompression.DEFLATE, directory);
+  }
+
+  /**
+   * Compressed recordings of repetitive trees are much smaller.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCompressionSmaller(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var plain = directory.resolve("plain.mtr");
+    final var deflated = directory.resolve("deflated.mtr");
+    MXTaskRecordingWriter.write(wideTask(), plain, false);
+    MXTaskRecordingWriter.write(wideTask(), deflated, true);
+    assertTrue(Files.size(deflated) * 4 < Files.size(plain));
+  }
+
+  /**
+   * A closed file cannot be read.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testClosed(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, MXTaskRecordingCompression.NONE);
+
+    final var recording = MXTaskRecordingFile.open(file);
+    recording.close();
+    recording.close();
+    assertThrows(IllegalStateException.class, () -> recording.parent(1));
+    assertThrows(IllegalStateException.class, () -> recording.string(0));
+
+    Files.delete(file);
+  }
+
+  /**
+   * Truncated files are rejected.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testTruncatedHeader(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, MXTaskRecordingCompression.NONE);
+    try (var channel = FileChannel.open(file, WRITE)) {
+      channel.truncate(MXTaskRecordingFormat.HEADER_SIZE - 1);
+    }
+
+    final var ex =
+      assertThrows(IOException.class, () -> MXTaskRecordings.read(file));
+    assertTrue(ex.getMessage().contains("Not a task recording file."));
+  }
+
+  /**
+   * Files truncated after the header are rejected.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testTruncatedBody(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, MXTaskRecordingCompression.NONE);
+    try (var channel = FileChannel.open(file, WRITE)) {
+      channel.truncate(channel.size() / 2);
+    }
+
+    final var ex =
+      assertThrows(IOException.class, () -> MXTaskRecordingFile.open(file));
+    assertTrue(ex.getMessage().contains("corrupt"));
+  }
+
+  /**
+   * Files with the wrong magic number are rejected.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBadMagic(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, MXTaskRecordingCompression.NONE);
+    writeInt(file, 0L, 0x7F454C46);
+
+    final var ex =
+      assertThrows(IOException.class, () -> MXTaskRecordingFile.open(file));
+    assertTrue(ex.getMessage().contains("Not a task recording file."));
+  }
+
+  /**
+   * Files with an unsupported version are rejected.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBadVersion(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, MXTaskRecordingCompression.NONE);
+    writeInt(file, 4L, MXTaskRecordingFormat.VERSION + 1);
+
+    final var ex =
+      assertThrows(IOException.class, () -> MXTaskRecordingFile.open(file));
+    assertTrue(ex.getMessage().contains("Unsupported format version"));
+  }
+
+  /**
+   * Files with a node count that does not match the block count are
+   * rejected.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBadNodeCount(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, MXTaskRecordingCompression.NONE);
+    writeInt(file, HEADER_NODE_COUNT, 1_000_000);
+
+    final var ex =
+      assertThrows(IOException.class, () -> MXTaskRecordingFile.open(file));
+    assertTrue(ex.getMessage().contains("The file header is corrupt."));
+  }
+
+  /**
+   * Files with a block index outside the file are rejected.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBadBlockIndex(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, MXTaskRecordingCompression.NONE);
+    writeLong(file, HEADER_BLOCK_INDEX, Files.size(file));
+
+    final var ex =
+      assertThrows(IOException.class, () -> MXTaskRecordingFile.open(file));
+    assertTrue(ex.getMessage().contains("The block index is corrupt."));
+  }
+
+  /**
+   * Damaged compressed blocks are reported as corruption when read.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBadBlock(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(
+      wideTask(), file, MXTaskRecordingCompression.DEFLATE);
+
+    final long blockStart;
+    try (var channel = FileChannel.open(file, READ)) {
+      final var buffer = ByteBuffer.allocate(8);
+      channel.read(buffer, HEADER_BLOCK_INDEX);
+      final var index = buffer.getLong(0);
+      buffer.clear();
+      channel.read(buffer, index);
+      blockStart = buffer.getLong(0);
+    }
+    writeLong(file, blockStart, 0xFFFF_FFFF_FFFF_FFFFL);
+    writeLong(file, blockStart + 8L, 0xFFFF_FFFF_FFFF_FFFFL);
+
+    final var ex =
+      assertThrows(IOException.class, () -> MXTaskRecordings.read(file));
+    assertTrue(ex.getMessage().contains("The file is corrupt."));
+  }
+
+  /**
+   * Files larger than a single mapping can hold are rejected without being
+   * mapped.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testTooLarge(
+    @TempDir final Path directory)
+    throws Exception
+  {
+    final var file = directory.resolve("task.mtr");
+    MXTaskRecordings.write(wideTask(), file, MXTaskRecordingCompression.NONE);
+    try (var raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(Integer.MAX_VALUE + 1L);
+    }
+
+    final var ex =
+      assertThrows(IOException.class, () -> MXTaskRecordingFile.open(file));
+    assertTrue(ex.getMessage().contains("larger than 2GiB"));
+  }
+}
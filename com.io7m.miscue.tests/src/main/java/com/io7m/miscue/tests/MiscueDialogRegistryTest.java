@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.core.MiscueDialogResult;
+import com.io7m.miscue.core.MiscueDialogType;
+import com.io7m.miscue.core.MiscueEvictionPolicy;
+import com.io7m.miscue.core.internal.MiscueDialogRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class MiscueDialogRegistryTest
+{
+  private static final class FakeDialog implements MiscueDialogType
+  {
+    private final String name;
+    private final List<String> events;
+    private final MiscueDialogRegistry registry;
+
+    FakeDialog(
+      final String inName,
+      final List<String> inEvents,
+      final MiscueDialogRegistry inRegistry)
+    {
+      this.name = inName;
+      this.events = inEvents;
+      this.registry = inRegistry;
+    }
+
+    @Override
+    public void show()
+    {
+      this.registry.opened(this, this::minimise);
+    }
+
+    @Override
+    public void showAndWait()
+    {
+      this.show();
+    }
+
+    @Override
+    public CompletionStage<MiscueDialogResult> showAsync()
+    {
+      this.show();
+      return new CompletableFuture<>();
+    }
+
+    @Override
+    public void close()
+    {
+      this.events.add("close " + this.name);
+      this.registry.closed(this);
+    }
+
+    @Override
+    public void dispose()
+    {
+      this.close();
+    }
+
+    private void minimise()
+    {
+      this.events.add("minimise " + this.name);
+    }
+  }
+
+  /**
+   * Opening a dialog past the limit closes the least recently focused one.
+   */
+
+  @Test
+  public void testEvictClose()
+  {
+    final var registry = new MiscueDialogRegistry();
+    final var events = new ArrayList<String>();
+    registry.setLimit(2);
+
+    final var a = new FakeDialog("a", events, registry);
+    final var b = new FakeDialog("b", events, registry);
+    final var c = new FakeDialog("c", events, registry);
+
+    a.show();
+    b.show();
+    registry.focused(a);
+    c.show();
+
+    assertEquals(List.of("close b"), events);
+    assertEquals(2, registry.openCount());
+    assertEquals(0, registry.minimisedCount());
+  }
+
+  /**
+   * Evicted dialogs can be minimised instead, and count as open again when
+   * they are focused.
+   */
+
+  @Test
+  public void testEvictMinimise()
+  {
+    final var registry = new MiscueDialogRegistry();
+    final var events = new ArrayList<String>();
+    registry.setLimit(2);
+    registry.setEvictionPolicy(MiscueEvictionPolicy.MINIMISE);
+
+    final var a = new FakeDialog("a", events, registry);
+    final var b = new FakeDialog("b", events, registry);
+    final var c = new FakeDialog("c", events, registry);
+
+    a.show();
+    b.show();
+    c.show();
+
+    assertEquals(List.of("minimise a"), events);
+    assertEquals(2, registry.openCount());
+    assertEquals(1, registry.minimisedCount());
+
+    registry.focused(a);
+    assertEquals(List.of("minimise a", "minimise b"), events);
+    assertEquals(2, registry.openCount());
+    assertEquals(1, registry.minimisedCount());
+
+    b.close();
+    assertEquals(2, registry.openCount());
+    assertEquals(0, registry.minimisedCount());
+  }
+
+  /**
+   * Minimised dialogs past the minimised limit are closed, oldest first.
+   */
+
+  @Test
+  public void testEvictMinimiseLimit()
+  {
+    final var registry = new MiscueDialogRegistry();
+    final var events = new ArrayList<String>();
+    registry.setLimit(1);
+    registry.setMinimisedLimit(2);
+    registry.setEvictionPolicy(MiscueEvictionPolicy.MINIMISE);
+
+    final var a = new FakeDialog("a", events, registry);
+    final var b = new FakeDialog("b", events, registry);
+    final var c = new FakeDialog("c", events, registry);
+    final var d = new FakeDialog("d", events, registry);
+
+    a.show();
+    b.show();
+    c.show();
+    assertEquals(List.of("minimise a", "minimise b"), events);
+    assertEquals(2, registry.minimisedCount());
+
+    d.show();
+    assertEquals(
+      List.of("minimise a", "minimise b", "minimise c", "close a"),
+      events
+    );
+    assertEquals(1, registry.openCount());
+    assertEquals(2, registry.minimisedCount());
+  }
+}
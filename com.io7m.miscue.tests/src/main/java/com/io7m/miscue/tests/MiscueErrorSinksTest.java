@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.core.MiscueErrorSinkPolicy;
+import com.io7m.miscue.core.MiscueErrorSinks;
+import com.io7m.miscue.core.internal.MiscuePulseScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MiscueErrorSinksTest
+{
+  private static void runAll(
+    final ArrayDeque<Runnable> tasks)
+  {
+    while (!tasks.isEmpty()) {
+      tasks.poll().run();
+    }
+  }
+
+  /**
+   * Errors are delivered in order, in bounded batches, by one scheduled task
+   * at a time.
+   */
+
+  @Test
+  public void testBatches()
+  {
+    final var tasks = new ArrayDeque<Runnable>();
+    final var received = new ArrayList<Integer>();
+    final var sink =
+      MiscueErrorSinks.<Integer>builder(
+          (error, occurrences) -> received.add(error),
+          tasks::add)
+        .setBatchSize(32)
+        .build();
+
+    for (int index = 0; index < 100; ++index) {
+      assertTrue(sink.submit(Integer.valueOf(index)));
+    }
+    assertEquals(1, tasks.size());
+    assertEquals(100, sink.pending());
+
+    tasks.poll().run();
+    assertEquals(32, received.size());
+    assertEquals(1, tasks.size());
+
+    runAll(tasks);
+    assertEquals(IntStream.range(0, 100).boxed().toList(), received);
+    assertEquals(0, sink.pending());
+    assertEquals(0L, sink.dropped());
+  }
+
+  /**
+   * With the pulse scheduler, the timer is started once for a storm of
+   * errors, and each pulse delivers at most one batch.
+   */
+
+  @Test
+  public void testPulseBatches()
+  {
+    final var starts = new ArrayList<Runnable>();
+    final var scheduler = new MiscuePulseScheduler(starts::add);
+    final var received = new ArrayList<Integer>();
+    final var sink =
+      MiscueErrorSinks.<Integer>builder(
+          (error, occurrences) -> received.add(error),
+          scheduler)
+        .setBatchSize(32)
+        .build();
+
+    for (int index = 0; index < 100; ++index) {
+      assertTrue(sink.submit(Integer.valueOf(index)));
+    }
+    assertEquals(1, starts.size());
+
+    final var sizes = new ArrayList<Integer>();
+    while (scheduler.runOne()) {
+      sizes.add(Integer.valueOf(received.size()));
+    }
+    assertEquals(List.of(32, 64, 96, 100), sizes);
+    assertEquals(IntStream.range(0, 100).boxed().toList(), received);
+    assertEquals(1, starts.size());
+  }
+
+  /**
+   * The oldest errors are discarded when the sink is full.
+   */
+
+  @Test
+  public void testDropOldest()
+  {
+    final var tasks = new ArrayDeque<Runnable>();
+    final var received = new ArrayList<Integer>();
+    final var sink =
+      MiscueErrorSinks.<Integer>builder(
+          (error, occurrences) -> received.add(error),
+          tasks::add)
+        .setPolicy(MiscueErrorSinkPolicy.DROP_OLDEST)
+        .setCapacity(4)
+        .build();
+
+    for (int index = 0; index < 10; ++index) {
+      assertTrue(sink.submit(Integer.valueOf(index)));
+    }
+
+    runAll(tasks);
+    assertEquals(List.of(6, 7, 8, 9), received);
+    assertEquals(6L, sink.dropped());
+  }
+
+  /**
+   * The newest errors are discarded when the sink is full.
+   */
+
+  @Test
+  public void testDropNewest()
+  {
+    final var tasks = new ArrayDeque<Runnable>();
+    final var received = new ArrayList<Integer>();
+    final var sink =
+      MiscueErrorSinks.<Integer>builder(
+          (error, occurrences) -> received.add(error),
+          tasks::add)
+        .setPolicy(MiscueErrorSinkPolicy.DROP_NEWEST)
+        .setCapacity(4)
+        .build();
+
+    for (int index = 0; index < 4; ++index) {
+      assertTrue(sink.submit(Integer.valueOf(index)));
+    }
+    assertFalse(sink.submit(Integer.valueOf(4)));
+
+    runAll(tasks);
+    assertEquals(List.of(0, 1, 2, 3), received);
+    assertEquals(1L, sink.dropped());
+  }
+
+  /**
+   * Duplicate errors are delivered once, with a count of their occurrences.
+   */
+
+  @Test
+  public void testCoalesce()
+  {
+    final var tasks = new ArrayDeque<Runnable>();
+    final var received = new ArrayList<String>();
+    final var sink =
+      MiscueErrorSinks.<String>builder(
+          (error, occurrences) -> received.add(error + " " + occurrences),
+          tasks::add)
+        .setPolicy(MiscueErrorSinkPolicy.COALESCE)
+        .setCapacity(16)
+        .build();
+
+    for (int index = 0; index < 50; ++index) {
+      assertTrue(sink.submit("a"));
+    }
+    assertTrue(sink.submit("b"));
+    assertTrue(sink.submit("b"));
+    assertEquals(2, sink.pending());
+
+    runAll(tasks);
+    assertEquals(List.of("a 50", "b 2"), received);
+    assertEquals(50L, sink.coalesced());
+
+    assertTrue(sink.submit("a"));
+    runAll(tasks);
+    assertEquals(List.of("a 50", "b 2", "a 1"), received);
+  }
+
+  /**
+   * Errors submitted concurrently by many threads to a blocking sink are
+   * all delivered exactly once.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testConcurrentBlocking()
+    throws Exception
+  {
+    final var threadCount = 8;
+    final var perThread = 10_000;
+    final var tasks = new LinkedBlockingQueue<Runnable>();
+    final var seen = new boolean[threadCount * perThread];
+    final var received = new int[1];
+    final var sink =
+      MiscueErrorSinks.<Integer>builder(
+          (error, occurrences) -> {
+            assertFalse(seen[error.intValue()]);
+            seen[error.intValue()] = true;
+            ++received[0];
+          },
+          tasks::add)
+        .setPolicy(MiscueErrorSinkPolicy.BLOCK)
+        .setCapacity(64)
+        .build();
+
+    final var threads = new ArrayList<Thread>();
+    for (int thread = 0; thread < threadCount; ++thread) {
+      final var base = thread * perThread;
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int index = 0; index < perThread; ++index) {
+          sink.submit(Integer.valueOf(base + index));
+        }
+      }));
+    }
+
+    final var deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1L);
+    while (received[0] < seen.length && System.nanoTime() < deadline) {
+      final var task = tasks.poll(10L, TimeUnit.MILLISECONDS);
+      if (task != null) {
+        task.run();
+      }
+    }
+    for (final var thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(seen.length, received[0]);
+    assertEquals(0L, sink.dropped());
+  }
+}
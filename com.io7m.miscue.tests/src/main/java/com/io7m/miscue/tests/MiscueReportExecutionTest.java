@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.core.internal.MiscueReportExecution;
+import com.io7m.miscue.core.MiscueReportTaskType;
+import com.io7m.miscue.core.internal.MiscueReportListenerType;
+import com.io7m.miscue.core.internal.MiscueReporting;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MiscueReportExecutionTest
+{
+  private static final class Events implements MiscueReportListenerType
+  {
+    private final List<String> events;
+    private final CountDownLatch finished;
+
+    Events()
+    {
+      this.events = new ArrayList<>();
+      this.finished = new CountDownLatch(1);
+    }
+
+    @Override
+    public void onReportProgress(
+      final MiscueReportExecution execution,
+      final double fraction,
+      final String message)
+    {
+      this.events.add("progress %s %s".formatted(fraction, message));
+    }
+
+    @Override
+    public void onReportFinished(
+      final MiscueReportExecution execution,
+      final Optional<Throwable> failure,
+      final boolean cancelled)
+    {
+      this.events.add(
+        "finished %s %s".formatted(
+          failure.map(Throwable::getMessage).orElse("ok"),
+          cancelled)
+      );
+      this.finished.countDown();
+    }
+  }
+
+  /**
+   * Progress updates made while an update is waiting for the UI thread
+   * replace the waiting update, and completion is delivered last.
+   */
+
+  @Test
+  public void testProgressCoalesced()
+  {
+    final var events = new Events();
+    final var ui = new ArrayList<Runnable>();
+
+    MiscueReportExecution.start(
+      (subject, progress) -> {
+        for (int index = 0; index <= 10; ++index) {
+          progress.setProgress(index / 10.0, subject);
+        }
+      },
+      () -> "x",
+      Runnable::run,
+      ui::add,
+      events
+    );
+
+    assertEquals(2, ui.size());
+    ui.forEach(Runnable::run);
+    assertEquals(
+      List.of("progress 1.0 x", "finished ok false"),
+      events.events
+    );
+  }
+
+  /**
+   * A failing task reports its failure.
+   */
+
+  @Test
+  public void testFailure()
+  {
+    final var events = new Events();
+
+    MiscueReportExecution.start(
+      (subject, progress) -> {
+        throw new IOException("Failed " + subject);
+      },
+      () -> "x",
+      Runnable::run,
+      Runnable::run,
+      events
+    );
+
+    assertEquals(List.of("finished Failed x false"), events.events);
+  }
+
+  /**
+   * A task that throws an error, rather than an exception, still reports
+   * its failure.
+   */
+
+  @Test
+  public void testFailureError()
+  {
+    final var events = new Events();
+
+    MiscueReportExecution.start(
+      (subject, progress) -> {
+        throw new LinkageError("Broken " + subject);
+      },
+      () -> "x",
+      Runnable::run,
+      Runnable::run,
+      events
+    );
+
+    assertEquals(List.of("finished Broken x false"), events.events);
+  }
+
+  /**
+   * A task rejected by the executor reports the rejection as its failure.
+   */
+
+  @Test
+  public void testRejected()
+  {
+    final var events = new Events();
+    final var ui = new ArrayList<Runnable>();
+
+    final var execution =
+      MiscueReportExecution.start(
+        (subject, progress) -> { },
+        () -> "x",
+        runnable -> {
+          throw new RejectedExecutionException("Rejected");
+        },
+        ui::add,
+        events
+      );
+
+    assertEquals(1, ui.size());
+    ui.forEach(Runnable::run);
+    assertEquals(List.of("finished Rejected false"), events.events);
+    assertFalse(execution.isCancelled());
+  }
+
+  /**
+   * Failures without messages are described by their type.
+   */
+
+  @Test
+  public void testDescribe()
+  {
+    assertEquals(
+      "Failed",
+      MiscueReportExecution.describe(new IOException("Failed")));
+    assertEquals(
+      "java.lang.NullPointerException",
+      MiscueReportExecution.describe(new NullPointerException()));
+  }
+
+  /**
+   * Cancelling an execution interrupts the task, and the interruption is
+   * reported as a cancellation rather than a failure.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCancel()
+    throws Exception
+  {
+    final var events = new Events();
+    final var started = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      final var execution =
+        MiscueReportExecution.start(
+          (subject, progress) -> {
+            started.countDown();
+            Thread.sleep(60_000L);
+          },
+          () -> "x",
+          executor,
+          Runnable::run,
+          events
+        );
+
+      assertTrue(started.await(1L, TimeUnit.MINUTES));
+      execution.cancel();
+      assertTrue(events.finished.await(1L, TimeUnit.MINUTES));
+      assertTrue(execution.isCancelled());
+    }
+
+    assertEquals(List.of("finished ok true"), events.events);
+  }
+
+  /**
+   * A task factory is evaluated each time a report starts, and is
+   * preferred to a report task.
+   */
+
+  @Test
+  public void testTaskFactoryPreferred()
+  {
+    final MiscueReportTaskType<String> task =
+      (subject, progress) -> { };
+    final MiscueReportTaskType<String> produced =
+      (subject, progress) -> { };
+    final var calls = new ArrayList<String>();
+
+    final var plain =
+      new MiscueReporting<String>(
+        Optional.empty(),
+        Optional.of(task),
+        Runnable::run
+      );
+    assertSame(task, plain.startTask().orElseThrow());
+
+    final var factory =
+      new MiscueReporting<String>(
+        Optional.empty(),
+        Optional.of(task),
+        Runnable::run,
+        Optional.of(() -> {
+          calls.add("factory");
+          return produced;
+        })
+      );
+    assertTrue(factory.isEnabled());
+    assertEquals(List.of(), calls);
+    assertSame(produced, factory.startTask().orElseThrow());
+    assertSame(produced, factory.startTask().orElseThrow());
+    assertEquals(List.of("factory", "factory"), calls);
+
+    assertFalse(MiscueReporting.<String>none().startTask().isPresent());
+  }
+}
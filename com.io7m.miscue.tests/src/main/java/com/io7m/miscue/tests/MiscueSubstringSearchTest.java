@@ -0,0 +1,268 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.miscue.core.internal.MiscueSubstringIndex;
+import com.io7m.miscue.core.internal.MiscueSubstringSearch;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MiscueSubstringSearchTest
+{
+  private static final List<String> DOCUMENTS = List.of(
+    "Resolve dependencies",
+    "Download artifact",
+    "Download artifact checksum",
+    "Verify checksum",
+    "Compile sources",
+    "a",
+    "",
+    "ab",
+    "Größe prüfen",
+    "ПРИВЕТ мир",
+    "日本語のテキスト"
+  );
+
+  private static int[] expected(
+    final List<String> documents,
+    final String query)
+  {
+    final var lowered = query.toLowerCase(Locale.ROOT);
+    final var results = new ArrayList<Integer>();
+    for (int index = 0; index < documents.size(); ++index) {
+      if (documents.get(index).toLowerCase(Locale.ROOT).contains(lowered)) {
+        results.add(Integer.valueOf(index));
+      }
+    }
+    return results.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static int[] search(
+    final MiscueSubstringSearch search,
+    final String query)
+  {
+    final var delivered = new ArrayList<Integer>();
+    final var result =
+      search.search(query, () -> false, chunk -> {
+        for (final var document : chunk) {
+          delivered.add(Integer.valueOf(document));
+        }
+      }).orElseThrow();
+
+    assertArrayEquals(
+      result,
+      delivered.stream().mapToInt(Integer::intValue).toArray());
+    return result;
+  }
+
+  /**
+   * Queries shorter than a trigram cannot use the index, and match by
+   * checking every document.
+   */
+
+  @Test
+  public void testShortQueries()
+  {
+    final var index = MiscueSubstringIndex.create(DOCUMENTS);
+    assertTrue(index.candidates("a").isEmpty());
+    assertTrue(index.candidates("ab").isEmpty());
+    assertTrue(index.candidates("").isEmpty());
+
+    final var search = new MiscueSubstringSearch(index);
+    for (final var query : List.of("", "a", "A", "ab", "ü", "日本")) {
+      assertArrayEquals(expected(DOCUMENTS, query), search(search, query));
+    }
+  }
+
+  /**
+   * The candidates for a query include every document that contains it,
+   * and no candidates are produced for trigrams that appear nowhere.
+   */
+
+  @Test
+  public void testCandidates()
+  {
+    final var index = MiscueSubstringIndex.create(DOCUMENTS);
+
+    final var candidates = index.candidates("checksum").orElseThrow();
+    for (final var document : expected(DOCUMENTS, "checksum")) {
+      assertTrue(Arrays.stream(candidates).anyMatch(c -> c == document));
+    }
+    assertArrayEquals(new int[0], index.candidates("zzz").orElseThrow());
+  }
+
+  /**
+   * Searches narrow correctly as a query grows, and widen again when the
+   * query changes to one that does not contain the previous query.
+   */
+
+  @Test
+  public void testNarrowingAndChanging()
+  {
+    final var search =
+      new MiscueSubstringSearch(MiscueSubstringIndex.create(DOCUMENTS));
+
+    final var queries = List.of(
+      "d",
+      "do",
+      "dow",
+      "down",
+      "download a",
+      "download artifact c",
+      "download artifact",
+      "checksum",
+      "che",
+      "sum",
+      "Compile",
+      "ck"
+    );
+
+    for (final var query : queries) {
+      assertArrayEquals(
+        expected(DOCUMENTS, query),
+        search(search, query),
+        query);
+    }
+  }
+
+  /**
+   * Queries and documents are compared without regard to case, including
+   * non-ASCII text.
+   */
+
+  @Test
+  public void testCaseAndNonASCII()
+  {
+    final var search =
+      new MiscueSubstringSearch(MiscueSubstringIndex.create(DOCUMENTS));
+
+    assertArrayEquals(new int[]{8}, search(search, "GRÖ"));
+    assertArrayEquals(new int[]{8}, search(search, "PRÜFEN"));
+    assertArrayEquals(new int[]{9}, search(search, "привет"));
+    assertArrayEquals(new int[]{9}, search(search, "Т МИР"));
+    assertArrayEquals(new int[]{10}, search(search, "語のテ"));
+    assertArrayEquals(new int[]{0}, search(search, "RESOLVE"));
+    assertArrayEquals(new int[0], search(search, "語テ"));
+  }
+
+  /**
+   * Matches are delivered in ascending order, in more than one chunk for
+   * large document sets, and the delivered chunks are exactly the result.
+   */
+
+  @Test
+  public void testAscendingDelivery()
+  {
+    final var documents = new ArrayList<String>();
+    for (int index = 0; index < 20_000; ++index) {
+      documents.add("Step " + (index % 3 == 0 ? "match " : "other ") + index);
+    }
+
+    final var search =
+      new MiscueSubstringSearch(MiscueSubstringIndex.create(documents));
+
+    final var chunks = new ArrayList<int[]>();
+    final var result =
+      search.search("MATCH", () -> false, chunks::add).orElseThrow();
+
+    assertTrue(chunks.size() > 1);
+    final var delivered =
+      chunks.stream().flatMapToInt(Arrays::stream).toArray();
+    assertArrayEquals(result, delivered);
+    assertArrayEquals(expected(documents, "match"), result);
+    for (int index = 1; index < delivered.length; ++index) {
+      assertTrue(delivered[index - 1] < delivered[index]);
+    }
+  }
+
+  /**
+   * A cancelled search produces nothing, and delivers nothing.
+   */
+
+  @Test
+  public void testSearchCancelled()
+  {
+    final var search =
+      new MiscueSubstringSearch(MiscueSubstringIndex.create(DOCUMENTS));
+
+    final var delivered = new AtomicInteger();
+    final var result =
+      search.search("download", () -> true, chunk -> {
+        delivered.incrementAndGet();
+      });
+
+    assertTrue(result.isEmpty());
+    assertEquals(0, delivered.get());
+
+    /*
+     * A cancelled search is not remembered as the previous query.
+     */
+
+    assertArrayEquals(
+      expected(DOCUMENTS, "verify"),
+      search(search, "verify"));
+  }
+
+  /**
+   * A cancelled index build produces nothing, and reads no further
+   * documents once it has been cancelled.
+   */
+
+  @Test
+  public void testIndexCancelled()
+  {
+    final var reads = new AtomicInteger();
+    final var documents = new AbstractList<String>()
+    {
+      @Override
+      public String get(
+        final int index)
+      {
+        reads.incrementAndGet();
+        return "Document " + index;
+      }
+
+      @Override
+      public int size()
+      {
+        return 1000;
+      }
+    };
+
+    final var result =
+      MiscueSubstringIndex.create(documents, () -> reads.get() >= 10);
+    assertTrue(result.isEmpty());
+    assertEquals(10, reads.get());
+
+    reads.set(0);
+    final var index =
+      MiscueSubstringIndex.create(documents, () -> false).orElseThrow();
+    assertEquals(1000, index.size());
+    assertEquals(1000, reads.get());
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.miscue.tests;
+
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextInputControl;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Region;
+
+import java.util.TreeMap;
+
+/**
+ * Functions to describe scene graphs as text, so that a compiled view can
+ * be compared with the output of {@code FXMLLoader}.
+ */
+
+public final class MiscueTestScenes
+{
+  private MiscueTestScenes()
+  {
+
+  }
+
+  /**
+   * Describe the given node and its descendants, one line per node.
+   *
+   * @param node The node
+   *
+   * @return The description
+   */
+
+  public static String describe(
+    final Node node)
+  {
+    final var text = new StringBuilder(1024);
+    describeNode(text, node, 0);
+    return text.toString();
+  }
+
+  private static void describeNode(
+    final StringBuilder text,
+    final Node node,
+    final int depth)
+  {
+    text.append("  ".repeat(depth));
+    text.append(node.getClass().getName());
+    text.append(" id=").append(node.getId());
+    text.append(" style=").append(node.getStyleClass());
+    text.append(" properties=").append(new TreeMap<>(node.getProperties()));
+    text.append(" visible=").append(node.isVisible());
+    text.append(" disabled=").append(node.isDisable());
+
+    if (node instanceof final Region region) {
+      text.append(" min=").append(region.getMinWidth())
+        .append('x').append(region.getMinHeight());
+      text.append(" pref=").append(region.getPrefWidth())
+        .append('x').append(region.getPrefHeight());
+      text.append(" max=").append(region.getMaxWidth())
+        .append('x').append(region.getMaxHeight());
+    }
+    if (node instanceof final Labeled labeled) {
+      text.append(" text=").append(labeled.getText());
+    }
+    if (node instanceof final TextInputControl input) {
+      text.append(" editable=").append(input.isEditable());
+      text.append(" text=").append(input.getText());
+    }
+    if (node instanceof final ImageView view) {
+      text.append(" fit=").append(view.getFitWidth())
+        .append('x').append(view.getFitHeight());
+      final var image = view.getImage();
+      text.append(" image=").append(image == null ? null : image.getUrl());
+    }
+    if (node instanceof final TableView<?> table) {
+      text.append(" policy=").append(table.getColumnResizePolicy());
+      for (final TableColumn<?, ?> column : table.getColumns()) {
+        text.append(" column=[")
+          .append(column.getId()).append(' ')
+          .append(column.getText()).append(' ')
+          .append(column.getPrefWidth()).append(' ')
+          .append(column.isResizable()).append(' ')
+          .append(column.getStyleClass())
+          .append(']');
+      }
+    }
+    text.append('\n');
+
+    if (node instanceof final Parent parent) {
+      for (final var child : parent.getChildrenUnmodifiable()) {
+        describeNode(text, child, depth + 1);
+      }
+    }
+  }
+}
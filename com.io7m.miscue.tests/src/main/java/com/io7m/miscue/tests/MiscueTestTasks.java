@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.miscue.tests;
+
+import com.io7m.taskrecorder.core.TRStep;
+import com.io7m.taskrecorder.core.TRStepFailed;
+import com.io7m.taskrecorder.core.TRStepSucceeded;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskFailed;
+import com.io7m.taskrecorder.core.TRTaskItemType;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Functions to construct task trees for tests. Failed items have the
+ * message "Failed " followed by their description, and succeeded items
+ * have the message "OK".
+ */
+
+public final class MiscueTestTasks
+{
+  private MiscueTestTasks()
+  {
+
+  }
+
+  /**
+   * @param description The step description
+   * @param failed      {@code true} if the step failed
+   *
+   * @return A step
+   */
+
+  public static TRStep step(
+    final String description,
+    final boolean failed)
+  {
+    if (failed) {
+      return new TRStep(
+        description,
+        new TRStepFailed("Failed " + description, Optional.empty()));
+    }
+    return new TRStep(description, new TRStepSucceeded("OK"));
+  }
+
+  /**
+   * @param description The task description
+   * @param items       The task items
+   * @param failed      {@code true} if the task failed
+   *
+   * @return A task
+   */
+
+  public static TRTask<Optional<?>> task(
+    final String description,
+    final List<TRTaskItemType> items,
+    final boolean failed)
+  {
+    if (failed) {
+      return new TRTask<>(
+        description,
+        items,
+        new TRTaskFailed<>("Failed " + description, Optional.empty()));
+    }
+    return new TRTask<>(
+      description,
+      items,
+      new TRTaskSucceeded<>("OK", Optional.empty()));
+  }
+}
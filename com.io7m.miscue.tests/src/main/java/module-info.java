@@ -27,9 +27,14 @@ open module com.io7m.miscue.tests
   requires org.junit.platform.launcher;
 
   requires com.io7m.miscue.core;
+  requires com.io7m.miscue.export;
+  requires com.io7m.miscue.export.taskrecorder;
+  requires com.io7m.miscue.fx.compiler;
   requires com.io7m.miscue.fx.seltzer;
+  requires com.io7m.miscue.fx.taskrecorder;
 
   requires com.io7m.seltzer.api;
+  requires com.io7m.taskrecorder.core;
   requires com.io7m.xoanon.commander.api;
   requires com.io7m.xoanon.extension;
   requires javafx.controls;